@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.SessionScoped;
+import javax.enterprise.inject.se.SeContainer;
+import javax.enterprise.inject.se.SeContainerInitializer;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.spi.ContextsService;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base class for all benchmarks which need a running container.
+ * The container gets booted once per trial with the bean classes
+ * returned by {@link #getBeanClasses()} and without any classpath scanning.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class AbstractContainerBenchmark
+{
+    protected SeContainer container;
+    protected BeanManager beanManager;
+    protected WebBeansContext webBeansContext;
+
+    @Setup(Level.Trial)
+    public void startContainer()
+    {
+        container = SeContainerInitializer.newInstance()
+            .disableDiscovery()
+            .addBeanClasses(getBeanClasses())
+            .initialize();
+        beanManager = container.getBeanManager();
+        webBeansContext = WebBeansContext.currentInstance();
+        onStart();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContainer()
+    {
+        container.close();
+    }
+
+    /**
+     * @return the bean classes to deploy
+     */
+    protected abstract Class<?>[] getBeanClasses();
+
+    /**
+     * Callback after the container got started, e.g. to look up the beans used by the benchmark.
+     */
+    protected void onStart()
+    {
+        // no-op by default
+    }
+
+    protected <T> Bean<T> getBean(Class<T> type)
+    {
+        return (Bean<T>) beanManager.resolve(beanManager.getBeans(type));
+    }
+
+    protected <T> T getReference(Class<T> type)
+    {
+        Bean<T> bean = getBean(type);
+        return (T) beanManager.getReference(bean, type, beanManager.createCreationalContext(bean));
+    }
+
+    /**
+     * The request and session contexts are bound to the current thread,
+     * so each benchmark thread needs to start its own ones.
+     * This happens per iteration as iteration level setups only run after
+     * all trial level setups, including the container boot.
+     */
+    @State(Scope.Thread)
+    public static class ActiveContexts
+    {
+        private ContextsService contextsService;
+
+        @Setup(Level.Iteration)
+        public void startContexts()
+        {
+            contextsService = WebBeansContext.currentInstance().getContextsService();
+            contextsService.startContext(SessionScoped.class, null);
+            contextsService.startContext(RequestScoped.class, null);
+        }
+
+        @TearDown(Level.Iteration)
+        public void stopContexts()
+        {
+            contextsService.endContext(RequestScoped.class, null);
+            contextsService.endContext(SessionScoped.class, null);
+        }
+    }
+}
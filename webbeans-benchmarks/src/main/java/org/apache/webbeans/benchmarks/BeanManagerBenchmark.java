@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmarks;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.Set;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.util.AnnotationLiteral;
+import javax.inject.Qualifier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Bean resolution and contextual reference lookup via the BeanManager.
+ */
+public class BeanManagerBenchmark extends AbstractContainerBenchmark
+{
+    private static final Fast FAST = new FastLiteral();
+
+    private Bean<DefaultService> defaultServiceBean;
+    private Bean<Plain> plainBean;
+
+    @Override
+    protected Class<?>[] getBeanClasses()
+    {
+        return new Class<?>[]{DefaultService.class, FastService.class, Plain.class};
+    }
+
+    @Override
+    protected void onStart()
+    {
+        defaultServiceBean = getBean(DefaultService.class);
+        plainBean = getBean(Plain.class);
+    }
+
+    @Benchmark
+    public Set<Bean<?>> getBeans()
+    {
+        return beanManager.getBeans(Service.class);
+    }
+
+    @Benchmark
+    public Set<Bean<?>> getBeansWithQualifier()
+    {
+        return beanManager.getBeans(Service.class, FAST);
+    }
+
+    @Benchmark
+    public Bean<?> resolve()
+    {
+        return beanManager.resolve(beanManager.getBeans(Service.class));
+    }
+
+    @Benchmark
+    public Object getReferenceNormalScoped()
+    {
+        CreationalContext<DefaultService> creationalContext = beanManager.createCreationalContext(defaultServiceBean);
+        return beanManager.getReference(defaultServiceBean, Service.class, creationalContext);
+    }
+
+    @Benchmark
+    public Object getReferenceDependent()
+    {
+        CreationalContext<Plain> creationalContext = beanManager.createCreationalContext(plainBean);
+        return beanManager.getReference(plainBean, Plain.class, creationalContext);
+    }
+
+    public interface Service
+    {
+        String name();
+    }
+
+    @Qualifier
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Fast
+    {
+    }
+
+    public static class FastLiteral extends AnnotationLiteral<Fast> implements Fast
+    {
+    }
+
+    @ApplicationScoped
+    public static class DefaultService implements Service
+    {
+        @Override
+        public String name()
+        {
+            return "default";
+        }
+    }
+
+    @Fast
+    @ApplicationScoped
+    public static class FastService implements Service
+    {
+        @Override
+        public String name()
+        {
+            return "fast";
+        }
+    }
+
+    public static class Plain
+    {
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmarks;
+
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks configured via system properties, which is what the
+ * run-benchmarks maven profile does.
+ * Additional JMH command line arguments can be passed as program arguments.
+ *
+ * <ul>
+ *     <li>jmh.benchmarks: regular expression of the benchmarks to run, all by default</li>
+ *     <li>jmh.excludes: regular expression of the benchmarks to skip</li>
+ *     <li>jmh.threads: number of benchmark threads or 'max' for one thread per CPU</li>
+ *     <li>jmh.forks: number of forked JVMs</li>
+ *     <li>jmh.warmupIterations and jmh.iterations: number of warmup and measurement iterations</li>
+ *     <li>jmh.profilers: comma separated profiler names or classes, e.g. 'gc'</li>
+ *     <li>jmh.result: the JSON result file, jmh-result.json by default</li>
+ * </ul>
+ *
+ * Empty or missing properties keep the settings of the benchmark annotations.
+ * Setting them overrides the annotations of all selected benchmarks, so the
+ * {@link BootBenchmark} should be excluded when running with multiple threads.
+ */
+public final class BenchmarkRunner
+{
+    private BenchmarkRunner()
+    {
+        // main only
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException
+    {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .include(getProperty("jmh.benchmarks", ".*"))
+            .resultFormat(ResultFormatType.JSON)
+            .result(getProperty("jmh.result", "jmh-result.json"));
+
+        String excludes = getProperty("jmh.excludes", null);
+        if (excludes != null)
+        {
+            options.exclude(excludes);
+        }
+        String threads = getProperty("jmh.threads", null);
+        if (threads != null)
+        {
+            options.threads("max".equalsIgnoreCase(threads) ? Threads.MAX : Integer.parseInt(threads));
+        }
+        String forks = getProperty("jmh.forks", null);
+        if (forks != null)
+        {
+            options.forks(Integer.parseInt(forks));
+        }
+        String warmupIterations = getProperty("jmh.warmupIterations", null);
+        if (warmupIterations != null)
+        {
+            options.warmupIterations(Integer.parseInt(warmupIterations));
+        }
+        String iterations = getProperty("jmh.iterations", null);
+        if (iterations != null)
+        {
+            options.measurementIterations(Integer.parseInt(iterations));
+        }
+
+        String profilers = getProperty("jmh.profilers", "");
+        for (String profiler : profilers.split(","))
+        {
+            profiler = profiler.trim();
+            if ("gc".equals(profiler))
+            {
+                options.addProfiler(GCProfiler.class);
+            }
+            else if (!profiler.isEmpty())
+            {
+                options.addProfiler(profiler);
+            }
+        }
+
+        new Runner(options.build()).run();
+    }
+
+    private static String getProperty(String key, String defaultValue)
+    {
+        String value = System.getProperty(key);
+        if (value == null || value.trim().isEmpty())
+        {
+            return defaultValue;
+        }
+        return value.trim();
+    }
+}
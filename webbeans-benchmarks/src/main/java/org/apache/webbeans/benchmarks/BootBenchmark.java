@@ -0,0 +1,73 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.inject.se.SeContainer;
+import javax.enterprise.inject.se.SeContainerInitializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Boot and shutdown of a container with the beans of all the other benchmarks.
+ * Only a single thread boots containers as they share the same ClassLoader.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 20)
+@Threads(1)
+@Fork(1)
+public class BootBenchmark
+{
+    private static final Class<?>[] BEAN_CLASSES =
+    {
+        BeanManagerBenchmark.DefaultService.class, BeanManagerBenchmark.FastService.class, BeanManagerBenchmark.Plain.class,
+        NormalScopeProxyBenchmark.ApplicationCounter.class, NormalScopeProxyBenchmark.RequestCounter.class,
+        NormalScopeProxyBenchmark.SessionCounter.class,
+        InterceptionBenchmark.PlainCalculator.class, InterceptionBenchmark.InterceptedCalculator.class,
+        InterceptionBenchmark.DecoratedCalculator.class, InterceptionBenchmark.InterceptedAndDecoratedCalculator.class,
+        InterceptionBenchmark.CountingInterceptor.class, InterceptionBenchmark.DoublingDecorator.class,
+        EventBenchmark.Observer1.class, EventBenchmark.Observer2.class, EventBenchmark.Observer3.class,
+        InstanceBenchmark.Holder.class, InstanceBenchmark.Plain.class, InstanceBenchmark.Destroyable.class,
+        InstanceBenchmark.Service.class,
+        RequestContextBenchmark.RequestData.class,
+        ELResolverBenchmark.ApplicationBean.class, ELResolverBenchmark.RequestBean.class,
+        ELResolverBenchmark.DependentBean.class
+    };
+
+    @Benchmark
+    public SeContainer bootAndShutdown()
+    {
+        SeContainer container = SeContainerInitializer.newInstance()
+            .disableDiscovery()
+            .addBeanClasses(BEAN_CLASSES)
+            .initialize();
+        container.close();
+        return container;
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmarks;
+
+import javax.el.ELContext;
+import javax.el.ELResolver;
+import javax.el.FunctionMapper;
+import javax.el.VariableMapper;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Named;
+
+import org.apache.webbeans.el.ELContextStore;
+import org.apache.webbeans.el22.WebBeansELResolver;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Resolution of EL names like &#035;{applicationBean} as done by JSF and JSP.
+ * The per-request store of resolved beans gets cleared after each lookup,
+ * so each lookup resolves the bean by its name again.
+ */
+public class ELResolverBenchmark extends AbstractContainerBenchmark
+{
+    private ELResolver resolver;
+
+    @Override
+    protected Class<?>[] getBeanClasses()
+    {
+        return new Class<?>[]{ApplicationBean.class, RequestBean.class, DependentBean.class};
+    }
+
+    @Override
+    protected void onStart()
+    {
+        resolver = new WebBeansELResolver();
+    }
+
+    @Benchmark
+    public Object applicationScoped()
+    {
+        return resolve("applicationBean");
+    }
+
+    @Benchmark
+    public Object requestScoped(ActiveContexts contexts)
+    {
+        return resolve("requestBean");
+    }
+
+    @Benchmark
+    public Object dependent()
+    {
+        return resolve("dependentBean");
+    }
+
+    @Benchmark
+    public Object unknownName()
+    {
+        return resolve("unknown");
+    }
+
+    private Object resolve(String name)
+    {
+        try
+        {
+            return resolver.getValue(new SimpleELContext(), null, name);
+        }
+        finally
+        {
+            ELContextStore store = ELContextStore.getInstance(false);
+            if (store != null)
+            {
+                store.destroyELContextStore();
+            }
+        }
+    }
+
+    /**
+     * The WebBeansELResolver only needs an ELContext to mark the property as resolved.
+     */
+    private static class SimpleELContext extends ELContext
+    {
+        @Override
+        public ELResolver getELResolver()
+        {
+            return null;
+        }
+
+        @Override
+        public FunctionMapper getFunctionMapper()
+        {
+            return null;
+        }
+
+        @Override
+        public VariableMapper getVariableMapper()
+        {
+            return null;
+        }
+    }
+
+    @Named
+    @ApplicationScoped
+    public static class ApplicationBean
+    {
+    }
+
+    @Named
+    @RequestScoped
+    public static class RequestBean
+    {
+    }
+
+    @Named
+    public static class DependentBean
+    {
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.ObservesAsync;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Synchronous and asynchronous event delivery to a varying number of observer beans.
+ * Each observer bean has one synchronous and one asynchronous observer method.
+ */
+public class EventBenchmark extends AbstractContainerBenchmark
+{
+    private static final Class<?>[] OBSERVERS =
+    {
+        Observer1.class, Observer2.class, Observer3.class, Observer4.class, Observer5.class,
+        Observer6.class, Observer7.class, Observer8.class, Observer9.class, Observer10.class
+    };
+
+    @Param({"0", "1", "10"})
+    public int observers;
+
+    private Event<Payload> event;
+    private Payload payload;
+
+    @Override
+    protected Class<?>[] getBeanClasses()
+    {
+        return Arrays.copyOf(OBSERVERS, observers);
+    }
+
+    @Override
+    protected void onStart()
+    {
+        event = beanManager.getEvent().select(Payload.class);
+        payload = new Payload();
+    }
+
+    @Benchmark
+    public Payload fire()
+    {
+        event.fire(payload);
+        return payload;
+    }
+
+    @Benchmark
+    public Payload fireAsync()
+    {
+        return event.fireAsync(payload).toCompletableFuture().join();
+    }
+
+    public static class Payload
+    {
+        private final AtomicInteger deliveries = new AtomicInteger();
+
+        public void delivered()
+        {
+            deliveries.incrementAndGet();
+        }
+    }
+
+    public abstract static class AbstractObserver
+    {
+        public void observe(@Observes Payload payload)
+        {
+            payload.delivered();
+        }
+
+        public void observeAsync(@ObservesAsync Payload payload)
+        {
+            payload.delivered();
+        }
+    }
+
+    @ApplicationScoped
+    public static class Observer1 extends AbstractObserver
+    {
+    }
+
+    @ApplicationScoped
+    public static class Observer2 extends AbstractObserver
+    {
+    }
+
+    @ApplicationScoped
+    public static class Observer3 extends AbstractObserver
+    {
+    }
+
+    @ApplicationScoped
+    public static class Observer4 extends AbstractObserver
+    {
+    }
+
+    @ApplicationScoped
+    public static class Observer5 extends AbstractObserver
+    {
+    }
+
+    @ApplicationScoped
+    public static class Observer6 extends AbstractObserver
+    {
+    }
+
+    @ApplicationScoped
+    public static class Observer7 extends AbstractObserver
+    {
+    }
+
+    @ApplicationScoped
+    public static class Observer8 extends AbstractObserver
+    {
+    }
+
+    @ApplicationScoped
+    public static class Observer9 extends AbstractObserver
+    {
+    }
+
+    @ApplicationScoped
+    public static class Observer10 extends AbstractObserver
+    {
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmarks;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Programmatic lookup via an injected {@link Instance}.
+ * The destroyable variants have to be destroyed explicitly
+ * as they would pile up in the owner otherwise.
+ */
+public class InstanceBenchmark extends AbstractContainerBenchmark
+{
+    private Holder holder;
+
+    @Override
+    protected Class<?>[] getBeanClasses()
+    {
+        return new Class<?>[]{Holder.class, Plain.class, Destroyable.class, Service.class};
+    }
+
+    @Override
+    protected void onStart()
+    {
+        holder = getReference(Holder.class);
+    }
+
+    @Benchmark
+    public Object getDependent()
+    {
+        return holder.getPlains().get();
+    }
+
+    @Benchmark
+    public Object getAndDestroyDependent()
+    {
+        Instance<Destroyable> destroyables = holder.getDestroyables();
+        Destroyable destroyable = destroyables.get();
+        destroyables.destroy(destroyable);
+        return destroyable;
+    }
+
+    @Benchmark
+    public Object getNormalScoped()
+    {
+        return holder.getServices().get();
+    }
+
+    @Benchmark
+    public Object selectAndGet()
+    {
+        return holder.getAll().select(Plain.class).get();
+    }
+
+    @ApplicationScoped
+    public static class Holder
+    {
+        @Inject
+        private Instance<Plain> plains;
+
+        @Inject
+        private Instance<Destroyable> destroyables;
+
+        @Inject
+        private Instance<Service> services;
+
+        @Inject
+        private Instance<Object> all;
+
+        public Instance<Plain> getPlains()
+        {
+            return plains;
+        }
+
+        public Instance<Destroyable> getDestroyables()
+        {
+            return destroyables;
+        }
+
+        public Instance<Service> getServices()
+        {
+            return services;
+        }
+
+        public Instance<Object> getAll()
+        {
+            return all;
+        }
+    }
+
+    public static class Plain
+    {
+    }
+
+    public static class Destroyable
+    {
+        @PreDestroy
+        public void destroy()
+        {
+            // needs to get destroyed
+        }
+    }
+
+    @ApplicationScoped
+    public static class Service
+    {
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmarks;
+
+import java.io.Serializable;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import javax.annotation.Priority;
+import javax.decorator.Decorator;
+import javax.decorator.Delegate;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InterceptorBinding;
+import javax.interceptor.InvocationContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Business method invocations through the interceptor and decorator chains.
+ * All beans are &#064;ApplicationScoped, so {@link #notIntercepted()} is the
+ * baseline containing the normal scoping proxy only.
+ */
+public class InterceptionBenchmark extends AbstractContainerBenchmark
+{
+    private PlainCalculator plain;
+    private InterceptedCalculator intercepted;
+    private DecoratedCalculator decorated;
+    private InterceptedAndDecoratedCalculator interceptedAndDecorated;
+
+    @Override
+    protected Class<?>[] getBeanClasses()
+    {
+        return new Class<?>[]{PlainCalculator.class, InterceptedCalculator.class, DecoratedCalculator.class,
+            InterceptedAndDecoratedCalculator.class, CountingInterceptor.class, DoublingDecorator.class};
+    }
+
+    @Override
+    protected void onStart()
+    {
+        plain = getReference(PlainCalculator.class);
+        intercepted = getReference(InterceptedCalculator.class);
+        decorated = getReference(DecoratedCalculator.class);
+        interceptedAndDecorated = getReference(InterceptedAndDecoratedCalculator.class);
+    }
+
+    @Benchmark
+    public int notIntercepted()
+    {
+        return plain.add(1, 2);
+    }
+
+    @Benchmark
+    public int intercepted()
+    {
+        return intercepted.add(1, 2);
+    }
+
+    @Benchmark
+    public int decorated()
+    {
+        return decorated.add(1, 2);
+    }
+
+    @Benchmark
+    public int interceptedAndDecorated()
+    {
+        return interceptedAndDecorated.add(1, 2);
+    }
+
+    @InterceptorBinding
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    public @interface Counted
+    {
+    }
+
+    public interface Calculator
+    {
+        int add(int a, int b);
+    }
+
+    /**
+     * Only decorated beans implement this interface,
+     * so the decorator doesn't apply to the other calculators.
+     */
+    public interface DecoratedOperation
+    {
+        int add(int a, int b);
+    }
+
+    @ApplicationScoped
+    public static class PlainCalculator implements Calculator
+    {
+        @Override
+        public int add(int a, int b)
+        {
+            return a + b;
+        }
+    }
+
+    @Counted
+    @ApplicationScoped
+    public static class InterceptedCalculator implements Calculator
+    {
+        @Override
+        public int add(int a, int b)
+        {
+            return a + b;
+        }
+    }
+
+    @ApplicationScoped
+    public static class DecoratedCalculator implements DecoratedOperation
+    {
+        @Override
+        public int add(int a, int b)
+        {
+            return a + b;
+        }
+    }
+
+    @Counted
+    @ApplicationScoped
+    public static class InterceptedAndDecoratedCalculator implements DecoratedOperation
+    {
+        @Override
+        public int add(int a, int b)
+        {
+            return a + b;
+        }
+    }
+
+    @Counted
+    @Interceptor
+    @Priority(Interceptor.Priority.APPLICATION)
+    public static class CountingInterceptor implements Serializable
+    {
+        private int invocations;
+
+        @AroundInvoke
+        public Object count(InvocationContext context) throws Exception
+        {
+            invocations++;
+            return context.proceed();
+        }
+    }
+
+    @Decorator
+    @Priority(Interceptor.Priority.APPLICATION)
+    public abstract static class DoublingDecorator implements DecoratedOperation, Serializable
+    {
+        @Inject
+        @Delegate
+        private DecoratedOperation delegate;
+
+        @Override
+        public int add(int a, int b)
+        {
+            return delegate.add(a, b) * 2;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmarks;
+
+import java.io.Serializable;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.SessionScoped;
+
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Method invocations on normal scoped proxies, each scope has its own
+ * lookup strategy for the contextual instance.
+ * The plain invocation is the baseline without any proxy.
+ */
+public class NormalScopeProxyBenchmark extends AbstractContainerBenchmark
+{
+    private Counter plain;
+    private ApplicationCounter applicationScoped;
+    private RequestCounter requestScoped;
+    private SessionCounter sessionScoped;
+
+    @Override
+    protected Class<?>[] getBeanClasses()
+    {
+        return new Class<?>[]{ApplicationCounter.class, RequestCounter.class, SessionCounter.class};
+    }
+
+    @Override
+    protected void onStart()
+    {
+        plain = new Counter();
+        applicationScoped = getReference(ApplicationCounter.class);
+        requestScoped = getReference(RequestCounter.class);
+        sessionScoped = getReference(SessionCounter.class);
+    }
+
+    @Benchmark
+    public int plain()
+    {
+        return plain.increment();
+    }
+
+    @Benchmark
+    public int applicationScoped()
+    {
+        return applicationScoped.increment();
+    }
+
+    @Benchmark
+    public int requestScoped(ActiveContexts contexts)
+    {
+        return requestScoped.increment();
+    }
+
+    @Benchmark
+    public int sessionScoped(ActiveContexts contexts)
+    {
+        return sessionScoped.increment();
+    }
+
+    public static class Counter implements Serializable
+    {
+        private int count;
+
+        public int increment()
+        {
+            return ++count;
+        }
+    }
+
+    @ApplicationScoped
+    public static class ApplicationCounter extends Counter
+    {
+    }
+
+    @RequestScoped
+    public static class RequestCounter extends Counter
+    {
+    }
+
+    @SessionScoped
+    public static class SessionCounter extends Counter
+    {
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.benchmarks;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.RequestScoped;
+
+import org.apache.webbeans.spi.ContextsService;
+import org.openjdk.jmh.annotations.Benchmark;
+
+/**
+ * Starting and stopping a request context, which happens for each request in a web container.
+ */
+public class RequestContextBenchmark extends AbstractContainerBenchmark
+{
+    private ContextsService contextsService;
+    private RequestData requestData;
+
+    @Override
+    protected Class<?>[] getBeanClasses()
+    {
+        return new Class<?>[]{RequestData.class};
+    }
+
+    @Override
+    protected void onStart()
+    {
+        contextsService = webBeansContext.getContextsService();
+        requestData = getReference(RequestData.class);
+    }
+
+    @Benchmark
+    public void emptyRequest()
+    {
+        contextsService.startContext(RequestScoped.class, null);
+        contextsService.endContext(RequestScoped.class, null);
+    }
+
+    @Benchmark
+    public int requestWithBean()
+    {
+        contextsService.startContext(RequestScoped.class, null);
+        try
+        {
+            return requestData.touch();
+        }
+        finally
+        {
+            contextsService.endContext(RequestScoped.class, null);
+        }
+    }
+
+    @RequestScoped
+    public static class RequestData
+    {
+        private int touched;
+
+        public int touch()
+        {
+            return ++touched;
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            touched = 0;
+        }
+    }
+}
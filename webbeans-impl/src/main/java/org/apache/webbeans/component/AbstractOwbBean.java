@@ -24,6 +24,7 @@ import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.container.SerializableBean;
 import org.apache.webbeans.context.creational.CreationalContextImpl;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.portable.AbstractProducer;
 
 import javax.enterprise.context.Dependent;
 import javax.enterprise.context.spi.CreationalContext;
@@ -126,7 +127,7 @@ public abstract class AbstractOwbBean<T>
                 injectionTarget.inject(instance, creationalContext);
                 injectionTarget.postConstruct(instance);
             }
-            if (getScope().equals(Dependent.class) && instance != null)
+            if (getScope().equals(Dependent.class) && instance != null && isDestructionNeeded(producer))
             {
                 ((CreationalContextImpl<T>)creationalContext).addDependent(this, instance);
             }
@@ -145,6 +146,16 @@ public abstract class AbstractOwbBean<T>
 
     }
 
+    /**
+     * Instances which don't have any pre destroy callback nor disposer
+     * don't need to get tracked by their CreationalContext.
+     * Their own dependents get tracked in the same CreationalContext anyway.
+     */
+    private boolean isDestructionNeeded(Producer<T> producer)
+    {
+        return !(producer instanceof AbstractProducer) || ((AbstractProducer<T>) producer).isDestructionNeeded();
+    }
+
     private Throwable getRootException(Throwable throwable)
     {
         Throwable current = throwable;
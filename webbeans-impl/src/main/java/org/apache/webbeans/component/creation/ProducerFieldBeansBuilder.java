@@ -27,6 +27,7 @@ import javax.enterprise.inject.Produces;
 import javax.enterprise.inject.UnproxyableResolutionException;
 import javax.enterprise.inject.spi.AnnotatedField;
 import javax.enterprise.inject.spi.AnnotatedType;
+import javax.enterprise.inject.spi.BeanAttributes;
 import javax.inject.Named;
 
 import org.apache.webbeans.component.InjectionTargetBean;
@@ -35,6 +36,7 @@ import org.apache.webbeans.component.ResourceBean;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.exception.WebBeansConfigurationException;
 import org.apache.webbeans.portable.events.ProcessBeanAttributesImpl;
+import org.apache.webbeans.portable.events.generics.GProcessBeanAttributes;
 import org.apache.webbeans.spi.api.ResourceReference;
 import org.apache.webbeans.util.AnnotationUtil;
 import org.apache.webbeans.util.Asserts;
@@ -92,11 +94,16 @@ public class ProducerFieldBeansBuilder<T>
                         throw new WebBeansConfigurationException("Resource producer annotated field : " + annotatedField + " can not define EL name");
                     }
 
-                    ProcessBeanAttributesImpl<T> processBeanAttributes = fireProcessBeanAttributes(annotatedField);
-                    if (processBeanAttributes != null)
+                    BeanAttributes<T> beanAttributes = newBeanAttributes(annotatedField);
+                    if (webBeansContext.getWebBeansUtil().hasLifecycleEventObserver(GProcessBeanAttributes.class))
+                    {
+                        ProcessBeanAttributesImpl<T> processBeanAttributes = fireProcessBeanAttributes(annotatedField, beanAttributes);
+                        beanAttributes = processBeanAttributes != null ? processBeanAttributes.getAttributes() : null;
+                    }
+                    if (beanAttributes != null)
                     {
                         ResourceBeanBuilder<T, Annotation> resourceBeanCreator
-                                = new ResourceBeanBuilder<>(bean, resourceRef, annotatedField, processBeanAttributes.getAttributes());
+                                = new ResourceBeanBuilder<>(bean, resourceRef, annotatedField, beanAttributes);
                         ResourceBean<T, Annotation> resourceBean = resourceBeanCreator.getBean();
                         resourceBean.setProducerField(field);
                         producerBeans.add(resourceBean);
@@ -105,14 +112,21 @@ public class ProducerFieldBeansBuilder<T>
                 }
                 else
                 {
-                    ProcessBeanAttributesImpl<T> processBeanAttributes = fireProcessBeanAttributes(annotatedField);
+                    BeanAttributes<T> beanAttributes = newBeanAttributes(annotatedField);
+                    boolean ignoreFinalMethods = false;
+                    if (webBeansContext.getWebBeansUtil().hasLifecycleEventObserver(GProcessBeanAttributes.class))
+                    {
+                        ProcessBeanAttributesImpl<T> processBeanAttributes = fireProcessBeanAttributes(annotatedField, beanAttributes);
+                        beanAttributes = processBeanAttributes.getAttributes();
+                        ignoreFinalMethods = processBeanAttributes.isIgnoreFinalMethods();
+                    }
 
                     ProducerFieldBeanBuilder<T, ProducerFieldBean<T>> producerFieldBeanCreator
-                        = new ProducerFieldBeanBuilder<>(bean, annotatedField, processBeanAttributes.getAttributes());
+                        = new ProducerFieldBeanBuilder<>(bean, annotatedField, beanAttributes);
                     ProducerFieldBean<T> producerFieldBean = producerFieldBeanCreator.getBean();
 
                     UnproxyableResolutionException lazyException = webBeansContext.getDeploymentValidationService()
-                            .validateProxyable(producerFieldBean, processBeanAttributes.isIgnoreFinalMethods());
+                            .validateProxyable(producerFieldBean, ignoreFinalMethods);
                     if (lazyException != null) // should we use UnproxyableBean there too? if not required by TCK, better to fail eagerly
                     {
                         throw lazyException;
@@ -133,10 +147,14 @@ public class ProducerFieldBeansBuilder<T>
     }
 
 
-    private ProcessBeanAttributesImpl<T> fireProcessBeanAttributes(AnnotatedField<? super T> annotatedField)
+    private BeanAttributes<T> newBeanAttributes(AnnotatedField<? super T> annotatedField)
+    {
+        return BeanAttributesBuilder.forContext(webBeansContext).newBeanAttibutes((AnnotatedField<T>)annotatedField).build();
+    }
+
+    private ProcessBeanAttributesImpl<T> fireProcessBeanAttributes(AnnotatedField<? super T> annotatedField, BeanAttributes<T> beanAttributes)
     {
         return webBeansContext.getWebBeansUtil().fireProcessBeanAttributes(
-                annotatedField, annotatedField.getJavaMember().getType(),
-                BeanAttributesBuilder.forContext(webBeansContext).newBeanAttibutes((AnnotatedField<T>)annotatedField).build());
+                annotatedField, annotatedField.getJavaMember().getType(), beanAttributes);
     }
 }
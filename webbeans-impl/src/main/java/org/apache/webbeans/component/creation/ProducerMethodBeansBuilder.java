@@ -24,6 +24,7 @@ import org.apache.webbeans.component.ProducerMethodBean;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.exception.WebBeansConfigurationException;
 import org.apache.webbeans.portable.events.ProcessBeanAttributesImpl;
+import org.apache.webbeans.portable.events.generics.GProcessBeanAttributes;
 import org.apache.webbeans.util.AnnotationUtil;
 import org.apache.webbeans.util.Asserts;
 import org.apache.webbeans.util.WebBeansUtil;
@@ -36,6 +37,7 @@ import javax.enterprise.inject.Specializes;
 import javax.enterprise.inject.UnproxyableResolutionException;
 import javax.enterprise.inject.spi.AnnotatedMethod;
 import javax.enterprise.inject.spi.AnnotatedType;
+import javax.enterprise.inject.spi.BeanAttributes;
 import javax.inject.Inject;
 import java.util.Collection;
 import java.util.HashSet;
@@ -90,17 +92,23 @@ public class ProducerMethodBeansBuilder<T> extends AbstractBeanBuilder
                 }
 
                 AnnotatedMethod<T> method = (AnnotatedMethod<T>) annotatedMethod;
-                ProcessBeanAttributesImpl<T> processBeanAttributes = webBeansContext.getWebBeansUtil().fireProcessBeanAttributes(
-                        annotatedMethod, annotatedMethod.getJavaMember().getReturnType(),
-                        BeanAttributesBuilder.forContext(webBeansContext).newBeanAttibutes(method).build());
-                if (processBeanAttributes != null)
+                BeanAttributes<T> beanAttributes = BeanAttributesBuilder.forContext(webBeansContext).newBeanAttibutes(method).build();
+                boolean ignoreFinalMethods = false;
+                if (webBeansContext.getWebBeansUtil().hasLifecycleEventObserver(GProcessBeanAttributes.class))
                 {
-                    ProducerMethodBeanBuilder<T> producerMethodBeanCreator = new ProducerMethodBeanBuilder<>(bean, annotatedMethod, processBeanAttributes.getAttributes());
+                    ProcessBeanAttributesImpl<T> processBeanAttributes = webBeansContext.getWebBeansUtil().fireProcessBeanAttributes(
+                            annotatedMethod, annotatedMethod.getJavaMember().getReturnType(), beanAttributes);
+                    beanAttributes = processBeanAttributes != null ? processBeanAttributes.getAttributes() : null;
+                    ignoreFinalMethods = processBeanAttributes != null && processBeanAttributes.isIgnoreFinalMethods();
+                }
+                if (beanAttributes != null)
+                {
+                    ProducerMethodBeanBuilder<T> producerMethodBeanCreator = new ProducerMethodBeanBuilder<>(bean, annotatedMethod, beanAttributes);
 
                     ProducerMethodBean<T> producerMethodBean = producerMethodBeanCreator.getBean();
 
                     UnproxyableResolutionException lazyException = webBeansContext.getDeploymentValidationService()
-                            .validateProxyable(producerMethodBean, processBeanAttributes.isIgnoreFinalMethods());
+                            .validateProxyable(producerMethodBean, ignoreFinalMethods);
                     if (lazyException != null) // should we use UnproxyableBean there too? if not required by TCK, better to fail eagerly
                     {
                         throw lazyException;
@@ -25,7 +25,11 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.security.PrivilegedActionException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -98,6 +102,8 @@ import org.apache.webbeans.exception.WebBeansDeploymentException;
 import org.apache.webbeans.exception.WebBeansException;
 import org.apache.webbeans.inject.AlternativesManager;
 import org.apache.webbeans.intercept.InterceptorsManager;
+import org.apache.webbeans.jfr.DeploymentPhaseEvent;
+import org.apache.webbeans.jfr.FlightRecorderSupport;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
 import org.apache.webbeans.portable.AbstractProducer;
 import org.apache.webbeans.portable.AnnotatedElementFactory;
@@ -112,6 +118,8 @@ import org.apache.webbeans.portable.events.discovery.AnnotatedTypeConfiguratorHo
 import org.apache.webbeans.portable.events.discovery.BeforeBeanDiscoveryImpl;
 import org.apache.webbeans.portable.events.generics.GProcessAnnotatedType;
 import org.apache.webbeans.portable.events.generics.GProcessBean;
+import org.apache.webbeans.portable.events.generics.GProcessBeanAttributes;
+import org.apache.webbeans.portable.events.generics.GProcessInjectionTarget;
 import org.apache.webbeans.portable.events.generics.GProcessManagedBean;
 import org.apache.webbeans.spi.BdaScannerService;
 import org.apache.webbeans.spi.BeanArchiveService;
@@ -185,6 +193,11 @@ public class BeansDeployer
 
     private final Map<String, Boolean> packageVetoCache = new HashMap<>();
 
+    /**
+     * Only set while the container boots with the startup profiler enabled.
+     */
+    private StartupProfiler startupProfiler;
+
     /**
      * This BdaInfo is used for all manually added annotated types or in case
      * a non-Bda-aware ScannerService got configured.
@@ -222,10 +235,20 @@ public class BeansDeployer
      */
     public synchronized void deploy(ScannerService scanner)
     {
+        DeploymentPhaseEvent phase = null;
         try
         {
             if (!deployed)
             {
+                if (webBeansContext.getOpenWebBeansConfiguration().isStartupProfilerEnabled())
+                {
+                    startupProfiler = new StartupProfiler();
+                    webBeansContext.getExtensionLoader().setStartupProfiler(startupProfiler);
+                    webBeansContext.getNotificationManager().setStartupProfiler(startupProfiler);
+                }
+
+                phase = nextPhase(phase, "extensions");
+
                 //Load Extensions
                 webBeansContext.getExtensionLoader().loadExtensionServices();
 
@@ -248,12 +271,16 @@ public class BeansDeployer
                 // Register built-in RequestContextController
                 webBeansContext.getBeanManagerImpl().addInternalBean(webBeansContext.getWebBeansUtil().getRequestContextControllerBean());
 
+                phase = nextPhase(phase, "beforeBeanDiscovery");
+
                 //Fire Event
                 fireBeforeBeanDiscoveryEvent();
 
                 //Configure Default Beans
                 configureDefaultBeans();
 
+                phase = nextPhase(phase, "scanning");
+
                 Map<BeanArchiveInformation, List<AnnotatedType<?>>> annotatedTypesPerBda = annotatedTypesFromClassPath(scanner);
 
                 List<AnnotatedType<?>> globalBdaAnnotatedTypes = annotatedTypesPerBda.get(defaultBeanArchiveInformation);
@@ -269,8 +296,11 @@ public class BeansDeployer
                 // Also configures deployments, interceptors, decorators.
                 deployFromXML(scanner);
 
+                phase = nextPhase(phase, "afterTypeDiscovery");
+
                 addAdditionalAnnotatedTypes(fireAfterTypeDiscoveryEvent(), globalBdaAnnotatedTypes);
 
+                phase = nextPhase(phase, "beanAttributes");
 
                 Map<BeanArchiveInformation, Map<AnnotatedType<?>, ExtendedBeanAttributes<?>>> beanAttributesPerBda
                     = getBeanAttributes(annotatedTypesPerBda);
@@ -308,6 +338,8 @@ public class BeansDeployer
                         },
                         false);
 
+                phase = nextPhase(phase, "beanDeployment");
+
                 // create beans from the discovered AnnotatedTypes
                 deployFromBeanAttributes(beanAttributesPerBda);
 
@@ -316,9 +348,13 @@ public class BeansDeployer
                 // all beans which got 'overridden' by a Specialized version can be removed now
                 removeDisabledBeans();
 
+                phase = nextPhase(phase, "afterBeanDiscovery");
+
                 // We are finally done with our bean discovery
                 fireAfterBeanDiscoveryEvent();
 
+                phase = nextPhase(phase, "validation");
+
                 validateAlternatives(beanAttributesPerBda);
 
                 validateInjectionPoints();
@@ -341,14 +377,30 @@ public class BeansDeployer
 
                 webBeansContext.getBeanManagerImpl().getInjectionResolver().setStartup(false);
 
+                phase = nextPhase(phase, "afterDeploymentValidation");
+
                 // fire event
                 fireAfterDeploymentValidationEvent();
 
+                phase = nextPhase(phase, "warmup");
+
+                if (webBeansContext.getOpenWebBeansConfiguration().isWarmupEnabled())
+                {
+                    webBeansContext.getBeanInstanceWarmup().warmup();
+                }
+
+                phase = nextPhase(phase, "cleanup");
 
                 // do some cleanup after the deployment
                 scanner.release();
                 webBeansContext.getAnnotatedElementFactory().clear();
                 registerHotswapPlugin(scanner);
+
+                // only start it after the cleanup, the warm-up threads would race with it otherwise
+                if (webBeansContext.getOpenWebBeansConfiguration().isBackgroundWarmupEnabled())
+                {
+                    webBeansContext.getResolutionWarmup().start();
+                }
             }
         }
         catch (UnsatisfiedResolutionException e)
@@ -374,12 +426,67 @@ public class BeansDeployer
         }
         finally
         {
+            nextPhase(phase, null);
+            if (startupProfiler != null)
+            {
+                reportStartupProfile();
+            }
+
             //if bootstrapping failed, it doesn't make sense to do it again
             //esp. because #addInternalBean might have been called already and would cause an exception in the next run
             deployed = true;
         }
     }
 
+    /**
+     * Ends the given deployment phase and starts the next one.
+     *
+     * @param current the running phase, {@code null} if none is running or JFR is not recording
+     * @param next the name of the next phase, {@code null} to only end the current one
+     * @return the started phase event, {@code null} if JFR is not recording it
+     */
+    private DeploymentPhaseEvent nextPhase(DeploymentPhaseEvent current, String next)
+    {
+        if (current != null)
+        {
+            current.commit();
+        }
+        if (startupProfiler != null)
+        {
+            startupProfiler.startPhase(next);
+        }
+        return next != null && FlightRecorderSupport.AVAILABLE ? DeploymentPhaseEvent.start(next) : null;
+    }
+
+    private void reportStartupProfile()
+    {
+        StartupProfiler profiler = startupProfiler;
+        startupProfiler = null;
+        webBeansContext.getExtensionLoader().setStartupProfiler(null);
+        webBeansContext.getNotificationManager().setStartupProfiler(null);
+
+        profiler.finish();
+        logger.info(profiler.getSummary());
+
+        String report = webBeansContext.getOpenWebBeansConfiguration().getStartupProfilerReport();
+        if (report == null)
+        {
+            if (logger.isLoggable(Level.FINE))
+            {
+                logger.fine(profiler.toJson());
+            }
+            return;
+        }
+        try
+        {
+            Files.write(Paths.get(report), profiler.toJson().getBytes(StandardCharsets.UTF_8));
+        }
+        catch (IOException | RuntimeException e)
+        {
+            logger.log(Level.WARNING, "Could not write the startup profiler report to " + report, e);
+        }
+    }
+
     private void registerHotswapPlugin(ScannerService scanner) {
         ClassLoader appClassLoader = Thread.currentThread().getContextClassLoader();
         OwbPlugin.register(appClassLoader, scanner);
@@ -455,8 +562,16 @@ public class BeansDeployer
                     if (isEjb || (ClassUtil.isConcrete(beanClass) || WebBeansUtil.isDecorator(at)) && isValidManagedBean(at))
                     {
                         BeanAttributesImpl beanAttributes = BeanAttributesBuilder.forContext(webBeansContext).newBeanAttibutes(at, onlyScopedBeans && !isEjb).build();
-                        if (beanAttributes != null &&
-                                (!beanAttributes.isAlternative() || isEnabledAlternative(at, beanAttributes.getStereotypes())))
+                        if (beanAttributes == null || beanAttributes.isAlternative() && !isEnabledAlternative(at, beanAttributes.getStereotypes()))
+                        {
+                            continue;
+                        }
+                        if (!webBeansContext.getWebBeansUtil().hasLifecycleEventObserver(GProcessBeanAttributes.class))
+                        {
+                            // nobody observes ProcessBeanAttributes
+                            bdaBeanAttributes.put(at, new ExtendedBeanAttributes(beanAttributes, isEjb, false));
+                        }
+                        else
                         {
                             ProcessBeanAttributesImpl<?> processBeanAttributes
                                 = webBeansContext.getWebBeansUtil().fireProcessBeanAttributes(at, at.getJavaClass(), beanAttributes);
@@ -1365,11 +1480,19 @@ public class BeansDeployer
                     if (!annotatedType.getJavaClass().isAnnotation())
                     {
                         GProcessAnnotatedType processAnnotatedEvent = webBeansContext.getWebBeansUtil().fireProcessAnnotatedTypeEvent(annotatedType);
-                        if (!processAnnotatedEvent.isVeto())
+                        if (processAnnotatedEvent == null)
+                        {
+                            // no Extension observes ProcessAnnotatedType
+                            annotatedTypes.add(annotatedType);
+                        }
+                        else
                         {
-                            annotatedTypes.add(processAnnotatedEvent.getAnnotatedType());
+                            if (!processAnnotatedEvent.isVeto())
+                            {
+                                annotatedTypes.add(processAnnotatedEvent.getAnnotatedType());
+                            }
+                            processAnnotatedEvent.setStarted();
                         }
-                        processAnnotatedEvent.setStarted();
                     }
                     else
                     {
@@ -1722,14 +1845,17 @@ public class BeansDeployer
                 GProcessAnnotatedType processAnnotatedEvent =
                         webBeansContext.getWebBeansUtil().fireProcessAnnotatedTypeEvent(annotatedType);
 
-                // if veto() is called
-                if (processAnnotatedEvent.isVeto())
+                if (processAnnotatedEvent != null)
                 {
-                    return;
-                }
+                    // if veto() is called
+                    if (processAnnotatedEvent.isVeto())
+                    {
+                        return;
+                    }
 
-                annotatedType = processAnnotatedEvent.getAnnotatedType();
-                processAnnotatedEvent.setStarted();
+                    annotatedType = processAnnotatedEvent.getAnnotatedType();
+                    processAnnotatedEvent.setStarted();
+                }
 
                 Set<Annotation> annTypeAnnotations = annotatedType.getAnnotations();
                 if (annTypeAnnotations != null)
@@ -1899,7 +2025,12 @@ public class BeansDeployer
         if(webBeansContext.getWebBeansUtil().supportsJavaEeComponentInjections(beanClass))
         {
             //Fires ProcessInjectionTarget
-            webBeansContext.getWebBeansUtil().fireProcessInjectionTargetEventForJavaEeComponents(beanClass).setStarted();
+            GProcessInjectionTarget processInjectionTargetEvent
+                = webBeansContext.getWebBeansUtil().fireProcessInjectionTargetEventForJavaEeComponents(beanClass);
+            if (processInjectionTargetEvent != null)
+            {
+                processInjectionTargetEvent.setStarted();
+            }
             webBeansContext.getWebBeansUtil().inspectDeploymentErrorStack(
                     "There are errors that are added by ProcessInjectionTarget event observers. Look at logs for further details");
 
@@ -1925,9 +2056,12 @@ public class BeansDeployer
                     DecoratorBean<T> decorator = dbb.getBean();
 
                     //Fires ProcessBean
-                    ProcessBeanImpl<T> processBeanEvent = new GProcessBean(decorator, annotatedType);
-                    webBeansContext.getBeanManagerImpl().fireEvent(processBeanEvent, true);
-                    processBeanEvent.setStarted();
+                    if (webBeansContext.getWebBeansUtil().hasLifecycleEventObserver(GProcessBean.class))
+                    {
+                        ProcessBeanImpl<T> processBeanEvent = new GProcessBean(decorator, annotatedType);
+                        webBeansContext.getBeanManagerImpl().fireEvent(processBeanEvent, true);
+                        processBeanEvent.setStarted();
+                    }
 
                     webBeansContext.getWebBeansUtil().inspectDefinitionErrorStack("There are errors that are added by ProcessBean event observers for " +
                         "interceptor beans. Look at logs for further details");
@@ -1949,9 +2083,12 @@ public class BeansDeployer
                     CdiInterceptorBean<T> interceptor = ibb.getBean();
 
                     //Fires ProcessBean
-                    ProcessBeanImpl<T> processBeanEvent = new GProcessBean(interceptor, annotatedType);
-                    webBeansContext.getBeanManagerImpl().fireEvent(processBeanEvent, true);
-                    processBeanEvent.setStarted();
+                    if (webBeansContext.getWebBeansUtil().hasLifecycleEventObserver(GProcessBean.class))
+                    {
+                        ProcessBeanImpl<T> processBeanEvent = new GProcessBean(interceptor, annotatedType);
+                        webBeansContext.getBeanManagerImpl().fireEvent(processBeanEvent, true);
+                        processBeanEvent.setStarted();
+                    }
 
                     webBeansContext.getWebBeansUtil().inspectDefinitionErrorStack("There are errors that are added by ProcessBean event observers for " +
                         "interceptor beans. Look at logs for further details");
@@ -2041,9 +2178,12 @@ public class BeansDeployer
                 BeanManagerImpl beanManager = webBeansContext.getBeanManagerImpl();
 
                 //Fires ProcessManagedBean
-                ProcessBeanImpl<T> processBeanEvent = new GProcessManagedBean(managedBean, annotatedType);
-                beanManager.fireEvent(processBeanEvent, true);
-                processBeanEvent.setStarted();
+                if (webBeansContext.getWebBeansUtil().hasLifecycleEventObserver(GProcessManagedBean.class))
+                {
+                    ProcessBeanImpl<T> processBeanEvent = new GProcessManagedBean(managedBean, annotatedType);
+                    beanManager.fireEvent(processBeanEvent, true);
+                    processBeanEvent.setStarted();
+                }
 
                 webBeansContext.getWebBeansUtil().inspectDefinitionErrorStack("There are errors that are added by ProcessManagedBean event observers for " +
                         "managed beans. Look at logs for further details");
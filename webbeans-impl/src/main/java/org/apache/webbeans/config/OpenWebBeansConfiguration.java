@@ -55,14 +55,136 @@ public class OpenWebBeansConfiguration
     private static final Logger logger = WebBeansLoggerFacade.getLogger(OpenWebBeansConfiguration.class);
 
     /**
-     * Conversation periodic delay in ms. This is not used by OWB out of the box.
-     * Some Containers might implement it though.
+     * Conversation periodic delay in ms.
+     * This is the tick duration of the timer which destroys timed out conversations in the background.
      */
     public static final String CONVERSATION_PERIODIC_DELAY = "org.apache.webbeans.conversation.Conversation.periodicDelay";
 
     /**Timeout interval in ms*/
     public static final String CONVERSATION_TIMEOUT_INTERVAL = "org.apache.webbeans.conversation.Conversation.timeoutInterval";
 
+    /**
+     * How long in ms a request waits for a conversation which is currently used by another request
+     * before a {@link javax.enterprise.context.BusyConversationException} gets thrown.
+     * Default is 0 which fails immediately as required by the spec.
+     */
+    public static final String CONVERSATION_BUSY_WAIT_TIMEOUT = "org.apache.webbeans.conversation.Conversation.busyWaitTimeout";
+
+    /**
+     * Whether idle SessionContexts get passivated to disk.
+     * @see org.apache.webbeans.context.SessionContextPassivationManager
+     */
+    public static final String SESSION_PASSIVATION_ENABLED = "org.apache.webbeans.session.passivation.enabled";
+
+    /**
+     * Time in ms after which a not accessed SessionContext gets passivated to disk.
+     */
+    public static final String SESSION_PASSIVATION_IDLE_TIME = "org.apache.webbeans.session.passivation.idleTime";
+
+    /**
+     * Maximum number of SessionContexts which hold their instances on the heap.
+     * The least recently used ones get passivated if there are more. 0 means no limit.
+     */
+    public static final String SESSION_PASSIVATION_MAX_ACTIVE_SESSIONS = "org.apache.webbeans.session.passivation.maxActiveSessions";
+
+    /**
+     * Interval in ms in which idle SessionContexts get looked up.
+     */
+    public static final String SESSION_PASSIVATION_CHECK_INTERVAL = "org.apache.webbeans.session.passivation.checkInterval";
+
+    /**
+     * Directory for the passivated SessionContexts. A temporary directory gets used if not set.
+     */
+    public static final String SESSION_PASSIVATION_DIRECTORY = "org.apache.webbeans.session.passivation.directory";
+
+    /**
+     * Whether the heap retained by the instances of each SessionContext gets estimated.
+     * @see org.apache.webbeans.context.SessionMemoryAccounting
+     */
+    public static final String SESSION_ACCOUNTING_ENABLED = "org.apache.webbeans.session.accounting.enabled";
+
+    /**
+     * Estimated bytes a single session may retain before a warning gets logged. 0 disables the warning.
+     */
+    public static final String SESSION_ACCOUNTING_BUDGET = "org.apache.webbeans.session.accounting.budget";
+
+    /**
+     * Interval in ms in which sessions get measured.
+     */
+    public static final String SESSION_ACCOUNTING_SAMPLE_INTERVAL = "org.apache.webbeans.session.accounting.sampleInterval";
+
+    /**
+     * Maximum number of sessions measured per interval, the ones with the oldest measurement first.
+     */
+    public static final String SESSION_ACCOUNTING_SAMPLE_SIZE = "org.apache.webbeans.session.accounting.sampleSize";
+
+    /**
+     * Maximum number of objects walked per session. Bigger sessions get reported as truncated.
+     */
+    public static final String SESSION_ACCOUNTING_MAX_OBJECTS = "org.apache.webbeans.session.accounting.maxObjects";
+
+    /**
+     * Comma separated list of classes and interfaces whose instances are shared by the whole application,
+     * e.g. caches or DataSources. They don't get counted for the sessions which reference them.
+     */
+    public static final String SESSION_ACCOUNTING_SHARED_TYPES = "org.apache.webbeans.session.accounting.sharedTypes";
+
+    /**
+     * Comma separated list of bean classes whose contextual instances in passivating contexts
+     * don't get dirty when they get accessed, but only via
+     * {@link org.apache.webbeans.context.PassivatingContext#markDirty(javax.enterprise.context.spi.Contextual)}.
+     */
+    public static final String IMMUTABLE_PASSIVATING_BEANS = "org.apache.webbeans.context.passivation.immutableBeans";
+
+    /**
+     * Whether contextual instances of &#064;ApplicationScoped and &#064;Singleton beans
+     * get created eagerly after the AfterDeploymentValidation event.
+     * @see org.apache.webbeans.container.BeanInstanceWarmup
+     */
+    public static final String WARMUP_ENABLED = "org.apache.webbeans.startup.warmup.enabled";
+
+    /**
+     * Comma separated list of bean classes which get warmed up. All beans get warmed up if not set.
+     */
+    public static final String WARMUP_BEANS = "org.apache.webbeans.startup.warmup.beans";
+
+    /**
+     * Number of threads used to warm up the beans. Defaults to the number of available processors.
+     */
+    public static final String WARMUP_THREADS = "org.apache.webbeans.startup.warmup.threads";
+
+    /**
+     * Whether the normal scoping proxies and the injection point resolution
+     * get prepared in the background after the AfterDeploymentValidation event.
+     * @see org.apache.webbeans.container.ResolutionWarmup
+     */
+    public static final String BACKGROUND_WARMUP_ENABLED = "org.apache.webbeans.startup.backgroundWarmup.enabled";
+
+    /**
+     * Number of low priority threads used for the background warm-up.
+     */
+    public static final String BACKGROUND_WARMUP_THREADS = "org.apache.webbeans.startup.backgroundWarmup.threads";
+
+    /**
+     * Whether the time and the allocations of the container boot get recorded per deployment phase
+     * and per CDI Extension observer method. The summary gets logged at the end of the boot.
+     * @see StartupProfiler
+     */
+    public static final String STARTUP_PROFILER_ENABLED = "org.apache.webbeans.startup.profiler.enabled";
+
+    /**
+     * File the JSON report of the {@link StartupProfiler} gets written to.
+     * The JSON report only gets logged with level FINE if not set.
+     */
+    public static final String STARTUP_PROFILER_REPORT = "org.apache.webbeans.startup.profiler.report";
+
+    /**
+     * Number of &#064;Dependent instances a single owner may hold before a possible leak gets reported.
+     * 0 disables the detection.
+     * @see org.apache.webbeans.context.creational.DependentLeakDetector
+     */
+    public static final String DEPENDENT_LEAK_THRESHOLD = "org.apache.webbeans.dependent.leakDetectionThreshold";
+
     /**
      * Environment property which comma separated list of classes which
      * should NOT fail with UnproxyableResolutionException
@@ -86,6 +208,13 @@ public class OpenWebBeansConfiguration
     /**If generics should be taken into account for the matching*/
     public static final String FAST_MATCHING = "org.apache.webbeans.container.InjectionResolver.fastMatching";
 
+    /**
+     * Maximum number of entries of each resolution cache of the InjectionResolver.
+     * The caches are unbounded if not set or 0.
+     * @see org.apache.webbeans.util.SegmentedLruCache
+     */
+    public static final String INJECTION_RESOLVER_CACHE_SIZE = "org.apache.webbeans.container.InjectionResolver.cacheSize";
+
     /**Use EJB Discovery or not*/
     public static final String USE_EJB_DISCOVERY = "org.apache.webbeans.spi.deployer.useEjbMetaDataDiscoveryService";
 
@@ -202,6 +331,24 @@ public class OpenWebBeansConfiguration
      */
     public static final String GENERATOR_JAVA_VERSION = "org.apache.webbeans.generator.javaVersion";
 
+    /**
+     * A comma-separated list of fully qualified bean class names whose synchronous observer methods
+     * may get invoked in parallel, if they neither have an explicit priority nor a transaction phase.
+     * The firing thread takes part in invoking them and waits until all of them finished.
+     * Observers with a priority still get invoked in order.
+     * Parallel observers must not rely on the request, session or conversation context or the
+     * transaction of the firing thread: if they run on the event executor they get their own
+     * request context, like &#064;ObservesAsync observers. The context ClassLoader gets propagated.
+     * Default is empty, i.e. all observers get invoked sequentially.
+     */
+    public static final String PARALLEL_SYNC_OBSERVERS = "org.apache.webbeans.event.parallelSyncObservers";
+
+    /**
+     * Minimum number of parallelisable observer methods for an event
+     * before {@link #PARALLEL_SYNC_OBSERVERS} kicks in.
+     */
+    public static final String PARALLEL_SYNC_OBSERVERS_THRESHOLD = "org.apache.webbeans.event.parallelSyncObservers.threshold";
+
 
     /**Default configuration files*/
     private static final String DEFAULT_CONFIG_PROPERTIES_NAME = "META-INF/openwebbeans/openwebbeans.properties";
@@ -225,6 +372,11 @@ public class OpenWebBeansConfiguration
      */
     private Set<String> ignoredExtensions;
 
+    /**
+     * @see #PARALLEL_SYNC_OBSERVERS
+     */
+    private Set<String> parallelSyncObserverClasses;
+
     /**
      * All configured lists per key.
      *
@@ -523,6 +675,225 @@ public class OpenWebBeansConfiguration
         return Boolean.parseBoolean(getProperty(PRODUCER_INTERCEPTION_SUPPORT, "true"));
     }
 
+    /**
+     * @see #PARALLEL_SYNC_OBSERVERS
+     */
+    public synchronized Set<String> getParallelSyncObserverClasses()
+    {
+        if (parallelSyncObserverClasses == null)
+        {
+            Set<String> classNames = new HashSet<>(getPropertyList(PARALLEL_SYNC_OBSERVERS));
+            classNames.remove("");
+            parallelSyncObserverClasses = classNames;
+        }
+        return parallelSyncObserverClasses;
+    }
+
+    /**
+     * @see #PARALLEL_SYNC_OBSERVERS_THRESHOLD
+     */
+    public int getParallelSyncObserversThreshold()
+    {
+        return Integer.parseInt(getProperty(PARALLEL_SYNC_OBSERVERS_THRESHOLD, "4").trim());
+    }
+
+    /**
+     * @see #CONVERSATION_TIMEOUT_INTERVAL
+     */
+    public long getConversationTimeoutInterval()
+    {
+        try
+        {
+            return Long.parseLong(getProperty(CONVERSATION_TIMEOUT_INTERVAL, "1800000").trim());
+        }
+        catch (NumberFormatException e)
+        {
+            return 30 * 60 * 1000L;
+        }
+    }
+
+    /**
+     * @see #CONVERSATION_PERIODIC_DELAY
+     */
+    public long getConversationPeriodicDelay()
+    {
+        return Long.parseLong(getProperty(CONVERSATION_PERIODIC_DELAY, "1000").trim());
+    }
+
+    /**
+     * @see #CONVERSATION_BUSY_WAIT_TIMEOUT
+     */
+    public long getConversationBusyWaitTimeout()
+    {
+        return Math.max(0, Long.parseLong(getProperty(CONVERSATION_BUSY_WAIT_TIMEOUT, "0").trim()));
+    }
+
+    /**
+     * @see #SESSION_PASSIVATION_ENABLED
+     */
+    public boolean isSessionPassivationEnabled()
+    {
+        return Boolean.parseBoolean(getProperty(SESSION_PASSIVATION_ENABLED, "false").trim());
+    }
+
+    /**
+     * @see #SESSION_PASSIVATION_IDLE_TIME
+     */
+    public long getSessionPassivationIdleTime()
+    {
+        return Math.max(0, Long.parseLong(getProperty(SESSION_PASSIVATION_IDLE_TIME, "600000").trim()));
+    }
+
+    /**
+     * @see #SESSION_PASSIVATION_MAX_ACTIVE_SESSIONS
+     */
+    public int getSessionPassivationMaxActiveSessions()
+    {
+        return Math.max(0, Integer.parseInt(getProperty(SESSION_PASSIVATION_MAX_ACTIVE_SESSIONS, "0").trim()));
+    }
+
+    /**
+     * @see #SESSION_PASSIVATION_CHECK_INTERVAL
+     */
+    public long getSessionPassivationCheckInterval()
+    {
+        return Math.max(1, Long.parseLong(getProperty(SESSION_PASSIVATION_CHECK_INTERVAL, "10000").trim()));
+    }
+
+    /**
+     * @see #IMMUTABLE_PASSIVATING_BEANS
+     */
+    public Set<String> getImmutablePassivatingBeans()
+    {
+        return getConfigListValues(IMMUTABLE_PASSIVATING_BEANS);
+    }
+
+    /**
+     * @see #SESSION_ACCOUNTING_ENABLED
+     */
+    public boolean isSessionAccountingEnabled()
+    {
+        return Boolean.parseBoolean(getProperty(SESSION_ACCOUNTING_ENABLED, "false").trim());
+    }
+
+    /**
+     * @see #SESSION_ACCOUNTING_BUDGET
+     */
+    public long getSessionAccountingBudget()
+    {
+        return Math.max(0, Long.parseLong(getProperty(SESSION_ACCOUNTING_BUDGET, "0").trim()));
+    }
+
+    /**
+     * @see #SESSION_ACCOUNTING_SAMPLE_INTERVAL
+     */
+    public long getSessionAccountingSampleInterval()
+    {
+        return Math.max(1, Long.parseLong(getProperty(SESSION_ACCOUNTING_SAMPLE_INTERVAL, "60000").trim()));
+    }
+
+    /**
+     * @see #SESSION_ACCOUNTING_SAMPLE_SIZE
+     */
+    public int getSessionAccountingSampleSize()
+    {
+        return Math.max(1, Integer.parseInt(getProperty(SESSION_ACCOUNTING_SAMPLE_SIZE, "100").trim()));
+    }
+
+    /**
+     * @see #SESSION_ACCOUNTING_MAX_OBJECTS
+     */
+    public int getSessionAccountingMaxObjects()
+    {
+        return Math.max(1, Integer.parseInt(getProperty(SESSION_ACCOUNTING_MAX_OBJECTS, "100000").trim()));
+    }
+
+    /**
+     * @see #SESSION_ACCOUNTING_SHARED_TYPES
+     */
+    public Set<String> getSessionAccountingSharedTypes()
+    {
+        return getConfigListValues(SESSION_ACCOUNTING_SHARED_TYPES);
+    }
+
+    /**
+     * @see #INJECTION_RESOLVER_CACHE_SIZE
+     */
+    public int getInjectionResolverCacheSize()
+    {
+        return Math.max(0, Integer.parseInt(getProperty(INJECTION_RESOLVER_CACHE_SIZE, "0").trim()));
+    }
+
+    /**
+     * @see #WARMUP_ENABLED
+     */
+    public boolean isWarmupEnabled()
+    {
+        return Boolean.parseBoolean(getProperty(WARMUP_ENABLED, "false").trim());
+    }
+
+    /**
+     * @see #WARMUP_BEANS
+     */
+    public Set<String> getWarmupBeans()
+    {
+        return getConfigListValues(WARMUP_BEANS);
+    }
+
+    /**
+     * @see #WARMUP_THREADS
+     */
+    public int getWarmupThreads()
+    {
+        String threads = getProperty(WARMUP_THREADS);
+        if (threads == null || threads.trim().isEmpty())
+        {
+            return Runtime.getRuntime().availableProcessors();
+        }
+        return Math.max(1, Integer.parseInt(threads.trim()));
+    }
+
+    /**
+     * @see #BACKGROUND_WARMUP_ENABLED
+     */
+    public boolean isBackgroundWarmupEnabled()
+    {
+        return Boolean.parseBoolean(getProperty(BACKGROUND_WARMUP_ENABLED, "false").trim());
+    }
+
+    /**
+     * @see #BACKGROUND_WARMUP_THREADS
+     */
+    public int getBackgroundWarmupThreads()
+    {
+        return Math.max(1, Integer.parseInt(getProperty(BACKGROUND_WARMUP_THREADS, "1").trim()));
+    }
+
+    /**
+     * @see #DEPENDENT_LEAK_THRESHOLD
+     */
+    public int getDependentLeakThreshold()
+    {
+        return Math.max(0, Integer.parseInt(getProperty(DEPENDENT_LEAK_THRESHOLD, "0").trim()));
+    }
+
+    /**
+     * @see #STARTUP_PROFILER_ENABLED
+     */
+    public boolean isStartupProfilerEnabled()
+    {
+        return Boolean.parseBoolean(getProperty(STARTUP_PROFILER_ENABLED, "false").trim());
+    }
+
+    /**
+     * @see #STARTUP_PROFILER_REPORT
+     */
+    public String getStartupProfilerReport()
+    {
+        String report = getProperty(STARTUP_PROFILER_REPORT);
+        return report == null || report.trim().isEmpty() ? null : report.trim();
+    }
+
     public String getGeneratorJavaVersion()
     {
         String generatorJavaVersion = getProperty(GENERATOR_JAVA_VERSION);
@@ -0,0 +1,413 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.config;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the time and the allocated memory of the phases of
+ * {@link BeansDeployer#deploy(org.apache.webbeans.spi.ScannerService)}, of instantiating the
+ * CDI Extensions, of adding each of them and of each Extension observer method per container
+ * lifecycle event type. The {@link org.apache.webbeans.spi.LoaderService} instantiates all
+ * Extensions at once, so their instantiation is only measured as a whole.
+ *
+ * Allocations are the bytes allocated by the booting thread, so work done in other threads
+ * (e.g. the parallel warm-up) only counts with its time. They are reported as -1 if the JVM
+ * does not support measuring them. An observer method which triggers another lifecycle event
+ * also accounts for the observers of this nested event.
+ *
+ * @see OpenWebBeansConfiguration#STARTUP_PROFILER_ENABLED
+ */
+public class StartupProfiler
+{
+    private static final com.sun.management.ThreadMXBean THREADS = findThreadMXBean();
+
+    private static final int SUMMARY_EXTENSIONS = 10;
+
+    private final Mark bootStart = mark();
+    private final Map<String, Measurement> phases = new LinkedHashMap<>();
+    private final Measurement extensionInstantiation = new Measurement();
+    private final Map<Class<?>, ExtensionProfile> extensions = new LinkedHashMap<>();
+    private final Map<Class<?>, String> eventTypeNames = new LinkedHashMap<>();
+
+    private String currentPhase;
+    private Mark currentPhaseStart;
+    private long totalNanos = -1;
+
+    /**
+     * @return the current time and allocation counter of this thread,
+     *         to be passed to one of the recording methods afterwards
+     */
+    public Mark mark()
+    {
+        return new Mark(System.nanoTime(), allocatedBytes());
+    }
+
+    /**
+     * Ends the current phase and starts the next one.
+     *
+     * @param phase the name of the next phase, {@code null} to only end the current one
+     */
+    public synchronized void startPhase(String phase)
+    {
+        Mark now = mark();
+        if (currentPhase != null)
+        {
+            phases.computeIfAbsent(currentPhase, p -> new Measurement()).add(currentPhaseStart, now);
+        }
+        currentPhase = phase;
+        currentPhaseStart = now;
+    }
+
+    /**
+     * @param start the mark taken before the Extensions got loaded
+     */
+    public synchronized void extensionsInstantiated(Mark start)
+    {
+        extensionInstantiation.add(start, mark());
+    }
+
+    public synchronized void extensionLoaded(Class<?> extensionClass, Mark start)
+    {
+        getExtension(extensionClass).load.add(start, mark());
+    }
+
+    /**
+     * @param extensionClass the class of the Extension declaring the observer method
+     * @param observerName the name of the observer method
+     * @param eventClass the class of the lifecycle event
+     * @param start the mark taken before the observer method got invoked
+     */
+    public synchronized void observerInvoked(Class<?> extensionClass, String observerName, Class<?> eventClass, Mark start)
+    {
+        Mark end = mark();
+        String key = observerName + "(" + getEventTypeName(eventClass) + ")";
+        getExtension(extensionClass).observers.computeIfAbsent(key, k -> new Measurement()).add(start, end);
+    }
+
+    /**
+     * Ends the current phase and the boot.
+     */
+    public synchronized void finish()
+    {
+        startPhase(null);
+        totalNanos = System.nanoTime() - bootStart.nanos;
+    }
+
+    /**
+     * @return the whole report as JSON document
+     */
+    public synchronized String toJson()
+    {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append("  \"totalMillis\": ").append(millis(totalNanos)).append(",\n");
+        json.append("  \"allocationsSupported\": ").append(THREADS != null).append(",\n");
+        json.append("  \"phases\": [");
+        String separator = "\n";
+        for (Map.Entry<String, Measurement> phase : phases.entrySet())
+        {
+            json.append(separator).append("    {\"name\": ");
+            appendString(json, phase.getKey());
+            json.append(", ");
+            phase.getValue().appendJson(json);
+            json.append('}');
+            separator = ",\n";
+        }
+        json.append("\n  ],\n");
+        json.append("  \"extensionInstantiation\": {");
+        extensionInstantiation.appendJson(json);
+        json.append("},\n");
+        json.append("  \"extensions\": [");
+        separator = "\n";
+        for (ExtensionProfile extension : getExtensionsByTime())
+        {
+            json.append(separator).append("    {\"extension\": ");
+            appendString(json, extension.extensionClass.getName());
+            json.append(", \"totalMillis\": ").append(millis(extension.getTotalNanos()));
+            json.append(",\n      \"load\": {");
+            extension.load.appendJson(json);
+            json.append("},\n      \"observers\": [");
+            String observerSeparator = "\n";
+            for (Map.Entry<String, Measurement> observer : extension.getObserversByTime())
+            {
+                json.append(observerSeparator).append("        {\"observer\": ");
+                appendString(json, observer.getKey());
+                json.append(", ");
+                observer.getValue().appendJson(json);
+                json.append('}');
+                observerSeparator = ",\n";
+            }
+            json.append("\n      ]}");
+            separator = ",\n";
+        }
+        json.append("\n  ]\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * @return a human readable summary with all phases and the slowest Extensions
+     */
+    public synchronized String getSummary()
+    {
+        StringBuilder summary = new StringBuilder("OpenWebBeans container boot took ")
+            .append(millis(totalNanos)).append(" ms");
+        for (Map.Entry<String, Measurement> phase : phases.entrySet())
+        {
+            summary.append("\n  phase ").append(phase.getKey()).append(": ");
+            phase.getValue().appendSummary(summary);
+        }
+
+        if (extensionInstantiation.invocations > 0)
+        {
+            summary.append("\n  extension instantiation: ");
+            extensionInstantiation.appendSummary(summary);
+        }
+
+        List<ExtensionProfile> slowest = getExtensionsByTime();
+        if (!slowest.isEmpty())
+        {
+            summary.append("\n  slowest extensions:");
+        }
+        for (ExtensionProfile extension : slowest.subList(0, Math.min(SUMMARY_EXTENSIONS, slowest.size())))
+        {
+            summary.append("\n    ").append(extension.extensionClass.getName()).append(": ")
+                .append(millis(extension.getTotalNanos())).append(" ms");
+            List<Map.Entry<String, Measurement>> observers = extension.getObserversByTime();
+            if (!observers.isEmpty())
+            {
+                Map.Entry<String, Measurement> observer = observers.get(0);
+                summary.append(", slowest observer ").append(observer.getKey()).append(": ");
+                observer.getValue().appendSummary(summary);
+            }
+        }
+        return summary.toString();
+    }
+
+    /**
+     * @return the measured phases in the order they got started
+     */
+    public synchronized Map<String, Measurement> getPhases()
+    {
+        return new LinkedHashMap<>(phases);
+    }
+
+    /**
+     * @return the time needed by the LoaderService to instantiate all Extensions
+     */
+    public synchronized Measurement getExtensionInstantiation()
+    {
+        return extensionInstantiation;
+    }
+
+    private ExtensionProfile getExtension(Class<?> extensionClass)
+    {
+        return extensions.computeIfAbsent(extensionClass, ExtensionProfile::new);
+    }
+
+    private List<ExtensionProfile> getExtensionsByTime()
+    {
+        List<ExtensionProfile> sorted = new ArrayList<>(extensions.values());
+        sorted.sort(Comparator.comparingLong(ExtensionProfile::getTotalNanos).reversed());
+        return sorted;
+    }
+
+    /**
+     * Lifecycle events are implemented by internal classes, report the
+     * interface of the CDI API instead, e.g. ProcessAnnotatedType.
+     */
+    private String getEventTypeName(Class<?> eventClass)
+    {
+        return eventTypeNames.computeIfAbsent(eventClass, c ->
+        {
+            for (Class<?> current = c; current != null; current = current.getSuperclass())
+            {
+                for (Class<?> eventInterface : current.getInterfaces())
+                {
+                    if (eventInterface.getName().startsWith("javax.enterprise."))
+                    {
+                        return eventInterface.getSimpleName();
+                    }
+                }
+            }
+            return c.getSimpleName();
+        });
+    }
+
+    private static long allocatedBytes()
+    {
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static long millis(long nanos)
+    {
+        return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static void appendString(StringBuilder json, String value)
+    {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++)
+        {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\')
+            {
+                json.append('\\').append(c);
+            }
+            else if (c < ' ')
+            {
+                json.append(String.format("\\u%04x", (int) c));
+            }
+            else
+            {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    private static com.sun.management.ThreadMXBean findThreadMXBean()
+    {
+        try
+        {
+            java.lang.management.ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            if (threadMXBean instanceof com.sun.management.ThreadMXBean)
+            {
+                com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) threadMXBean;
+                if (threads.isThreadAllocatedMemorySupported())
+                {
+                    if (!threads.isThreadAllocatedMemoryEnabled())
+                    {
+                        threads.setThreadAllocatedMemoryEnabled(true);
+                    }
+                    return threads;
+                }
+            }
+        }
+        catch (LinkageError | RuntimeException e)
+        {
+            // not a HotSpot based JVM or not allowed, only measure the time
+        }
+        return null;
+    }
+
+    /**
+     * A point in time of the current thread.
+     */
+    public static final class Mark
+    {
+        private final long nanos;
+        private final long allocatedBytes;
+
+        private Mark(long nanos, long allocatedBytes)
+        {
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    /**
+     * The summed up time and allocations of all invocations of a phase or an observer method.
+     */
+    public static final class Measurement
+    {
+        private int invocations;
+        private long nanos;
+        private long allocatedBytes;
+
+        private void add(Mark start, Mark end)
+        {
+            invocations++;
+            nanos += end.nanos - start.nanos;
+            allocatedBytes += end.allocatedBytes - start.allocatedBytes;
+        }
+
+        public int getInvocations()
+        {
+            return invocations;
+        }
+
+        public long getNanos()
+        {
+            return nanos;
+        }
+
+        /**
+         * @return the allocated bytes or -1 if the JVM can't measure them
+         */
+        public long getAllocatedBytes()
+        {
+            return THREADS == null ? -1 : allocatedBytes;
+        }
+
+        private void appendJson(StringBuilder json)
+        {
+            json.append("\"invocations\": ").append(invocations)
+                .append(", \"millis\": ").append(millis(nanos))
+                .append(", \"allocatedBytes\": ").append(getAllocatedBytes());
+        }
+
+        private void appendSummary(StringBuilder summary)
+        {
+            summary.append(millis(nanos)).append(" ms");
+            if (invocations > 1)
+            {
+                summary.append(" in ").append(invocations).append(" invocations");
+            }
+            if (THREADS != null)
+            {
+                summary.append(", ").append(allocatedBytes / 1024).append(" KB allocated");
+            }
+        }
+    }
+
+    private static final class ExtensionProfile
+    {
+        private final Class<?> extensionClass;
+        private final Measurement load = new Measurement();
+        private final Map<String, Measurement> observers = new LinkedHashMap<>();
+
+        private ExtensionProfile(Class<?> extensionClass)
+        {
+            this.extensionClass = extensionClass;
+        }
+
+        private long getTotalNanos()
+        {
+            long total = load.nanos;
+            for (Measurement observer : observers.values())
+            {
+                total += observer.nanos;
+            }
+            return total;
+        }
+
+        private List<Map.Entry<String, Measurement>> getObserversByTime()
+        {
+            List<Map.Entry<String, Measurement>> sorted = new ArrayList<>(observers.entrySet());
+            sorted.sort(Comparator.comparingLong((Map.Entry<String, Measurement> e) -> e.getValue().nanos).reversed());
+            return sorted;
+        }
+    }
+}
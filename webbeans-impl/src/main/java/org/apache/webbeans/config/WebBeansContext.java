@@ -32,9 +32,14 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.apache.webbeans.annotation.AnnotationManager;
+import org.apache.webbeans.container.BeanInstanceWarmup;
 import org.apache.webbeans.container.BeanManagerImpl;
+import org.apache.webbeans.container.ResolutionWarmup;
 import org.apache.webbeans.container.SerializableBeanVault;
+import org.apache.webbeans.context.SessionContextPassivationManager;
+import org.apache.webbeans.context.SessionMemoryAccounting;
 import org.apache.webbeans.context.creational.CreationalContextFactory;
+import org.apache.webbeans.context.creational.DependentLeakDetector;
 import org.apache.webbeans.conversation.ConversationManager;
 import org.apache.webbeans.decorator.DecoratorsManager;
 import org.apache.webbeans.deployment.StereoTypeManager;
@@ -58,6 +63,7 @@ import org.apache.webbeans.spi.ApplicationBoundaryService;
 import org.apache.webbeans.spi.ContextsService;
 import org.apache.webbeans.spi.ConversationService;
 import org.apache.webbeans.spi.LoaderService;
+import org.apache.webbeans.spi.MetricsService;
 import org.apache.webbeans.spi.ScannerService;
 import org.apache.webbeans.spi.SecurityService;
 import org.apache.webbeans.spi.plugins.OpenWebBeansPlugin;
@@ -83,6 +89,9 @@ public class WebBeansContext
     private final AnnotatedElementFactory annotatedElementFactory = new AnnotatedElementFactory(this);
     private final BeanManagerImpl beanManagerImpl = new BeanManagerImpl(this);
     private final CreationalContextFactory creationalContextFactory = new CreationalContextFactory(this);
+    private final DependentLeakDetector dependentLeakDetector;
+    private final BeanInstanceWarmup beanInstanceWarmup = new BeanInstanceWarmup(this);
+    private final ResolutionWarmup resolutionWarmup = new ResolutionWarmup(this);
     private final DecoratorsManager decoratorsManager = new DecoratorsManager(this);
     private final ExtensionLoader extensionLoader = new ExtensionLoader(this);
     private final InterceptorsManager interceptorsManager = new InterceptorsManager(this);
@@ -104,9 +113,12 @@ public class WebBeansContext
     private ScannerService scannerService;
     private ContextsService contextsService;
     private final ConversationManager conversationManager;
+    private final SessionContextPassivationManager sessionContextPassivationManager;
+    private final SessionMemoryAccounting sessionMemoryAccounting;
     private ConversationService conversationService;
     private final ApplicationBoundaryService applicationBoundaryService;
     private final NotificationManager notificationManager;
+    private final MetricsService metricsService;
 
 
     public WebBeansContext()
@@ -153,13 +165,17 @@ public class WebBeansContext
         loaderService = getService(LoaderService.class);
         securityService = getService(SecurityService.class);
         applicationBoundaryService = getService(ApplicationBoundaryService.class);
+        metricsService = getService(MetricsService.class);
 
         interceptorDecoratorProxyFactory = new InterceptorDecoratorProxyFactory(this);
         normalScopeProxyFactory = new NormalScopeProxyFactory(this);
         subclassProxyFactory = new SubclassProxyFactory(this);
 
         beanArchiveService = getService(BeanArchiveService.class);
+        dependentLeakDetector = new DependentLeakDetector(this);
         conversationManager = new ConversationManager(this);
+        sessionContextPassivationManager = new SessionContextPassivationManager(this);
+        sessionMemoryAccounting = new SessionMemoryAccounting(this);
 
         notificationManager = new NotificationManager(this);
 
@@ -170,8 +186,13 @@ public class WebBeansContext
         managerMap.put(AlternativesManager.class, alternativesManager);
         managerMap.put(AnnotatedElementFactory.class, annotatedElementFactory);
         managerMap.put(BeanManagerImpl.class, beanManagerImpl);
+        managerMap.put(BeanInstanceWarmup.class, beanInstanceWarmup);
+        managerMap.put(ResolutionWarmup.class, resolutionWarmup);
         managerMap.put(ConversationManager.class, conversationManager);
+        managerMap.put(SessionContextPassivationManager.class, sessionContextPassivationManager);
+        managerMap.put(SessionMemoryAccounting.class, sessionMemoryAccounting);
         managerMap.put(CreationalContextFactory.class, creationalContextFactory);
+        managerMap.put(DependentLeakDetector.class, dependentLeakDetector);
         managerMap.put(DecoratorsManager.class, decoratorsManager);
         managerMap.put(ExtensionLoader.class, extensionLoader);
         managerMap.put(InterceptorsManager.class, interceptorsManager);
@@ -187,6 +208,7 @@ public class WebBeansContext
 
         beanManagerImpl.getInjectionResolver().setFastMatching(!"false".equalsIgnoreCase(getOpenWebBeansConfiguration()
                 .getProperty(OpenWebBeansConfiguration.FAST_MATCHING)));
+        beanManagerImpl.getInjectionResolver().setCacheSize(getOpenWebBeansConfiguration().getInjectionResolverCacheSize());
     }
 
     public static WebBeansContext getInstance()
@@ -232,7 +254,8 @@ public class WebBeansContext
     {
         String implName = getOpenWebBeansConfiguration().getProperty(serviceInterface.getName());
 
-        if (implName == null)
+        // an empty value allows to declare optional services which can be switched on via system properties
+        if (implName == null || implName.trim().isEmpty())
         {
             //Look for plugins
             List<OpenWebBeansPlugin> plugins = getPluginLoader().getPlugins();
@@ -277,6 +300,31 @@ public class WebBeansContext
         return conversationManager;
     }
 
+    public SessionContextPassivationManager getSessionContextPassivationManager()
+    {
+        return sessionContextPassivationManager;
+    }
+
+    public SessionMemoryAccounting getSessionMemoryAccounting()
+    {
+        return sessionMemoryAccounting;
+    }
+
+    public BeanInstanceWarmup getBeanInstanceWarmup()
+    {
+        return beanInstanceWarmup;
+    }
+
+    public ResolutionWarmup getResolutionWarmup()
+    {
+        return resolutionWarmup;
+    }
+
+    public DependentLeakDetector getDependentLeakDetector()
+    {
+        return dependentLeakDetector;
+    }
+
     public OpenWebBeansConfiguration getOpenWebBeansConfiguration()
     {
         return openWebBeansConfiguration;
@@ -382,6 +430,14 @@ public class WebBeansContext
         return beanArchiveService;
     }
 
+    /**
+     * @return the MetricsService or {@code null} if no metrics shall get collected
+     */
+    public MetricsService getMetricsService()
+    {
+        return metricsService;
+    }
+
     public NotificationManager getNotificationManager()
     {
         return notificationManager;
@@ -20,6 +20,7 @@ package org.apache.webbeans.container;
 
 import org.apache.webbeans.annotation.EmptyAnnotationLiteral;
 import org.apache.webbeans.util.AnnotationUtil;
+import org.apache.webbeans.util.CdiAnnotationEquivalence;
 
 import javax.enterprise.inject.spi.AnnotatedType;
 import javax.enterprise.util.Nonbinding;
@@ -212,15 +213,20 @@ public final class BeanCacheKey
 
     /**
      * Calculate the hashCode() of a qualifier.
-     * We do not do any in-depth hashCode down to member hashes
-     * but only use the hashcode of the AnnotationType itself.
-     * This is WAY faster and spreads well enough in practice.
-     * We can do this as we do not need to return a perfectly unique
-     * result anyway.
+     * Qualifiers with binding members, e.g. &#064;Named, include the hashes of the member values,
+     * otherwise all lookups with such a qualifier end up in the same bucket.
+     * If an Extension redefined the qualifier its binding members may differ from the ones
+     * of the class, so only the hashcode of the AnnotationType itself gets used for them.
      */
     private int getQualifierHashCode(Annotation a)
     {
-        return a.annotationType().hashCode();
+        Class<? extends Annotation> annotationType = a.annotationType();
+        CdiAnnotationEquivalence equivalence = CdiAnnotationEquivalence.of(annotationType);
+        if (!equivalence.hasBindingMembers() || lazyAtLoader != null && lazyAtLoader.apply(annotationType) != null)
+        {
+            return annotationType.hashCode();
+        }
+        return equivalence.hashCode(a);
     }
 
     /**
@@ -0,0 +1,328 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.container;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.ContextNotActiveException;
+import javax.enterprise.context.Dependent;
+import javax.enterprise.context.spi.Context;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.InjectionPoint;
+import javax.inject.Singleton;
+
+import org.apache.webbeans.component.AbstractProducerBean;
+import org.apache.webbeans.component.BuiltInOwbBean;
+import org.apache.webbeans.component.ExtensionBean;
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.exception.WebBeansException;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.util.WebBeansUtil;
+
+/**
+ * Creates the contextual instances of &#064;ApplicationScoped and &#064;Singleton beans
+ * right after the AfterDeploymentValidation event instead of on their first usage.
+ *
+ * The beans get created in parallel. Beans which get injected into other warmed up beans
+ * (directly or via &#064;Dependent beans) get created first.
+ * The container start blocks until all instances got created.
+ * Beans which cannot be created get logged and will be created on first usage as usual.
+ *
+ * @see OpenWebBeansConfiguration#WARMUP_ENABLED
+ */
+public class BeanInstanceWarmup
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(BeanInstanceWarmup.class);
+
+    private final WebBeansContext webBeansContext;
+
+    private final Map<Bean<?>, Long> creationTimes = new ConcurrentHashMap<>();
+    private final AtomicInteger failedBeanCount = new AtomicInteger();
+    private volatile long warmupTime;
+
+    public BeanInstanceWarmup(WebBeansContext webBeansContext)
+    {
+        this.webBeansContext = webBeansContext;
+    }
+
+    /**
+     * Create the instances of all beans which got selected for the warm-up.
+     * Only returns after all of them got created.
+     */
+    public void warmup()
+    {
+        OpenWebBeansConfiguration configuration = webBeansContext.getOpenWebBeansConfiguration();
+        List<Bean<?>> beans = getWarmupBeans(configuration.getWarmupBeans());
+
+        // some ContextsServices bind their contexts to the current thread, so look them up here
+        Map<Class<? extends Annotation>, Context> contexts = new HashMap<>();
+        for (Iterator<Bean<?>> it = beans.iterator(); it.hasNext();)
+        {
+            Class<? extends Annotation> scope = it.next().getScope();
+            if (!contexts.containsKey(scope))
+            {
+                try
+                {
+                    contexts.put(scope, webBeansContext.getBeanManagerImpl().getContext(scope));
+                }
+                catch (ContextNotActiveException e)
+                {
+                    logger.warning("Beans with scope @" + scope.getSimpleName() + " cannot get warmed up, the context is not active");
+                    contexts.put(scope, null);
+                }
+            }
+            if (contexts.get(scope) == null)
+            {
+                it.remove();
+            }
+        }
+        if (beans.isEmpty())
+        {
+            return;
+        }
+
+        long start = System.nanoTime();
+        ClassLoader classLoader = WebBeansUtil.getCurrentClassLoader();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(configuration.getWarmupThreads(), beans.size()), r ->
+        {
+            Thread thread = new Thread(r, "OpenWebBeans-Warmup-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        });
+
+        try
+        {
+            // all beans of a level only depend on beans of the previous levels
+            for (List<Bean<?>> level : sortByDependencies(beans))
+            {
+                List<Future<?>> futures = new ArrayList<>(level.size());
+                for (Bean<?> bean : level)
+                {
+                    futures.add(executor.submit(() -> createInstance(bean, contexts.get(bean.getScope()))));
+                }
+                for (Future<?> future : futures)
+                {
+                    future.get();
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            logger.warning("Bean warm-up got interrupted");
+        }
+        catch (ExecutionException e)
+        {
+            throw new WebBeansException("Error while warming up beans", e.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        warmupTime = System.nanoTime() - start;
+        logResult();
+    }
+
+    /**
+     * @return the time in ns it took to create the instance of each warmed up bean
+     */
+    public Map<Bean<?>, Long> getCreationTimes()
+    {
+        return Collections.unmodifiableMap(creationTimes);
+    }
+
+    /**
+     * @return the number of beans whose instance could not get created
+     */
+    public int getFailedBeanCount()
+    {
+        return failedBeanCount.get();
+    }
+
+    /**
+     * @return the overall time in ns the warm-up took
+     */
+    public long getWarmupTime()
+    {
+        return warmupTime;
+    }
+
+    private List<Bean<?>> getWarmupBeans(Set<String> selectedBeanClasses)
+    {
+        List<Bean<?>> beans = new ArrayList<>();
+        for (Bean<?> bean : webBeansContext.getBeanManagerImpl().getBeans())
+        {
+            Class<?> scope = bean.getScope();
+            if ((scope == ApplicationScoped.class || scope == Singleton.class)
+                && !(bean instanceof BuiltInOwbBean) && !(bean instanceof ExtensionBean)
+                && (selectedBeanClasses.isEmpty() || selectedBeanClasses.contains(bean.getBeanClass().getName())))
+            {
+                beans.add(bean);
+            }
+        }
+        return beans;
+    }
+
+    private <T> void createInstance(Bean<T> bean, Context context)
+    {
+        long start = System.nanoTime();
+        try
+        {
+            context.get(bean, webBeansContext.getBeanManagerImpl().createCreationalContext(bean));
+            creationTimes.put(bean, System.nanoTime() - start);
+        }
+        catch (RuntimeException e)
+        {
+            failedBeanCount.incrementAndGet();
+            logger.log(Level.WARNING, "Could not warm up " + bean + ". It will get created on first usage.", e);
+        }
+    }
+
+    /**
+     * Groups the beans into levels. The beans of each level only depend on beans of lower levels.
+     * Dependency cycles get broken arbitrarily.
+     */
+    private List<List<Bean<?>>> sortByDependencies(List<Bean<?>> beans)
+    {
+        Set<Bean<?>> warmupBeans = new HashSet<>(beans);
+        Map<Bean<?>, Integer> levels = new HashMap<>();
+        List<List<Bean<?>>> result = new ArrayList<>();
+        for (Bean<?> bean : beans)
+        {
+            int level = getLevel(bean, warmupBeans, levels, new HashSet<>());
+            while (result.size() <= level)
+            {
+                result.add(new ArrayList<>());
+            }
+            result.get(level).add(bean);
+        }
+        return result;
+    }
+
+    private int getLevel(Bean<?> bean, Set<Bean<?>> warmupBeans, Map<Bean<?>, Integer> levels, Set<Bean<?>> path)
+    {
+        Integer level = levels.get(bean);
+        if (level != null)
+        {
+            return level;
+        }
+        if (!path.add(bean))
+        {
+            // a cycle
+            return -1;
+        }
+
+        Set<Bean<?>> dependencies = new HashSet<>();
+        collectDependencies(bean, warmupBeans, dependencies, new HashSet<>());
+
+        int maxDependencyLevel = -1;
+        for (Bean<?> dependency : dependencies)
+        {
+            maxDependencyLevel = Math.max(maxDependencyLevel, getLevel(dependency, warmupBeans, levels, path));
+        }
+
+        path.remove(bean);
+        levels.put(bean, maxDependencyLevel + 1);
+        return maxDependencyLevel + 1;
+    }
+
+    private void collectDependencies(Bean<?> bean, Set<Bean<?>> warmupBeans, Set<Bean<?>> dependencies, Set<Bean<?>> visited)
+    {
+        if (bean instanceof AbstractProducerBean)
+        {
+            addDependency(((AbstractProducerBean<?>) bean).getOwnerComponent(), warmupBeans, dependencies, visited);
+        }
+
+        InjectionResolver injectionResolver = webBeansContext.getBeanManagerImpl().getInjectionResolver();
+        for (InjectionPoint injectionPoint : bean.getInjectionPoints())
+        {
+            if (injectionPoint.isDelegate())
+            {
+                continue;
+            }
+
+            Bean<?> dependency;
+            try
+            {
+                dependency = injectionResolver.getInjectionPointBean(injectionPoint);
+            }
+            catch (RuntimeException e)
+            {
+                // got validated already, so this only happens for very special setups
+                logger.log(Level.FINE, "Could not resolve " + injectionPoint, e);
+                continue;
+            }
+            addDependency(dependency, warmupBeans, dependencies, visited);
+        }
+    }
+
+    private void addDependency(Bean<?> dependency, Set<Bean<?>> warmupBeans, Set<Bean<?>> dependencies, Set<Bean<?>> visited)
+    {
+        if (dependency == null)
+        {
+            return;
+        }
+        if (warmupBeans.contains(dependency))
+        {
+            dependencies.add(dependency);
+        }
+        else if (dependency.getScope() == Dependent.class && visited.add(dependency))
+        {
+            // gets created together with the bean, so its dependencies are ours
+            collectDependencies(dependency, warmupBeans, dependencies, visited);
+        }
+    }
+
+    private void logResult()
+    {
+        if (logger.isLoggable(Level.FINE))
+        {
+            creationTimes.entrySet().stream()
+                .sorted(Map.Entry.<Bean<?>, Long>comparingByValue().reversed())
+                .forEach(e -> logger.fine("Warmed up " + e.getKey() + " in " + e.getValue() / 1000 + " us"));
+        }
+
+        if (logger.isLoggable(Level.INFO))
+        {
+            logger.info("Warmed up " + creationTimes.size() + " beans in " + warmupTime / 1000000 + " ms"
+                + (failedBeanCount.get() > 0 ? ", " + failedBeanCount.get() + " beans failed" : ""));
+        }
+    }
+}
@@ -855,8 +855,11 @@ public class BeanManagerImpl implements BeanManager, Referenceable
             }
         } // TODO else constructor rules are a bit different
         GProcessInjectionPoint event = webBeansContext.getWebBeansUtil().fireProcessInjectionPointEvent(injectionPoint);
-        injectionPoint = event.getInjectionPoint();
-        event.setStarted();
+        if (event != null)
+        {
+            injectionPoint = event.getInjectionPoint();
+            event.setStarted();
+        }
         return injectionPoint;
     }
 
@@ -1267,6 +1270,10 @@ public class BeanManagerImpl implements BeanManager, Referenceable
             }
         }
         GProcessInjectionTarget event = webBeansContext.getWebBeansUtil().fireProcessInjectionTargetEvent(injectionTarget, type);
+        if (event == null)
+        {
+            return injectionTarget;
+        }
         InjectionTarget it = event.getInjectionTarget();
         event.setStarted();
         return it;
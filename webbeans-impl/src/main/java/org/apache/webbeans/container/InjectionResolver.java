@@ -31,12 +31,14 @@ import org.apache.webbeans.exception.WebBeansDeploymentException;
 import org.apache.webbeans.inject.AlternativesManager;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
 import org.apache.webbeans.spi.BDABeansXmlScanner;
+import org.apache.webbeans.spi.MetricsService;
 import org.apache.webbeans.spi.ScannerService;
 import org.apache.webbeans.util.AnnotationUtil;
 import org.apache.webbeans.util.Asserts;
 import org.apache.webbeans.util.ClassUtil;
 import org.apache.webbeans.util.GenericsUtil;
 import org.apache.webbeans.util.InjectionExceptionUtil;
+import org.apache.webbeans.util.SegmentedLruCache;
 import org.apache.webbeans.util.SingleItemSet;
 import org.apache.webbeans.util.WebBeansUtil;
 
@@ -91,6 +93,7 @@ public class InjectionResolver
      * If a bean have resolved as not existing, the entry will contain <code>null</code> as value.
      * The Long key is a hashCode, see
      * {@link BeanCacheKey#BeanCacheKey(boolean, Type, String, java.util.function.Function, Annotation...)}
+     * A {@link SegmentedLruCache} if {@link org.apache.webbeans.config.OpenWebBeansConfiguration#INJECTION_RESOLVER_CACHE_SIZE} is set.
      */
     private Map<BeanCacheKey, Set<Bean<?>>> resolvedBeansByType = new ConcurrentHashMap<>();
 
@@ -110,6 +113,15 @@ public class InjectionResolver
     private Bean<Instance<Object>> instanceBean;
     private Bean<Event<Object>> eventBean;
 
+    /**
+     * Cache hit and miss counters, {@code null} if no {@link MetricsService} is configured.
+     * They get created once the container is started as only then the caches get used.
+     */
+    private MetricsService.Counter byTypeHits;
+    private MetricsService.Counter byTypeMisses;
+    private MetricsService.Counter byNameHits;
+    private MetricsService.Counter byNameMisses;
+
     /**
      * Creates a new injection resolve for given bean manager.
      *
@@ -130,18 +142,77 @@ public class InjectionResolver
         this.fastMatching = fastMatching;
     }
 
+    /**
+     * Bounds the resolution caches, must be called before the first resolution.
+     *
+     * @param cacheSize the maximum number of entries per cache, 0 for unbounded caches
+     * @see org.apache.webbeans.config.OpenWebBeansConfiguration#INJECTION_RESOLVER_CACHE_SIZE
+     */
+    public void setCacheSize(int cacheSize)
+    {
+        if (cacheSize > 0)
+        {
+            resolvedBeansByType = new SegmentedLruCache<>(cacheSize);
+            resolvedBeansByName = new SegmentedLruCache<>(cacheSize);
+        }
+        else
+        {
+            resolvedBeansByType = new ConcurrentHashMap<>();
+            resolvedBeansByName = new ConcurrentHashMap<>();
+        }
+    }
+
     public void setStartup(boolean startup)
     {
         this.startup = startup;
+
+        MetricsService metricsService = webBeansContext.getMetricsService();
+        if (!startup && metricsService != null && byTypeHits == null)
+        {
+            metricsService.registerGauge("injectionResolver.resolvedBeansByType.size", () -> resolvedBeansByType.size());
+            metricsService.registerGauge("injectionResolver.resolvedBeansByName.size", () -> resolvedBeansByName.size());
+            byTypeHits = metricsService.getCounter("injectionResolver.resolvedBeansByType.hits");
+            byTypeMisses = metricsService.getCounter("injectionResolver.resolvedBeansByType.misses");
+            byNameHits = metricsService.getCounter("injectionResolver.resolvedBeansByName.hits");
+            byNameMisses = metricsService.getCounter("injectionResolver.resolvedBeansByName.misses");
+            if (resolvedBeansByType instanceof SegmentedLruCache)
+            {
+                SegmentedLruCache<?, ?> byType = (SegmentedLruCache<?, ?>) resolvedBeansByType;
+                SegmentedLruCache<?, ?> byName = (SegmentedLruCache<?, ?>) resolvedBeansByName;
+                metricsService.registerGauge("injectionResolver.resolvedBeansByType.evictions", byType::getEvictionCount);
+                metricsService.registerGauge("injectionResolver.resolvedBeansByName.evictions", byName::getEvictionCount);
+            }
+        }
+    }
+
+    /**
+     * @return the bounded cache of the beans resolved by type and qualifiers, including its hit,
+     *         miss and eviction statistics, or {@code null} if the cache is unbounded
+     * @see org.apache.webbeans.config.OpenWebBeansConfiguration#INJECTION_RESOLVER_CACHE_SIZE
+     */
+    public SegmentedLruCache<BeanCacheKey, Set<Bean<?>>> getBoundedResolvedBeansByType()
+    {
+        return resolvedBeansByType instanceof SegmentedLruCache ? (SegmentedLruCache<BeanCacheKey, Set<Bean<?>>>) resolvedBeansByType : null;
+    }
+
+    /**
+     * @return the bounded cache of the beans resolved by name or {@code null} if the cache is unbounded
+     * @see org.apache.webbeans.config.OpenWebBeansConfiguration#INJECTION_RESOLVER_CACHE_SIZE
+     */
+    public SegmentedLruCache<String, Set<Bean<?>>> getBoundedResolvedBeansByName()
+    {
+        return resolvedBeansByName instanceof SegmentedLruCache ? (SegmentedLruCache<String, Set<Bean<?>>>) resolvedBeansByName : null;
     }
     
     /**
      * Clear caches.
+     * This also clears the assignability results of {@link GenericsUtil} as redefined classes keep their identity.
      */
     public void clearCaches()
     {
         resolvedBeansByName.clear();
         resolvedBeansByType.clear();
+        GenericsUtil.getAssignabilityCache().clear();
     }
 
     /**
@@ -370,8 +441,16 @@ public class InjectionResolver
         Set<Bean<?>> resolvedComponents = resolvedBeansByName.get(cacheKey);
         if (resolvedComponents != null)
         {
+            if (byNameHits != null)
+            {
+                byNameHits.increment();
+            }
             return resolvedComponents;
         }
+        if (byNameMisses != null)
+        {
+            byNameMisses.increment();
+        }
 
         resolvedComponents = new HashSet<>();
         Set<Bean<?>> deployedComponents = webBeansContext.getBeanManagerImpl().getBeans();
@@ -472,8 +551,16 @@ public class InjectionResolver
             resolvedComponents = resolvedBeansByType.get(cacheKey);
             if (resolvedComponents != null)
             {
+                if (byTypeHits != null)
+                {
+                    byTypeHits.increment();
+                }
                 return resolvedComponents;
             }
+            if (byTypeMisses != null)
+            {
+                byTypeMisses.increment();
+            }
         }
 
         resolvedComponents = new HashSet<>();
@@ -69,8 +69,12 @@ public class InjectionTargetFactoryImpl<T> implements InjectionTargetFactory<T>
             ManagedBean.class.cast(bean).setOriginalInjectionTarget(injectionTarget);
         }
         GProcessInjectionTarget event = webBeansContext.getWebBeansUtil().fireProcessInjectionTargetEvent(injectionTarget, at);
-        InjectionTarget it = event.getInjectionTarget();
-        event.setStarted();
+        InjectionTarget it = injectionTarget;
+        if (event != null)
+        {
+            it = event.getInjectionTarget();
+            event.setStarted();
+        }
 
         // creating the InjectionTarget must only be done once.
         this.annotatedType = null;
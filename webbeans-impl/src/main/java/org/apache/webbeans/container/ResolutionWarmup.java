@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.container;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.InjectionPoint;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.util.WebBeansUtil;
+
+/**
+ * Walks all beans and their injection points in the background once the
+ * deployment is done. This creates the normal scoping proxies and fills the
+ * caches of the {@link InjectionResolver}, so the first calls don't have to pay for it.
+ *
+ * The progress can be queried, e.g. by readiness checks which don't want to
+ * send traffic before the warm-up is done.
+ *
+ * @see org.apache.webbeans.config.OpenWebBeansConfiguration#BACKGROUND_WARMUP_ENABLED
+ */
+public class ResolutionWarmup implements Closeable
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(ResolutionWarmup.class);
+
+    private final WebBeansContext webBeansContext;
+
+    private final AtomicInteger completedBeanCount = new AtomicInteger();
+    private volatile int beanCount;
+    private volatile CountDownLatch done;
+    private volatile ExecutorService executor;
+
+    public ResolutionWarmup(WebBeansContext webBeansContext)
+    {
+        this.webBeansContext = webBeansContext;
+    }
+
+    /**
+     * Start the warm-up. This method returns immediately.
+     */
+    public synchronized void start()
+    {
+        if (executor != null)
+        {
+            return;
+        }
+
+        List<Bean<?>> beans = new ArrayList<>(webBeansContext.getBeanManagerImpl().getBeans());
+        beanCount = beans.size();
+        completedBeanCount.set(0);
+        done = new CountDownLatch(beans.size());
+
+        int threads = webBeansContext.getOpenWebBeansConfiguration().getBackgroundWarmupThreads();
+        ClassLoader classLoader = WebBeansUtil.getCurrentClassLoader();
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r ->
+        {
+            Thread thread = new Thread(r, "OpenWebBeans-BackgroundWarmup-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        });
+
+        long start = System.nanoTime();
+        for (Bean<?> bean : beans)
+        {
+            executor.execute(() ->
+            {
+                try
+                {
+                    warmup(bean);
+                }
+                finally
+                {
+                    if (completedBeanCount.incrementAndGet() == beanCount)
+                    {
+                        logger.info("Background warm-up of " + beanCount + " beans done in "
+                            + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+                    }
+                    done.countDown();
+                }
+            });
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * @return the number of beans which get warmed up
+     */
+    public int getBeanCount()
+    {
+        return beanCount;
+    }
+
+    /**
+     * @return the number of beans which got warmed up already
+     */
+    public int getCompletedBeanCount()
+    {
+        return completedBeanCount.get();
+    }
+
+    /**
+     * @return the progress between 0 and 1. 1 if the warm-up did not get started.
+     */
+    public double getProgress()
+    {
+        int count = beanCount;
+        return count == 0 ? 1 : (double) completedBeanCount.get() / count;
+    }
+
+    /**
+     * @return whether the warm-up is done, got closed or did not get started at all
+     */
+    public boolean isDone()
+    {
+        CountDownLatch latch = done;
+        return latch == null || latch.getCount() == 0;
+    }
+
+    /**
+     * Wait until the warm-up is done.
+     * @return {@code false} if the warm-up is still running after the given time
+     *         or got closed before all beans got warmed up
+     */
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        CountDownLatch latch = done;
+        return latch == null || latch.await(timeout, unit) && completedBeanCount.get() == beanCount;
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        if (executor != null)
+        {
+            // the queued beans won't get warmed up anymore, don't let anybody wait for them
+            for (int i = executor.shutdownNow().size(); i > 0; i--)
+            {
+                done.countDown();
+            }
+        }
+    }
+
+    private <T> void warmup(Bean<T> bean)
+    {
+        BeanManagerImpl beanManager = webBeansContext.getBeanManagerImpl();
+        try
+        {
+            if (beanManager.isNormalScope(bean.getScope()))
+            {
+                // creates the proxy class and caches the proxy instance, no contextual instance gets created
+                beanManager.getReference(bean, null, beanManager.createCreationalContext(bean));
+            }
+
+            InjectionResolver injectionResolver = beanManager.getInjectionResolver();
+            for (InjectionPoint injectionPoint : bean.getInjectionPoints())
+            {
+                if (!injectionPoint.isDelegate())
+                {
+                    injectionResolver.getInjectionPointBean(injectionPoint);
+                }
+            }
+        }
+        catch (RuntimeException e)
+        {
+            // it's only a warm-up, the same error will show up on first usage
+            logger.log(Level.FINE, "Could not warm up " + bean, e);
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package org.apache.webbeans.context;
 
 import java.io.IOException;
+import java.io.InvalidObjectException;
 import java.io.NotSerializableException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -29,15 +30,19 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import javax.enterprise.context.ContextNotActiveException;
 import javax.enterprise.context.spi.AlterableContext;
 import javax.enterprise.context.spi.Contextual;
 import javax.enterprise.context.spi.CreationalContext;
 
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.container.BeanManagerImpl;
 import org.apache.webbeans.container.SerializableBean;
 import org.apache.webbeans.container.SerializableBeanVault;
 import org.apache.webbeans.context.creational.BeanInstanceBag;
+import org.apache.webbeans.util.WebBeansUtil;
 
 /**
  * Abstract implementation of the {@link javax.enterprise.context.spi.Context} interfaces.
@@ -52,9 +57,16 @@ import org.apache.webbeans.context.creational.BeanInstanceBag;
 public abstract class AbstractContext implements AlterableContext, Serializable
 {
     private static final long serialVersionUID = 2357678967444477818L;
+
+    private static final AtomicIntegerFieldUpdater<AbstractContext> COUNTED_AS_ACTIVE =
+        AtomicIntegerFieldUpdater.newUpdater(AbstractContext.class, "countedAsActive");
+
     /**Context status, active or not*/
     protected volatile boolean active;
 
+    /**1 if this instance is counted in the active contexts metric, a deserialized instance is not*/
+    private transient volatile int countedAsActive;
+
 
     /**Context contextual instances*/
     protected Map<Contextual<?>, BeanInstanceBag<?>> componentInstanceMap;
@@ -108,7 +120,12 @@ public abstract class AbstractContext implements AlterableContext, Serializable
         
         if(bag != null)
         {
-            return (T) bag.getBeanInstance();
+            T instance = (T) bag.getBeanInstance();
+            if (instance != null)
+            {
+                accessed(component, bag);
+            }
+            return instance;
         }
         
         return null;
@@ -137,6 +154,11 @@ public abstract class AbstractContext implements AlterableContext, Serializable
         BeanInstanceBag<T> bag = (BeanInstanceBag<T>)componentInstanceMap.get(contextual);
         if(bag == null)
         {
+            if(creationalContext == null)
+            {
+                // don't leave an empty bag without CreationalContext behind
+                return null;
+            }
             bag = createContextualBag(contextual, creationalContext);
         }
 
@@ -144,6 +166,7 @@ public abstract class AbstractContext implements AlterableContext, Serializable
         instance = bag.getBeanInstance();
         if (instance != null)
         {
+            accessed(contextual, bag);
             return instance;
         }
 
@@ -163,6 +186,15 @@ public abstract class AbstractContext implements AlterableContext, Serializable
         return  instance;
     }
 
+    /**
+     * Gets invoked whenever an existing contextual instance gets handed out by this context.
+     * This is a no-op by default.
+     */
+    protected void accessed(Contextual<?> contextual, BeanInstanceBag<?> bag)
+    {
+        // nothing to do
+    }
+
     @Override
     public void destroy(Contextual<?> contextual)
     {
@@ -256,6 +288,15 @@ public abstract class AbstractContext implements AlterableContext, Serializable
      */
     protected abstract void setComponentInstanceMap();
     
+    /**
+     * @return whether the state changed, i.e. whether the metric has to get updated
+     * @see AbstractContextsService#contextStarted(AbstractContext)
+     */
+    boolean setCountedAsActive(boolean counted)
+    {
+        return counted ? COUNTED_AS_ACTIVE.compareAndSet(this, 0, 1) : COUNTED_AS_ACTIVE.compareAndSet(this, 1, 0);
+    }
+
     /**
      * Check that context is active or throws exception.
      */
@@ -276,17 +317,21 @@ public abstract class AbstractContext implements AlterableContext, Serializable
         s.writeObject(scopeType);
         s.writeBoolean(active);
 
-        // we need to repack the Contextual<T> from the componentInstanceMap into Serializable ones
+        // we need to repack the Contextual<T> from the componentInstanceMap into Serializable ones.
+        // PassivationCapable ones just get referenced by their passivation id
         if (componentInstanceMap != null)
         {
-            SerializableBeanVault sbv = org.apache.webbeans.config.WebBeansContext.getInstance().getSerializableBeanVault();
+            WebBeansContext webBeansContext = WebBeansContext.currentInstance();
+            SerializableBeanVault sbv = webBeansContext.getSerializableBeanVault();
 
-            Map<Contextual<?>, BeanInstanceBag<?>> serializableInstanceMap =
+            Map<Object, BeanInstanceBag<?>> serializableInstanceMap =
                 new HashMap<>();
 
             for (Map.Entry<Contextual<?>, BeanInstanceBag<?>> componentInstanceMapEntry : componentInstanceMap.entrySet())
             {
-                serializableInstanceMap.put(sbv.getSerializableBean(componentInstanceMapEntry.getKey()),
+                Contextual<?> contextual = componentInstanceMapEntry.getKey();
+                String passivationId = WebBeansUtil.getPassivationId(contextual);
+                serializableInstanceMap.put(passivationId != null ? passivationId : sbv.getSerializableBean(contextual),
                                             componentInstanceMapEntry.getValue());
             }
             
@@ -308,8 +353,8 @@ public abstract class AbstractContext implements AlterableContext, Serializable
         scopeType = (Class<? extends Annotation>) s.readObject();
         active = s.readBoolean();
 
-        HashMap<Contextual<?>, BeanInstanceBag<?>> serializableInstanceMap =
-                (HashMap<Contextual<?>, BeanInstanceBag<?>>) s.readObject();
+        HashMap<Object, BeanInstanceBag<?>> serializableInstanceMap =
+                (HashMap<Object, BeanInstanceBag<?>>) s.readObject();
 
         if (serializableInstanceMap != null)
         {
@@ -319,16 +364,31 @@ public abstract class AbstractContext implements AlterableContext, Serializable
                 throw new NotSerializableException("componentInstanceMap not initialized!");
             }
 
-            for (Map.Entry<Contextual<?>, BeanInstanceBag<?>> serializableInstanceMapEntry : serializableInstanceMap.entrySet())
+            BeanManagerImpl beanManager = null;
+            for (Map.Entry<Object, BeanInstanceBag<?>> serializableInstanceMapEntry : serializableInstanceMap.entrySet())
             {
-                Contextual<?> bean = serializableInstanceMapEntry.getKey();
-                if (bean instanceof SerializableBean)
+                Object bean = serializableInstanceMapEntry.getKey();
+                if (bean instanceof String)
+                {
+                    if (beanManager == null)
+                    {
+                        beanManager = WebBeansContext.currentInstance().getBeanManagerImpl();
+                    }
+                    Contextual<?> contextual = beanManager.getPassivationCapableBean((String) bean);
+                    if (contextual == null)
+                    {
+                        // same as for SerializableBean keys
+                        throw new InvalidObjectException("cannot deserialize Bean with PassivationCapable id=" + bean);
+                    }
+                    componentInstanceMap.put(contextual, serializableInstanceMapEntry.getValue());
+                }
+                else if (bean instanceof SerializableBean)
                 {
                     componentInstanceMap.put(((SerializableBean<?>)bean).getBean(), serializableInstanceMapEntry.getValue());
                 }
                 else
                 {
-                    componentInstanceMap.put(bean, serializableInstanceMapEntry.getValue());
+                    componentInstanceMap.put((Contextual<?>) bean, serializableInstanceMapEntry.getValue());
                 }
             }
         }
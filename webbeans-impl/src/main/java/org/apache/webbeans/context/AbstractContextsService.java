@@ -19,8 +19,8 @@
 package org.apache.webbeans.context;
 
 import java.lang.annotation.Annotation;
-import java.util.Iterator;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.enterprise.context.ContextException;
 import javax.enterprise.context.SessionScoped;
@@ -30,6 +30,7 @@ import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.conversation.ConversationImpl;
 import org.apache.webbeans.conversation.ConversationManager;
 import org.apache.webbeans.spi.ContextsService;
+import org.apache.webbeans.spi.MetricsService;
 
 public abstract class AbstractContextsService implements ContextsService
 {
@@ -37,12 +38,22 @@ public abstract class AbstractContextsService implements ContextsService
 
     protected boolean supportsConversation;
 
+    /**
+     * {@code null} if no metrics shall get collected.
+     */
+    private final MetricsService metricsService;
+
+    /**
+     * The number of started but not yet ended contexts per scope.
+     */
+    private final Map<Class<? extends Annotation>, MetricsService.Counter> activeContexts = new ConcurrentHashMap<>();
+
 
     protected AbstractContextsService(WebBeansContext webBeansContext)
     {
         this.webBeansContext = webBeansContext;
         supportsConversation = webBeansContext.getOpenWebBeansConfiguration().supportsConversation();
-
+        metricsService = webBeansContext.getMetricsService();
     }
 
     @Override
@@ -95,41 +106,63 @@ public abstract class AbstractContextsService implements ContextsService
     }
 
     /**
-     * Destroy inactive (timed out) conversations.
+     * Has to get invoked whenever a context instance got started or attached,
+     * e.g. a session context which got deserialized. Every context instance only gets counted once.
+     * The ConversationManager keeps track of the conversations itself.
      */
-    public void destroyOutdatedConversations(ConversationContext currentConversationContext)
+    protected void contextStarted(AbstractContext context)
     {
-        ConversationManager conversationManager = null;
-        Context sessionContext = getCurrentContext(SessionScoped.class, false);
-        if (sessionContext != null && sessionContext.isActive())
+        if (metricsService != null && context.setCountedAsActive(true))
         {
-            conversationManager = webBeansContext.getConversationManager();
-            Set<ConversationContext> conversationContexts = conversationManager.getSessionConversations(sessionContext, false);
-            if (conversationContexts != null)
-            {
-                Iterator<ConversationContext> convIt = conversationContexts.iterator();
-                while (convIt.hasNext())
-                {
-                    ConversationContext conversationContext = convIt.next();
-
-                    ConversationImpl conv = conversationContext.getConversation();
-                    if (conversationManager.conversationTimedOut(conv))
-                    {
-                        conversationManager.destroyConversationContext(conversationContext);
-                        convIt.remove();
-                    }
-                }
-            }
+            getActiveContexts(context.getScope()).increment();
+        }
+    }
+
+    /**
+     * Has to get invoked whenever a context instance got destroyed.
+     * Only counts it down if it got counted by {@link #contextStarted(AbstractContext)}.
+     */
+    protected void contextEnded(AbstractContext context)
+    {
+        if (metricsService != null && context.setCountedAsActive(false))
+        {
+            getActiveContexts(context.getScope()).decrement();
         }
+    }
 
+    private MetricsService.Counter getActiveContexts(Class<? extends Annotation> scopeType)
+    {
+        return activeContexts.computeIfAbsent(scopeType,
+            s -> metricsService.getCounter("contexts." + s.getSimpleName() + ".active"));
+    }
+
+    /**
+     * Release the conversation of the ending request and destroy it if it is transient.
+     * Also destroys the long running conversations of the session which got marked as timed out
+     * in the background by the {@link ConversationManager}.
+     */
+    public void destroyOutdatedConversations(ConversationContext currentConversationContext)
+    {
         if (currentConversationContext != null)
         {
-            currentConversationContext.getConversation().iDontUseItAnymore();
-            if (currentConversationContext.getConversation().isTransient())
+            ConversationImpl conversation = currentConversationContext.getConversation();
+            conversation.iDontUseItAnymore();
+            if (conversation.isTransient())
             {
-                conversationManager = conversationManager != null ? conversationManager : webBeansContext.getConversationManager();
+                ConversationManager conversationManager = webBeansContext.getConversationManager();
                 conversationManager.destroyConversationContext(currentConversationContext);
             }
+            else
+            {
+                // the timeout is measured from the end of the last request
+                conversation.updateLastAccessTime();
+            }
+        }
+
+        Context sessionContext = getCurrentContext(SessionScoped.class, false);
+        if (sessionContext != null && sessionContext.isActive())
+        {
+            webBeansContext.getConversationManager().destroyExpiredConversations(sessionContext);
         }
     }
 
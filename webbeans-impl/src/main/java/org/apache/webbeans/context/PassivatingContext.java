@@ -19,14 +19,20 @@
 package org.apache.webbeans.context;
 
 import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.inject.spi.Bean;
 import java.io.Externalizable;
 import java.io.IOException;
 import java.io.NotSerializableException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
 import java.lang.annotation.Annotation;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.context.creational.BeanInstanceBag;
@@ -35,9 +41,30 @@ import org.apache.webbeans.util.WebBeansUtil;
 /**
  * Base class for passivating contexts.
  * It basically provides serialisation support
+ *
+ * <p>Contextual instances get marked dirty whenever they get handed out by the context,
+ * e.g. on the first invocation of their normal scoping proxy within a request.
+ * {@link #writeDelta(ObjectOutput)} only writes the dirty instances and the ones which
+ * got destroyed since the last delta. This can be used for session replication.
+ * A full serialization doesn't change the dirty state, a replication channel which starts
+ * with a full copy has to call {@link #markClean()} after it got sent.
+ * Beans configured as {@link org.apache.webbeans.config.OpenWebBeansConfiguration#IMMUTABLE_PASSIVATING_BEANS}
+ * only get dirty via {@link #markDirty(Contextual)}.</p>
  */
 public abstract class PassivatingContext extends AbstractContext implements Externalizable
 {
+    private static final int DELTA_VERSION = 1;
+
+    /**
+     * Passivation ids of the beans which got destroyed since the last delta.
+     */
+    private transient volatile Set<String> removedPassivationIds;
+
+    /**
+     * Bean classes which don't get dirty on access.
+     * @see org.apache.webbeans.config.OpenWebBeansConfiguration#IMMUTABLE_PASSIVATING_BEANS
+     */
+    private transient volatile Set<String> immutableBeanClasses;
 
     public PassivatingContext(Class<? extends Annotation> scopeType)
     {
@@ -47,11 +74,179 @@ public abstract class PassivatingContext extends AbstractContext implements Exte
     @Override
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
     {
+        scopeType = (Class<? extends Annotation>) in.readObject();
+        setComponentInstanceMap();
+        readInstances(in, WebBeansContext.currentInstance());
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        out.writeObject(scopeType);
+
+        // a full write, e.g. for session persistence, doesn't touch the delta state
+        writeInstances(out);
+    }
+
+    /**
+     * Write all contextual instances which changed since the last delta
+     * and the passivation ids of all destroyed ones.
+     * Afterwards this context is clean again, except for changes made while writing.
+     * @see #readDelta(ObjectInput)
+     */
+    public void writeDelta(ObjectOutput out) throws IOException
+    {
+        Map<String, BeanInstanceBag<?>> changed = new HashMap<>();
+        for (Map.Entry<Contextual<?>, BeanInstanceBag<?>> beanBagEntry : componentInstanceMap.entrySet())
+        {
+            BeanInstanceBag<?> bag = beanBagEntry.getValue();
+            if (bag.isDirty())
+            {
+                changed.put(getPassivationId(beanBagEntry.getKey()), bag);
+            }
+        }
+
+        // clean up before writing, so changes made in the meantime stay dirty
+        for (BeanInstanceBag<?> bag : changed.values())
+        {
+            bag.markClean();
+        }
+        Set<String> removed = takeRemovedPassivationIds();
+        Set<String> removedAndNotRecreated = new HashSet<>(removed);
+        removedAndNotRecreated.removeAll(changed.keySet());
+
+        try
+        {
+            out.writeInt(DELTA_VERSION);
+            out.writeObject(changed);
+            out.writeObject(removedAndNotRecreated);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            markDirtyAgain(changed.values(), removed);
+            throw e;
+        }
+    }
+
+    /**
+     * Apply a delta written by {@link #writeDelta(ObjectOutput)} to this context.
+     * Removed instances just get dropped, they already got destroyed on the writing side.
+     */
+    public void readDelta(ObjectInput in) throws IOException, ClassNotFoundException
+    {
+        int version = in.readInt();
+        if (version != DELTA_VERSION)
+        {
+            throw new StreamCorruptedException("unsupported delta version " + version);
+        }
+
         WebBeansContext webBeansContext = WebBeansContext.currentInstance();
+        readInstances(in, webBeansContext);
 
-        scopeType = (Class<? extends Annotation>) in.readObject();
+        Collection<String> removed = (Collection<String>) in.readObject();
+        for (String id : removed)
+        {
+            Contextual<?> contextual = webBeansContext.getBeanManagerImpl().getPassivationCapableBean(id);
+            if (contextual != null)
+            {
+                componentInstanceMap.remove(contextual);
+            }
+        }
+    }
+
+    /**
+     * @return whether any contextual instance changed or got destroyed since the last delta
+     */
+    public boolean isDirty()
+    {
+        Set<String> currentRemovedIds = removedPassivationIds;
+        if (currentRemovedIds != null && !currentRemovedIds.isEmpty())
+        {
+            return true;
+        }
+        for (BeanInstanceBag<?> bag : componentInstanceMap.values())
+        {
+            if (bag.isDirty())
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Explicitly mark the instance of the given Contextual as changed,
+     * e.g. for beans which don't get dirty on access.
+     */
+    public void markDirty(Contextual<?> contextual)
+    {
+        BeanInstanceBag<?> bag = componentInstanceMap.get(contextual);
+        if (bag != null)
+        {
+            bag.markDirty();
+        }
+    }
+
+    /**
+     * Mark all instances as written, e.g. after a full copy got sent to a replica.
+     */
+    public void markClean()
+    {
+        for (BeanInstanceBag<?> bag : componentInstanceMap.values())
+        {
+            bag.markClean();
+        }
+        Set<String> currentRemovedIds = removedPassivationIds;
+        if (currentRemovedIds != null)
+        {
+            currentRemovedIds.clear();
+        }
+    }
+
+    @Override
+    public void destroyInstance(Contextual<?> contextual)
+    {
+        boolean existed = componentInstanceMap.containsKey(contextual);
+        super.destroyInstance(contextual);
+        if (existed && !componentInstanceMap.containsKey(contextual))
+        {
+            String id = WebBeansUtil.getPassivationId(contextual);
+            if (id != null)
+            {
+                getRemovedPassivationIds().add(id);
+            }
+        }
+    }
+
+    @Override
+    protected void accessed(Contextual<?> contextual, BeanInstanceBag<?> bag)
+    {
+        if (bag.isDirty())
+        {
+            return;
+        }
+
+        Set<String> immutable = immutableBeanClasses;
+        if (immutable == null)
+        {
+            immutable = WebBeansContext.currentInstance().getOpenWebBeansConfiguration().getImmutablePassivatingBeans();
+            immutableBeanClasses = immutable;
+        }
+        if (immutable.isEmpty()
+            || !(contextual instanceof Bean)
+            || !immutable.contains(((Bean<?>) contextual).getBeanClass().getName()))
+        {
+            bag.markDirty();
+        }
+    }
+
+    /**
+     * Read the contextual instances written by {@link #writeInstances(ObjectOutput)}
+     * and add them to the current componentInstanceMap.
+     */
+    protected void readInstances(ObjectInput in, WebBeansContext webBeansContext) throws IOException, ClassNotFoundException
+    {
         Map<String, BeanInstanceBag<?>> map = (Map<String, BeanInstanceBag<?>>)in.readObject();
-        setComponentInstanceMap();
         for (Map.Entry<String, BeanInstanceBag<?>> beanBagEntry : map.entrySet())
         {
             String id = beanBagEntry.getKey();
@@ -66,25 +261,85 @@ public abstract class PassivatingContext extends AbstractContext implements Exte
         }
     }
 
-    @Override
-    public void writeExternal(ObjectOutput out) throws IOException
+    /**
+     * Write all contextual instances keyed by the passivation id of their Bean.
+     */
+    protected void writeInstances(ObjectOutput out) throws IOException
     {
-        out.writeObject(scopeType);
         Map<String, BeanInstanceBag<?>> map = new HashMap<>(componentInstanceMap.size());
 
         for (Map.Entry<Contextual<?>, BeanInstanceBag<?>> beanBagEntry : componentInstanceMap.entrySet())
         {
             Contextual<?> contextual = beanBagEntry.getKey();
 
-            String id = WebBeansUtil.getPassivationId(contextual);
-            if (id == null)
+            map.put(getPassivationId(contextual), beanBagEntry.getValue());
+        }
+
+        out.writeObject(map);
+    }
+
+    private static String getPassivationId(Contextual<?> contextual) throws NotSerializableException
+    {
+        String id = WebBeansUtil.getPassivationId(contextual);
+        if (id == null)
+        {
+            throw new NotSerializableException("cannot serialize " + contextual.toString());
+        }
+        return id;
+    }
+
+    /**
+     * Remove the ids of the destroyed beans.
+     * @return the removed ids
+     */
+    private Set<String> takeRemovedPassivationIds()
+    {
+        Set<String> removed = new HashSet<>();
+        Set<String> currentRemovedIds = removedPassivationIds;
+        if (currentRemovedIds != null)
+        {
+            for (String id : currentRemovedIds)
             {
-                throw new NotSerializableException("cannot serialize " + contextual.toString());
+                if (currentRemovedIds.remove(id))
+                {
+                    removed.add(id);
+                }
             }
-            map.put(id, beanBagEntry.getValue());
         }
+        return removed;
+    }
 
-        out.writeObject(map);
+    /**
+     * Undo the cleanup of a failed write.
+     */
+    private void markDirtyAgain(Collection<BeanInstanceBag<?>> bags, Set<String> removed)
+    {
+        for (BeanInstanceBag<?> bag : bags)
+        {
+            bag.markDirty();
+        }
+        if (!removed.isEmpty())
+        {
+            getRemovedPassivationIds().addAll(removed);
+        }
+    }
+
+    private Set<String> getRemovedPassivationIds()
+    {
+        Set<String> removed = removedPassivationIds;
+        if (removed == null)
+        {
+            synchronized (this)
+            {
+                removed = removedPassivationIds;
+                if (removed == null)
+                {
+                    removed = ConcurrentHashMap.newKeySet();
+                    removedPassivationIds = removed;
+                }
+            }
+        }
+        return removed;
     }
 
 }
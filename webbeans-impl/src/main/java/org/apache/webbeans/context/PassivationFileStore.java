@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.context;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+
+/**
+ * Append-only file storage for passivated contexts.
+ *
+ * Records get appended to the current segment file. Records never get rewritten.
+ * Once all records of a segment got freed the segment file gets deleted,
+ * or truncated if it is the current one. This keeps the disk usage bounded
+ * without any compaction.
+ */
+final class PassivationFileStore implements Closeable
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(PassivationFileStore.class);
+
+    private final File directory;
+    private final long maxSegmentSize;
+    private final boolean deleteDirectory;
+
+    private final List<Segment> segments = new ArrayList<>();
+    private Segment currentSegment;
+    private int segmentCounter;
+    private boolean closed;
+
+    PassivationFileStore(File directory, long maxSegmentSize, boolean deleteDirectory) throws IOException
+    {
+        if (!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IOException("Cannot create passivation directory " + directory);
+        }
+        this.directory = directory;
+        this.maxSegmentSize = maxSegmentSize;
+        this.deleteDirectory = deleteDirectory;
+    }
+
+    /**
+     * Append the given data.
+     * @return the handle to read or free the data later on
+     */
+    synchronized Record write(byte[] data) throws IOException
+    {
+        if (closed)
+        {
+            throw new IOException("passivation store is already closed");
+        }
+
+        if (currentSegment == null || currentSegment.size > 0 && currentSegment.size + data.length > maxSegmentSize)
+        {
+            currentSegment = new Segment(new File(directory, "sessions-" + segmentCounter++ + ".dat"));
+            segments.add(currentSegment);
+        }
+
+        Segment segment = currentSegment;
+        long position = segment.size;
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining())
+        {
+            segment.channel.write(buffer, position + buffer.position());
+        }
+        segment.size += data.length;
+        segment.liveRecords.incrementAndGet();
+
+        return new Record(segment, position, data.length);
+    }
+
+    byte[] read(Record record) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(record.length);
+        while (buffer.hasRemaining())
+        {
+            // positional reads don't need any locking
+            if (record.segment.channel.read(buffer, record.position + buffer.position()) < 0)
+            {
+                throw new EOFException("passivated record got truncated");
+            }
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Mark the data of the given record as not needed anymore.
+     */
+    void free(Record record)
+    {
+        if (record.segment.liveRecords.decrementAndGet() == 0)
+        {
+            releaseSegment(record.segment);
+        }
+    }
+
+    /**
+     * @return the current size of all segment files in bytes
+     */
+    synchronized long getSize()
+    {
+        long size = 0;
+        for (Segment segment : segments)
+        {
+            size += segment.size;
+        }
+        return size;
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        closed = true;
+        for (Segment segment : segments)
+        {
+            segment.delete();
+        }
+        segments.clear();
+        currentSegment = null;
+
+        if (deleteDirectory && !directory.delete())
+        {
+            logger.fine("Could not delete passivation directory " + directory);
+        }
+    }
+
+    private synchronized void releaseSegment(Segment segment)
+    {
+        if (segment.liveRecords.get() != 0 || !segments.contains(segment))
+        {
+            // got reused in the meantime or the store got closed
+            return;
+        }
+
+        if (segment == currentSegment)
+        {
+            try
+            {
+                segment.channel.truncate(0);
+                segment.size = 0;
+            }
+            catch (IOException e)
+            {
+                logger.log(Level.FINE, "Could not truncate " + segment.file, e);
+            }
+        }
+        else
+        {
+            segments.remove(segment);
+            segment.delete();
+        }
+    }
+
+    /**
+     * The location of passivated data.
+     */
+    static final class Record
+    {
+        private final Segment segment;
+        private final long position;
+        private final int length;
+
+        private Record(Segment segment, long position, int length)
+        {
+            this.segment = segment;
+            this.position = position;
+            this.length = length;
+        }
+
+        int getLength()
+        {
+            return length;
+        }
+    }
+
+    private static final class Segment
+    {
+        private final File file;
+        private final RandomAccessFile randomAccessFile;
+        private final FileChannel channel;
+        private final AtomicInteger liveRecords = new AtomicInteger();
+
+        /**
+         * Guarded by the store.
+         */
+        private long size;
+
+        private Segment(File file) throws IOException
+        {
+            this.file = file;
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            randomAccessFile.setLength(0);
+            channel = randomAccessFile.getChannel();
+        }
+
+        private void delete()
+        {
+            try
+            {
+                randomAccessFile.close();
+            }
+            catch (IOException e)
+            {
+                logger.log(Level.FINE, "Could not close " + file, e);
+            }
+            if (!file.delete())
+            {
+                logger.fine("Could not delete " + file);
+            }
+        }
+    }
+}
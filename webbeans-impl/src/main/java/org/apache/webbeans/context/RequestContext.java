@@ -44,6 +44,12 @@ public class RequestContext extends AbstractContext
      */
     private Object httpSession;
 
+    /**
+     * The passivation state of the SessionContext used by this request, if it may get passivated.
+     * @see #pinSessionContext(SessionContext)
+     */
+    private transient SessionContextPassivationManager.ManagedSession pinnedSession;
+
     /*
     * Constructor
     */
@@ -97,6 +103,47 @@ public class RequestContext extends AbstractContext
         this.httpSession = httpSession;
     }
 
+    /**
+     * Keeps the given SessionContext from getting passivated until {@link #unpinSessionContext()}.
+     * Proxies cache session scoped instances for the whole request, so the SessionContext
+     * must not get passivated before the request ended.
+     * Does nothing if the SessionContext doesn't get passivated at all or is pinned already.
+     */
+    public void pinSessionContext(SessionContext sessionContext)
+    {
+        SessionContextPassivationManager.ManagedSession managedSession = sessionContext != null ? sessionContext.getManagedSession() : null;
+        if (managedSession == pinnedSession)
+        {
+            return;
+        }
+
+        // e.g. the session got invalidated and a new one got created within the same request
+        unpinSessionContext();
+        if (managedSession != null)
+        {
+            managedSession.pin(sessionContext);
+            pinnedSession = managedSession;
+        }
+    }
+
+    /**
+     * Releases the SessionContext pinned by {@link #pinSessionContext(SessionContext)}.
+     * Must only be invoked once no session scoped instances are cached for this request anymore.
+     *
+     * @return whether a SessionContext got released
+     */
+    public boolean unpinSessionContext()
+    {
+        SessionContextPassivationManager.ManagedSession managedSession = pinnedSession;
+        if (managedSession == null)
+        {
+            return false;
+        }
+        pinnedSession = null;
+        managedSession.unpin();
+        return true;
+    }
+
     @Override
     public void destroy(Contextual<?> contextual)
     {
@@ -0,0 +1,344 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.context;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.spi.Context;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.inject.spi.Annotated;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.InjectionPoint;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.proxy.OwbNormalScopeProxy;
+
+/**
+ * Estimates the heap retained by contextual instances by walking their object graph via reflection.
+ *
+ * The estimate assumes the layout of a 64 bit JVM with compressed oops and ignores field packing.
+ * Objects shared with the rest of the application are not followed: classes, enums, threads,
+ * loggers, container metadata, other contexts, normal scoping proxies, the instances of
+ * &#064;ApplicationScoped and &#064;Singleton beans and instances of the configured shared types.
+ * {@link ConversationContext}s get collected instead of followed, so their instances can get
+ * accounted separately.
+ *
+ * Every object only gets counted once per estimator, so the first measured instance accounts
+ * for objects shared between the instances of a session.
+ * The walk stops after the configured number of objects.
+ *
+ * On Java 16 and later the fields of JDK internal classes are not accessible anymore.
+ * For such {@link Collection}s and {@link Map}s the elements get followed instead and the
+ * internal structure gets approximated. Other inaccessible fields only count as a reference.
+ */
+final class RetainedSizeEstimator
+{
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+    private static final int ALIGNMENT = 8;
+    private static final int MAP_ENTRY = 32;
+
+    private final Map<Class<?>, ClassLayout> layouts;
+    private final Set<String> sharedTypes;
+    private final Set<Object> sharedInstances;
+    private final int maxObjects;
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<ConversationContext> conversationContexts = new ArrayList<>();
+    private boolean truncated;
+
+    /**
+     * @param layouts cache for the layouts of the walked classes, gets shared between estimators
+     *                using the same sharedTypes
+     * @param sharedTypes names of the classes and interfaces whose instances don't get followed
+     * @param sharedInstances instances which don't get followed, compared by identity
+     * @param maxObjects the maximum number of objects to walk
+     */
+    RetainedSizeEstimator(Map<Class<?>, ClassLayout> layouts, Set<String> sharedTypes, Set<Object> sharedInstances,
+                          int maxObjects)
+    {
+        this.layouts = layouts;
+        this.sharedTypes = sharedTypes;
+        this.sharedInstances = sharedInstances;
+        this.maxObjects = maxObjects;
+    }
+
+    /**
+     * @return the estimated bytes reachable from the given root which were not reached before
+     */
+    long measure(Object root)
+    {
+        Deque<Object> stack = new ArrayDeque<>();
+        push(stack, root);
+
+        long size = 0;
+        while (!stack.isEmpty())
+        {
+            if (visited.size() > maxObjects)
+            {
+                truncated = true;
+                break;
+            }
+
+            Object current = stack.pop();
+            Class<?> type = current.getClass();
+            if (type.isArray())
+            {
+                Class<?> componentType = type.getComponentType();
+                int length = Array.getLength(current);
+                size += align(ARRAY_HEADER + (long) length * sizeOf(componentType));
+                if (!componentType.isPrimitive())
+                {
+                    for (Object element : (Object[]) current)
+                    {
+                        push(stack, element);
+                    }
+                }
+            }
+            else
+            {
+                ClassLayout layout = getLayout(type);
+                size += layout.size;
+                for (Field field : layout.references)
+                {
+                    try
+                    {
+                        push(stack, field.get(current));
+                    }
+                    catch (IllegalAccessException e)
+                    {
+                        // not accessible, just don't follow it
+                    }
+                }
+                if (layout.inaccessible)
+                {
+                    size += pushContents(stack, current);
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return whether a measurement stopped because it reached the maximum number of objects
+     */
+    boolean isTruncated()
+    {
+        return truncated;
+    }
+
+    /**
+     * @return the ConversationContexts reached so far, grows with further measurements
+     */
+    List<ConversationContext> getConversationContexts()
+    {
+        return conversationContexts;
+    }
+
+    private ClassLayout getLayout(Class<?> type)
+    {
+        ClassLayout layout = layouts.get(type);
+        if (layout == null)
+        {
+            layout = layouts.computeIfAbsent(type, t -> new ClassLayout(t, sharedTypes));
+        }
+        return layout;
+    }
+
+    /**
+     * Follow the elements of JDK collections whose fields are not accessible.
+     * Only JDK internals are affected, so iterating them has no side effects like lazy loading.
+     * @return the approximated size of the internal structure
+     */
+    private long pushContents(Deque<Object> stack, Object object)
+    {
+        int count = 0;
+        try
+        {
+            if (object instanceof Collection)
+            {
+                for (Object element : (Collection<?>) object)
+                {
+                    push(stack, element);
+                    count++;
+                }
+                return align(ARRAY_HEADER + (long) count * REFERENCE);
+            }
+            if (object instanceof Map)
+            {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) object).entrySet())
+                {
+                    push(stack, entry.getKey());
+                    push(stack, entry.getValue());
+                    count++;
+                }
+                return align(ARRAY_HEADER + (long) count * REFERENCE) + (long) count * MAP_ENTRY;
+            }
+        }
+        catch (RuntimeException e)
+        {
+            // modified concurrently, count what we got so far
+            return align(ARRAY_HEADER + (long) count * REFERENCE);
+        }
+        return 0;
+    }
+
+    private void push(Deque<Object> stack, Object object)
+    {
+        if (object == null
+            || isShared(object)
+            || sharedInstances.contains(object)
+            || !object.getClass().isArray() && getLayout(object.getClass()).shared
+            || !visited.add(object))
+        {
+            return;
+        }
+        if (object instanceof ConversationContext)
+        {
+            conversationContexts.add((ConversationContext) object);
+            return;
+        }
+        if (object instanceof Context)
+        {
+            return;
+        }
+        stack.push(object);
+    }
+
+    private static boolean isShared(Object object)
+    {
+        return object instanceof Class
+            || object instanceof ClassLoader
+            || object instanceof Thread
+            || object instanceof Enum
+            || object instanceof Logger
+            || object instanceof AccessibleObject
+            || object instanceof Contextual
+            || object instanceof Annotated
+            || object instanceof InjectionPoint
+            || object instanceof BeanManager
+            || object instanceof WebBeansContext
+            || object instanceof OwbNormalScopeProxy;
+    }
+
+    private static long align(long size)
+    {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static int sizeOf(Class<?> type)
+    {
+        if (type == long.class || type == double.class)
+        {
+            return 8;
+        }
+        if (type == int.class || type == float.class)
+        {
+            return 4;
+        }
+        if (type == short.class || type == char.class)
+        {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class)
+        {
+            return 1;
+        }
+        return REFERENCE;
+    }
+
+    /**
+     * The shallow size and the followed reference fields of a class.
+     */
+    static final class ClassLayout
+    {
+        private final long size;
+        private final List<Field> references = new ArrayList<>();
+        private final boolean shared;
+        private boolean inaccessible;
+
+        private ClassLayout(Class<?> type, Set<String> sharedTypes)
+        {
+            shared = !sharedTypes.isEmpty() && isSharedType(type, sharedTypes);
+
+            long fieldSize = 0;
+            for (Class<?> current = type; current != null; current = current.getSuperclass())
+            {
+                for (Field field : current.getDeclaredFields())
+                {
+                    if (Modifier.isStatic(field.getModifiers()))
+                    {
+                        continue;
+                    }
+                    fieldSize += sizeOf(field.getType());
+                    if (field.getType().isPrimitive()
+                        || current == Reference.class && field.getName().equals("referent"))
+                    {
+                        continue;
+                    }
+                    try
+                    {
+                        field.setAccessible(true);
+                        references.add(field);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        // e.g. not opened JDK internals on Java 16+, only count the reference itself
+                        inaccessible = true;
+                    }
+                }
+            }
+            size = align(OBJECT_HEADER + fieldSize);
+        }
+
+        private static boolean isSharedType(Class<?> type, Set<String> sharedTypes)
+        {
+            if (type == null)
+            {
+                return false;
+            }
+            if (sharedTypes.contains(type.getName()) || isSharedType(type.getSuperclass(), sharedTypes))
+            {
+                return true;
+            }
+            for (Class<?> interfaceType : type.getInterfaces())
+            {
+                if (isSharedType(interfaceType, sharedTypes))
+                {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
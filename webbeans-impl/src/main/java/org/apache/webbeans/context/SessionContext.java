@@ -18,11 +18,16 @@
  */
 package org.apache.webbeans.context;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.enterprise.context.SessionScoped;
 import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
 
+import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.intercept.SessionScopedBeanInterceptorHandler;
 
 /**
@@ -32,6 +37,18 @@ public class SessionContext extends PassivatingContext
 {
     private static final long serialVersionUID = 2L;
 
+    /**
+     * Only set if this context may get passivated to disk while idle.
+     * @see SessionContextPassivationManager
+     */
+    private transient volatile SessionContextPassivationManager.ManagedSession managedSession;
+
+    /**
+     * Only set if the memory of this context gets accounted.
+     * @see SessionMemoryAccounting
+     */
+    private transient volatile SessionMemoryAccounting.AccountedSession accountedSession;
+
     public SessionContext()
     {
         super(SessionScoped.class);
@@ -43,10 +60,249 @@ public class SessionContext extends PassivatingContext
         componentInstanceMap = new ConcurrentHashMap<>();
     }
 
+    @Override
+    public <T> T get(Contextual<T> component)
+    {
+        SessionContextPassivationManager.ManagedSession managed = managedSession;
+        if (managed == null)
+        {
+            return super.get(component);
+        }
+
+        managed.pin(this);
+        try
+        {
+            return super.get(component);
+        }
+        finally
+        {
+            managed.unpin();
+        }
+    }
+
+    @Override
+    public <T> T get(Contextual<T> contextual, CreationalContext<T> creationalContext)
+    {
+        SessionContextPassivationManager.ManagedSession managed = managedSession;
+        if (managed == null)
+        {
+            return super.get(contextual, creationalContext);
+        }
+
+        managed.pin(this);
+        try
+        {
+            return super.get(contextual, creationalContext);
+        }
+        finally
+        {
+            managed.unpin();
+        }
+    }
+
     @Override
     public void destroy(Contextual<?> contextual)
     {
         super.destroy(contextual);
         SessionScopedBeanInterceptorHandler.removeThreadLocals();
     }
+
+    @Override
+    public void destroyInstance(Contextual<?> contextual)
+    {
+        SessionContextPassivationManager.ManagedSession managed = managedSession;
+        if (managed == null)
+        {
+            super.destroyInstance(contextual);
+            return;
+        }
+
+        managed.pin(this);
+        try
+        {
+            super.destroyInstance(contextual);
+        }
+        finally
+        {
+            managed.unpin();
+        }
+    }
+
+    @Override
+    public void destroy()
+    {
+        SessionMemoryAccounting.AccountedSession accounted = accountedSession;
+        if (accounted != null)
+        {
+            accountedSession = null;
+            accounted.release();
+        }
+
+        SessionContextPassivationManager.ManagedSession managed = managedSession;
+        if (managed == null)
+        {
+            super.destroy();
+            return;
+        }
+
+        managed.pin(this);
+        try
+        {
+            super.destroy();
+        }
+        finally
+        {
+            managed.unpin();
+            managedSession = null;
+            managed.release();
+        }
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException
+    {
+        SessionContextPassivationManager.ManagedSession managed = managedSession;
+        if (managed == null)
+        {
+            super.writeExternal(out);
+            return;
+        }
+
+        // restore the instances from disk first
+        managed.pin(this);
+        try
+        {
+            super.writeExternal(out);
+        }
+        finally
+        {
+            managed.unpin();
+        }
+    }
+
+    @Override
+    public void writeDelta(ObjectOutput out) throws IOException
+    {
+        SessionContextPassivationManager.ManagedSession managed = managedSession;
+        if (managed == null)
+        {
+            super.writeDelta(out);
+            return;
+        }
+
+        managed.pin(this);
+        try
+        {
+            super.writeDelta(out);
+        }
+        finally
+        {
+            managed.unpin();
+        }
+    }
+
+    @Override
+    public void readDelta(ObjectInput in) throws IOException, ClassNotFoundException
+    {
+        SessionContextPassivationManager.ManagedSession managed = managedSession;
+        if (managed == null)
+        {
+            super.readDelta(in);
+            return;
+        }
+
+        managed.pin(this);
+        try
+        {
+            super.readDelta(in);
+        }
+        finally
+        {
+            managed.unpin();
+        }
+    }
+
+    @Override
+    public boolean isDirty()
+    {
+        SessionContextPassivationManager.ManagedSession managed = managedSession;
+        if (managed == null)
+        {
+            return super.isDirty();
+        }
+
+        // don't restore the instances just to look at them
+        return managed.hasDirtyInstances() || super.isDirty();
+    }
+
+    @Override
+    public void markDirty(Contextual<?> contextual)
+    {
+        SessionContextPassivationManager.ManagedSession managed = managedSession;
+        if (managed == null)
+        {
+            super.markDirty(contextual);
+            return;
+        }
+
+        managed.pin(this);
+        try
+        {
+            super.markDirty(contextual);
+        }
+        finally
+        {
+            managed.unpin();
+        }
+    }
+
+    @Override
+    public void markClean()
+    {
+        SessionContextPassivationManager.ManagedSession managed = managedSession;
+        if (managed == null)
+        {
+            super.markClean();
+            return;
+        }
+
+        managed.pin(this);
+        try
+        {
+            super.markClean();
+        }
+        finally
+        {
+            managed.unpin();
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
+    {
+        super.readExternal(in);
+        WebBeansContext webBeansContext = WebBeansContext.currentInstance();
+        webBeansContext.getSessionContextPassivationManager().manage(this);
+        webBeansContext.getSessionMemoryAccounting().manage(this, null);
+    }
+
+    SessionContextPassivationManager.ManagedSession getManagedSession()
+    {
+        return managedSession;
+    }
+
+    void setManagedSession(SessionContextPassivationManager.ManagedSession managedSession)
+    {
+        this.managedSession = managedSession;
+    }
+
+    SessionMemoryAccounting.AccountedSession getAccountedSession()
+    {
+        return accountedSession;
+    }
+
+    void setAccountedSession(SessionMemoryAccounting.AccountedSession accountedSession)
+    {
+        this.accountedSession = accountedSession;
+    }
 }
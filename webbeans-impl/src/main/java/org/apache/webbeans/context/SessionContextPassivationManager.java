@@ -0,0 +1,587 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.context;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.spi.Contextual;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.context.creational.BeanInstanceBag;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.util.OwbCustomObjectInputStream;
+import org.apache.webbeans.util.WebBeansUtil;
+
+/**
+ * Moves the contextual instances of idle {@link SessionContext}s to disk.
+ *
+ * A SessionContext which was not accessed for the configured idle time gets serialized
+ * into a {@link PassivationFileStore} and its instances get removed from the heap.
+ * If more than the configured maximum of session contexts hold their instances on the heap,
+ * the least recently used ones get passivated as well.
+ * The instances get restored transparently on the next access of the SessionContext.
+ * A SessionContext stays pinned while a request uses it, see {@link RequestContext#pinSessionContext(SessionContext)},
+ * so it never gets passivated while a request might still change instances it already obtained.
+ *
+ * This is disabled by default.
+ * @see OpenWebBeansConfiguration#SESSION_PASSIVATION_ENABLED
+ */
+public class SessionContextPassivationManager implements Closeable
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(SessionContextPassivationManager.class);
+
+    /**
+     * Pin count while a SessionContext gets written to disk.
+     */
+    private static final int PASSIVATING = -1;
+
+    private static final long MAX_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+    private final WebBeansContext webBeansContext;
+    private final boolean enabled;
+    private final long idleTime;
+    private final int maxActiveSessions;
+    private final long checkInterval;
+    private final String directory;
+
+    private final Set<ManagedSession> sessions = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<SessionContext> collectedSessions = new ReferenceQueue<>();
+
+    private final AtomicLong passivationCount = new AtomicLong();
+    private final AtomicLong activationCount = new AtomicLong();
+    private final AtomicLong capacityEvictionCount = new AtomicLong();
+    private final AtomicLong failedPassivationCount = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicInteger passivatedSessionCount = new AtomicInteger();
+
+    private volatile PassivationFileStore store;
+    private volatile ScheduledExecutorService sweeper;
+    private volatile boolean closed;
+
+    public SessionContextPassivationManager(WebBeansContext webBeansContext)
+    {
+        this.webBeansContext = webBeansContext;
+
+        OpenWebBeansConfiguration configuration = webBeansContext.getOpenWebBeansConfiguration();
+        enabled = configuration.isSessionPassivationEnabled();
+        idleTime = configuration.getSessionPassivationIdleTime();
+        maxActiveSessions = configuration.getSessionPassivationMaxActiveSessions();
+        checkInterval = configuration.getSessionPassivationCheckInterval();
+        directory = configuration.getProperty(OpenWebBeansConfiguration.SESSION_PASSIVATION_DIRECTORY);
+    }
+
+    /**
+     * @return whether idle SessionContexts get passivated to disk at all
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Let the given SessionContext get passivated once it becomes idle.
+     * Does nothing if passivation is disabled.
+     */
+    public void manage(SessionContext sessionContext)
+    {
+        if (!enabled || closed || sessionContext.getManagedSession() != null)
+        {
+            return;
+        }
+
+        ManagedSession managedSession = new ManagedSession(this, sessionContext, collectedSessions);
+        sessionContext.setManagedSession(managedSession);
+        sessions.add(managedSession);
+        ensureSweeperStarted();
+    }
+
+    /**
+     * Passivate all idle SessionContexts and, if there are too many active ones,
+     * the least recently used ones.
+     * This gets invoked periodically in the background.
+     */
+    public void passivateIdleSessions()
+    {
+        releaseCollectedSessions();
+
+        long now = System.currentTimeMillis();
+        List<LruCandidate> active = maxActiveSessions > 0 ? new ArrayList<>() : null;
+        for (ManagedSession managedSession : sessions)
+        {
+            if (managedSession.record != null || managedSession.notPassivatable)
+            {
+                continue;
+            }
+
+            SessionContext sessionContext = managedSession.get();
+            if (sessionContext == null)
+            {
+                continue;
+            }
+
+            long lastAccess = managedSession.lastAccess;
+            if (now - lastAccess >= idleTime)
+            {
+                passivate(sessionContext, managedSession);
+            }
+            else if (active != null)
+            {
+                active.add(new LruCandidate(managedSession, lastAccess));
+            }
+        }
+
+        if (active != null && active.size() > maxActiveSessions)
+        {
+            // sorts the snapshots, the live access times change concurrently
+            active.sort(Comparator.comparingLong(c -> c.lastAccess));
+            int toEvict = active.size() - maxActiveSessions;
+            for (int i = 0; i < toEvict; i++)
+            {
+                ManagedSession managedSession = active.get(i).managedSession;
+                SessionContext sessionContext = managedSession.get();
+                if (sessionContext != null && passivate(sessionContext, managedSession))
+                {
+                    capacityEvictionCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of SessionContexts which currently can get passivated
+     */
+    public int getManagedSessionCount()
+    {
+        return sessions.size();
+    }
+
+    /**
+     * @return the number of SessionContexts which currently hold their instances on disk
+     */
+    public int getPassivatedSessionCount()
+    {
+        return passivatedSessionCount.get();
+    }
+
+    /**
+     * @return how often a SessionContext got written to disk
+     */
+    public long getPassivationCount()
+    {
+        return passivationCount.get();
+    }
+
+    /**
+     * @return how often a SessionContext got restored from disk
+     */
+    public long getActivationCount()
+    {
+        return activationCount.get();
+    }
+
+    /**
+     * @return how many passivations happened because there were too many active SessionContexts
+     */
+    public long getCapacityEvictionCount()
+    {
+        return capacityEvictionCount.get();
+    }
+
+    /**
+     * @return how many SessionContexts could not get passivated, e.g. because of not serializable instances
+     */
+    public long getFailedPassivationCount()
+    {
+        return failedPassivationCount.get();
+    }
+
+    /**
+     * @return the total number of bytes written to disk
+     */
+    public long getBytesWritten()
+    {
+        return bytesWritten.get();
+    }
+
+    /**
+     * @return the current disk usage in bytes
+     */
+    public long getStoreSize()
+    {
+        PassivationFileStore currentStore = store;
+        return currentStore != null ? currentStore.getSize() : 0;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        ScheduledExecutorService currentSweeper = sweeper;
+        if (currentSweeper != null)
+        {
+            currentSweeper.shutdownNow();
+        }
+        sessions.clear();
+        PassivationFileStore currentStore = store;
+        if (currentStore != null)
+        {
+            currentStore.close();
+        }
+    }
+
+    /**
+     * Restore the instances of the given SessionContext if it got passivated.
+     * Invoked while the SessionContext is pinned.
+     */
+    void activate(SessionContext sessionContext, ManagedSession managedSession)
+    {
+        synchronized (managedSession)
+        {
+            PassivationFileStore.Record record = managedSession.record;
+            if (record == null)
+            {
+                // got activated by another thread
+                return;
+            }
+
+            try
+            {
+                byte[] data = store.read(record);
+                ObjectInputStream in = new OwbCustomObjectInputStream(new ByteArrayInputStream(data), getClassLoader());
+                sessionContext.readInstances(in, webBeansContext);
+                restoreDirtyState(sessionContext, managedSession.dirtyPassivationIds);
+                activationCount.incrementAndGet();
+            }
+            catch (IOException | ClassNotFoundException | RuntimeException e)
+            {
+                // the instances get lost, but the session stays usable
+                logger.log(Level.SEVERE, "Could not restore passivated SessionContext", e);
+            }
+            finally
+            {
+                managedSession.record = null;
+                managedSession.dirtyPassivationIds = null;
+                passivatedSessionCount.decrementAndGet();
+                store.free(record);
+            }
+        }
+    }
+
+    /**
+     * The given SessionContext got destroyed.
+     */
+    void release(ManagedSession managedSession)
+    {
+        sessions.remove(managedSession);
+        freeRecord(managedSession);
+    }
+
+    private boolean passivate(SessionContext sessionContext, ManagedSession managedSession)
+    {
+        if (!managedSession.pins.compareAndSet(0, PASSIVATING))
+        {
+            // currently in use
+            return false;
+        }
+
+        try
+        {
+            if (managedSession.record != null || sessionContext.componentInstanceMap.isEmpty())
+            {
+                return false;
+            }
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+            {
+                sessionContext.writeInstances(out);
+            }
+
+            byte[] data = bytes.toByteArray();
+            managedSession.record = getStore().write(data);
+            managedSession.dirtyPassivationIds = getDirtyPassivationIds(sessionContext);
+            sessionContext.componentInstanceMap.clear();
+
+            passivatedSessionCount.incrementAndGet();
+            passivationCount.incrementAndGet();
+            bytesWritten.addAndGet(data.length);
+            return true;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // don't try it again, the instances will most likely stay not serializable
+            managedSession.notPassivatable = true;
+            failedPassivationCount.incrementAndGet();
+            logger.log(Level.FINE, "Could not passivate SessionContext", e);
+            return false;
+        }
+        finally
+        {
+            managedSession.pins.set(0);
+        }
+    }
+
+    /**
+     * The dirty state of the instances is not serialized,
+     * so we need to remember it for replication.
+     * @see PassivatingContext#writeDelta(java.io.ObjectOutput)
+     */
+    private static Set<String> getDirtyPassivationIds(SessionContext sessionContext)
+    {
+        Set<String> dirty = null;
+        for (Map.Entry<Contextual<?>, BeanInstanceBag<?>> beanBagEntry : sessionContext.componentInstanceMap.entrySet())
+        {
+            if (beanBagEntry.getValue().isDirty())
+            {
+                if (dirty == null)
+                {
+                    dirty = new HashSet<>();
+                }
+                dirty.add(WebBeansUtil.getPassivationId(beanBagEntry.getKey()));
+            }
+        }
+        return dirty;
+    }
+
+    private void restoreDirtyState(SessionContext sessionContext, Set<String> dirtyPassivationIds)
+    {
+        if (dirtyPassivationIds == null)
+        {
+            return;
+        }
+
+        for (String id : dirtyPassivationIds)
+        {
+            Contextual<?> contextual = webBeansContext.getBeanManagerImpl().getPassivationCapableBean(id);
+            BeanInstanceBag<?> bag = contextual != null ? sessionContext.componentInstanceMap.get(contextual) : null;
+            if (bag != null)
+            {
+                bag.markDirty();
+            }
+        }
+    }
+
+    private void releaseCollectedSessions()
+    {
+        Reference<? extends SessionContext> collected;
+        while ((collected = collectedSessions.poll()) != null)
+        {
+            ManagedSession managedSession = (ManagedSession) collected;
+            sessions.remove(managedSession);
+            freeRecord(managedSession);
+        }
+    }
+
+    private void freeRecord(ManagedSession managedSession)
+    {
+        synchronized (managedSession)
+        {
+            PassivationFileStore.Record record = managedSession.record;
+            if (record != null)
+            {
+                managedSession.record = null;
+                passivatedSessionCount.decrementAndGet();
+                store.free(record);
+            }
+        }
+    }
+
+    private PassivationFileStore getStore() throws IOException
+    {
+        PassivationFileStore currentStore = store;
+        if (currentStore == null)
+        {
+            synchronized (this)
+            {
+                currentStore = store;
+                if (currentStore == null)
+                {
+                    if (directory == null || directory.trim().isEmpty())
+                    {
+                        currentStore = new PassivationFileStore(
+                            Files.createTempDirectory("owb-session-passivation").toFile(), MAX_SEGMENT_SIZE, true);
+                    }
+                    else
+                    {
+                        currentStore = new PassivationFileStore(new File(directory.trim()), MAX_SEGMENT_SIZE, false);
+                    }
+                    store = currentStore;
+                }
+            }
+        }
+        return currentStore;
+    }
+
+    private void ensureSweeperStarted()
+    {
+        if (sweeper == null)
+        {
+            synchronized (this)
+            {
+                if (sweeper == null && !closed)
+                {
+                    ClassLoader classLoader = getClassLoader();
+                    ScheduledExecutorService executor = new ScheduledThreadPoolExecutor(1, r ->
+                    {
+                        Thread thread = new Thread(r, "OpenWebBeans-SessionPassivation");
+                        thread.setDaemon(true);
+                        thread.setContextClassLoader(classLoader);
+                        return thread;
+                    });
+                    executor.scheduleWithFixedDelay(this::sweep, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+                    sweeper = executor;
+                }
+            }
+        }
+    }
+
+    private void sweep()
+    {
+        try
+        {
+            passivateIdleSessions();
+        }
+        catch (RuntimeException e)
+        {
+            // never let the sweeper die
+            logger.log(Level.SEVERE, "Error while passivating SessionContexts", e);
+        }
+    }
+
+    private static ClassLoader getClassLoader()
+    {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        return classLoader != null ? classLoader : SessionContextPassivationManager.class.getClassLoader();
+    }
+
+    /**
+     * A session and its access time when the sweep saw it.
+     */
+    private static final class LruCandidate
+    {
+        private final ManagedSession managedSession;
+        private final long lastAccess;
+
+        private LruCandidate(ManagedSession managedSession, long lastAccess)
+        {
+            this.managedSession = managedSession;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * The passivation state of a single SessionContext.
+     * Only weakly references the SessionContext, so sessions which just get dropped
+     * don't leak.
+     */
+    static final class ManagedSession extends WeakReference<SessionContext>
+    {
+        private final SessionContextPassivationManager manager;
+
+        /**
+         * Number of threads and running requests currently using the SessionContext or {@link #PASSIVATING}.
+         */
+        private final AtomicInteger pins = new AtomicInteger();
+        private volatile long lastAccess = System.currentTimeMillis();
+        private volatile PassivationFileStore.Record record;
+        private volatile boolean notPassivatable;
+        private volatile Set<String> dirtyPassivationIds;
+
+        private ManagedSession(SessionContextPassivationManager manager, SessionContext sessionContext,
+                               ReferenceQueue<SessionContext> queue)
+        {
+            super(sessionContext, queue);
+            this.manager = manager;
+        }
+
+        /**
+         * Prevent the SessionContext from getting passivated and restore it if needed.
+         * Must be followed by {@link #unpin()}.
+         */
+        void pin(SessionContext sessionContext)
+        {
+            while (true)
+            {
+                int current = pins.get();
+                if (current >= 0)
+                {
+                    if (pins.compareAndSet(current, current + 1))
+                    {
+                        break;
+                    }
+                }
+                else
+                {
+                    // gets written to disk right now
+                    Thread.yield();
+                }
+            }
+
+            lastAccess = System.currentTimeMillis();
+            if (record != null)
+            {
+                manager.activate(sessionContext, this);
+            }
+        }
+
+        /**
+         * @return whether the passivated instances contain dirty ones
+         */
+        boolean hasDirtyInstances()
+        {
+            Set<String> dirty = dirtyPassivationIds;
+            return dirty != null && !dirty.isEmpty();
+        }
+
+        void unpin()
+        {
+            pins.decrementAndGet();
+        }
+
+        void release()
+        {
+            manager.release(this);
+        }
+    }
+}
@@ -0,0 +1,539 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.context;
+
+import java.io.Closeable;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.spi.Context;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.inject.spi.Bean;
+import javax.inject.Singleton;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.context.creational.BeanInstanceBag;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.spi.ContextsService;
+import org.apache.webbeans.spi.MetricsService;
+
+/**
+ * Estimates the heap retained by the contextual instances of each {@link SessionContext}
+ * and of the {@link ConversationContext}s stored in it.
+ *
+ * The sessions get measured periodically in the background. Each run measures only
+ * a limited number of sessions, the ones with the oldest measurement first, and walks at most
+ * a limited number of objects per session. So the cost stays bounded, but the figures
+ * of a session may be a few runs old.
+ * A warning gets logged once a session exceeds the configured budget.
+ *
+ * If a {@link MetricsService} is configured, the total, the biggest session and the number
+ * of sessions over budget are available as gauges {@code sessions.memory.*}.
+ *
+ * This is disabled by default.
+ * @see OpenWebBeansConfiguration#SESSION_ACCOUNTING_ENABLED
+ */
+public class SessionMemoryAccounting implements Closeable
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(SessionMemoryAccounting.class);
+
+    private static final String CONVERSATION_SUFFIX = " (conversation)";
+
+    private final WebBeansContext webBeansContext;
+    private final boolean enabled;
+    private final long budget;
+    private final long sampleInterval;
+    private final int sampleSize;
+    private final int maxObjects;
+    private final Set<String> sharedTypes;
+
+    private final Set<AccountedSession> sessions = ConcurrentHashMap.newKeySet();
+    private final ReferenceQueue<SessionContext> collectedSessions = new ReferenceQueue<>();
+    private final Map<Class<?>, RetainedSizeEstimator.ClassLayout> layouts = new ConcurrentHashMap<>();
+    private final AtomicLong sessionIds = new AtomicLong();
+
+    private volatile ScheduledExecutorService sampler;
+    private volatile boolean closed;
+
+    public SessionMemoryAccounting(WebBeansContext webBeansContext)
+    {
+        this.webBeansContext = webBeansContext;
+        OpenWebBeansConfiguration configuration = webBeansContext.getOpenWebBeansConfiguration();
+        enabled = configuration.isSessionAccountingEnabled();
+        budget = configuration.getSessionAccountingBudget();
+        sampleInterval = configuration.getSessionAccountingSampleInterval();
+        sampleSize = configuration.getSessionAccountingSampleSize();
+        maxObjects = configuration.getSessionAccountingMaxObjects();
+        sharedTypes = configuration.getSessionAccountingSharedTypes();
+
+        MetricsService metricsService = webBeansContext.getMetricsService();
+        if (enabled && metricsService != null)
+        {
+            metricsService.registerGauge("sessions.memory.totalBytes", this::getTotalBytes);
+            metricsService.registerGauge("sessions.memory.maxSessionBytes", this::getMaxSessionBytes);
+            metricsService.registerGauge("sessions.memory.overBudget", this::getOverBudgetCount);
+        }
+    }
+
+    /**
+     * @return whether the memory of SessionContexts gets accounted at all
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Start accounting the given SessionContext. Does nothing if the accounting is disabled.
+     *
+     * @param sessionId the id under which the session gets reported, a generated one gets used if {@code null}
+     */
+    public void manage(SessionContext sessionContext, String sessionId)
+    {
+        if (!enabled || closed || sessionContext.getAccountedSession() != null)
+        {
+            return;
+        }
+
+        String id = sessionId != null ? sessionId : "session-" + sessionIds.incrementAndGet();
+        AccountedSession accountedSession = new AccountedSession(this, sessionContext, id, collectedSessions);
+        sessionContext.setAccountedSession(accountedSession);
+        sessions.add(accountedSession);
+        ensureSamplerStarted();
+    }
+
+    /**
+     * Measure the sessions with the oldest measurement, at most the configured sample size.
+     * This gets invoked periodically in the background.
+     */
+    public void sample()
+    {
+        releaseCollectedSessions();
+
+        List<AccountedSession> candidates = new ArrayList<>(sessions);
+        candidates.sort(Comparator.comparingLong(s -> s.measuredAt));
+        Set<Object> sharedInstances = null;
+        for (AccountedSession accountedSession : candidates.subList(0, Math.min(sampleSize, candidates.size())))
+        {
+            SessionContext sessionContext = accountedSession.get();
+            if (sessionContext != null)
+            {
+                if (sharedInstances == null)
+                {
+                    sharedInstances = getSharedInstances();
+                }
+                measure(sessionContext, accountedSession, sharedInstances);
+            }
+        }
+    }
+
+    /**
+     * @return the biggest sessions of their last measurement, biggest first
+     */
+    public List<SessionFootprint> getTopSessions(int count)
+    {
+        List<SessionFootprint> footprints = new ArrayList<>();
+        for (AccountedSession accountedSession : sessions)
+        {
+            SessionFootprint footprint = accountedSession.footprint;
+            if (footprint != null)
+            {
+                footprints.add(footprint);
+            }
+        }
+        footprints.sort(Comparator.comparingLong(SessionFootprint::getBytes).reversed());
+        return footprints.subList(0, Math.min(count, footprints.size()));
+    }
+
+    /**
+     * @return the beans retaining the most memory summed up over all sessions, biggest first
+     */
+    public List<BeanFootprint> getTopBeans(int count)
+    {
+        Map<String, BeanFootprint> beans = new HashMap<>();
+        for (AccountedSession accountedSession : sessions)
+        {
+            SessionFootprint footprint = accountedSession.footprint;
+            if (footprint == null)
+            {
+                continue;
+            }
+            for (Map.Entry<String, Long> bean : footprint.beanBytes.entrySet())
+            {
+                beans.computeIfAbsent(bean.getKey(), BeanFootprint::new).add(bean.getValue());
+            }
+        }
+        List<BeanFootprint> footprints = new ArrayList<>(beans.values());
+        footprints.sort(Comparator.comparingLong(BeanFootprint::getTotalBytes).reversed());
+        return footprints.subList(0, Math.min(count, footprints.size()));
+    }
+
+    /**
+     * @return the summed up bytes of the last measurement of all sessions
+     */
+    public long getTotalBytes()
+    {
+        long total = 0;
+        for (AccountedSession accountedSession : sessions)
+        {
+            SessionFootprint footprint = accountedSession.footprint;
+            total += footprint != null ? footprint.bytes : 0;
+        }
+        return total;
+    }
+
+    public long getMaxSessionBytes()
+    {
+        long max = 0;
+        for (AccountedSession accountedSession : sessions)
+        {
+            SessionFootprint footprint = accountedSession.footprint;
+            max = Math.max(max, footprint != null ? footprint.bytes : 0);
+        }
+        return max;
+    }
+
+    /**
+     * @return the number of sessions which exceeded the budget in their last measurement
+     */
+    public long getOverBudgetCount()
+    {
+        long count = 0;
+        for (AccountedSession accountedSession : sessions)
+        {
+            if (accountedSession.overBudget)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of SessionContexts which currently get accounted
+     */
+    public int getSessionCount()
+    {
+        return sessions.size();
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+        ScheduledExecutorService currentSampler = sampler;
+        if (currentSampler != null)
+        {
+            currentSampler.shutdownNow();
+        }
+        sessions.clear();
+        layouts.clear();
+    }
+
+    /**
+     * The given SessionContext got destroyed.
+     */
+    void release(AccountedSession accountedSession)
+    {
+        sessions.remove(accountedSession);
+    }
+
+    /**
+     * Instances of &#064;ApplicationScoped and &#064;Singleton beans are shared by all sessions referencing them.
+     */
+    private Set<Object> getSharedInstances()
+    {
+        Set<Object> sharedInstances = Collections.newSetFromMap(new IdentityHashMap<>());
+        ContextsService contextsService = webBeansContext.getContextsService();
+        addInstances(contextsService.getCurrentContext(ApplicationScoped.class), sharedInstances);
+        addInstances(contextsService.getCurrentContext(Singleton.class), sharedInstances);
+        return sharedInstances;
+    }
+
+    private static void addInstances(Context context, Set<Object> instances)
+    {
+        if (context instanceof AbstractContext && ((AbstractContext) context).componentInstanceMap != null)
+        {
+            for (BeanInstanceBag<?> bag : ((AbstractContext) context).componentInstanceMap.values())
+            {
+                Object instance = bag.getBeanInstance();
+                if (instance != null)
+                {
+                    instances.add(instance);
+                }
+            }
+        }
+    }
+
+    private void measure(SessionContext sessionContext, AccountedSession accountedSession, Set<Object> sharedInstances)
+    {
+        RetainedSizeEstimator estimator = new RetainedSizeEstimator(layouts, sharedTypes, sharedInstances, maxObjects);
+        Map<String, Long> beanBytes = new HashMap<>();
+        measureInstances(sessionContext, estimator, beanBytes, "");
+
+        // the conversations are stored in the session, but the bean names tell more than the storage
+        List<ConversationContext> conversationContexts = estimator.getConversationContexts();
+        for (int i = 0; i < conversationContexts.size(); i++)
+        {
+            measureInstances(conversationContexts.get(i), estimator, beanBytes, CONVERSATION_SUFFIX);
+        }
+
+        SessionFootprint footprint = new SessionFootprint(accountedSession.id, beanBytes, estimator.isTruncated());
+        accountedSession.footprint = footprint;
+        accountedSession.measuredAt = System.nanoTime();
+
+        boolean overBudget = budget > 0 && footprint.bytes > budget;
+        if (overBudget && !accountedSession.overBudget)
+        {
+            logger.warning("SessionContext " + accountedSession.id + " retains about " + footprint.bytes
+                + " bytes which exceeds the budget of " + budget + " bytes. Biggest beans: " + footprint.getBeanBytes());
+        }
+        accountedSession.overBudget = overBudget;
+    }
+
+    private static void measureInstances(AbstractContext context, RetainedSizeEstimator estimator,
+                                         Map<String, Long> beanBytes, String suffix)
+    {
+        for (Map.Entry<Contextual<?>, BeanInstanceBag<?>> entry : context.componentInstanceMap.entrySet())
+        {
+            Object instance = entry.getValue().getBeanInstance();
+            if (instance != null)
+            {
+                beanBytes.merge(getBeanName(entry.getKey()) + suffix, estimator.measure(instance), Long::sum);
+            }
+        }
+    }
+
+    private static String getBeanName(Contextual<?> contextual)
+    {
+        return contextual instanceof Bean ? ((Bean<?>) contextual).getBeanClass().getName() : contextual.getClass().getName();
+    }
+
+    private void releaseCollectedSessions()
+    {
+        Reference<? extends SessionContext> collected;
+        while ((collected = collectedSessions.poll()) != null)
+        {
+            sessions.remove(collected);
+        }
+    }
+
+    private void ensureSamplerStarted()
+    {
+        if (sampler == null)
+        {
+            synchronized (this)
+            {
+                if (sampler == null && !closed)
+                {
+                    ScheduledExecutorService executor = new ScheduledThreadPoolExecutor(1, r ->
+                    {
+                        Thread thread = new Thread(r, "OpenWebBeans-SessionAccounting");
+                        thread.setDaemon(true);
+                        thread.setPriority(Thread.MIN_PRIORITY);
+                        return thread;
+                    });
+                    executor.scheduleWithFixedDelay(this::sampleSafely, sampleInterval, sampleInterval, TimeUnit.MILLISECONDS);
+                    sampler = executor;
+                }
+            }
+        }
+    }
+
+    private void sampleSafely()
+    {
+        try
+        {
+            sample();
+        }
+        catch (RuntimeException e)
+        {
+            // never let the sampler die
+            logger.log(Level.SEVERE, "Error while measuring SessionContexts", e);
+        }
+    }
+
+    /**
+     * The accounting state of a single SessionContext.
+     * Only weakly references the SessionContext, so sessions which just get dropped
+     * don't leak.
+     */
+    static final class AccountedSession extends WeakReference<SessionContext>
+    {
+        private final SessionMemoryAccounting accounting;
+        private final String id;
+        private volatile long measuredAt = Long.MIN_VALUE;
+        private volatile SessionFootprint footprint;
+        private volatile boolean overBudget;
+
+        private AccountedSession(SessionMemoryAccounting accounting, SessionContext sessionContext, String id,
+                                 ReferenceQueue<SessionContext> queue)
+        {
+            super(sessionContext, queue);
+            this.accounting = accounting;
+            this.id = id;
+        }
+
+        void release()
+        {
+            accounting.release(this);
+        }
+    }
+
+    /**
+     * The estimated retained memory of a single session.
+     */
+    public static final class SessionFootprint
+    {
+        private final String sessionId;
+        private final Map<String, Long> beanBytes;
+        private final long bytes;
+        private final boolean truncated;
+
+        private SessionFootprint(String sessionId, Map<String, Long> beanBytes, boolean truncated)
+        {
+            this.sessionId = sessionId;
+            this.beanBytes = beanBytes;
+            this.truncated = truncated;
+
+            long total = 0;
+            for (Long size : beanBytes.values())
+            {
+                total += size;
+            }
+            bytes = total;
+        }
+
+        public String getSessionId()
+        {
+            return sessionId;
+        }
+
+        public long getBytes()
+        {
+            return bytes;
+        }
+
+        /**
+         * @return the bytes per bean class, biggest first. Conversation scoped beans end with " (conversation)"
+         */
+        public Map<String, Long> getBeanBytes()
+        {
+            List<Map.Entry<String, Long>> sorted = new ArrayList<>(beanBytes.entrySet());
+            sorted.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (Map.Entry<String, Long> entry : sorted)
+            {
+                result.put(entry.getKey(), entry.getValue());
+            }
+            return Collections.unmodifiableMap(result);
+        }
+
+        /**
+         * @return whether the measurement hit the maximum number of objects, the real size is bigger then
+         */
+        public boolean isTruncated()
+        {
+            return truncated;
+        }
+
+        @Override
+        public String toString()
+        {
+            return sessionId + ": " + bytes + " bytes" + (truncated ? " (truncated)" : "");
+        }
+    }
+
+    /**
+     * The estimated retained memory of the instances of a bean summed up over all sessions.
+     */
+    public static final class BeanFootprint
+    {
+        private final String beanName;
+        private int sessionCount;
+        private long totalBytes;
+        private long maxBytes;
+
+        private BeanFootprint(String beanName)
+        {
+            this.beanName = beanName;
+        }
+
+        private void add(long bytes)
+        {
+            sessionCount++;
+            totalBytes += bytes;
+            maxBytes = Math.max(maxBytes, bytes);
+        }
+
+        /**
+         * @return the bean class name, conversation scoped beans end with " (conversation)"
+         */
+        public String getBeanName()
+        {
+            return beanName;
+        }
+
+        /**
+         * @return the number of sessions holding instances of the bean
+         */
+        public int getSessionCount()
+        {
+            return sessionCount;
+        }
+
+        public long getTotalBytes()
+        {
+            return totalBytes;
+        }
+
+        /**
+         * @return the bytes of the biggest session
+         */
+        public long getMaxBytes()
+        {
+            return maxBytes;
+        }
+
+        @Override
+        public String toString()
+        {
+            return beanName + ": " + totalBytes + " bytes in " + sessionCount + " sessions, max " + maxBytes + " bytes";
+        }
+    }
+}
@@ -21,22 +21,35 @@ package org.apache.webbeans.context.creational;
 import javax.enterprise.context.spi.Contextual;
 import javax.enterprise.context.spi.CreationalContext;
 import java.io.Serializable;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.webbeans.component.OwbBean;
+import org.apache.webbeans.spi.MetricsService;
 
 /**
  * Stores the CreationalContext and the Contextual Instance.
  * This also makes sure that we don't create the same bean
  * twice.
+ *
+ * Creation is serialized per bag by synchronizing on the bag itself.
+ * Threads which access the bag while the instance gets created wait for it.
+ * There is no lock shared between different bags, so unrelated beans which
+ * create each other in their constructors or PostConstruct methods cannot deadlock.
+ * If a {@link MetricsService} is configured, the threads which lost the race to create
+ * the instance of an OWB bean get counted in {@code beans.<bean class>.contendedCreations}.
  */
 public class BeanInstanceBag<T> implements Serializable
 {
     private static final long serialVersionUID = 1656996021599122499L;
+
     private final CreationalContext<T> beanCreationalContext;
     
-    private T beanInstance;
-    
-    private final Lock lock = new ReentrantLock();
+    private volatile T beanInstance;
+
+    /**
+     * Whether the instance might have changed since the bag got serialized the last time.
+     * Not serialized, so a deserialized bag is always clean.
+     */
+    private transient volatile boolean dirty = true;
     
     public BeanInstanceBag(CreationalContext<T> beanCreationalContext)
     {
@@ -66,23 +79,71 @@ public class BeanInstanceBag<T> implements Serializable
      */
     public T create(Contextual<T> contextual)
     {
-        try
+        T instance = beanInstance;
+        if (instance != null)
+        {
+            return instance;
+        }
+
+        boolean contended;
+        synchronized (this)
         {
-            lock.lock();
-            
             // we need to check again, maybe we got blocked by a previous invocation
-            if (beanInstance == null)
+            instance = beanInstance;
+            contended = instance != null;
+            if (!contended)
             {
-                beanInstance = contextual.create(beanCreationalContext);
+                instance = contextual.create(beanCreationalContext);
+                beanInstance = instance;
             }
-            
         }
-        finally
+
+        if (contended)
         {
-            lock.unlock();
+            countContendedCreation(contextual);
+        }
+        return instance;
+    }
+
+    private static void countContendedCreation(Contextual<?> contextual)
+    {
+        if (contextual instanceof OwbBean)
+        {
+            OwbBean<?> bean = (OwbBean<?>) contextual;
+            MetricsService metricsService = bean.getWebBeansContext().getMetricsService();
+            if (metricsService != null && bean.getBeanClass() != null)
+            {
+                metricsService.getCounter("beans." + bean.getBeanClass().getName() + ".contendedCreations").increment();
+            }
         }
-        
-        return beanInstance; 
+    }
+
+    /**
+     * @return whether the instance might have changed since the last delta
+     */
+    public boolean isDirty()
+    {
+        return dirty;
+    }
+
+    /**
+     * Mark the instance as changed.
+     */
+    public void markDirty()
+    {
+        // avoid the volatile write if nothing changes
+        if (!dirty)
+        {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Mark the instance as written.
+     */
+    public void markClean()
+    {
+        dirty = false;
     }
 
     @Override
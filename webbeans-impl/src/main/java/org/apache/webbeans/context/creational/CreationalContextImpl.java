@@ -82,6 +82,12 @@ public class CreationalContextImpl<T> implements CreationalContext<T>, Serializa
      */
     private boolean destroying;
 
+    /**
+     * Number of dependents at which a possible leak gets reported next.
+     * @see DependentLeakDetector
+     */
+    private transient int nextLeakThreshold;
+
     /**
      * Package private
      */
@@ -93,6 +99,7 @@ public class CreationalContextImpl<T> implements CreationalContext<T>, Serializa
         }
         this.contextual = contextual;
         this.webBeansContext = webBeansContext;
+        nextLeakThreshold = webBeansContext.getDependentLeakDetector().getInitialThreshold();
     }
     
     public WebBeansContext getWebBeansContext()
@@ -208,10 +215,25 @@ public class CreationalContextImpl<T> implements CreationalContext<T>, Serializa
                 {
                     dependentObjects.add(dependentCreational);
                 }
+
+                if (dependentObjects.size() >= nextLeakThreshold)
+                {
+                    nextLeakThreshold = webBeansContext.getDependentLeakDetector()
+                            .report(bean, dependent, getInjectionPoint(), dependentObjects.size());
+                }
             }
         }
     }
 
+    /**
+     * @return whether any dependent instance got registered which needs to get destroyed
+     */
+    public boolean hasDependents()
+    {
+        List<DependentCreationalContext<?>> dependents = dependentObjects;
+        return dependents != null && !dependents.isEmpty();
+    }
+
     public boolean containsDependent(Contextual<?> contextual, Object instance)
     {
         if (dependentObjects == null)
@@ -354,6 +376,7 @@ public class CreationalContextImpl<T> implements CreationalContext<T>, Serializa
     throws IOException, ClassNotFoundException
     {
         webBeansContext = WebBeansContext.currentInstance();
+        nextLeakThreshold = webBeansContext.getDependentLeakDetector().getInitialThreshold();
         dependentObjects = (List<DependentCreationalContext<?>>)s.readObject();
 
         String id = (String) s.readObject();
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.context.creational;
+
+import java.lang.reflect.Member;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.InjectionPoint;
+
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+
+/**
+ * Detects &#064;Dependent instances which pile up in a long living owner,
+ * e.g. instances obtained via {@code Instance#get()} in an &#064;ApplicationScoped bean
+ * which never get destroyed.
+ *
+ * Each owner only compares its number of dependents against its next threshold,
+ * so the detection is cheap enough to stay enabled in production. Once a threshold
+ * got crossed a warning gets logged and the next threshold gets doubled.
+ *
+ * @see org.apache.webbeans.config.OpenWebBeansConfiguration#DEPENDENT_LEAK_THRESHOLD
+ */
+public class DependentLeakDetector
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(DependentLeakDetector.class);
+
+    private final int threshold;
+
+    private final ConcurrentMap<String, AtomicInteger> offenders = new ConcurrentHashMap<>();
+    private final AtomicLong reportCount = new AtomicLong();
+
+    public DependentLeakDetector(WebBeansContext webBeansContext)
+    {
+        threshold = webBeansContext.getOpenWebBeansConfiguration().getDependentLeakThreshold();
+    }
+
+    public boolean isEnabled()
+    {
+        return threshold > 0;
+    }
+
+    /**
+     * @return the number of dependents an owner may hold before it gets reported the first time
+     */
+    public int getInitialThreshold()
+    {
+        return threshold > 0 ? threshold : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Report that an owner crossed its threshold.
+     *
+     * @param owner the bean whose instance holds the dependents, might be {@code null}
+     * @param dependent the contextual of the latest dependent instance
+     * @param injectionPoint the injection point the latest dependent got created for, might be {@code null}
+     * @param count the current number of dependents of the owner
+     * @return the next threshold for the owner
+     */
+    public int report(Bean<?> owner, Contextual<?> dependent, InjectionPoint injectionPoint, int count)
+    {
+        String offender = describe(dependent) + " held by " + describe(owner)
+            + (injectionPoint != null ? " via " + describe(injectionPoint) : "");
+        offenders.computeIfAbsent(offender, k -> new AtomicInteger()).accumulateAndGet(count, Math::max);
+        reportCount.incrementAndGet();
+
+        logger.warning(count + " dependent instances of " + offender + " did not get destroyed yet. "
+            + "Dependent instances obtained via Instance#get() or BeanManager#getReference() "
+            + "live as long as their owner unless they get destroyed explicitly.");
+
+        return count > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : count * 2;
+    }
+
+    /**
+     * @return the number of times any owner crossed one of its thresholds
+     */
+    public long getReportCount()
+    {
+        return reportCount.get();
+    }
+
+    /**
+     * @param limit maximum number of entries
+     * @return the reported dependent/owner/injection point combinations with the highest
+     *         number of dependent instances seen, highest first
+     */
+    public Map<String, Integer> getTopOffenders(int limit)
+    {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        offenders.entrySet().stream()
+            .sorted((e1, e2) -> Integer.compare(e2.getValue().get(), e1.getValue().get()))
+            .limit(limit)
+            .forEach(e -> result.put(e.getKey(), e.getValue().get()));
+        return result;
+    }
+
+    private static String describe(Contextual<?> contextual)
+    {
+        if (contextual instanceof Bean)
+        {
+            return ((Bean<?>) contextual).getBeanClass().getName();
+        }
+        return contextual == null ? "unknown owner" : contextual.toString();
+    }
+
+    private static String describe(InjectionPoint injectionPoint)
+    {
+        Member member = injectionPoint.getMember();
+        if (member == null)
+        {
+            return injectionPoint.getType().getTypeName();
+        }
+        return member.getDeclaringClass().getName() + "#" + member.getName();
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.conversation;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.webbeans.context.ConversationContext;
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+
+/**
+ * A hashed timer wheel which expires long running conversations in the background.
+ *
+ * Each scheduled conversation sits in exactly one bucket of the wheel.
+ * Scheduling and cancelling is O(1). A single thread advances the wheel every tick
+ * and only looks at the conversations of the current bucket.
+ * Conversations which got touched in the meantime simply get re-scheduled
+ * instead of being moved on every access.
+ *
+ * The wheel doesn't destroy timed out conversations itself as the ticker thread has neither
+ * a request nor a session context. It only marks them in their {@link ConversationStorage}.
+ * The conversations and their storage are only weakly referenced, so the wheel doesn't keep
+ * the conversations of passivated or replicated sessions alive.
+ */
+final class ConversationExpiryWheel implements Closeable
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(ConversationExpiryWheel.class);
+
+    private static final int WHEEL_SIZE = 512;
+
+    private final ConversationManager conversationManager;
+    private final long tickMillis;
+
+    private final Set<Entry>[] buckets;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final ScheduledExecutorService ticker;
+
+    /**
+     * Only accessed by the ticker thread.
+     */
+    private long currentTick;
+    private final long startTime;
+
+    ConversationExpiryWheel(ConversationManager conversationManager, long tickMillis, ClassLoader classLoader)
+    {
+        this.conversationManager = conversationManager;
+        this.tickMillis = Math.max(1, tickMillis);
+
+        buckets = new Set[WHEEL_SIZE];
+        for (int i = 0; i < WHEEL_SIZE; i++)
+        {
+            buckets[i] = ConcurrentHashMap.newKeySet();
+        }
+
+        ticker = new ScheduledThreadPoolExecutor(1, r ->
+        {
+            Thread thread = new Thread(r, "OpenWebBeans-ConversationExpiry");
+            thread.setDaemon(true);
+            thread.setContextClassLoader(classLoader);
+            return thread;
+        });
+        startTime = System.currentTimeMillis();
+        ticker.scheduleAtFixedRate(this::tick, this.tickMillis, this.tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedule the expiry check of the given conversation.
+     * @param storage the session conversation storage the conversation gets marked as expired in
+     * @param deadline the time in ms when the conversation expires
+     */
+    Entry schedule(ConversationContext conversationContext, Map<String, ConversationContext> storage, long deadline)
+    {
+        Entry entry = new Entry(conversationContext, storage, deadline);
+        pending.add(entry);
+        return entry;
+    }
+
+    @Override
+    public void close()
+    {
+        ticker.shutdownNow();
+        pending.clear();
+        for (Set<Entry> bucket : buckets)
+        {
+            bucket.clear();
+        }
+    }
+
+    private void tick()
+    {
+        try
+        {
+            transferPending();
+
+            Set<Entry> bucket = buckets[(int) (currentTick & (WHEEL_SIZE - 1))];
+            Iterator<Entry> entries = bucket.iterator();
+            while (entries.hasNext())
+            {
+                Entry entry = entries.next();
+                if (entry.cancelled)
+                {
+                    entries.remove();
+                }
+                else if (entry.remainingRounds > 0)
+                {
+                    entry.remainingRounds--;
+                }
+                else
+                {
+                    entries.remove();
+                    entry.bucket = null;
+                    expire(entry);
+                }
+            }
+
+            currentTick++;
+        }
+        catch (RuntimeException e)
+        {
+            // never let the ticker die
+            logger.log(Level.SEVERE, "Error while expiring conversations", e);
+        }
+    }
+
+    private void expire(Entry entry)
+    {
+        ConversationContext conversationContext = entry.getConversationContext();
+        Map<String, ConversationContext> storage = entry.getStorage();
+        if (conversationContext == null || storage == null)
+        {
+            // the session got dropped
+            return;
+        }
+
+        long nextDeadline;
+        try
+        {
+            nextDeadline = conversationManager.expireConversation(conversationContext, storage);
+        }
+        catch (RuntimeException e)
+        {
+            logger.log(Level.WARNING, "Error while expiring conversation " + conversationContext.getConversation(), e);
+            return;
+        }
+
+        if (nextDeadline > 0 && !entry.cancelled)
+        {
+            // got touched or is in use right now
+            entry.deadline = nextDeadline;
+            pending.add(entry);
+        }
+    }
+
+    private void transferPending()
+    {
+        Entry entry;
+        while ((entry = pending.poll()) != null)
+        {
+            if (entry.cancelled)
+            {
+                continue;
+            }
+
+            // the conversation must not expire before its deadline, so round up
+            long deadlineTick = Math.max(currentTick, (entry.deadline - startTime + tickMillis - 1) / tickMillis);
+            entry.remainingRounds = (deadlineTick - currentTick) / WHEEL_SIZE;
+            Set<Entry> bucket = buckets[(int) (deadlineTick & (WHEEL_SIZE - 1))];
+            entry.bucket = bucket;
+            bucket.add(entry);
+        }
+    }
+
+    /**
+     * The handle of a scheduled conversation.
+     */
+    static final class Entry
+    {
+        private final WeakReference<ConversationContext> conversationContext;
+        private final WeakReference<Map<String, ConversationContext>> storage;
+        private volatile long deadline;
+        private long remainingRounds;
+        private volatile Set<Entry> bucket;
+        private volatile boolean cancelled;
+
+        private Entry(ConversationContext conversationContext, Map<String, ConversationContext> storage, long deadline)
+        {
+            this.conversationContext = new WeakReference<>(conversationContext);
+            this.storage = new WeakReference<>(storage);
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return the conversation or {@code null} if it got garbage collected
+         */
+        ConversationContext getConversationContext()
+        {
+            return conversationContext.get();
+        }
+
+        /**
+         * @return the storage of the session or {@code null} if it got garbage collected
+         */
+        Map<String, ConversationContext> getStorage()
+        {
+            return storage.get();
+        }
+
+        /**
+         * Remove the conversation from the wheel. This does not destroy it.
+         */
+        void cancel()
+        {
+            cancelled = true;
+            Set<Entry> currentBucket = bucket;
+            if (currentBucket != null)
+            {
+                currentBucket.remove(this);
+            }
+        }
+    }
+}
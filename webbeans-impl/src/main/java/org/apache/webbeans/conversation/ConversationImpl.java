@@ -20,8 +20,12 @@ package org.apache.webbeans.conversation;
 
 import java.io.IOException;
 import java.io.Serializable;
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -30,7 +34,6 @@ import javax.enterprise.context.Conversation;
 import javax.enterprise.context.ConversationScoped;
 
 import org.apache.webbeans.config.OWBLogConst;
-import org.apache.webbeans.config.OpenWebBeansConfiguration;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.context.ConversationContext;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
@@ -47,6 +50,19 @@ public class ConversationImpl implements Conversation, Serializable
      */
     private static final Logger logger = WebBeansLoggerFacade.getLogger(ConversationImpl.class);
 
+    /**
+     * Value of {@link #owner} if no thread uses this conversation.
+     */
+    private static final long FREE = 0L;
+
+    /**
+     * Upper bound for a single park while waiting for a busy conversation.
+     */
+    private static final long MAX_BUSY_WAIT_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final AtomicReferenceFieldUpdater<ConversationImpl, ConversationExpiryWheel.Entry> EXPIRY_ENTRY_UPDATER
+        = AtomicReferenceFieldUpdater.newUpdater(ConversationImpl.class, ConversationExpiryWheel.Entry.class, "expiryEntry");
+
     /**
      * Conversation id
      */
@@ -65,21 +81,31 @@ public class ConversationImpl implements Conversation, Serializable
     /**
      * Active duration of the conversation
      */
-    private long lastAccessTime;
+    private volatile long lastAccessTime;
 
     private transient RuntimeException problemDuringCreation;
 
     /**
-     * This instance is in use and by which threads.
-     * Atomicinteger would be great but then contract of ContextsService would need to be enhanced to
-     * be compatible wih WBPhaseListeners. Using thread allow to call iUseIt() multiple times.
-     * Long to be serializable.
-     * TODO: serialization should be done manually to use the manager otherwise all is broken
+     * The id of the thread which currently owns this conversation or {@link #FREE}.
+     * Ownership gets acquired and released via CAS. The owning thread can call
+     * {@link #iUseIt()} multiple times, e.g. from WBPhaseListeners.
      */
-    private transient Set<Long> threadsUsingIt = new HashSet<>();
+    private transient AtomicLong owner = new AtomicLong(FREE);
+
+    /**
+     * Ids of the threads which tried to use this conversation while another thread owned it.
+     * Those threads get a {@link BusyConversationException} until they release it again.
+     * Only created if there is contention at all.
+     */
+    private transient volatile Set<Long> busyThreads;
 
     private transient WebBeansContext webBeansContext;
 
+    /**
+     * The handle in the {@link ConversationExpiryWheel} if this is a long running conversation.
+     */
+    private transient volatile ConversationExpiryWheel.Entry expiryEntry;
+
     /**
      * Default constructor. Used for proxies.
      */
@@ -91,15 +117,7 @@ public class ConversationImpl implements Conversation, Serializable
     public ConversationImpl(WebBeansContext webBeansContext)
     {
         this.webBeansContext = webBeansContext;
-        try
-        {
-            timeout = Long.parseLong(this.webBeansContext.getOpenWebBeansConfiguration().
-                    getProperty(OpenWebBeansConfiguration.CONVERSATION_TIMEOUT_INTERVAL, "1800000"));
-        }
-        catch (NumberFormatException e)
-        {
-            timeout = 30 * 60 * 1000;
-        }
+        timeout = webBeansContext.getOpenWebBeansConfiguration().getConversationTimeoutInterval();
     }
 
     /**
@@ -156,6 +174,11 @@ public class ConversationImpl implements Conversation, Serializable
         checkThreadUsage();
         if (!isTransient)
         {
+            // remove this conversation from the SessionContext while we still know its id
+            ConversationManager conversationManager = webBeansContext.getConversationManager();
+            ConversationContext conversationContext = (ConversationContext) webBeansContext.getContextsService().getCurrentContext(ConversationScoped.class);
+            conversationManager.removeConversationFromStorage(conversationContext);
+
             iDontUseItAnymore();
             id = null;
             isTransient = true;
@@ -165,29 +188,107 @@ public class ConversationImpl implements Conversation, Serializable
             logger.log(Level.WARNING, OWBLogConst.WARN_0004, id);
             throw new IllegalStateException(toString() + " has already ended");
         }
-
-        // now store this conversation in the SessionContext
-        ConversationManager conversationManager = webBeansContext.getConversationManager();
-        ConversationContext conversationContext = (ConversationContext) webBeansContext.getContextsService().getCurrentContext(ConversationScoped.class);
-        conversationManager.removeConversationFromStorage(conversationContext);
     }
 
+    /**
+     * Acquire this conversation for the current thread.
+     * If another thread owns it we wait for at most the configured busy wait timeout.
+     *
+     * @return {@code 1} if the current thread owns this conversation now,
+     *         a higher number if it is used by another thread.
+     * @see ConversationManager#getBusyWaitTimeout()
+     */
     public int iUseIt()
     {
         long thread = Thread.currentThread().getId();
-        synchronized (this)
+        if (tryAcquire(thread))
         {
-            threadsUsingIt.add(thread);
-            return threadsUsingIt.size();
+            return 1;
         }
+
+        long busyWaitTimeout = webBeansContext.getConversationManager().getBusyWaitTimeout();
+        if (busyWaitTimeout > 0 && awaitAcquire(thread, TimeUnit.MILLISECONDS.toNanos(busyWaitTimeout)))
+        {
+            return 1;
+        }
+
+        Set<Long> busy = busyThreads;
+        if (busy == null)
+        {
+            synchronized (this)
+            {
+                busy = busyThreads;
+                if (busy == null)
+                {
+                    busy = ConcurrentHashMap.newKeySet();
+                    busyThreads = busy;
+                }
+            }
+        }
+        busy.add(thread);
+        return 1 + busy.size();
     }
 
     public void iDontUseItAnymore()
     {
         long thread = Thread.currentThread().getId();
-        synchronized (this)
+        if (!owner.compareAndSet(thread, FREE))
+        {
+            Set<Long> busy = busyThreads;
+            if (busy != null)
+            {
+                busy.remove(thread);
+            }
+        }
+    }
+
+    /**
+     * @return whether any thread currently owns this conversation
+     */
+    boolean isInUse()
+    {
+        return owner.get() != FREE;
+    }
+
+    private boolean tryAcquire(long thread)
+    {
+        long currentOwner = owner.get();
+        if (currentOwner == thread)
+        {
+            return true;
+        }
+        if (currentOwner != FREE || !owner.compareAndSet(FREE, thread))
+        {
+            return false;
+        }
+
+        // thread ids get reused, so a stale busy registration must not hurt the new owner
+        Set<Long> busy = busyThreads;
+        if (busy != null)
+        {
+            busy.remove(thread);
+        }
+        return true;
+    }
+
+    private boolean awaitAcquire(long thread, long timeoutNanos)
+    {
+        long deadline = System.nanoTime() + timeoutNanos;
+        long parkNanos = TimeUnit.MICROSECONDS.toNanos(100);
+        while (true)
         {
-            threadsUsingIt.remove(thread);
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || Thread.currentThread().isInterrupted())
+            {
+                return false;
+            }
+
+            LockSupport.parkNanos(this, Math.min(parkNanos, remaining));
+            if (tryAcquire(thread))
+            {
+                return true;
+            }
+            parkNanos = Math.min(parkNanos * 2, MAX_BUSY_WAIT_PARK_NANOS);
         }
     }
 
@@ -220,9 +321,10 @@ public class ConversationImpl implements Conversation, Serializable
         return isTransient;
     }
 
-    private synchronized void checkThreadUsage()
+    private void checkThreadUsage()
     {
-        if (threadsUsingIt.size() > 1)
+        Set<Long> busy = busyThreads;
+        if (busy != null && !busy.isEmpty() && busy.contains(Thread.currentThread().getId()))
         {
             throw new BusyConversationException(
                     "Propogated conversation with sessionid/cid=" + id + " is used by other request.");
@@ -237,6 +339,33 @@ public class ConversationImpl implements Conversation, Serializable
     {
         checkThreadUsage();
         timeout = milliseconds;
+        if (expiryEntry != null)
+        {
+            webBeansContext.getConversationManager().timeoutChanged(this);
+        }
+    }
+
+    /**
+     * Like {@link #getTimeout()} but without checking the concurrent usage.
+     */
+    long getTimeoutInternal()
+    {
+        return timeout;
+    }
+
+    ConversationExpiryWheel.Entry getExpiryEntry()
+    {
+        return expiryEntry;
+    }
+
+    boolean compareAndSetExpiryEntry(ConversationExpiryWheel.Entry expected, ConversationExpiryWheel.Entry newEntry)
+    {
+        return EXPIRY_ENTRY_UPDATER.compareAndSet(this, expected, newEntry);
+    }
+
+    ConversationExpiryWheel.Entry removeExpiryEntry()
+    {
+        return EXPIRY_ENTRY_UPDATER.getAndSet(this, null);
     }
 
     /**
@@ -279,6 +408,6 @@ public class ConversationImpl implements Conversation, Serializable
     {
         in.defaultReadObject();
         webBeansContext = WebBeansContext.currentInstance();
-        threadsUsingIt = new HashSet<>();
+        owner = new AtomicLong(FREE);
     }
 }
@@ -18,6 +18,9 @@
  */
 package org.apache.webbeans.conversation;
 
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -27,6 +30,7 @@ import javax.enterprise.context.Conversation;
 import javax.enterprise.context.NonexistentConversationException;
 import javax.enterprise.context.RequestScoped;
 import javax.enterprise.context.SessionScoped;
+import javax.enterprise.context.spi.AlterableContext;
 import javax.enterprise.context.spi.Context;
 import javax.enterprise.inject.spi.Bean;
 import javax.enterprise.inject.spi.BeanManager;
@@ -42,23 +46,45 @@ import org.apache.webbeans.context.RequestContext;
 import org.apache.webbeans.context.creational.CreationalContextImpl;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
 import org.apache.webbeans.spi.ConversationService;
+import org.apache.webbeans.spi.MetricsService;
 import org.apache.webbeans.util.Asserts;
+import org.apache.webbeans.util.WebBeansUtil;
 
 /**
  * Manager for the conversations.
  * Each conversation is related with conversation id and session id.
  *
+ * The long running conversations of a session are stored in a Map keyed by their conversation id.
+ * Timed out conversations get destroyed in the background by a {@link ConversationExpiryWheel}.
  *
  * @version $Rev$ $Date$
  *
  */
-public class ConversationManager
+public class ConversationManager implements Closeable
 {
     private static final Logger logger = WebBeansLoggerFacade.getLogger(ConversationManager.class);
 
 
     private final WebBeansContext webBeansContext;
-    private final Bean<Set<ConversationContext>> conversationStorageBean;
+    private final Bean<Map<String, ConversationContext>> conversationStorageBean;
+    private final Bean<Set<ConversationContext>> legacyConversationStorageBean;
+
+    /**
+     * Lazily started once the first long running conversation gets stored.
+     */
+    private volatile ConversationExpiryWheel expiryWheel;
+    private volatile boolean closed;
+
+    /**
+     * @see #getBusyWaitTimeout()
+     */
+    private final long busyWaitTimeout;
+
+    /**
+     * The number of conversation contexts which got created but not yet destroyed,
+     * {@code null} if no metrics get collected.
+     */
+    private final MetricsService.Counter activeConversations;
 
     /**
      * Creates new conversation manager
@@ -66,6 +92,10 @@ public class ConversationManager
     public ConversationManager(WebBeansContext webBeansContext)
     {
         this.webBeansContext = webBeansContext;
+        this.busyWaitTimeout = webBeansContext.getOpenWebBeansConfiguration().getConversationBusyWaitTimeout();
+
+        MetricsService metricsService = webBeansContext.getMetricsService();
+        activeConversations = metricsService != null ? metricsService.getCounter("conversations.active") : null;
 
         // We cannot use this directly since it will change after passivation
         ConversationStorageBean convBean = new ConversationStorageBean(webBeansContext);
@@ -74,8 +104,13 @@ public class ConversationManager
         bm.addInternalBean(convBean);
 
         // this will return the internally wrapped ThirdPartyBean.
-        conversationStorageBean = (Bean<Set<ConversationContext>>)
+        conversationStorageBean = (Bean<Map<String, ConversationContext>>)
                 bm.resolve(bm.getBeans(ConversationStorageBean.OWB_INTERNAL_CONVERSATION_STORAGE_BEAN_PASSIVATION_ID));
+
+        // only needed to read sessions which got serialized before the conversations were keyed by their id
+        bm.addInternalBean(new LegacyConversationStorageBean(webBeansContext));
+        legacyConversationStorageBean = (Bean<Set<ConversationContext>>)
+                bm.resolve(bm.getBeans(LegacyConversationStorageBean.OWB_INTERNAL_LEGACY_CONVERSATION_STORAGE_BEAN_PASSIVATION_ID));
     }
 
 
@@ -88,30 +123,39 @@ public class ConversationManager
     {
         ConversationService conversationService = webBeansContext.getConversationService();
 
-        Set<ConversationContext> conversationContexts = getSessionConversations(sessionContext, false);
+        Map<String, ConversationContext> conversationContexts = getSessionConversations(sessionContext, false);
 
         RuntimeException problem = null;
         String conversationId = conversationService.getConversationId();
         if (conversationId != null && conversationId.length() > 0)
         {
-            if (conversationContexts != null)
+            ConversationContext conversationContext = conversationContexts != null ? conversationContexts.get(conversationId) : null;
+            if (conversationContext != null)
             {
-                for (ConversationContext conversationContext : conversationContexts)
+                ConversationImpl conversation = conversationContext.getConversation();
+                if (conversation.iUseIt() > 1)
+                {
+                    problem =  new BusyConversationException("Propogated conversation with cid=" +
+                            conversation.getId() +
+                            " is used by other request. It creates a new transient conversation");
+                    conversation.setProblemDuringCreation(problem);
+                }
+
+                if (conversationContexts.get(conversationId) == conversationContext)
                 {
-                    if (conversationId.equals(conversationContext.getConversation().getId()))
+                    conversation.updateLastAccessTime();
+                    if (conversation.getExpiryEntry() == null)
                     {
-                        if (conversationContext.getConversation().iUseIt() > 1)
-                        {
-                            problem =  new BusyConversationException("Propogated conversation with cid=" +
-                                    conversationContext.getConversation().getId() +
-                                    " is used by other request. It creates a new transient conversation");
-                            conversationContext.getConversation().setProblemDuringCreation(problem);
-                        }
-
-                        conversationContext.setActive(true);
-                        return conversationContext;
+                        // e.g. after the session got deserialized
+                        scheduleExpiry(conversationContext, conversationContexts);
                     }
+
+                    conversationContext.setActive(true);
+                    return conversationContext;
                 }
+
+                // got expired concurrently
+                conversation.iDontUseItAnymore();
             }
 
             problem = new NonexistentConversationException("Propogated conversation with cid=" + conversationId +
@@ -120,6 +164,10 @@ public class ConversationManager
 
         ConversationContext conversationContext = new ConversationContext(webBeansContext);
         conversationContext.setActive(true);
+        if (activeConversations != null)
+        {
+            activeConversations.increment();
+        }
         conversationContext.getConversation().setProblemDuringCreation(problem);
 
         return conversationContext;
@@ -133,19 +181,14 @@ public class ConversationManager
     {
         Asserts.assertNotNull(conversationId, "conversationId");
         Context sessionContext = webBeansContext.getContextsService().getCurrentContext(SessionScoped.class);
-        Set<ConversationContext> sessionConversations = getSessionConversations(sessionContext, true);
+        Map<String, ConversationContext> sessionConversations = getSessionConversations(sessionContext, true);
 
-        // check whether this conversation already exists
-        for (ConversationContext sessionConversation : sessionConversations)
+        if (sessionConversations.putIfAbsent(conversationId, conversationContext) != null)
         {
-            if (conversationId.equals(sessionConversation.getConversation().getId()))
-            {
-                throw new IllegalArgumentException("Conversation with id=" + conversationId + " already exists!");
-            }
+            throw new IllegalArgumentException("Conversation with id=" + conversationId + " already exists!");
         }
 
-        // if not, then simply add this conversation
-        sessionConversations.add(conversationContext);
+        scheduleExpiry(conversationContext, sessionConversations);
     }
 
     /**
@@ -157,8 +200,217 @@ public class ConversationManager
     public boolean removeConversationFromStorage(ConversationContext conversationContext)
     {
         Context sessionContext = webBeansContext.getContextsService().getCurrentContext(SessionScoped.class);
-        Set<ConversationContext> sessionConversations = getSessionConversations(sessionContext, true);
-        return sessionConversations.remove(conversationContext);
+        Map<String, ConversationContext> sessionConversations = getSessionConversations(sessionContext, true);
+
+        ConversationImpl conversation = conversationContext.getConversation();
+        cancelExpiry(conversation);
+
+        String conversationId = conversation.getId();
+        if (conversationId != null)
+        {
+            return sessionConversations.remove(conversationId, conversationContext);
+        }
+        return sessionConversations.values().remove(conversationContext);
+    }
+
+    /**
+     * Invoked if the timeout of the given conversation got changed.
+     */
+    void timeoutChanged(ConversationImpl conversation)
+    {
+        ConversationExpiryWheel.Entry entry = conversation.getExpiryEntry();
+        if (entry != null)
+        {
+            cancelExpiry(conversation);
+            ConversationContext conversationContext = entry.getConversationContext();
+            Map<String, ConversationContext> storage = entry.getStorage();
+            if (conversationContext != null && storage != null)
+            {
+                scheduleExpiry(conversationContext, storage);
+            }
+        }
+    }
+
+    /**
+     * Invoked by the {@link ConversationExpiryWheel} once the deadline of a conversation got reached.
+     * If it is really timed out then the conversation only gets marked as expired. It gets destroyed
+     * at the end of the next request of its session, see {@link #destroyExpiredConversations(Context)}.
+     *
+     * @return the new deadline if the conversation is not yet timed out or {@code 0} if it is done
+     */
+    long expireConversation(ConversationContext conversationContext, Map<String, ConversationContext> storage)
+    {
+        ConversationImpl conversation = conversationContext.getConversation();
+        String conversationId = conversation.getId();
+        long timeout = conversation.getTimeoutInternal();
+        if (conversationId == null || timeout <= 0L || storage.get(conversationId) != conversationContext)
+        {
+            // already ended or destroyed
+            return 0L;
+        }
+
+        long now = System.currentTimeMillis();
+        long deadline = conversation.getLastAccessTime() + timeout;
+        if (deadline > now)
+        {
+            return deadline;
+        }
+
+        if (conversation.isInUse())
+        {
+            // it will get touched once the request ends
+            return now + timeout;
+        }
+
+        logger.log(Level.FINE, OWBLogConst.INFO_0011, conversationId);
+        conversation.removeExpiryEntry();
+        ((ConversationStorage) storage).markExpired(conversationId);
+        return 0L;
+    }
+
+    /**
+     * Destroys the conversations of the given session which got marked as expired by the {@link ConversationExpiryWheel}.
+     * This gets invoked at the end of a request while the request and session context are still active.
+     * Conversations which got used again after they got marked get scheduled again.
+     */
+    public void destroyExpiredConversations(Context sessionContext)
+    {
+        Map<String, ConversationContext> conversationContexts = getSessionConversations(sessionContext, false);
+        if (!(conversationContexts instanceof ConversationStorage) || !((ConversationStorage) conversationContexts).hasExpiredConversations())
+        {
+            return;
+        }
+
+        ConversationStorage storage = (ConversationStorage) conversationContexts;
+        for (String conversationId : storage.getExpiredConversationIds())
+        {
+            ConversationContext conversationContext = storage.get(conversationId);
+            if (!storage.unmarkExpired(conversationId) || conversationContext == null)
+            {
+                // handled by a parallel request or ended in the meantime
+                continue;
+            }
+
+            ConversationImpl conversation = conversationContext.getConversation();
+            if (isTimedOut(conversation) && storage.remove(conversationId, conversationContext))
+            {
+                if (!conversation.isInUse())
+                {
+                    destroyConversationContext(conversationContext);
+                    continue;
+                }
+
+                // a request picked it up in the meantime
+                storage.putIfAbsent(conversationId, conversationContext);
+            }
+            scheduleExpiry(conversationContext, storage);
+        }
+    }
+
+    private boolean isTimedOut(ConversationImpl conversation)
+    {
+        long timeout = conversation.getTimeoutInternal();
+        return timeout > 0L && conversation.getLastAccessTime() + timeout <= System.currentTimeMillis();
+    }
+
+    /**
+     * Schedules all conversations of the given storage which are not scheduled yet,
+     * e.g. after the session got deserialized.
+     */
+    private void scheduleExpiry(Map<String, ConversationContext> storage)
+    {
+        for (ConversationContext conversationContext : storage.values())
+        {
+            if (conversationContext.getConversation().getExpiryEntry() == null)
+            {
+                scheduleExpiry(conversationContext, storage);
+            }
+        }
+    }
+
+    private void scheduleExpiry(ConversationContext conversationContext, Map<String, ConversationContext> storage)
+    {
+        ConversationImpl conversation = conversationContext.getConversation();
+        long timeout = conversation.getTimeoutInternal();
+        if (timeout <= 0L)
+        {
+            // never times out
+            return;
+        }
+
+        ConversationExpiryWheel wheel = getExpiryWheel();
+        if (wheel == null)
+        {
+            return;
+        }
+
+        if (conversation.getExpiryEntry() == null)
+        {
+            ConversationExpiryWheel.Entry entry = wheel.schedule(conversationContext, storage, conversation.getLastAccessTime() + timeout);
+            if (!conversation.compareAndSetExpiryEntry(null, entry))
+            {
+                // another request scheduled it concurrently
+                entry.cancel();
+            }
+        }
+    }
+
+    private void cancelExpiry(ConversationImpl conversation)
+    {
+        ConversationExpiryWheel.Entry entry = conversation.removeExpiryEntry();
+        if (entry != null)
+        {
+            entry.cancel();
+        }
+    }
+
+    /**
+     * @return how long in ms a request waits for a conversation which is used by another request
+     *         before it gets a {@link BusyConversationException}
+     * @see org.apache.webbeans.config.OpenWebBeansConfiguration#CONVERSATION_BUSY_WAIT_TIMEOUT
+     */
+    public long getBusyWaitTimeout()
+    {
+        return busyWaitTimeout;
+    }
+
+    private ConversationExpiryWheel getExpiryWheel()
+    {
+        ConversationExpiryWheel wheel = expiryWheel;
+        if (wheel == null)
+        {
+            synchronized (this)
+            {
+                if (closed)
+                {
+                    return null;
+                }
+
+                wheel = expiryWheel;
+                if (wheel == null)
+                {
+                    wheel = new ConversationExpiryWheel(this,
+                            webBeansContext.getOpenWebBeansConfiguration().getConversationPeriodicDelay(),
+                            WebBeansUtil.getCurrentClassLoader());
+                    expiryWheel = wheel;
+                }
+            }
+        }
+        return wheel;
+    }
+
+    /**
+     * Stops the background expiry of conversations.
+     */
+    @Override
+    public synchronized void close()
+    {
+        closed = true;
+        if (expiryWheel != null)
+        {
+            expiryWheel.close();
+            expiryWheel = null;
+        }
     }
 
 
@@ -204,10 +456,16 @@ public class ConversationManager
      */
     public void destroyConversationContext(ConversationContext ctx)
     {
+        cancelExpiry(ctx.getConversation());
+
         webBeansContext.getBeanManagerImpl().fireEvent(
                 getLifecycleEventPayload(ctx), BeforeDestroyedLiteral.INSTANCE_CONVERSATION_SCOPED);
 
         ctx.destroy();
+        if (activeConversations != null)
+        {
+            activeConversations.decrement();
+        }
 
         webBeansContext.getBeanManagerImpl().fireEvent(
             getLifecycleEventPayload(ctx), DestroyedLiteral.INSTANCE_CONVERSATION_SCOPED);
@@ -241,26 +499,68 @@ public class ConversationManager
 
     /**
      * @param create whether a session and the map in there shall get created or not
-     * @return the conversation Map from the current session
+     * @return the conversation Map from the current session, keyed by the conversation id
      */
-    public Set<ConversationContext> getSessionConversations(Context sessionContext, boolean create)
+    public Map<String, ConversationContext> getSessionConversations(Context sessionContext, boolean create)
     {
-        Set<ConversationContext> conversationContexts = null;
-        if (sessionContext != null)
+        if (sessionContext == null)
         {
-            if (!create)
+            return null;
+        }
+
+        Map<String, ConversationContext> conversationContexts = sessionContext.get(conversationStorageBean);
+        if (conversationContexts == null)
+        {
+            Set<ConversationContext> legacyConversationContexts = sessionContext.get(legacyConversationStorageBean);
+            if (legacyConversationContexts != null)
             {
-                conversationContexts = sessionContext.get(conversationStorageBean);
+                conversationContexts = migrateConversations(sessionContext, legacyConversationContexts);
             }
-            else
+            else if (create)
             {
-                CreationalContextImpl<Set<ConversationContext>> creationalContext
+                CreationalContextImpl<Map<String, ConversationContext>> creationalContext
                         = webBeansContext.getBeanManagerImpl().createCreationalContext(conversationStorageBean);
 
                 conversationContexts = sessionContext.get(conversationStorageBean, creationalContext);
             }
         }
+        else if (conversationContexts instanceof ConversationStorage && ((ConversationStorage) conversationContexts).takeRestored())
+        {
+            scheduleExpiry(conversationContexts);
+        }
+
+        return conversationContexts;
+    }
+
+    /**
+     * Moves the conversations of a session which got serialized in the old format into the current storage.
+     */
+    private Map<String, ConversationContext> migrateConversations(Context sessionContext, Set<ConversationContext> legacyConversationContexts)
+    {
+        CreationalContextImpl<Map<String, ConversationContext>> creationalContext
+                = webBeansContext.getBeanManagerImpl().createCreationalContext(conversationStorageBean);
+        Map<String, ConversationContext> conversationContexts = sessionContext.get(conversationStorageBean, creationalContext);
+
+        synchronized (legacyConversationContexts)
+        {
+            for (Iterator<ConversationContext> legacyConversations = legacyConversationContexts.iterator(); legacyConversations.hasNext();)
+            {
+                ConversationContext conversationContext = legacyConversations.next();
+                String conversationId = conversationContext.getConversation().getId();
+                if (conversationId != null && conversationContexts.putIfAbsent(conversationId, conversationContext) == null)
+                {
+                    legacyConversations.remove();
+                }
+            }
+
+            // destroys the conversations which couldn't get moved
+            if (sessionContext instanceof AlterableContext)
+            {
+                ((AlterableContext) sessionContext).destroy(legacyConversationStorageBean);
+            }
+        }
 
+        scheduleExpiry(conversationContexts);
         return conversationContexts;
     }
 
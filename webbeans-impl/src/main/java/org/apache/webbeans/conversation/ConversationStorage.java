@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.conversation;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.webbeans.context.ConversationContext;
+
+/**
+ * The long running conversations of a session, keyed by their conversation id.
+ *
+ * The {@link ConversationExpiryWheel} only marks timed out conversations in here.
+ * They stay in the storage and get destroyed at the end of the next request of the session,
+ * when the request and session context are active.
+ *
+ * The expiry entries of the conversations are transient. After the storage got deserialized
+ * the {@link ConversationManager} schedules all of its conversations again.
+ */
+final class ConversationStorage extends ConcurrentHashMap<String, ConversationContext>
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Set<String> expiredConversationIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Whether the storage got deserialized and its conversations didn't get scheduled yet.
+     */
+    private transient volatile boolean restored;
+
+    void markExpired(String conversationId)
+    {
+        expiredConversationIds.add(conversationId);
+    }
+
+    boolean hasExpiredConversations()
+    {
+        return !expiredConversationIds.isEmpty();
+    }
+
+    /**
+     * @return whether the given conversation was marked as expired
+     */
+    boolean unmarkExpired(String conversationId)
+    {
+        return expiredConversationIds.remove(conversationId);
+    }
+
+    Set<String> getExpiredConversationIds()
+    {
+        return expiredConversationIds;
+    }
+
+    /**
+     * @return {@code true} only for the first invocation after the storage got deserialized
+     */
+    boolean takeRestored()
+    {
+        if (!restored)
+        {
+            return false;
+        }
+        synchronized (this)
+        {
+            boolean wasRestored = restored;
+            restored = false;
+            return wasRestored;
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException
+    {
+        in.defaultReadObject();
+        restored = true;
+    }
+}
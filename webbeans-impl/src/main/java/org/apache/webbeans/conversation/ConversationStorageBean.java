@@ -28,19 +28,24 @@ import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.context.ConversationContext;
 
 
 /**
- * Bean used to create the map of conversations in a session
+ * Bean used to create the map of conversations in a session.
+ * The map is keyed by the conversation id.
  */
-public class ConversationStorageBean implements Bean<Set<ConversationContext>>, PassivationCapable, Serializable
+public class ConversationStorageBean implements Bean<Map<String, ConversationContext>>, PassivationCapable, Serializable
 {
-    public static final String OWB_INTERNAL_CONVERSATION_STORAGE_BEAN_PASSIVATION_ID = "apache.openwebbeans.OwbInternalConversationStorageBean";
+    /**
+     * Differs from the id of the {@link LegacyConversationStorageBean}, so sessions serialized
+     * in the old format still find their Set of conversations.
+     */
+    public static final String OWB_INTERNAL_CONVERSATION_STORAGE_BEAN_PASSIVATION_ID = "apache.openwebbeans.OwbInternalConversationStorageMapBean";
     private final transient WebBeansContext webBeansContext;
 
     public ConversationStorageBean()
@@ -54,23 +59,27 @@ public class ConversationStorageBean implements Bean<Set<ConversationContext>>,
     }
 
     @Override
-    public Set<ConversationContext> create(CreationalContext<Set<ConversationContext>> creationalContext)
+    public Map<String, ConversationContext> create(CreationalContext<Map<String, ConversationContext>> creationalContext)
     {
-        return Collections.newSetFromMap(new ConcurrentHashMap<ConversationContext, Boolean>());
+        return new ConversationStorage();
     }
 
     @Override
-    public void destroy(Set<ConversationContext> instance, CreationalContext<Set<ConversationContext>> context)
+    public void destroy(Map<String, ConversationContext> instance, CreationalContext<Map<String, ConversationContext>> context)
     {
-        if (instance == null || instance.size() == 0)
+        if (instance == null || instance.isEmpty())
         {
             return;
         }
 
         ConversationManager conversationManager = webBeansContext.getConversationManager();
-        for (ConversationContext conversationContext : instance)
+        for (Map.Entry<String, ConversationContext> conversationEntry : instance.entrySet())
         {
-            conversationManager.destroyConversationContext(conversationContext);
+            // the conversation might get expired concurrently, only one of us must destroy it
+            if (instance.remove(conversationEntry.getKey(), conversationEntry.getValue()))
+            {
+                conversationManager.destroyConversationContext(conversationEntry.getValue());
+            }
         }
     }
 
@@ -83,7 +92,7 @@ public class ConversationStorageBean implements Bean<Set<ConversationContext>>,
     @Override
     public Class<?> getBeanClass()
     {
-        return Set.class;
+        return Map.class;
     }
 
     @Override
@@ -0,0 +1,269 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.corespi.metrics;
+
+import java.io.Closeable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.spi.MetricsService;
+
+/**
+ * Default {@link MetricsService} which keeps all metrics in memory and exposes
+ * them as read-only attributes of a single MBean per container,
+ * named {@code org.apache.webbeans:type=Metrics,context=<n>}.
+ *
+ * Timers show up as the four attributes {@code <name>.count}, {@code <name>.totalNanos},
+ * {@code <name>.maxNanos} and {@code <name>.meanNanos}.
+ *
+ * Activate it via
+ * <pre>org.apache.webbeans.spi.MetricsService=org.apache.webbeans.corespi.metrics.JmxMetricsService</pre>
+ * in an openwebbeans.properties file.
+ */
+public class JmxMetricsService implements MetricsService, Closeable
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(JmxMetricsService.class);
+
+    private static final AtomicInteger CONTEXT_IDS = new AtomicInteger();
+
+    private final ConcurrentMap<String, CounterImpl> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, TimerImpl> timers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    private ObjectName objectName;
+
+    public JmxMetricsService()
+    {
+        try
+        {
+            ObjectName name = new ObjectName("org.apache.webbeans:type=Metrics,context=" + CONTEXT_IDS.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(), name);
+            objectName = name;
+        }
+        catch (Exception e)
+        {
+            logger.log(Level.WARNING, "Could not register the metrics MBean, metrics are only available programmatically", e);
+        }
+    }
+
+    @Override
+    public Counter getCounter(String name)
+    {
+        return counters.computeIfAbsent(name, n -> new CounterImpl());
+    }
+
+    @Override
+    public Timer getTimer(String name)
+    {
+        return timers.computeIfAbsent(name, n -> new TimerImpl());
+    }
+
+    @Override
+    public void registerGauge(String name, LongSupplier gauge)
+    {
+        gauges.put(name, gauge);
+    }
+
+    public ObjectName getObjectName()
+    {
+        return objectName;
+    }
+
+    /**
+     * @return the current values of all metrics, sorted by name
+     */
+    public Map<String, Long> getValues()
+    {
+        Map<String, Long> values = new TreeMap<>();
+        for (Map.Entry<String, CounterImpl> counter : counters.entrySet())
+        {
+            values.put(counter.getKey(), counter.getValue().getCount());
+        }
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet())
+        {
+            values.put(gauge.getKey(), gauge.getValue().getAsLong());
+        }
+        for (Map.Entry<String, TimerImpl> timer : timers.entrySet())
+        {
+            TimerImpl value = timer.getValue();
+            long count = value.getCount();
+            values.put(timer.getKey() + ".count", count);
+            values.put(timer.getKey() + ".totalNanos", value.getTotalNanos());
+            values.put(timer.getKey() + ".maxNanos", value.getMaxNanos());
+            values.put(timer.getKey() + ".meanNanos", count == 0 ? 0 : value.getTotalNanos() / count);
+        }
+        return values;
+    }
+
+    @Override
+    public void close()
+    {
+        if (objectName != null)
+        {
+            try
+            {
+                MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+                if (mBeanServer.isRegistered(objectName))
+                {
+                    mBeanServer.unregisterMBean(objectName);
+                }
+            }
+            catch (Exception e)
+            {
+                logger.log(Level.WARNING, "Could not unregister the metrics MBean " + objectName, e);
+            }
+            objectName = null;
+        }
+    }
+
+    private static final class CounterImpl implements Counter
+    {
+        private final LongAdder count = new LongAdder();
+
+        @Override
+        public void add(long delta)
+        {
+            count.add(delta);
+        }
+
+        @Override
+        public long getCount()
+        {
+            return count.sum();
+        }
+    }
+
+    private static final class TimerImpl implements Timer
+    {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        @Override
+        public void update(long durationNanos)
+        {
+            count.increment();
+            total.add(durationNanos);
+            max.accumulate(durationNanos);
+        }
+
+        @Override
+        public long getCount()
+        {
+            return count.sum();
+        }
+
+        @Override
+        public long getTotalNanos()
+        {
+            return total.sum();
+        }
+
+        @Override
+        public long getMaxNanos()
+        {
+            return max.get();
+        }
+    }
+
+    /**
+     * Exposes the metrics which exist at the time the MBeanInfo gets read.
+     */
+    private final class MetricsMBean implements DynamicMBean
+    {
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException
+        {
+            Long value = getValues().get(attribute);
+            if (value == null)
+            {
+                throw new AttributeNotFoundException(attribute);
+            }
+            return value;
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes)
+        {
+            Map<String, Long> values = getValues();
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes)
+            {
+                Long value = values.get(attribute);
+                if (value != null)
+                {
+                    list.add(new Attribute(attribute, value));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute)
+        {
+            throw new UnsupportedOperationException("metrics are read-only");
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes)
+        {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature)
+        {
+            throw new UnsupportedOperationException(actionName);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo()
+        {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (String name : getValues().keySet())
+            {
+                attributes.add(new MBeanAttributeInfo(name, Long.class.getName(), name, true, false, false));
+            }
+            return new MBeanInfo(JmxMetricsService.class.getName(), "OpenWebBeans container metrics",
+                attributes.toArray(new MBeanAttributeInfo[attributes.size()]), null, new MBeanOperationInfo[0], null);
+        }
+    }
+}
@@ -44,6 +44,8 @@ import org.apache.webbeans.context.SessionContext;
 import org.apache.webbeans.conversation.ConversationManager;
 import org.apache.webbeans.intercept.RequestScopedBeanInterceptorHandler;
 import org.apache.webbeans.intercept.SessionScopedBeanInterceptorHandler;
+import org.apache.webbeans.jfr.ContextEvent;
+import org.apache.webbeans.jfr.FlightRecorderSupport;
 
 
 public abstract class BaseSeContextsService extends AbstractContextsService
@@ -83,7 +85,22 @@ public abstract class BaseSeContextsService extends AbstractContextsService
     @Override
     public void endContext(Class<? extends Annotation> scopeType, Object endParameters)
     {
-        
+        ContextEvent jfrEvent = FlightRecorderSupport.AVAILABLE ? ContextEvent.start(scopeType, ContextEvent.END) : null;
+        try
+        {
+            stopContext(scopeType);
+        }
+        finally
+        {
+            if (jfrEvent != null)
+            {
+                jfrEvent.commit();
+            }
+        }
+    }
+
+    private void stopContext(Class<? extends Annotation> scopeType)
+    {
         if(scopeType.equals(RequestScoped.class))
         {
             stopRequestContext();
@@ -150,6 +167,22 @@ public abstract class BaseSeContextsService extends AbstractContextsService
      */
     @Override
     public void startContext(Class<? extends Annotation> scopeType, Object startParameter) throws ContextException
+    {
+        ContextEvent jfrEvent = FlightRecorderSupport.AVAILABLE ? ContextEvent.start(scopeType, ContextEvent.START) : null;
+        try
+        {
+            doStartContext(scopeType);
+        }
+        finally
+        {
+            if (jfrEvent != null)
+            {
+                jfrEvent.commit();
+            }
+        }
+    }
+
+    private void doStartContext(Class<? extends Annotation> scopeType) throws ContextException
     {
         try
         {
@@ -194,6 +227,8 @@ public abstract class BaseSeContextsService extends AbstractContextsService
         if (requestCtx != null)
         {
             requestCtx.destroy();
+            contextEnded(requestCtx);
+            requestCtx.unpinSessionContext();
             RequestScopedBeanInterceptorHandler.removeThreadLocals();
             requestContext.set(null);
             requestContext.remove();
@@ -203,6 +238,7 @@ public abstract class BaseSeContextsService extends AbstractContextsService
         if (sessionCtx != null)
         {
             sessionCtx.destroy();
+            contextEnded(sessionCtx);
             SessionScopedBeanInterceptorHandler.removeThreadLocals();
             sessionContext.set(null);
             sessionContext.remove();
@@ -324,8 +360,10 @@ public abstract class BaseSeContextsService extends AbstractContextsService
         
         RequestContext ctx = new RequestContext();
         ctx.setActive(true);
+        ctx.pinSessionContext(sessionContext.get());
         
         requestContext.set(ctx);
+        contextStarted(ctx);
         webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
             new Object(), InitializedLiteral.INSTANCE_REQUEST_SCOPED);
     }
@@ -335,8 +373,16 @@ public abstract class BaseSeContextsService extends AbstractContextsService
     {
         SessionContext ctx = new SessionContext();
         ctx.setActive(true);
+        webBeansContext.getSessionContextPassivationManager().manage(ctx);
+        webBeansContext.getSessionMemoryAccounting().manage(ctx, null);
+        RequestContext currentRequestContext = requestContext.get();
+        if (currentRequestContext != null)
+        {
+            currentRequestContext.pinSessionContext(ctx);
+        }
         
         sessionContext.set(ctx);
+        contextStarted(ctx);
         webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
             new Object(), InitializedLiteral.INSTANCE_SESSION_SCOPED);
     }
@@ -391,9 +437,11 @@ public abstract class BaseSeContextsService extends AbstractContextsService
 
         webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
                 new Object(), BeforeDestroyedLiteral.INSTANCE_REQUEST_SCOPED);
-        if(requestContext.get() != null)
+        RequestContext ctx = requestContext.get();
+        if(ctx != null)
         {
-            requestContext.get().destroy();   
+            ctx.destroy();   
+            contextEnded(ctx);
         }
 
         requestContext.set(null);
@@ -401,6 +449,12 @@ public abstract class BaseSeContextsService extends AbstractContextsService
         RequestScopedBeanInterceptorHandler.removeThreadLocals();
         webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
             new Object(), DestroyedLiteral.INSTANCE_REQUEST_SCOPED);
+
+        if (ctx != null && ctx.unpinSessionContext())
+        {
+            // the session may get passivated from now on, so its instances must not stay cached
+            SessionScopedBeanInterceptorHandler.removeThreadLocals();
+        }
     }
 
     
@@ -411,6 +465,7 @@ public abstract class BaseSeContextsService extends AbstractContextsService
         if(sessionContext.get() != null)
         {
             sessionContext.get().destroy();   
+            contextEnded(sessionContext.get());
         }
 
         sessionContext.set(null);
@@ -22,12 +22,18 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.enterprise.event.Event;
 import javax.enterprise.event.NotificationOptions;
 import javax.enterprise.inject.spi.EventMetadata;
+import javax.enterprise.inject.spi.ObserverMethod;
 import javax.enterprise.util.TypeLiteral;
 
 import org.apache.webbeans.config.WebBeansContext;
@@ -35,6 +41,11 @@ import org.apache.webbeans.util.Asserts;
 
 /**
  * Event implementation.
+ *
+ * The metadata and the resolved observer methods for the last fired event class get cached,
+ * so firing the same event class over and over again doesn't need to resolve or validate anything.
+ * The cache gets invalidated if the observer methods of the {@link NotificationManager} change.
+ * The results of the various {@code select} methods get cached as well.
  * 
  * @param <T> event type
  * @see Event
@@ -45,8 +56,18 @@ public class EventImpl<T> implements Event<T>, Serializable
 
     private EventMetadataImpl metadata;
 
+    /**
+     * Max number of cached select() results per Event instance.
+     * Protects against unbounded growth if qualifiers with random members get selected.
+     */
+    private static final int MAX_SELECT_CACHE_SIZE = 64;
+
     private transient WebBeansContext webBeansContext;
 
+    private transient volatile ResolvedEvent resolvedSync;
+    private transient volatile ResolvedEvent resolvedAsync;
+    private transient volatile ConcurrentMap<List<Object>, Event<?>> selectCache;
+
     /**
      * Creates a new event.
      * 
@@ -78,9 +99,8 @@ public class EventImpl<T> implements Event<T>, Serializable
     @Override
     public void fire(T event)
     {
-        Type eventType = event.getClass();
-        webBeansContext.getWebBeansUtil().validEventType(eventType.getClass(), metadata.getType());
-        webBeansContext.getBeanManagerImpl().fireEvent(event, metadata.select(eventType), false);
+        ResolvedEvent resolved = resolve(event, false);
+        webBeansContext.getNotificationManager().fireEvent(event, resolved.metadata, false, null, resolved.observerMethods);
     }
 
     @Override
@@ -93,10 +113,47 @@ public class EventImpl<T> implements Event<T>, Serializable
     @Override
     public <U extends T> CompletionStage<U> fireAsync(U event, NotificationOptions notificationOptions)
     {
-        Type eventType = event.getClass();
+        ResolvedEvent resolved = resolve(event, true);
+        return webBeansContext.getNotificationManager().fireEvent(event, resolved.metadata, false,
+                    notificationOptions, resolved.observerMethods);
+    }
+
+    /**
+     * Validate the given event and resolve its observer methods,
+     * or reuse the result of the previous invocation for the same event class.
+     */
+    private ResolvedEvent resolve(Object event, boolean async)
+    {
+        Class<?> eventClass = event.getClass();
+        NotificationManager notificationManager = webBeansContext.getNotificationManager();
+        int observerVersion = notificationManager.getObserverVersion();
+
+        ResolvedEvent resolved = async ? resolvedAsync : resolvedSync;
+        if (resolved != null && resolved.eventClass == eventClass && resolved.observerVersion == observerVersion)
+        {
+            return resolved;
+        }
+
+        Type eventType = eventClass;
         webBeansContext.getWebBeansUtil().validEventType(eventType.getClass(), metadata.getType());
-        return webBeansContext.getNotificationManager().fireEvent(event, metadata.select(eventType), false,
-                    notificationOptions);
+        if (webBeansContext.getWebBeansUtil().isContainerEventType(event))
+        {
+            throw new IllegalArgumentException("Firing container events is forbidden");
+        }
+
+        EventMetadataImpl eventMetadata = metadata.select(eventType);
+        resolved = new ResolvedEvent(eventClass, eventMetadata, observerVersion,
+                notificationManager.resolveObserverMethods(event, eventMetadata, false, async));
+
+        if (async)
+        {
+            resolvedAsync = resolved;
+        }
+        else
+        {
+            resolvedSync = resolved;
+        }
+        return resolved;
     }
 
     /**
@@ -105,7 +162,14 @@ public class EventImpl<T> implements Event<T>, Serializable
     @Override
     public Event<T> select(Annotation... bindings)
     {
-        return new EventImpl<>(metadata.select(bindings), webBeansContext);
+        Event<T> selected = getCachedSelect(Arrays.asList((Object[]) bindings));
+        if (selected == null)
+        {
+            // the caller may reuse its array, so the cached key must not wrap it
+            List<Object> key = Arrays.asList((Object[]) bindings.clone());
+            selected = cacheSelect(key, new EventImpl<>(metadata.select(bindings), webBeansContext));
+        }
+        return selected;
     }
     
     /**
@@ -114,7 +178,13 @@ public class EventImpl<T> implements Event<T>, Serializable
     @Override
     public <U extends T> Event<U> select(Class<U> subtype, Annotation... bindings)
     {
-        return new EventImpl<>(metadata.select(subtype, bindings), webBeansContext);
+        List<Object> key = selectKey(subtype, bindings);
+        Event<U> selected = getCachedSelect(key);
+        if (selected == null)
+        {
+            selected = cacheSelect(key, new EventImpl<>(metadata.select(subtype, bindings), webBeansContext));
+        }
+        return selected;
     }
     
     /**
@@ -123,9 +193,48 @@ public class EventImpl<T> implements Event<T>, Serializable
     @Override
     public <U extends T> Event<U> select(TypeLiteral<U> subtype, Annotation... bindings)
     {
-        return new EventImpl<>(metadata.select(subtype, bindings), webBeansContext);
+        List<Object> key = selectKey(subtype.getType(), bindings);
+        Event<U> selected = getCachedSelect(key);
+        if (selected == null)
+        {
+            selected = cacheSelect(key, new EventImpl<>(metadata.select(subtype, bindings), webBeansContext));
+        }
+        return selected;
     }
-    
+
+    private List<Object> selectKey(Type subtype, Annotation[] bindings)
+    {
+        List<Object> key = new ArrayList<>(bindings.length + 1);
+        key.add(subtype);
+        key.addAll(Arrays.asList(bindings));
+        return key;
+    }
+
+    private <U> Event<U> getCachedSelect(List<Object> key)
+    {
+        ConcurrentMap<List<Object>, Event<?>> cache = selectCache;
+        return cache == null ? null : (Event<U>) cache.get(key);
+    }
+
+    private <U> Event<U> cacheSelect(List<Object> key, Event<U> selected)
+    {
+        ConcurrentMap<List<Object>, Event<?>> cache = selectCache;
+        if (cache == null)
+        {
+            cache = new ConcurrentHashMap<>();
+            selectCache = cache;
+        }
+        if (cache.size() < MAX_SELECT_CACHE_SIZE)
+        {
+            Event<?> existing = cache.putIfAbsent(key, selected);
+            if (existing != null)
+            {
+                return (Event<U>) existing;
+            }
+        }
+        return selected;
+    }
+
     private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException
     {
         in.defaultReadObject();
@@ -136,4 +245,24 @@ public class EventImpl<T> implements Event<T>, Serializable
     {
         return metadata;
     }
+
+    /**
+     * The validated metadata and sorted observer methods for a single event class.
+     */
+    private static final class ResolvedEvent
+    {
+        private final Class<?> eventClass;
+        private final EventMetadataImpl metadata;
+        private final int observerVersion;
+        private final List<ObserverMethod<? super Object>> observerMethods;
+
+        private ResolvedEvent(Class<?> eventClass, EventMetadataImpl metadata, int observerVersion,
+                              List<ObserverMethod<? super Object>> observerMethods)
+        {
+            this.eventClass = eventClass;
+            this.metadata = metadata;
+            this.observerVersion = observerVersion;
+            this.observerMethods = observerMethods;
+        }
+    }
 }
@@ -29,10 +29,11 @@ import java.lang.reflect.TypeVariable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -42,9 +43,11 @@ import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -80,18 +83,25 @@ import javax.enterprise.inject.spi.ProcessSyntheticBean;
 
 import org.apache.webbeans.component.AbstractOwbBean;
 import org.apache.webbeans.config.OWBLogConst;
+import org.apache.webbeans.config.StartupProfiler;
 import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.event.stream.EventStreamPublisher;
+import org.apache.webbeans.event.stream.OverflowStrategy;
 import org.apache.webbeans.exception.WebBeansConfigurationException;
 import org.apache.webbeans.exception.WebBeansDeploymentException;
 import org.apache.webbeans.exception.WebBeansException;
+import org.apache.webbeans.jfr.EventNotificationEvent;
+import org.apache.webbeans.jfr.FlightRecorderSupport;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
 import org.apache.webbeans.portable.events.ProcessSessionBeanImpl;
 import org.apache.webbeans.portable.events.generics.GProcessObserverMethod;
 import org.apache.webbeans.portable.events.generics.GenericBeanEvent;
 import org.apache.webbeans.portable.events.generics.GenericProducerObserverEvent;
 import org.apache.webbeans.portable.events.generics.TwoParametersGenericBeanEvent;
+import org.apache.webbeans.spi.MetricsService;
 import org.apache.webbeans.spi.TransactionService;
 import org.apache.webbeans.util.AnnotationUtil;
+import org.apache.webbeans.util.ArrayUtil;
 import org.apache.webbeans.util.Asserts;
 import org.apache.webbeans.util.ClassUtil;
 import org.apache.webbeans.util.GenericsUtil;
@@ -104,6 +114,13 @@ public final class NotificationManager
 
     private final NotificationOptions defaultNotificationOptions;
 
+    /**
+     * Bean classes whose independent synchronous observers may get invoked in parallel.
+     * @see org.apache.webbeans.config.OpenWebBeansConfiguration#PARALLEL_SYNC_OBSERVERS
+     */
+    private final Set<String> parallelSyncObserverClasses;
+    private final int parallelSyncObserversThreshold;
+
     /**
      * Contains information whether certain Initialized and Destroyed events have observer methods.
      */
@@ -116,6 +133,44 @@ public final class NotificationManager
     private final ConcurrentHashMap<Class<?>, Set<ObserverMethod<?>>> observersByRawType
         = new ConcurrentHashMap<>();
 
+    /**
+     * Contains information whether a container lifecycle event class has any Extension observer.
+     * @see #hasLifecycleEventObserver(Class)
+     */
+    private final ConcurrentMap<Class<?>, Boolean> hasLifecycleEventObservers
+        = new ConcurrentHashMap<>();
+
+    /**
+     * Annotation types and their meta-annotation types used to match &#064;WithAnnotations.
+     */
+    private final ConcurrentMap<Class<? extends Annotation>, Class<?>[]> withAnnotationsLookupTypes
+        = new ConcurrentHashMap<>();
+
+    /**
+     * @see #getObserverVersion()
+     */
+    private final AtomicInteger observerVersion = new AtomicInteger();
+
+    /**
+     * {@code null} if no metrics shall get collected.
+     */
+    private final MetricsService metricsService;
+
+    /**
+     * Invocation counts and durations per observer method, only used with a {@link MetricsService}.
+     */
+    private final ConcurrentMap<ObserverMethod<?>, MetricsService.Timer> observerTimers = new ConcurrentHashMap<>();
+
+    /**
+     * Async observer invocations which are submitted to the executor but did not start yet.
+     */
+    private final MetricsService.Counter asyncQueueDepth;
+
+    /**
+     * Only set while the container boots with the startup profiler enabled.
+     */
+    private volatile StartupProfiler startupProfiler;
+
 
 
     public static final Set<Class> CONTAINER_EVENT_CLASSES = new HashSet<>(
@@ -155,6 +210,10 @@ public final class NotificationManager
     {
         this.webBeansContext = webBeansContext;
         this.defaultNotificationOptions = NotificationOptions.ofExecutor(getDefaultExecutor());
+        this.parallelSyncObserverClasses = webBeansContext.getOpenWebBeansConfiguration().getParallelSyncObserverClasses();
+        this.parallelSyncObserversThreshold = webBeansContext.getOpenWebBeansConfiguration().getParallelSyncObserversThreshold();
+        this.metricsService = webBeansContext.getMetricsService();
+        this.asyncQueueDepth = metricsService != null ? metricsService.getCounter("events.async.queueDepth") : null;
     }
 
     private Executor getDefaultExecutor()
@@ -176,6 +235,16 @@ public final class NotificationManager
     {
         observersByRawType.clear();
         hasContextLifecycleEventObservers.clear();
+        hasLifecycleEventObservers.clear();
+        observerVersion.incrementAndGet();
+    }
+
+    /**
+     * @param startupProfiler records the Extension observer methods, {@code null} to stop recording
+     */
+    public void setStartupProfiler(StartupProfiler startupProfiler)
+    {
+        this.startupProfiler = startupProfiler;
     }
 
     /**
@@ -202,7 +271,52 @@ public final class NotificationManager
 
         return hasObserver;
     }
-    
+
+    /**
+     * Whether a container lifecycle event of the given implementation class could be delivered to any observer.
+     * This is a cheap pre-check which allows to skip creating and firing events like
+     * ProcessAnnotatedType or ProcessInjectionPoint if no Extension is interested in them at all.
+     * The answer is conservative: it might be {@code true} even if the type parameters of
+     * all matching observers finally do not fit, but it is never {@code false} if an observer would get notified.
+     *
+     * @param lifecycleEventClass the event implementation class, e.g. {@code GProcessAnnotatedType.class}
+     * @return whether any Extension observes a super type of the given event class
+     */
+    public boolean hasLifecycleEventObserver(Class<?> lifecycleEventClass)
+    {
+        Boolean hasObserver = hasLifecycleEventObservers.get(lifecycleEventClass);
+        if (hasObserver == null)
+        {
+            hasObserver = Boolean.FALSE;
+            for (Map.Entry<Type, Set<ObserverMethod<?>>> observerEntry : observers.entrySet())
+            {
+                Class<?> observedClass = ClassUtil.getClazz(observerEntry.getKey());
+                if (observedClass == null || !observedClass.isAssignableFrom(lifecycleEventClass))
+                {
+                    continue;
+                }
+
+                for (ObserverMethod<?> observerMethod : observerEntry.getValue())
+                {
+                    // lifecycle events only get delivered to Extensions, see fireEvent
+                    if (observerMethod.getBeanClass() != null && Extension.class.isAssignableFrom(observerMethod.getBeanClass()))
+                    {
+                        hasObserver = Boolean.TRUE;
+                        break;
+                    }
+                }
+
+                if (hasObserver)
+                {
+                    break;
+                }
+            }
+            hasLifecycleEventObservers.putIfAbsent(lifecycleEventClass, hasObserver);
+        }
+
+        return hasObserver;
+    }
+
     public List<ObserverMethod<?>> getObserverMethods()
     {
         List<ObserverMethod<?>> observerMethods = new ArrayList<>();
@@ -228,6 +342,82 @@ public final class NotificationManager
         }
 
         set.add(observer);
+        if (observer.getBeanClass() != null && Extension.class.isAssignableFrom(observer.getBeanClass()))
+        {
+            hasLifecycleEventObservers.clear();
+        }
+        observerVersion.incrementAndGet();
+    }
+
+    /**
+     * Like {@link #addObserver(ObserverMethod)} but safe to be used after the container got started.
+     * The observer Set gets replaced instead of modified as it might get iterated concurrently.
+     */
+    public synchronized <T> void addRuntimeObserver(ObserverMethod<T> observer)
+    {
+        webBeansContext.getAnnotationManager().checkQualifierConditions(observer.getObservedQualifiers());
+
+        Set<ObserverMethod<?>> set = observers.get(observer.getObservedType());
+        Set<ObserverMethod<?>> newSet = set == null ? new HashSet<>() : new HashSet<>(set);
+        newSet.add(observer);
+        observers.put(observer.getObservedType(), newSet);
+
+        clearCaches();
+    }
+
+    /**
+     * Remove an observer which got registered via {@link #addRuntimeObserver(ObserverMethod)}.
+     */
+    public synchronized void removeObserver(ObserverMethod<?> observer)
+    {
+        Set<ObserverMethod<?>> set = observers.get(observer.getObservedType());
+        if (set == null || !set.contains(observer))
+        {
+            return;
+        }
+
+        Set<ObserverMethod<?>> newSet = new HashSet<>(set);
+        newSet.remove(observer);
+        if (newSet.isEmpty())
+        {
+            observers.remove(observer.getObservedType());
+        }
+        else
+        {
+            observers.put(observer.getObservedType(), newSet);
+        }
+        observerTimers.remove(observer);
+
+        clearCaches();
+    }
+
+    /**
+     * Create a reactive {@link EventStreamPublisher} which emits all synchronously fired events
+     * of the given type and qualifiers in batches.
+     * The returned publisher must get closed if it is not needed anymore.
+     *
+     * @param eventType the observed event type
+     * @param bufferSize maximum number of buffered events per subscriber
+     * @param batchSize maximum number of events handed over in a single onNext call
+     * @param overflowStrategy what to do if the buffer of a subscriber is full
+     * @param qualifiers the observed qualifiers
+     */
+    public <T> EventStreamPublisher<T> createEventPublisher(Type eventType, int bufferSize, int batchSize,
+                                                            OverflowStrategy overflowStrategy, Annotation... qualifiers)
+    {
+        Class<?> eventClass = ClassUtil.getClazz(eventType);
+        for (Class<?> containerEventClass : CONTAINER_EVENT_CLASSES)
+        {
+            if (eventClass != null && containerEventClass.isAssignableFrom(eventClass))
+            {
+                throw new IllegalArgumentException("Container events cannot be published: " + eventType);
+            }
+        }
+
+        EventStreamPublisher<T> publisher = new EventStreamPublisher<>(this, eventType, ArrayUtil.asSet(qualifiers),
+                bufferSize, batchSize, overflowStrategy, defaultNotificationOptions.getExecutor());
+        publisher.start();
+        return publisher;
     }
 
 
@@ -253,106 +443,148 @@ public final class NotificationManager
         return observersMethods;
     }
 
+    /**
+     * Only keep the observers without &#064;WithAnnotations and those whose &#064;WithAnnotations
+     * match the given AnnotatedType.
+     * Instead of walking the whole AnnotatedType for each observer we index the observers by
+     * their &#064;WithAnnotations and walk the AnnotatedType only once for all of them.
+     */
     private <T> Collection<ObserverMethod<? super T>> filterByWithAnnotations(Collection<ObserverMethod<? super T>> observersMethods, AnnotatedType annotatedType)
     {
-        List<ObserverMethod<? super T>> observerMethodsWithAnnotations = new ArrayList<>();
+        List<ObserverMethod<? super T>> observerMethodsWithAnnotations = new ArrayList<>(observersMethods.size());
 
+        Map<Class<?>, List<ObserverMethod<? super T>>> observersByAnnotation = null;
+        int withAnnotationsObservers = 0;
         for (ObserverMethod<? super T> observerMethod : observersMethods)
         {
-            Class[] withAnnotations = ((ContainerEventObserverMethodImpl) observerMethod).getWithAnnotations();
-            if (withAnnotations != null && withAnnotations.length > 0)
+            Class[] withAnnotations = observerMethod instanceof ContainerEventObserverMethodImpl
+                ? ((ContainerEventObserverMethodImpl) observerMethod).getWithAnnotations()
+                : null;
+            if (withAnnotations == null || withAnnotations.length == 0)
             {
-                if (annotatedTypeHasAnnotations(annotatedType, withAnnotations))
-                {
-                    observerMethodsWithAnnotations.add(observerMethod);
-                }
-
+                // no WithAnnotations
+                observerMethodsWithAnnotations.add(observerMethod);
                 continue;
             }
 
-            // no WithAnnotations
-            observerMethodsWithAnnotations.add(observerMethod);
+            if (observersByAnnotation == null)
+            {
+                observersByAnnotation = new HashMap<>();
+            }
+            for (Class withAnnotation : withAnnotations)
+            {
+                observersByAnnotation.computeIfAbsent(withAnnotation, k -> new ArrayList<>(2)).add(observerMethod);
+            }
+            withAnnotationsObservers++;
+        }
 
+        if (observersByAnnotation != null)
+        {
+            Set<ObserverMethod<? super T>> matching = Collections.newSetFromMap(new IdentityHashMap<>());
+            collectWithAnnotationsObservers(annotatedType, observersByAnnotation, withAnnotationsObservers, matching);
+            observerMethodsWithAnnotations.addAll(matching);
         }
 
         return observerMethodsWithAnnotations;
     }
 
-    private boolean annotatedTypeHasAnnotations(AnnotatedType annotatedType, Class<? extends Annotation>[] withAnnotations)
+    private <T> void collectWithAnnotationsObservers(AnnotatedType<?> annotatedType,
+                                                     Map<Class<?>, List<ObserverMethod<? super T>>> observersByAnnotation,
+                                                     int observerCount, Set<ObserverMethod<? super T>> matching)
     {
-        if (hasAnnotation(annotatedType.getAnnotations(), withAnnotations))
+        if (collectWithAnnotationsObservers(annotatedType.getAnnotations(), observersByAnnotation, observerCount, matching))
         {
-            return true;
+            return;
         }
 
-        Set<AnnotatedField> fields = annotatedType.getFields();
-        for (AnnotatedField annotatedField : fields)
+        for (AnnotatedField<?> annotatedField : annotatedType.getFields())
         {
-            if (hasAnnotation(annotatedField.getAnnotations(), withAnnotations))
+            if (collectWithAnnotationsObservers(annotatedField.getAnnotations(), observersByAnnotation, observerCount, matching))
             {
-                return true;
+                return;
             }
         }
 
-        Set<AnnotatedMethod> annotatedMethods = annotatedType.getMethods();
-        for (AnnotatedMethod annotatedMethod : annotatedMethods)
+        for (AnnotatedMethod<?> annotatedMethod : annotatedType.getMethods())
         {
-            if (hasAnnotation(annotatedMethod.getAnnotations(), withAnnotations))
+            if (collectWithAnnotationsObservers(annotatedMethod, observersByAnnotation, observerCount, matching))
             {
-                return true;
+                return;
             }
-            for (AnnotatedParameter annotatedParameter : (List<AnnotatedParameter>) annotatedMethod.getParameters())
+        }
+
+        for (AnnotatedConstructor<?> annotatedConstructor : annotatedType.getConstructors())
+        {
+            if (collectWithAnnotationsObservers(annotatedConstructor, observersByAnnotation, observerCount, matching))
             {
-                if (hasAnnotation(annotatedParameter.getAnnotations(), withAnnotations))
-                {
-                    return true;
-                }
+                return;
             }
         }
+    }
 
-        Set<AnnotatedConstructor<?>> annotatedConstructors = annotatedType.getConstructors();
-        for (AnnotatedConstructor<?> annotatedConstructor : annotatedConstructors)
+    private <T> boolean collectWithAnnotationsObservers(AnnotatedCallable<?> annotatedCallable,
+                                                        Map<Class<?>, List<ObserverMethod<? super T>>> observersByAnnotation,
+                                                        int observerCount, Set<ObserverMethod<? super T>> matching)
+    {
+        if (collectWithAnnotationsObservers(annotatedCallable.getAnnotations(), observersByAnnotation, observerCount, matching))
         {
-            if (hasAnnotation(annotatedConstructor.getAnnotations(), withAnnotations))
+            return true;
+        }
+        for (AnnotatedParameter<?> annotatedParameter : annotatedCallable.getParameters())
+        {
+            if (collectWithAnnotationsObservers(annotatedParameter.getAnnotations(), observersByAnnotation, observerCount, matching))
             {
                 return true;
             }
-            for (AnnotatedParameter annotatedParameter : annotatedConstructor.getParameters())
-            {
-                if (hasAnnotation(annotatedParameter.getAnnotations(), withAnnotations))
-                {
-                    return true;
-                }
-            }
         }
-
         return false;
     }
 
-    private boolean hasAnnotation(Set<Annotation> annotations, Class<? extends Annotation>[] withAnnotations)
+    /**
+     * @return {@code true} if all observers got matched already
+     */
+    private <T> boolean collectWithAnnotationsObservers(Set<Annotation> annotations,
+                                                        Map<Class<?>, List<ObserverMethod<? super T>>> observersByAnnotation,
+                                                        int observerCount, Set<ObserverMethod<? super T>> matching)
     {
-        for (Class<? extends Annotation> withAnnotation : withAnnotations)
+        for (Annotation annotation : annotations)
         {
-            for (Annotation annotation : annotations)
+            for (Class<?> annotationType : getWithAnnotationsLookupTypes(annotation.annotationType()))
             {
-                if (withAnnotation.isAssignableFrom(annotation.annotationType()))
-                {
-                    return true;
-                }
-
-                for (Annotation meta : annotation.annotationType().getAnnotations())
+                List<ObserverMethod<? super T>> observerMethods = observersByAnnotation.get(annotationType);
+                if (observerMethods != null)
                 {
-                    if (withAnnotation.isAssignableFrom(meta.annotationType()))
+                    matching.addAll(observerMethods);
+                    if (matching.size() == observerCount)
                     {
                         return true;
                     }
                 }
             }
         }
-
         return false;
     }
 
+    /**
+     * @return the annotation type itself and the types of all its meta-annotations
+     */
+    private Class<?>[] getWithAnnotationsLookupTypes(Class<? extends Annotation> annotationType)
+    {
+        Class<?>[] lookupTypes = withAnnotationsLookupTypes.get(annotationType);
+        if (lookupTypes == null)
+        {
+            Annotation[] metaAnnotations = annotationType.getAnnotations();
+            lookupTypes = new Class<?>[metaAnnotations.length + 1];
+            lookupTypes[0] = annotationType;
+            for (int i = 0; i < metaAnnotations.length; i++)
+            {
+                lookupTypes[i + 1] = metaAnnotations[i].annotationType();
+            }
+            withAnnotationsLookupTypes.putIfAbsent(annotationType, lookupTypes);
+        }
+        return lookupTypes;
+    }
+
     private <T> Set<ObserverMethod<? super T>> filterByType(T event, Type declaredEventType, boolean isLifecycleEvent)
     {
         if (isLifecycleEvent)
@@ -678,27 +910,36 @@ public final class NotificationManager
      */
     public <T> CompletionStage<T> fireEvent(Object event, EventMetadataImpl metadata, boolean isLifecycleEvent, NotificationOptions notificationOptions)
     {
-        boolean async = notificationOptions != null;
-
         if (!isLifecycleEvent && webBeansContext.getWebBeansUtil().isContainerEventType(event))
         {
             throw new IllegalArgumentException("Firing container events is forbidden");
         }
 
-        LinkedList<ObserverMethod<? super Object>> observerMethods = new LinkedList<>(resolveObservers(event, metadata, isLifecycleEvent));
+        List<ObserverMethod<? super Object>> observerMethods
+            = resolveObserverMethods(event, metadata, isLifecycleEvent, notificationOptions != null);
+
+        return fireEvent(event, metadata, isLifecycleEvent, notificationOptions, observerMethods);
+    }
 
-        // async doesn't apply to Extension lifecycle events
-        if (!isLifecycleEvent)
+    /**
+     * Resolve all observer methods for the given event, already filtered
+     * for sync or async observers and sorted by their priority.
+     * The result only depends on the event class and the metadata
+     * as long as the {@link #getObserverVersion() observer version} didn't change.
+     */
+    public List<ObserverMethod<? super Object>> resolveObserverMethods(Object event, EventMetadataImpl metadata,
+                                                                      boolean isLifecycleEvent, boolean async)
+    {
+        Collection<ObserverMethod<? super Object>> resolved = resolveObservers(event, metadata, isLifecycleEvent);
+        List<ObserverMethod<? super Object>> observerMethods = new ArrayList<>(resolved.size());
+
+        // filter for all async or all synchronous observermethods, async doesn't apply to Extension lifecycle events
+        // oldschool and not Streams, because of performance and avoiding tons of temporary objects
+        for (ObserverMethod<? super Object> observerMethod : resolved)
         {
-            // filter for all async or all synchronous observermethods
-            // oldschool and not Streams, because of performance and avoiding tons of temporary objects
-            Iterator<ObserverMethod<? super Object>> observerMethodIterator = observerMethods.iterator();
-            while (observerMethodIterator.hasNext())
+            if (isLifecycleEvent || async == observerMethod.isAsync())
             {
-                if (async != observerMethodIterator.next().isAsync())
-                {
-                    observerMethodIterator.remove();
-                }
+                observerMethods.add(observerMethod);
             }
         }
 
@@ -708,10 +949,68 @@ public final class NotificationManager
             observerMethods.sort(observerMethodComparator);
         }
 
+        return observerMethods;
+    }
+
+    /**
+     * Counter which changes whenever the registered observer methods or the resolution caches change.
+     * Can be used to verify whether a result of {@link #resolveObserverMethods} is still valid.
+     */
+    public int getObserverVersion()
+    {
+        return observerVersion.get();
+    }
+
+    /**
+     * Fire the given event to the already resolved observer methods.
+     * @param observerMethods the result of {@link #resolveObserverMethods(Object, EventMetadataImpl, boolean, boolean)}
+     * @param notificationOptions if {@code null} then this is a synchronous event. Otherwise fireAsync
+     */
+    public <T> CompletionStage<T> fireEvent(Object event, EventMetadataImpl metadata, boolean isLifecycleEvent,
+                                            NotificationOptions notificationOptions,
+                                            List<ObserverMethod<? super Object>> observerMethods)
+    {
+        EventNotificationEvent jfrEvent = FlightRecorderSupport.AVAILABLE
+                ? EventNotificationEvent.start(event.getClass(), observerMethods.size(), notificationOptions != null, isLifecycleEvent) : null;
+        try
+        {
+            return notifyObservers(event, metadata, isLifecycleEvent, notificationOptions, observerMethods);
+        }
+        finally
+        {
+            if (jfrEvent != null)
+            {
+                jfrEvent.commit();
+            }
+        }
+    }
+
+    private <T> CompletionStage<T> notifyObservers(Object event, EventMetadataImpl metadata, boolean isLifecycleEvent,
+                                                   NotificationOptions notificationOptions,
+                                                   List<ObserverMethod<? super Object>> observerMethods)
+    {
+        boolean async = notificationOptions != null;
+
         List<CompletableFuture<Void>> completableFutures = async ? new ArrayList<>() : null;
 
+        List<ObserverMethod<? super Object>> parallelObservers = null;
+        if (!parallelSyncObserverClasses.isEmpty() && !async && !isLifecycleEvent && observerMethods.size() >= parallelSyncObserversThreshold)
+        {
+            parallelObservers = getParallelObserverMethods(observerMethods);
+        }
+
         for (ObserverMethod<? super Object> observer : observerMethods)
         {
+            if (parallelObservers != null && isParallelObserverMethod(observer))
+            {
+                // they are all sorted next to each other, so invoke the whole bunch once we hit the first one
+                if (observer == parallelObservers.get(0))
+                {
+                    invokeObserverMethodsInParallel(event, metadata, parallelObservers);
+                }
+                continue;
+            }
+
             try
             {
                 if (isLifecycleEvent && !Extension.class.isAssignableFrom(observer.getBeanClass()))
@@ -721,7 +1020,7 @@ public final class NotificationManager
                 }
 
                 TransactionPhase phase = observer.getTransactionPhase();
-                
+            
                 if(phase != null && phase != TransactionPhase.IN_PROGRESS)
                 {
                     if (async)
@@ -771,16 +1070,8 @@ public final class NotificationManager
                         throw new WebBeansConfigurationException("Error while sending SystemEvent to a CDI Extension! " + event.toString(), e);
                     }
                 }
-                
-                if (!RuntimeException.class.isAssignableFrom(exc.getClass()))
-                {
-                    throw new ObserverException(WebBeansLoggerFacade.getTokenString(OWBLogConst.EXCEPT_0008) + event.getClass().getName(), e);
-                }
-                else
-                {
-                    RuntimeException rte = (RuntimeException) exc;
-                    throw rte;
-                }
+            
+                throw toObserverException(event, e, exc);
             }
             catch (RuntimeException e)
             {
@@ -796,12 +1087,231 @@ public final class NotificationManager
         return async ? complete(completableFutures, (T) event) : null;
     }
 
+    /**
+     * @return all observer methods which can get invoked in parallel or {@code null} if it's not worth it
+     */
+    private List<ObserverMethod<? super Object>> getParallelObserverMethods(List<ObserverMethod<? super Object>> observerMethods)
+    {
+        List<ObserverMethod<? super Object>> parallelObservers = new ArrayList<>(observerMethods.size());
+        for (ObserverMethod<? super Object> observerMethod : observerMethods)
+        {
+            if (isParallelObserverMethod(observerMethod))
+            {
+                parallelObservers.add(observerMethod);
+            }
+        }
+        return parallelObservers.size() >= Math.max(2, parallelSyncObserversThreshold) ? parallelObservers : null;
+    }
+
+    /**
+     * Only observers of opted-in bean classes without explicit ordering and without transaction phase
+     * are independent of each other.
+     */
+    private boolean isParallelObserverMethod(ObserverMethod<?> observerMethod)
+    {
+        TransactionPhase phase = observerMethod.getTransactionPhase();
+        return !hasExplicitPriority(observerMethod)
+            && (phase == null || phase == TransactionPhase.IN_PROGRESS)
+            && observerMethod.getBeanClass() != null
+            && parallelSyncObserverClasses.contains(observerMethod.getBeanClass().getName());
+    }
+
+    /**
+     * An explicit {@link javax.annotation.Priority} equal to the default priority still orders the observer.
+     * For custom ObserverMethods only a priority other than the default one can be detected.
+     */
+    private static boolean hasExplicitPriority(ObserverMethod<?> observerMethod)
+    {
+        if (observerMethod instanceof ObserverMethodImpl)
+        {
+            return ((ObserverMethodImpl<?>) observerMethod).isPriorityDeclared();
+        }
+        return observerMethod.getPriority() != ObserverMethod.DEFAULT_PRIORITY;
+    }
+
+    /**
+     * Invokes the given observer methods in parallel and waits until all of them are done.
+     * The firing thread takes part: it invokes all observers which didn't get picked up by the event executor yet,
+     * so it only ever waits for observers which are already running. Thus nested events can't starve the executor.
+     * Failures get translated like the ones of sequentially invoked observers. The exception of the first
+     * failing observer (in invocation order) gets thrown and all the others get added as suppressed exceptions.
+     */
+    private void invokeObserverMethodsInParallel(Object event, EventMetadataImpl metadata,
+                                                 List<ObserverMethod<? super Object>> observerMethods)
+    {
+        int count = observerMethods.size();
+        AtomicBoolean[] claimed = new AtomicBoolean[count];
+        Throwable[] failures = new Throwable[count];
+        CountDownLatch finished = new CountDownLatch(count);
+        for (int i = 0; i < count; i++)
+        {
+            claimed[i] = new AtomicBoolean();
+        }
+
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        Executor executor = defaultNotificationOptions.getExecutor();
+        // the firing thread starts with the first observer anyway
+        for (int i = 1; i < count; i++)
+        {
+            int index = i;
+            try
+            {
+                executor.execute(() ->
+                {
+                    if (claimed[index].compareAndSet(false, true))
+                    {
+                        failures[index] = invokeParallelObserverMethod(event, metadata, observerMethods.get(index), loader);
+                        finished.countDown();
+                    }
+                });
+            }
+            catch (RejectedExecutionException ree)
+            {
+                // the firing thread will invoke it
+                break;
+            }
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            if (claimed[i].compareAndSet(false, true))
+            {
+                failures[i] = invokeObserverMethodInPlace(event, metadata, observerMethods.get(i));
+                finished.countDown();
+            }
+        }
+
+        awaitUninterruptibly(finished);
+
+        Throwable failure = null;
+        for (Throwable t : failures)
+        {
+            if (t == null)
+            {
+                continue;
+            }
+            Throwable exception = toObserverException(event, t);
+            if (failure == null)
+            {
+                failure = exception;
+            }
+            else if (failure != exception)
+            {
+                failure.addSuppressed(exception);
+            }
+        }
+        if (failure instanceof Error)
+        {
+            throw (Error) failure;
+        }
+        if (failure != null)
+        {
+            throw (RuntimeException) failure;
+        }
+    }
+
+    private Throwable invokeObserverMethodInPlace(Object event, EventMetadataImpl metadata, ObserverMethod<? super Object> observer)
+    {
+        try
+        {
+            invokeObserverMethod(event, metadata, observer);
+            return null;
+        }
+        catch (Throwable t)
+        {
+            return t;
+        }
+    }
+
+    private Throwable invokeParallelObserverMethod(Object event, EventMetadataImpl metadata, ObserverMethod<? super Object> observer,
+                                                   ClassLoader loader)
+    {
+        Thread thread = Thread.currentThread();
+        ClassLoader oldLoader = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        webBeansContext.getContextsService().startContext(RequestScoped.class, null);
+        try
+        {
+            return invokeObserverMethodInPlace(event, metadata, observer);
+        }
+        finally
+        {
+            webBeansContext.getContextsService().endContext(RequestScoped.class, null);
+            thread.setContextClassLoader(oldLoader);
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch)
+    {
+        boolean interrupted = false;
+        while (true)
+        {
+            try
+            {
+                latch.await();
+                break;
+            }
+            catch (InterruptedException ie)
+            {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Translates an exception of a synchronous observer invocation the same way as {@link #fireEvent} does.
+     * @return the given Error, otherwise the RuntimeException to throw
+     */
+    private Throwable toObserverException(Object event, Throwable failure)
+    {
+        if (failure instanceof Error)
+        {
+            return failure;
+        }
+        if (failure instanceof WebBeansException)
+        {
+            Throwable exc = failure.getCause();
+            if (exc instanceof InvocationTargetException)
+            {
+                exc = exc.getCause();
+            }
+            return toObserverException(event, (WebBeansException) failure, exc);
+        }
+        if (failure instanceof RuntimeException)
+        {
+            return (RuntimeException) failure;
+        }
+        return new WebBeansException(failure);
+    }
+
+    private RuntimeException toObserverException(Object event, WebBeansException e, Throwable exc)
+    {
+        if (!RuntimeException.class.isAssignableFrom(exc.getClass()))
+        {
+            return new ObserverException(WebBeansLoggerFacade.getTokenString(OWBLogConst.EXCEPT_0008) + event.getClass().getName(), e);
+        }
+        return (RuntimeException) exc;
+    }
+
+    /**
+     * @return {@code null} for synchronous events, otherwise a future which gets completed with the event
+     *         once all async observers are done, or right away if no async observer got notified
+     */
     private <T> CompletableFuture<T> complete(List<CompletableFuture<Void>> completableFutures, T event)
     {
         if (completableFutures == null)
         {
             return null;
         }
+        if (completableFutures.isEmpty())
+        {
+            // the aggregate only gets completed by its observer futures
+            return CompletableFuture.completedFuture(event);
+        }
         CDICompletionFuture<T> future = new CDICompletionFuture<>(event, completableFutures.size());
         completableFutures.forEach(f -> f.handle((t, e) ->
         {
@@ -817,7 +1327,15 @@ public final class NotificationManager
                                            NotificationOptions notificationOptions)
     {
         CompletableFuture<?> future = new CompletableFuture<>();
+        if (asyncQueueDepth != null)
+        {
+            asyncQueueDepth.increment();
+        }
         CompletableFuture.runAsync(() -> {
+            if (asyncQueueDepth != null)
+            {
+                asyncQueueDepth.decrement();
+            }
             try
             {
                 runAsync(event, metadata, observer);
@@ -847,7 +1365,53 @@ public final class NotificationManager
 
     private <T> void invokeObserverMethod(T event, EventMetadataImpl metadata, ObserverMethod<?> observer)
     {
-        observer.notify(new EventContextImpl(event, metadata));
+        StartupProfiler profiler = startupProfiler;
+        Class<?> beanClass = observer.getBeanClass();
+        boolean profiled = profiler != null && beanClass != null && Extension.class.isAssignableFrom(beanClass);
+        if (!profiled && metricsService == null)
+        {
+            observer.notify(new EventContextImpl(event, metadata));
+            return;
+        }
+
+        MetricsService.Timer timer = metricsService != null ? observerTimers.computeIfAbsent(observer, this::createObserverTimer) : null;
+        StartupProfiler.Mark mark = profiled ? profiler.mark() : null;
+        long start = System.nanoTime();
+        try
+        {
+            observer.notify(new EventContextImpl(event, metadata));
+        }
+        finally
+        {
+            if (timer != null)
+            {
+                timer.update(System.nanoTime() - start);
+            }
+            if (profiled)
+            {
+                profiler.observerInvoked(beanClass, getObserverName(observer), event.getClass(), mark);
+            }
+        }
+    }
+
+    private MetricsService.Timer createObserverTimer(ObserverMethod<?> observer)
+    {
+        // custom ObserverMethods don't need to have a bean class
+        Class<?> beanClass = observer.getBeanClass();
+        String owner = beanClass != null ? beanClass.getName() : observer.getClass().getName();
+        return metricsService.getTimer("observers." + owner + "#" + getObserverName(observer));
+    }
+
+    /**
+     * @return the name of the observer method or the observed type for custom ObserverMethods
+     */
+    private static String getObserverName(ObserverMethod<?> observer)
+    {
+        if (observer instanceof ObserverMethodImpl)
+        {
+            return ((ObserverMethodImpl<?>) observer).getObserverMethod().getJavaMember().getName();
+        }
+        return observer.getObservedType().getTypeName();
     }
 
     /**
@@ -868,6 +1432,12 @@ public final class NotificationManager
             observer = new ContainerEventObserverMethodImpl(ownerBean, annotatedMethod, annotatedParameter);
             addObserver(observer);
         }
+        else if (!hasLifecycleEventObserver(GProcessObserverMethod.class))
+        {
+            // no Extension is interested in ProcessObserverMethod, so don't even create the event
+            observer = new ObserverMethodImpl(ownerBean, annotatedMethod, annotatedParameter);
+            addObserver(observer);
+        }
         else
         {
             observer = new ObserverMethodImpl(ownerBean, annotatedMethod, annotatedParameter);
@@ -116,6 +116,9 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
 
     private int priority = ObserverMethod.DEFAULT_PRIORITY;
 
+    /**whether the priority got declared with {@link Priority}, even if it equals the default one*/
+    private boolean priorityDeclared;
+
     private boolean isAsync;
     
     private static class ObserverParams
@@ -177,6 +180,7 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
         if (priorityAnn != null)
         {
             priority = priorityAnn.value();
+            priorityDeclared = true;
         }
         
         OpenWebBeansEjbPlugin ejbPlugin = getWebBeansContext().getPluginLoader().getEjbPlugin();
@@ -227,6 +231,14 @@ public class ObserverMethodImpl<T> implements OwbObserverMethod<T>
         return priority;
     }
 
+    /**
+     * @return whether the observed parameter is annotated with {@link Priority}
+     */
+    public boolean isPriorityDeclared()
+    {
+        return priorityDeclared;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.event.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.webbeans.logger.WebBeansLoggerFacade;
+
+/**
+ * The per subscriber state of an {@link EventStreamPublisher}.
+ *
+ * Events get buffered in a bounded queue and are drained in batches
+ * by a single drain loop at a time which runs on the executor.
+ */
+final class BufferedSubscription<T> implements EventFlow.Subscription
+{
+    private static final Logger logger = WebBeansLoggerFacade.getLogger(BufferedSubscription.class);
+
+    /**
+     * How long a blocked firing thread waits before it re-checks whether the subscription got cancelled.
+     */
+    private static final long BLOCK_RECHECK_MS = 100;
+
+    private final EventStreamPublisher<T> publisher;
+    private final EventFlow.Subscriber<? super List<T>> subscriber;
+    private final BlockingQueue<T> buffer;
+    private final int batchSize;
+    private final OverflowStrategy overflowStrategy;
+    private final Executor executor;
+
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean cancelled;
+    private volatile boolean completed;
+    private volatile Throwable error;
+
+    BufferedSubscription(EventStreamPublisher<T> publisher, EventFlow.Subscriber<? super List<T>> subscriber,
+                         int bufferSize, int batchSize, OverflowStrategy overflowStrategy, Executor executor)
+    {
+        this.publisher = publisher;
+        this.subscriber = subscriber;
+        this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        this.batchSize = batchSize;
+        this.overflowStrategy = overflowStrategy;
+        this.executor = executor;
+    }
+
+    @Override
+    public void request(long n)
+    {
+        if (n <= 0)
+        {
+            // reactive streams rule 3.9
+            error = new IllegalArgumentException("request must be positive but was " + n);
+            scheduleDrain();
+            return;
+        }
+
+        long current;
+        long next;
+        do
+        {
+            current = demand.get();
+            next = current + n;
+            if (next < 0)
+            {
+                next = Long.MAX_VALUE;
+            }
+        }
+        while (!demand.compareAndSet(current, next));
+
+        scheduleDrain();
+    }
+
+    @Override
+    public void cancel()
+    {
+        cancelled = true;
+        buffer.clear();
+        publisher.remove(this);
+    }
+
+    long getDroppedCount()
+    {
+        return dropped.get();
+    }
+
+    void offer(T event)
+    {
+        if (cancelled || completed)
+        {
+            return;
+        }
+
+        switch (overflowStrategy)
+        {
+            case DROP:
+                if (!buffer.offer(event))
+                {
+                    dropped.incrementAndGet();
+                }
+                break;
+
+            case LATEST:
+                while (!buffer.offer(event))
+                {
+                    if (buffer.poll() != null)
+                    {
+                        dropped.incrementAndGet();
+                    }
+                }
+                break;
+
+            case BLOCK:
+                try
+                {
+                    while (!buffer.offer(event, BLOCK_RECHECK_MS, TimeUnit.MILLISECONDS))
+                    {
+                        if (cancelled || completed)
+                        {
+                            return;
+                        }
+                    }
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    dropped.incrementAndGet();
+                    return;
+                }
+                break;
+
+            default:
+                throw new IllegalStateException("unknown OverflowStrategy " + overflowStrategy);
+        }
+
+        scheduleDrain();
+    }
+
+    void complete()
+    {
+        completed = true;
+        scheduleDrain();
+    }
+
+    private void scheduleDrain()
+    {
+        if (wip.getAndIncrement() != 0)
+        {
+            // a drain loop is already running and will pick up the new work
+            return;
+        }
+
+        try
+        {
+            executor.execute(this::drainLoop);
+        }
+        catch (RejectedExecutionException ree)
+        {
+            drainLoop();
+        }
+    }
+
+    private void drainLoop()
+    {
+        int missed = 1;
+        do
+        {
+            if (error != null && !cancelled)
+            {
+                cancel();
+                subscriber.onError(error);
+                return;
+            }
+
+            while (!cancelled && demand.get() > 0 && !buffer.isEmpty())
+            {
+                List<T> batch = new ArrayList<>(Math.min(batchSize, buffer.size()));
+                buffer.drainTo(batch, batchSize);
+                if (batch.isEmpty())
+                {
+                    break;
+                }
+
+                if (demand.get() != Long.MAX_VALUE)
+                {
+                    demand.decrementAndGet();
+                }
+
+                try
+                {
+                    subscriber.onNext(batch);
+                }
+                catch (RuntimeException re)
+                {
+                    // reactive streams rule 2.13: a failing subscriber is considered cancelled
+                    logger.log(Level.WARNING, "Subscriber " + subscriber + " failed, cancelling its subscription", re);
+                    cancel();
+                    return;
+                }
+            }
+
+            if (!cancelled && completed && buffer.isEmpty())
+            {
+                cancel();
+                subscriber.onComplete();
+                return;
+            }
+
+            missed = wip.addAndGet(-missed);
+        }
+        while (missed != 0);
+    }
+}
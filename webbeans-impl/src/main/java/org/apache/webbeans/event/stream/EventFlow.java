@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.event.stream;
+
+/**
+ * Reactive streams contract used by {@link EventStreamPublisher}.
+ *
+ * The interfaces are signature compatible with {@code java.util.concurrent.Flow}
+ * which is not available on Java 8. On newer JVMs a {@code Flow.Subscriber}
+ * can be plugged in with a trivial delegating adapter.
+ */
+public final class EventFlow
+{
+    private EventFlow()
+    {
+        // no instances
+    }
+
+    public interface Publisher<T>
+    {
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    public interface Subscriber<T>
+    {
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    public interface Subscription
+    {
+        /**
+         * Request up to {@code n} further calls to {@link Subscriber#onNext(Object)}.
+         */
+        void request(long n);
+
+        void cancel();
+    }
+}
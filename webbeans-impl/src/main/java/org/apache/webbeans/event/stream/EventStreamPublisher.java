@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.event.stream;
+
+import java.io.Closeable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import javax.enterprise.event.Reception;
+import javax.enterprise.event.TransactionPhase;
+import javax.enterprise.inject.spi.ObserverMethod;
+
+import org.apache.webbeans.event.NotificationManager;
+import org.apache.webbeans.util.Asserts;
+
+/**
+ * A {@link EventFlow.Publisher} which emits all synchronously fired CDI events
+ * of a given type and qualifiers as batches.
+ *
+ * Each subscriber gets its own bounded buffer. If the buffer is full the configured
+ * {@link OverflowStrategy} gets applied. Delivery to the subscribers happens on the
+ * given {@link Executor} and honours the demand signalled via
+ * {@link EventFlow.Subscription#request(long)}, whereas one unit of demand
+ * is one batch of up to {@code batchSize} events.
+ *
+ * The publisher is backed by a synthetic {@link ObserverMethod} registered in the
+ * {@link NotificationManager}. It must be {@link #close() closed} to unregister it again.
+ *
+ * @param <T> event type
+ * @see NotificationManager#createEventPublisher(Type, int, int, OverflowStrategy, Annotation...)
+ */
+public class EventStreamPublisher<T> implements EventFlow.Publisher<List<T>>, Closeable
+{
+    private final NotificationManager notificationManager;
+    private final Type observedType;
+    private final Set<Annotation> qualifiers;
+    private final int bufferSize;
+    private final int batchSize;
+    private final OverflowStrategy overflowStrategy;
+    private final Executor executor;
+
+    private final Collection<BufferedSubscription<T>> subscriptions = new CopyOnWriteArrayList<>();
+    private final ObserverMethod<T> observerMethod = new PublisherObserverMethod();
+
+    private volatile boolean closed;
+
+    public EventStreamPublisher(NotificationManager notificationManager, Type observedType, Set<Annotation> qualifiers,
+                                int bufferSize, int batchSize, OverflowStrategy overflowStrategy, Executor executor)
+    {
+        Asserts.assertNotNull(observedType, "observedType");
+        Asserts.assertNotNull(overflowStrategy, "overflowStrategy");
+        Asserts.assertNotNull(executor, "executor");
+        if (bufferSize <= 0 || batchSize <= 0)
+        {
+            throw new IllegalArgumentException("bufferSize and batchSize must be positive");
+        }
+
+        this.notificationManager = notificationManager;
+        this.observedType = observedType;
+        this.qualifiers = qualifiers;
+        this.bufferSize = bufferSize;
+        this.batchSize = batchSize;
+        this.overflowStrategy = overflowStrategy;
+        this.executor = executor;
+    }
+
+    /**
+     * Registers the underlying observer. Invoked by the {@link NotificationManager}.
+     */
+    public void start()
+    {
+        notificationManager.addRuntimeObserver(observerMethod);
+    }
+
+    @Override
+    public void subscribe(EventFlow.Subscriber<? super List<T>> subscriber)
+    {
+        Asserts.assertNotNull(subscriber, "subscriber");
+
+        BufferedSubscription<T> subscription
+            = new BufferedSubscription<>(this, subscriber, bufferSize, batchSize, overflowStrategy, executor);
+        if (!closed)
+        {
+            subscriptions.add(subscription);
+        }
+        subscriber.onSubscribe(subscription);
+
+        if (closed)
+        {
+            subscription.complete();
+        }
+    }
+
+    /**
+     * Unregisters the observer and completes all subscriptions
+     * once their already buffered events got delivered.
+     */
+    @Override
+    public void close()
+    {
+        if (closed)
+        {
+            return;
+        }
+        closed = true;
+        notificationManager.removeObserver(observerMethod);
+
+        for (BufferedSubscription<T> subscription : subscriptions)
+        {
+            subscription.complete();
+        }
+    }
+
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    public int getSubscriberCount()
+    {
+        return subscriptions.size();
+    }
+
+    /**
+     * @return the number of events which got discarded for any subscriber due to a full buffer
+     */
+    public long getDroppedEventCount()
+    {
+        long dropped = 0;
+        for (BufferedSubscription<T> subscription : subscriptions)
+        {
+            dropped += subscription.getDroppedCount();
+        }
+        return dropped;
+    }
+
+    public ObserverMethod<T> getObserverMethod()
+    {
+        return observerMethod;
+    }
+
+    void remove(BufferedSubscription<T> subscription)
+    {
+        subscriptions.remove(subscription);
+    }
+
+    private void dispatch(T event)
+    {
+        for (BufferedSubscription<T> subscription : subscriptions)
+        {
+            subscription.offer(event);
+        }
+    }
+
+    private class PublisherObserverMethod implements ObserverMethod<T>
+    {
+        @Override
+        public Class<?> getBeanClass()
+        {
+            return EventStreamPublisher.class;
+        }
+
+        @Override
+        public Type getObservedType()
+        {
+            return observedType;
+        }
+
+        @Override
+        public Set<Annotation> getObservedQualifiers()
+        {
+            return qualifiers;
+        }
+
+        @Override
+        public Reception getReception()
+        {
+            return Reception.ALWAYS;
+        }
+
+        @Override
+        public TransactionPhase getTransactionPhase()
+        {
+            return TransactionPhase.IN_PROGRESS;
+        }
+
+        @Override
+        public void notify(T event)
+        {
+            dispatch(event);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "EventStreamPublisher observer for " + observedType + " " + qualifiers;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.event.stream;
+
+/**
+ * What an {@link EventStreamPublisher} does with a fired event
+ * if the buffer of a subscriber is already full.
+ */
+public enum OverflowStrategy
+{
+    /**
+     * The new event gets discarded for this subscriber.
+     */
+    DROP,
+
+    /**
+     * The oldest buffered event gets discarded to make room for the new one.
+     */
+    LATEST,
+
+    /**
+     * The thread firing the event waits until the subscriber consumed enough events.
+     * This effectively propagates the backpressure to the producer of the events.
+     */
+    BLOCK
+}
@@ -136,8 +136,11 @@ public class InjectionPointFactory
         if (fireEvent)
         {
             GProcessInjectionPoint event = webBeansContext.getWebBeansUtil().fireProcessInjectionPointEvent(injectionPoint);
-            injectionPoint = event.getInjectionPoint();
-            event.setStarted();
+            if (event != null)
+            {
+                injectionPoint = event.getInjectionPoint();
+                event.setStarted();
+            }
         }
 
         return injectionPoint;
@@ -158,6 +161,10 @@ public class InjectionPointFactory
         if (fireEvent)
         {
             GProcessInjectionPoint event = webBeansContext.getWebBeansUtil().fireProcessInjectionPointEvent(injectionPoint);
+            if (event == null)
+            {
+                return injectionPoint;
+            }
             InjectionPoint ip = event.getInjectionPoint();
             event.setStarted();
             return ip;
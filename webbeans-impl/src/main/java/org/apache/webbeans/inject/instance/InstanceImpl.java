@@ -53,6 +53,7 @@ import org.apache.webbeans.proxy.OwbNormalScopeProxy;
 import org.apache.webbeans.util.ClassUtil;
 import org.apache.webbeans.util.InjectionExceptionUtil;
 import org.apache.webbeans.util.OwbCustomObjectInputStream;
+import org.apache.webbeans.util.WeakIdentitySet;
 import org.apache.webbeans.util.WebBeansUtil;
 
 /**
@@ -78,10 +79,22 @@ public class InstanceImpl<T> implements Instance<T>, Serializable
     private WebBeansContext webBeansContext;
 
     private Map<Object, CreationalContextImpl<?>> creationalContexts;
+
+    /**
+     * Instances produced by this Instance which don't need to get destroyed,
+     * only to tell them apart from foreign ones in {@link #destroy(Object)}.
+     */
+    private transient WeakIdentitySet<Object> untrackedInstances;
+
     private CreationalContextImpl<?> parentCreationalContext;
 
     private boolean strictValidation;
 
+    /**
+     * Number of not destroyed instances at which a possible leak gets reported next.
+     */
+    private transient int nextLeakThreshold;
+
     /**
      * Creates new instance.
      * 
@@ -100,6 +113,7 @@ public class InstanceImpl<T> implements Instance<T>, Serializable
 
         this.webBeansContext = webBeansContext;
         strictValidation = webBeansContext.getOpenWebBeansConfiguration().strictDynamicValidation();
+        nextLeakThreshold = webBeansContext.getDependentLeakDetector().getInitialThreshold();
 
         if (strictValidation)
         {
@@ -285,12 +299,25 @@ public class InstanceImpl<T> implements Instance<T>, Serializable
         }
         else
         {
-            CreationalContextImpl<?> creationalContext = creationalContexts.remove(instance);
+            CreationalContextImpl<?> creationalContext = creationalContexts != null ? creationalContexts.remove(instance) : null;
             if (creationalContext == null)
             {
-                throw new IllegalArgumentException("instance " + instance + " not produced with this Instance<?>");
+                if (untrackedInstances == null || !untrackedInstances.remove(instance))
+                {
+                    throw new IllegalArgumentException("instance " + instance + " not produced with this Instance<?>");
+                }
+                // nothing got registered which would need to get destroyed
+                return;
+            }
+            if (WebBeansUtil.isDependent(creationalContext.getBean()))
+            {
+                // the CreationalContext only belongs to this instance
+                creationalContext.release();
+            }
+            else
+            {
+                creationalContext.destroyDependent(instance);
             }
-            creationalContext.destroyDependent(instance);
         }
     }
 
@@ -304,11 +331,30 @@ public class InstanceImpl<T> implements Instance<T>, Serializable
         try
         {
             T reference = (T) beanManager.getReference(bean, injectionClazz, creationalContext);
+            if (!creationalContext.hasDependents())
+            {
+                // nothing to destroy later on, so only remember it weakly
+                if (reference != null && !(reference instanceof OwbNormalScopeProxy))
+                {
+                    if (untrackedInstances == null)
+                    {
+                        untrackedInstances = new WeakIdentitySet<>();
+                    }
+                    untrackedInstances.add(reference);
+                }
+                return reference;
+            }
             if (creationalContexts == null)
             {
                 creationalContexts = new IdentityHashMap<>();
             }
             creationalContexts.put(reference, creationalContext);
+            if (creationalContexts.size() >= nextLeakThreshold)
+            {
+                nextLeakThreshold = webBeansContext.getDependentLeakDetector().report(
+                        injectionPoint != null ? injectionPoint.getBean() : parentCreationalContext.getBean(),
+                        bean, injectionPoint, creationalContexts.size());
+            }
             return reference;
         }
         finally
@@ -335,6 +381,7 @@ public class InstanceImpl<T> implements Instance<T>, Serializable
         qualifierAnnotations = (Set<Annotation>)inputStream.readObject();
         injectionPoint = (InjectionPoint) inputStream.readObject();
         parentCreationalContext = webBeansContext.getBeanManagerImpl().createCreationalContext(null); // TODO: check what we can do
+        nextLeakThreshold = webBeansContext.getDependentLeakDetector().getInitialThreshold();
     }
     
     public String toString()
@@ -22,8 +22,10 @@ import org.apache.webbeans.component.InjectionTargetBean;
 import org.apache.webbeans.component.SelfInterceptorBean;
 import org.apache.webbeans.component.WebBeansType;
 import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.portable.AbstractProducer;
 import org.apache.webbeans.portable.InjectionTargetImpl;
 import org.apache.webbeans.proxy.InterceptorHandler;
+import org.apache.webbeans.spi.MetricsService;
 import org.apache.webbeans.util.ExceptionUtil;
 import org.apache.webbeans.util.WebBeansUtil;
 
@@ -50,6 +52,14 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
 {
     private static final String SELF_KEY = "SELF_INTERCEPTOR";
 
+    /**
+     * Marks the versioned serialized form.
+     * Passivation ids get written as objects, so each of them only gets written once per stream.
+     * The interceptors per method only get written if they are not the ones of the Bean.
+     * The unversioned form started with the target instance, which never is a String.
+     */
+    private static final String SERIAL_FORMAT_VERSION = "OWB-DefaultInterceptorHandler-1";
+
     /**
      * The native contextual instance target instance.
      * This is the unproxies and undecorated instance.
@@ -75,6 +85,12 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
     private Map<Method, List<Interceptor<?>>> interceptors;
     private Map<Interceptor<?>, ?> instances;
 
+    /**
+     * Counts the intercepted invocations of the bean, {@code null} if no metrics get collected.
+     * This does not survive serialisation.
+     */
+    private transient MetricsService.Counter invocations;
+
     /**
      * InterceptorHandler wich gets used in our InjectionTargets which
      * support interceptors and decorators
@@ -89,12 +105,27 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
                                      Map<Method, List<Interceptor<?>>> interceptors,
                                      Map<Interceptor<?>, ?> instances,
                                      String beanPassivationId)
+    {
+        this(target, delegate, interceptors, instances, beanPassivationId, null);
+    }
+
+    /**
+     * @param invocations counts the invocations of intercepted methods, may be {@code null}
+     * @see #DefaultInterceptorHandler(Object, Object, Map, Map, String)
+     */
+    public DefaultInterceptorHandler(T target,
+                                     T delegate,
+                                     Map<Method, List<Interceptor<?>>> interceptors,
+                                     Map<Interceptor<?>, ?> instances,
+                                     String beanPassivationId,
+                                     MetricsService.Counter invocations)
     {
         this.target = target;
         this.delegate = delegate;
         this.instances = instances;
         this.interceptors = interceptors;
         this.beanPassivationId = beanPassivationId;
+        this.invocations = invocations;
     }
 
     public DefaultInterceptorHandler()
@@ -125,6 +156,10 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
     @Override
     public Object invoke(Method method, Object[] parameters)
     {
+        if (invocations != null)
+        {
+            invocations.increment();
+        }
         try
         {
             List<Interceptor<?>> methodInterceptors = interceptors.get(method);
@@ -175,6 +210,8 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
     @Override
     public void writeExternal(ObjectOutput out) throws IOException
     {
+        out.writeObject(SERIAL_FORMAT_VERSION);
+        out.writeObject(beanPassivationId);
         out.writeObject(target);
 
         boolean noDecorator = target == delegate;
@@ -194,12 +231,20 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
             }
         }
 
+        // usually the interceptors are the deployment metadata of the Bean, so we just reference them
+        boolean beanInterceptors = interceptors == getBeanInterceptors(WebBeansContext.getInstance().getBeanManagerImpl());
+        out.writeBoolean(beanInterceptors);
+        if (beanInterceptors)
+        {
+            return;
+        }
+
         out.writeInt(interceptors.size());
         for (Map.Entry<Method, List<Interceptor<?>>> entry : interceptors.entrySet())
         {
             Method key = entry.getKey();
             out.writeObject(key.getDeclaringClass());
-            out.writeUTF(key.getName());
+            out.writeObject(key.getName());
             out.writeObject(key.getParameterTypes());
 
             List<Interceptor<?>> value = entry.getValue();
@@ -209,14 +254,24 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
                 serializeInterceptor(out, i);
             }
         }
-
-        out.writeUTF(beanPassivationId);
     }
 
     @Override
     public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException
     {
-        target = (T) in.readObject();
+        Object first = in.readObject();
+        boolean unversioned = !SERIAL_FORMAT_VERSION.equals(first);
+        if (unversioned)
+        {
+            // written before the serialized form got versioned, the passivation id comes last
+            target = (T) first;
+        }
+        else
+        {
+            beanPassivationId = (String) in.readObject();
+            target = (T) in.readObject();
+        }
+
         if (in.readBoolean())
         {
             delegate = target;
@@ -233,7 +288,7 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
         Map<Interceptor<?>, Object> tmpInstances = new HashMap<>();
         for (int i = 0; i < instancesSize; i++)
         {
-            Interceptor<?> interceptor = readInterceptor(in.readUTF(), beanManager);
+            Interceptor<?> interceptor = readInterceptor(readString(in, unversioned), beanManager);
             if (!SelfInterceptorBean.class.isInstance(interceptor))
             {
                 Object value = in.readObject();
@@ -246,12 +301,22 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
         }
         instances = tmpInstances;
 
+        if (!unversioned && in.readBoolean())
+        {
+            interceptors = getBeanInterceptors(beanManager);
+            if (interceptors == null)
+            {
+                throw new NotSerializableException("Can't find the interceptors of " + beanPassivationId);
+            }
+            return;
+        }
+
         int interceptorsSize = in.readInt();
         interceptors = new HashMap<>(interceptorsSize);
         for (int i = 0; i < interceptorsSize; i++)
         {
             Class<?> declaringClass = (Class<?>) in.readObject();
-            String name = in.readUTF();
+            String name = readString(in, unversioned);
             Class<?>[] parameters = (Class<?>[]) in.readObject();
             Method method;
             try
@@ -267,12 +332,40 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
             List<Interceptor<?>> interceptorList = new ArrayList<>(interceptorListSize);
             for (int j = 0; j < interceptorListSize; j++)
             {
-                interceptorList.add(readInterceptor(in.readUTF(), beanManager));
+                interceptorList.add(readInterceptor(readString(in, unversioned), beanManager));
             }
             interceptors.put(method, interceptorList);
         }
 
-        beanPassivationId = in.readUTF();
+        if (unversioned)
+        {
+            beanPassivationId = in.readUTF();
+        }
+    }
+
+    /**
+     * The unversioned form wrote Strings with writeUTF.
+     */
+    private static String readString(ObjectInput in, boolean unversioned) throws IOException, ClassNotFoundException
+    {
+        return unversioned ? in.readUTF() : (String) in.readObject();
+    }
+
+    /**
+     * @return the interceptors per method of the Bean this handler belongs to
+     */
+    private Map<Method, List<Interceptor<?>>> getBeanInterceptors(BeanManager beanManager)
+    {
+        Bean<?> bean = beanPassivationId != null ? beanManager.getPassivationCapableBean(beanPassivationId) : null;
+        if (InjectionTargetBean.class.isInstance(bean))
+        {
+            InjectionTarget<?> it = InjectionTargetBean.class.cast(bean).getInjectionTarget();
+            if (AbstractProducer.class.isInstance(it))
+            {
+                return AbstractProducer.class.cast(it).getMethodInterceptors();
+            }
+        }
+        return null;
     }
 
     /**
@@ -284,7 +377,7 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
         {
             String beanName = WebBeansUtil.getPassivationId(key)
                 .replace(WebBeansType.INTERCEPTOR.name(), WebBeansType.MANAGED.name());
-            out.writeUTF(SELF_KEY + beanName);
+            out.writeObject(SELF_KEY + beanName);
             return false;
         }
 
@@ -293,7 +386,7 @@ public class DefaultInterceptorHandler<T> implements InterceptorHandler, Externa
         {
             throw new NotSerializableException(key + " is not serializable");
         }
-        out.writeUTF(id);
+        out.writeObject(id);
         return true;
     }
 
@@ -31,6 +31,7 @@ import org.apache.webbeans.exception.WebBeansConfigurationException;
 import org.apache.webbeans.exception.WebBeansDeploymentException;
 import org.apache.webbeans.portable.AnnotatedElementFactory;
 import org.apache.webbeans.proxy.InterceptorHandler;
+import org.apache.webbeans.spi.MetricsService;
 import org.apache.webbeans.util.AnnotationUtil;
 import org.apache.webbeans.util.Asserts;
 import org.apache.webbeans.util.ClassUtil;
@@ -864,7 +865,8 @@ public class InterceptorResolutionService
                         new DecoratorHandler(interceptorInfo, decorators, instances, i - 1, instance, passivationId));
             }
         }
-        InterceptorHandler interceptorHandler = new DefaultInterceptorHandler<>(instance, delegate, methodInterceptors, interceptorInstances, passivationId);
+        InterceptorHandler interceptorHandler = new DefaultInterceptorHandler<>(instance, delegate, methodInterceptors, interceptorInstances, passivationId,
+                interceptorInfo.getInvocations());
 
         return webBeansContext.getInterceptorDecoratorProxyFactory().createProxyInstance(proxyClass, instance, interceptorHandler);
     }
@@ -940,12 +942,27 @@ public class InterceptorResolutionService
          */
         private Map<InterceptionType, LifecycleMethodInfo> lifecycleMethodInterceptorInfos;
 
+        /**
+         * Counts the intercepted invocations, {@code null} if no metrics get collected.
+         */
+        private MetricsService.Counter invocations;
+
 
         public List<Decorator<?>> getDecorators()
         {
             return decorators;
         }
 
+        public MetricsService.Counter getInvocations()
+        {
+            return invocations;
+        }
+
+        public void setInvocations(MetricsService.Counter invocations)
+        {
+            this.invocations = invocations;
+        }
+
         public LinkedHashSet<Interceptor<?>> getEjbInterceptors()
         {
             return ejbInterceptors;
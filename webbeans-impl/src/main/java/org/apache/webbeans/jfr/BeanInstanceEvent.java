@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Duration of creating, injecting or initializing a contextual instance.
+ */
+@Name("org.apache.webbeans.BeanInstance")
+@Label("Bean Instance")
+@Description("Construction, field and method injection or @PostConstruct callbacks of a bean instance")
+@Category(FlightRecorderSupport.CATEGORY)
+public class BeanInstanceEvent extends Event
+{
+    public static final String PRODUCE = "produce";
+    public static final String INJECT = "inject";
+    public static final String POST_CONSTRUCT = "postConstruct";
+
+    @Label("Bean Class")
+    Class<?> beanClass;
+
+    @Label("Operation")
+    String operation;
+
+    /**
+     * @return the started event or {@code null} if the event is not enabled
+     */
+    public static BeanInstanceEvent start(Class<?> beanClass, String operation)
+    {
+        BeanInstanceEvent event = new BeanInstanceEvent();
+        if (!event.isEnabled())
+        {
+            return null;
+        }
+        event.beanClass = beanClass;
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Duration of starting or ending a context of a built-in scope.
+ */
+@Name("org.apache.webbeans.Context")
+@Label("Context")
+@Description("Start or end of a context, ending includes destroying all its contextual instances")
+@Category(FlightRecorderSupport.CATEGORY)
+public class ContextEvent extends Event
+{
+    public static final String START = "start";
+    public static final String END = "end";
+
+    @Label("Scope")
+    Class<?> scope;
+
+    @Label("Operation")
+    String operation;
+
+    /**
+     * @return the started event or {@code null} if the event is not enabled
+     */
+    public static ContextEvent start(Class<?> scope, String operation)
+    {
+        ContextEvent event = new ContextEvent();
+        if (!event.isEnabled())
+        {
+            return null;
+        }
+        event.scope = scope;
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+}
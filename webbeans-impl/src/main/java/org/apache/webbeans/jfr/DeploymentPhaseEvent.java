@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Duration of a single phase of {@link org.apache.webbeans.config.BeansDeployer#deploy}.
+ */
+@Name("org.apache.webbeans.DeploymentPhase")
+@Label("Deployment Phase")
+@Description("A phase of the container boot, e.g. scanning, bean creation or validation")
+@Category(FlightRecorderSupport.CATEGORY)
+public class DeploymentPhaseEvent extends Event
+{
+    @Label("Phase")
+    String phase;
+
+    /**
+     * @return the started event or {@code null} if the event is not enabled
+     */
+    public static DeploymentPhaseEvent start(String phase)
+    {
+        DeploymentPhaseEvent event = new DeploymentPhaseEvent();
+        if (!event.isEnabled())
+        {
+            return null;
+        }
+        event.phase = phase;
+        event.begin();
+        return event;
+    }
+}
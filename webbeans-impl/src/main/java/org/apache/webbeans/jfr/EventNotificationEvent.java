@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Duration of notifying the observer methods of a CDI event.
+ * For asynchronous events this only covers submitting the observer invocations.
+ */
+@Name("org.apache.webbeans.EventNotification")
+@Label("Event Notification")
+@Description("Delivery of a CDI event to its resolved observer methods")
+@Category(FlightRecorderSupport.CATEGORY)
+public class EventNotificationEvent extends Event
+{
+    @Label("Event Type")
+    Class<?> eventType;
+
+    @Label("Observer Count")
+    int observerCount;
+
+    @Label("Asynchronous")
+    boolean async;
+
+    @Label("Lifecycle Event")
+    boolean lifecycleEvent;
+
+    /**
+     * @return the started event or {@code null} if the event is not enabled
+     */
+    public static EventNotificationEvent start(Class<?> eventType, int observerCount, boolean async, boolean lifecycleEvent)
+    {
+        EventNotificationEvent event = new EventNotificationEvent();
+        if (!event.isEnabled())
+        {
+            return null;
+        }
+        event.eventType = eventType;
+        event.observerCount = observerCount;
+        event.async = async;
+        event.lifecycleEvent = lifecycleEvent;
+        event.begin();
+        return event;
+    }
+}
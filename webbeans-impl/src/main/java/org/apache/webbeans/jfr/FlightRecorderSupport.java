@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.jfr;
+
+/**
+ * Guards the JDK Flight Recorder events of this package.
+ *
+ * The events extend {@code jdk.jfr.Event} which is not available on every JVM,
+ * e.g. not on Java 8 before 8u262. Instrumented code must therefore only touch
+ * an event class if {@link #AVAILABLE} is {@code true}:
+ * <pre>
+ * BeanInstanceEvent event = FlightRecorderSupport.AVAILABLE ? BeanInstanceEvent.start(beanClass, BeanInstanceEvent.PRODUCE) : null;
+ * try
+ * {
+ *     ...
+ * }
+ * finally
+ * {
+ *     if (event != null)
+ *     {
+ *         event.commit();
+ *     }
+ * }
+ * </pre>
+ *
+ * The {@code start} methods return {@code null} if no recording is running which
+ * has the event enabled. Without a recording the instrumented code only pays
+ * a check of a static final flag and of {@code Event#isEnabled()}.
+ */
+public final class FlightRecorderSupport
+{
+    public static final String CATEGORY = "OpenWebBeans";
+
+    /**
+     * {@code true} if the JVM provides the {@code jdk.jfr} API.
+     */
+    public static final boolean AVAILABLE = isFlightRecorderAvailable();
+
+    private FlightRecorderSupport()
+    {
+        // utility class
+    }
+
+    private static boolean isFlightRecorderAvailable()
+    {
+        try
+        {
+            Class.forName("jdk.jfr.Event", false, FlightRecorderSupport.class.getClassLoader());
+            return true;
+        }
+        catch (ClassNotFoundException | LinkageError e)
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Duration of generating and defining a proxy class.
+ */
+@Name("org.apache.webbeans.ProxyGeneration")
+@Label("Proxy Generation")
+@Description("Bytecode generation and definition of a normal scoped, interceptor or subclass proxy")
+@Category(FlightRecorderSupport.CATEGORY)
+public class ProxyGenerationEvent extends Event
+{
+    @Label("Proxy Factory")
+    String proxyFactory;
+
+    @Label("Proxied Class")
+    Class<?> proxiedClass;
+
+    @Label("Proxy Class Name")
+    String proxyClassName;
+
+    /**
+     * @return the started event or {@code null} if the event is not enabled
+     */
+    public static ProxyGenerationEvent start(String proxyFactory, Class<?> proxiedClass, String proxyClassName)
+    {
+        ProxyGenerationEvent event = new ProxyGenerationEvent();
+        if (!event.isEnabled())
+        {
+            return null;
+        }
+        event.proxyFactory = proxyFactory;
+        event.proxiedClass = proxiedClass;
+        event.proxyClassName = proxyClassName;
+        event.begin();
+        return event;
+    }
+}
@@ -41,6 +41,7 @@ import org.apache.webbeans.context.creational.CreationalContextImpl;
 import org.apache.webbeans.intercept.InterceptorResolutionService.BeanInterceptorInfo;
 import org.apache.webbeans.proxy.InterceptorDecoratorProxyFactory;
 import org.apache.webbeans.proxy.OwbInterceptorProxy;
+import org.apache.webbeans.spi.MetricsService;
 
 public abstract class AbstractProducer<T> implements Producer<T>
 {
@@ -104,6 +105,12 @@ public abstract class AbstractProducer<T> implements Producer<T>
 
             proxyClass = (Class<? extends T>) pf.createProxyClass(bean, classLoader, annotatedType.getJavaClass(), businessMethods, nonInterceptedMethods);
 
+            MetricsService metricsService = webBeansContext.getMetricsService();
+            if (metricsService != null)
+            {
+                interceptorInfo.setInvocations(metricsService.getCounter("interceptors." + bean.getBeanClass().getName() + ".invocations"));
+            }
+
             // now we collect the post-construct and pre-destroy interceptors
 
         }
@@ -155,6 +162,16 @@ public abstract class AbstractProducer<T> implements Producer<T>
     {
     }
 
+    /**
+     * Whether the produced &#064;Dependent instances have to be tracked in their
+     * CreationalContext to get destroyed later on.
+     * Subclasses which add any destruction logic must override it accordingly.
+     */
+    public boolean isDestructionNeeded()
+    {
+        return true;
+    }
+
     protected abstract T produce(Map<Interceptor<?>, ?> interceptorInstances, CreationalContextImpl<T> creationalContext);
     
     protected InterceptorDecoratorProxyFactory getProxyFactory()
@@ -162,7 +179,7 @@ public abstract class AbstractProducer<T> implements Producer<T>
         return proxyFactory;
     }
 
-    protected Map<Method, List<Interceptor<?>>> getMethodInterceptors()
+    public Map<Method, List<Interceptor<?>>> getMethodInterceptors()
     {
         return methodInterceptors;
     }
@@ -101,6 +101,12 @@ public abstract class BaseProducerProducer<T, P> extends AbstractProducer<T>
         }
     }
 
+    @Override
+    public boolean isDestructionNeeded()
+    {
+        return disposalMethod != null;
+    }
+
     @Override
     public void dispose(T instance)
     {
@@ -31,6 +31,8 @@ import org.apache.webbeans.intercept.DefaultInterceptorHandler;
 import org.apache.webbeans.intercept.InterceptorResolutionService;
 import org.apache.webbeans.intercept.InterceptorResolutionService.BeanInterceptorInfo;
 import org.apache.webbeans.intercept.LifecycleInterceptorInvocationContext;
+import org.apache.webbeans.jfr.BeanInstanceEvent;
+import org.apache.webbeans.jfr.FlightRecorderSupport;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
 import org.apache.webbeans.proxy.InterceptorDecoratorProxyFactory;
 import org.apache.webbeans.proxy.InterceptorHandler;
@@ -150,6 +152,22 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
 
     @Override
     public T produce(Map<Interceptor<?>, ?> interceptorInstances, CreationalContextImpl<T> creationalContext)
+    {
+        BeanInstanceEvent jfrEvent = FlightRecorderSupport.AVAILABLE ? BeanInstanceEvent.start(annotatedType.getJavaClass(), BeanInstanceEvent.PRODUCE) : null;
+        try
+        {
+            return produceInstance(interceptorInstances, creationalContext);
+        }
+        finally
+        {
+            if (jfrEvent != null)
+            {
+                jfrEvent.commit();
+            }
+        }
+    }
+
+    private T produceInstance(Map<Interceptor<?>, ?> interceptorInstances, CreationalContextImpl<T> creationalContext)
     {
         if (hasAroundConstruct())
         {
@@ -200,7 +218,18 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
     @Override
     public void inject(T instance, CreationalContext<T> context)
     {
-        inject(instance.getClass(), unwrapProxyInstance(instance), (CreationalContextImpl<T>) context);
+        BeanInstanceEvent jfrEvent = FlightRecorderSupport.AVAILABLE ? BeanInstanceEvent.start(annotatedType.getJavaClass(), BeanInstanceEvent.INJECT) : null;
+        try
+        {
+            inject(instance.getClass(), unwrapProxyInstance(instance), (CreationalContextImpl<T>) context);
+        }
+        finally
+        {
+            if (jfrEvent != null)
+            {
+                jfrEvent.commit();
+            }
+        }
     }
 
     private void inject(Class<?> type, T instance, CreationalContextImpl<T> context)
@@ -294,6 +323,22 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
 
     @Override
     public void postConstruct(T instance)
+    {
+        BeanInstanceEvent jfrEvent = FlightRecorderSupport.AVAILABLE ? BeanInstanceEvent.start(annotatedType.getJavaClass(), BeanInstanceEvent.POST_CONSTRUCT) : null;
+        try
+        {
+            invokePostConstruct(instance);
+        }
+        finally
+        {
+            if (jfrEvent != null)
+            {
+                jfrEvent.commit();
+            }
+        }
+    }
+
+    private void invokePostConstruct(T instance)
     {
         Map<Interceptor<?>, ?> interceptorInstances = null;
         T internalInstance = instance;
@@ -325,6 +370,13 @@ public class InjectionTargetImpl<T> extends AbstractProducer<T> implements Injec
         }
     }
 
+    @Override
+    public boolean isDestructionNeeded()
+    {
+        return preDestroyMethods != null && !preDestroyMethods.isEmpty()
+            || preDestroyInterceptors != null && !preDestroyInterceptors.isEmpty();
+    }
+
     @Override
     public void preDestroy(T instance)
     {
@@ -31,6 +31,7 @@ import javax.enterprise.inject.spi.DeploymentException;
 import javax.enterprise.inject.spi.Extension;
 
 import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.StartupProfiler;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.container.BeanManagerImpl;
 import org.apache.webbeans.exception.WebBeansException;
@@ -57,6 +58,11 @@ public class ExtensionLoader
 
     private final WebBeansContext webBeansContext;
 
+    /**
+     * Only set while the container boots with the startup profiler enabled.
+     */
+    private StartupProfiler startupProfiler;
+
     /**
      * Creates a new loader instance.
      * @param webBeansContext
@@ -89,7 +95,15 @@ public class ExtensionLoader
                 " " + ignoredExtensions.toString());
         }
 
+        // the LoaderService instantiates all Extensions at once
+        StartupProfiler profiler = startupProfiler;
+        StartupProfiler.Mark start = profiler != null ? profiler.mark() : null;
         List<Extension> loader = webBeansContext.getLoaderService().load(Extension.class, classLoader);
+        if (start != null)
+        {
+            profiler.extensionsInstantiated(start);
+        }
+
         for (Extension extension : loader)
         {
             if (ignoredExtensions.contains(extension.getClass().getName()))
@@ -118,6 +132,15 @@ public class ExtensionLoader
         }        
     }
     
+    /**
+     * @param startupProfiler records the time needed to instantiate the Extensions and to add each of them,
+     *                        {@code null} to stop recording
+     */
+    public void setStartupProfiler(StartupProfiler startupProfiler)
+    {
+        this.startupProfiler = startupProfiler;
+    }
+
     /**
      * Returns service bean instance.
      * 
@@ -137,11 +160,18 @@ public class ExtensionLoader
      */
     public void addExtension(Extension ext)
     {
+        StartupProfiler.Mark start = startupProfiler != null ? startupProfiler.mark() : null;
+
         Bean<?> bean = webBeansContext.getWebBeansUtil().createExtensionComponent(ext.getClass());
         Class<?> extensionClass = ext.getClass();
         extensions.put(extensionClass, ext);
 
         manager.addBean(bean);
+
+        if (start != null)
+        {
+            startupProfiler.extensionLoaded(extensionClass, start);
+        }
     }
 
     /**
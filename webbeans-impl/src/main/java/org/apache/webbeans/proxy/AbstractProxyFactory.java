@@ -38,7 +38,10 @@ import java.util.logging.Logger;
 import org.apache.webbeans.config.WebBeansContext;
 import org.apache.webbeans.exception.ProxyGenerationException;
 import org.apache.webbeans.exception.WebBeansException;
+import org.apache.webbeans.jfr.FlightRecorderSupport;
+import org.apache.webbeans.jfr.ProxyGenerationEvent;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
+import org.apache.webbeans.spi.MetricsService;
 import org.apache.xbean.asm6.ClassReader;
 import org.apache.xbean.asm6.ClassWriter;
 import org.apache.xbean.asm6.MethodVisitor;
@@ -77,6 +80,11 @@ public abstract class AbstractProxyFactory
 
     private final int javaVersion;
 
+    /**
+     * Counts the generated proxy classes, {@code null} if no {@link MetricsService} is configured.
+     */
+    private final MetricsService.Counter proxyClasses;
+
 
     /**
      * The name of the field which stores the passivationID of the Bean this proxy serves.
@@ -91,6 +99,9 @@ public abstract class AbstractProxyFactory
         this.webBeansContext = webBeansContext;
         javaVersion = determineDefaultJavaVersion();
         initializeUnsafe();
+
+        MetricsService metricsService = webBeansContext.getMetricsService();
+        proxyClasses = metricsService != null ? metricsService.getCounter("proxies." + getClass().getSimpleName() + ".classes") : null;
     }
 
     private int determineDefaultJavaVersion()
@@ -242,6 +253,9 @@ public abstract class AbstractProxyFactory
                                                       Constructor<T> constructor)
             throws ProxyGenerationException
     {
+        ProxyGenerationEvent jfrEvent = FlightRecorderSupport.AVAILABLE
+                ? ProxyGenerationEvent.start(getClass().getSimpleName(), classToProxy, proxyClassName) : null;
+
         String proxyClassFileName = proxyClassName.replace('.', '/');
 
         byte[] proxyBytes = generateProxy(classLoader,
@@ -252,7 +266,17 @@ public abstract class AbstractProxyFactory
                 sortOutDuplicateMethods(nonInterceptedMethods),
                 constructor);
 
-        return org.hotswap.agent.plugin.owb.command.ProxyClassLoadingDelegate.defineAndLoadClass(this, classLoader, proxyClassName, proxyBytes);
+        Class<T> proxyClass = org.hotswap.agent.plugin.owb.command.ProxyClassLoadingDelegate.defineAndLoadClass(this, classLoader, proxyClassName, proxyBytes);
+        if (proxyClasses != null)
+        {
+            proxyClasses.increment();
+        }
+        if (jfrEvent != null)
+        {
+            // failed generations are not of interest, they abort the deployment anyway
+            jfrEvent.commit();
+        }
+        return proxyClass;
     }
 
     private Method[] sortOutDuplicateMethods(Method[] methods)
@@ -21,7 +21,6 @@ package org.apache.webbeans.util;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -30,11 +29,9 @@ import java.util.Set;
 import javax.enterprise.inject.spi.AnnotatedMethod;
 import javax.enterprise.inject.spi.AnnotatedParameter;
 import javax.enterprise.inject.spi.AnnotatedType;
-import javax.enterprise.util.Nonbinding;
 
 import org.apache.webbeans.annotation.AnyLiteral;
 import org.apache.webbeans.annotation.DefaultLiteral;
-import org.apache.webbeans.exception.WebBeansException;
 
 /**
  * Utility class related with {@link Annotation} operations.
@@ -155,20 +152,6 @@ public final class AnnotationUtil
         throw new IllegalArgumentException("annotation @" + annotation.getName() + " not found on any parameter");
     }
 
-    private static boolean areParamEquals(Annotation annotation1, Annotation annotation2, List<Method> bindingCdiAnnotationMethods)
-    {
-        for (Method method : bindingCdiAnnotationMethods)
-        {
-            Object value1 = callMethod(annotation1, method);
-            Object value2 = callMethod(annotation2, method);
-            if (!checkEquality(value1, value2))
-            {
-                return false;
-            }
-        }
-        return true;
-    }
-
     /**
      * Checks if the given cdi annotations are equal. cdi annotations may either be qualifiers or interceptor bindings.
      *
@@ -195,9 +178,7 @@ public final class AnnotationUtil
 
         // check the values of all qualifier-methods
         // except those annotated with @Nonbinding
-        List<Method> bindingCdiAnnotationMethods = getBindingCdiAnnotationMethods(at);
-
-        return areParamEquals(annotation1, annotation2, bindingCdiAnnotationMethods);
+        return CdiAnnotationEquivalence.of(at).areEquivalent(annotation1, annotation2);
     }
 
     public static boolean isCdiAnnotationEqual(Annotation annotation1, Annotation annotation2)
@@ -230,10 +211,7 @@ public final class AnnotationUtil
 
         // check the values of all qualifier-methods
         // except those annotated with @Nonbinding
-        List<Method> bindingCdiAnnotationMethods
-                = getBindingCdiAnnotationMethods(qualifier1AnnotationType);
-
-        return areParamEquals(annotation1, annotation2, bindingCdiAnnotationMethods);
+        return CdiAnnotationEquivalence.of(qualifier1AnnotationType).areEquivalent(annotation1, annotation2);
     }
 
     /**
@@ -252,183 +230,7 @@ public final class AnnotationUtil
             return 0;
         }
 
-        int hashCode = 0;
-
-        Class<? extends Annotation> qualifierAnnotationType = annotation.annotationType();
-        if (qualifierAnnotationType != null)
-        {
-            hashCode = qualifierAnnotationType.hashCode();
-        }
-
-        // check the values of all qualifier-methods
-        // except those annotated with @Nonbinding
-        List<Method> bindingCdiAnnotationMethods
-                = getBindingCdiAnnotationMethods(qualifierAnnotationType);
-
-        for (Method method : bindingCdiAnnotationMethods)
-        {
-            Object value = callMethod(annotation, method);
-            if (value != null)
-            {
-                hashCode ^= value.hashCode();
-            }
-        }
-
-        return hashCode;
-    }
-
-    /**
-     * Quecks if the two values are equal.
-     *
-     * @param value1
-     * @param value2
-     * @return
-     */
-    private static boolean checkEquality(Object value1, Object value2)
-    {
-        if ((value1 == null && value2 != null) ||
-            (value1 != null && value2 == null))
-        {
-            return false;
-        }
-
-        if (value1 == null)
-        {
-            return true;
-        }
-
-        // now both values are != null
-
-        Class<?> valueClass = value1.getClass();
-
-        if (!valueClass.equals(value2.getClass()))
-        {
-            return false;
-        }
-
-        if (valueClass.isPrimitive())
-        {
-            // primitive types can be checked with ==
-            return value1 == value2;
-        }
-        else if (valueClass.isArray())
-        {
-            Class<?> arrayType = valueClass.getComponentType();
-
-            if (arrayType.isPrimitive())
-            {
-                if (Long.TYPE == arrayType)
-                {
-                    return Arrays.equals(((long[]) value1), (long[]) value2);
-                }
-                else if (Integer.TYPE == arrayType)
-                {
-                    return Arrays.equals(((int[]) value1), (int[]) value2);
-                }
-                else if (Short.TYPE == arrayType)
-                {
-                    return Arrays.equals(((short[]) value1), (short[]) value2);
-                }
-                else if (Double.TYPE == arrayType)
-                {
-                    return Arrays.equals(((double[]) value1), (double[]) value2);
-                }
-                else if (Float.TYPE == arrayType)
-                {
-                    return Arrays.equals(((float[]) value1), (float[]) value2);
-                }
-                else if (Boolean.TYPE == arrayType)
-                {
-                    return Arrays.equals(((boolean[]) value1), (boolean[]) value2);
-                }
-                else if (Byte.TYPE == arrayType)
-                {
-                    return Arrays.equals(((byte[]) value1), (byte[]) value2);
-                }
-                else if (Character.TYPE == arrayType)
-                {
-                    return Arrays.equals(((char[]) value1), (char[]) value2);
-                }
-                return false;
-            }
-            else
-            {
-                return Arrays.equals(((Object[]) value1), (Object[]) value2);
-            }
-        }
-        else
-        {
-            return value1.equals(value2);
-        }
-    }
-
-    /**
-     * Calls the given method on the given instance.
-     * Used to determine the values of annotation instances.
-     *
-     * @param instance
-     * @param method
-     * @return
-     */
-    private static Object callMethod(Object instance, Method method)
-    {
-        try
-        {
-            if (!method.isAccessible())
-            {
-                method.setAccessible(true);
-            }
-
-            return method.invoke(instance, EMPTY_OBJECT_ARRAY);
-        }
-        catch (Exception e)
-        {
-            throw new WebBeansException("Exception in method call : " + method.getName(), e);
-        }
-    }
-
-    /**
-     * Return a List of all methods of the qualifier,
-     * which are not annotated with @Nonbinding.
-     *
-     * @param qualifierAnnotationType
-     */
-    private static List<Method> getBindingCdiAnnotationMethods(Class<? extends Annotation> qualifierAnnotationType)
-    {
-        Method[] qualifierMethods = qualifierAnnotationType.getDeclaredMethods();
-
-        if (qualifierMethods.length > 0)
-        {
-            List<Method> bindingMethods = new ArrayList<>();
-
-            for (Method qualifierMethod : qualifierMethods)
-            {
-                if (!hasMethodAnnotation(qualifierMethod, Nonbinding.class))
-                {
-                    // no @Nonbinding found - add to list
-                    bindingMethods.add(qualifierMethod);
-                }
-            }
-
-            return bindingMethods;
-        }
-
-        // annotation has no methods
-        return Collections.emptyList();
-    }
-
-    private static List<Method> getBindingCdiAnnotationMethods(AnnotatedType<?> at)
-    {
-        List<Method> bindingMethods = new ArrayList<>();
-        for (AnnotatedMethod<?> method : at.getMethods())
-        {
-            if (method.isAnnotationPresent(Nonbinding.class))
-            {
-                continue;
-            }
-            bindingMethods.add(method.getJavaMember());
-        }
-        return bindingMethods;
+        return CdiAnnotationEquivalence.of(annotation.annotationType()).hashCode(annotation);
     }
 
     /**
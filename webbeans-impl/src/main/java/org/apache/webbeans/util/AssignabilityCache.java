@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.util;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the results of the assignability checks of {@link GenericsUtil}.
+ *
+ * Entries are keyed by the identity of the required and the bean type, which are usually
+ * the very same instances held by the injection points, beans and observer methods.
+ * The cache is a fixed size direct mapped table: a new entry replaces the one occupying
+ * its slot, so it never grows. Both types are only weakly referenced, so the cache doesn't
+ * prevent the class loaders of undeployed applications from getting collected.
+ * Reads and writes don't lock, a lost write only costs a recomputation.
+ *
+ * The cache is shared by all containers of the JVM, so its statistics are not
+ * the ones of a single container.
+ */
+public final class AssignabilityCache
+{
+    private final Entry[] entries;
+    private final int mask;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity the number of entries, gets rounded up to the next power of two
+     */
+    AssignabilityCache(int capacity)
+    {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        entries = new Entry[size];
+        mask = size - 1;
+    }
+
+    /**
+     * @param check identifies the check and its flags
+     * @return the remembered result or {@code null} if the pair isn't cached
+     */
+    Boolean get(int check, Type requiredType, Type beanType)
+    {
+        Entry entry = entries[index(check, requiredType, beanType)];
+        if (entry != null && entry.check == check && entry.get() == requiredType && entry.beanType.get() == beanType)
+        {
+            hits.increment();
+            return entry.result;
+        }
+        misses.increment();
+        return null;
+    }
+
+    void put(int check, Type requiredType, Type beanType, boolean result)
+    {
+        int index = index(check, requiredType, beanType);
+        Entry old = entries[index];
+        if (old != null && old.get() != null && old.beanType.get() != null)
+        {
+            evictions.increment();
+        }
+        entries[index] = new Entry(check, requiredType, beanType, result);
+    }
+
+    /**
+     * Forget all results, e.g. after classes got redefined.
+     * The statistics are kept.
+     */
+    public void clear()
+    {
+        Arrays.fill(entries, null);
+    }
+
+    public int getCapacity()
+    {
+        return entries.length;
+    }
+
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    /**
+     * @return the number of entries which got replaced while both of their types were still alive
+     */
+    public long getEvictionCount()
+    {
+        return evictions.sum();
+    }
+
+    private int index(int check, Type requiredType, Type beanType)
+    {
+        int hash = 31 * (31 * System.identityHashCode(requiredType) + System.identityHashCode(beanType)) + check;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static final class Entry extends WeakReference<Type>
+    {
+        private final int check;
+        private final WeakReference<Type> beanType;
+        private final Boolean result;
+
+        private Entry(int check, Type requiredType, Type beanType, boolean result)
+        {
+            super(requiredType);
+            this.check = check;
+            this.beanType = new WeakReference<>(beanType);
+            this.result = result;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.util;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiPredicate;
+import java.util.function.ToIntFunction;
+
+import javax.enterprise.inject.spi.AnnotatedMethod;
+import javax.enterprise.inject.spi.AnnotatedType;
+import javax.enterprise.util.Nonbinding;
+
+import org.apache.webbeans.exception.WebBeansException;
+
+/**
+ * The equivalence and hash function of a qualifier or interceptor binding type.
+ *
+ * The binding members, i.e. all members which are not annotated with {@link Nonbinding},
+ * get resolved once per annotation type. Each of them gets a getter and a comparison and
+ * hash function specialised for its return type, so comparing two annotations neither
+ * needs to look up the members nor to check their types again.
+ * The functions derived from the annotation class get cached per class, which doesn't
+ * prevent unloading the class. The ones derived from an {@link AnnotatedType} get cached
+ * per class as well, but only for the last AnnotatedType of the class, which is held weakly.
+ *
+ * Annotations are equivalent if they have the same annotation type and all their
+ * binding members return equal values. The hash code consists of the hash code of the
+ * annotation type and the ones of the values of the binding members.
+ */
+public final class CdiAnnotationEquivalence
+{
+    private static final ClassValue<CdiAnnotationEquivalence> EQUIVALENCES = new ClassValue<CdiAnnotationEquivalence>()
+    {
+        @Override
+        protected CdiAnnotationEquivalence computeValue(Class<?> annotationType)
+        {
+            List<Method> bindingMembers = new ArrayList<>();
+            for (Method member : annotationType.getDeclaredMethods())
+            {
+                if (!AnnotationUtil.hasMethodAnnotation(member, Nonbinding.class))
+                {
+                    bindingMembers.add(member);
+                }
+            }
+            return new CdiAnnotationEquivalence(annotationType, null, bindingMembers);
+        }
+    };
+
+    private static final ClassValue<AtomicReference<CdiAnnotationEquivalence>> ANNOTATED_TYPE_EQUIVALENCES
+        = new ClassValue<AtomicReference<CdiAnnotationEquivalence>>()
+    {
+        @Override
+        protected AtomicReference<CdiAnnotationEquivalence> computeValue(Class<?> annotationType)
+        {
+            return new AtomicReference<>();
+        }
+    };
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Annotation.class);
+
+    private final Class<?> annotationType;
+    private final WeakReference<AnnotatedType<?>> source;
+    private final Member[] members;
+
+    private CdiAnnotationEquivalence(Class<?> annotationType, AnnotatedType<?> source, List<Method> bindingMembers)
+    {
+        this.annotationType = annotationType;
+        this.source = source != null ? new WeakReference<>(source) : null;
+        members = new Member[bindingMembers.size()];
+        for (int i = 0; i < members.length; i++)
+        {
+            members[i] = new Member(bindingMembers.get(i));
+        }
+    }
+
+    /**
+     * @return the cached equivalence of the given qualifier or interceptor binding type
+     */
+    public static CdiAnnotationEquivalence of(Class<? extends Annotation> annotationType)
+    {
+        return EQUIVALENCES.get(annotationType);
+    }
+
+    /**
+     * The binding members of an AnnotatedType may differ from the ones of its class,
+     * e.g. if an Extension configured the qualifier. Only the equivalence of the last
+     * AnnotatedType of a class gets cached, usually there is only one per class.
+     *
+     * @return the equivalence of the given qualifier or interceptor binding model
+     */
+    public static CdiAnnotationEquivalence of(AnnotatedType<?> at)
+    {
+        AtomicReference<CdiAnnotationEquivalence> cache = ANNOTATED_TYPE_EQUIVALENCES.get(at.getJavaClass());
+        CdiAnnotationEquivalence cached = cache.get();
+        if (cached != null && cached.source.get() == at)
+        {
+            return cached;
+        }
+
+        List<Method> bindingMembers = new ArrayList<>();
+        for (AnnotatedMethod<?> method : at.getMethods())
+        {
+            if (!method.isAnnotationPresent(Nonbinding.class))
+            {
+                bindingMembers.add(method.getJavaMember());
+            }
+        }
+        CdiAnnotationEquivalence equivalence = new CdiAnnotationEquivalence(at.getJavaClass(), at, bindingMembers);
+        cache.set(equivalence);
+        return equivalence;
+    }
+
+    /**
+     * @return whether the annotation type has members which are not annotated with {@link Nonbinding}
+     */
+    public boolean hasBindingMembers()
+    {
+        return members.length > 0;
+    }
+
+    /**
+     * @return whether both annotations are of this type and all binding members are equal
+     */
+    public boolean areEquivalent(Annotation annotation1, Annotation annotation2)
+    {
+        if (annotation1 == annotation2)
+        {
+            return true;
+        }
+        Class<? extends Annotation> type = annotation1.annotationType();
+        if (type != annotation2.annotationType() || type != annotationType)
+        {
+            return false;
+        }
+        for (Member member : members)
+        {
+            if (!member.equality.test(member.get(annotation1), member.get(annotation2)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the hash code of the annotation type combined with the ones of all binding member values
+     */
+    public int hashCode(Annotation annotation)
+    {
+        int hashCode = annotationType.hashCode();
+        for (Member member : members)
+        {
+            Object value = member.get(annotation);
+            if (value != null)
+            {
+                hashCode ^= member.hash.applyAsInt(value);
+            }
+        }
+        return hashCode;
+    }
+
+    private static final class Member
+    {
+        private final String name;
+        private final MethodHandle getter;
+        private final BiPredicate<Object, Object> equality;
+        private final ToIntFunction<Object> hash;
+
+        private Member(Method method)
+        {
+            name = method.getName();
+            try
+            {
+                if (!method.isAccessible())
+                {
+                    method.setAccessible(true);
+                }
+            }
+            catch (RuntimeException e)
+            {
+                // public members of exported annotations still work
+            }
+            try
+            {
+                getter = MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE);
+            }
+            catch (IllegalAccessException e)
+            {
+                throw new WebBeansException("Can't access annotation member " + method, e);
+            }
+
+            Class<?> type = method.getReturnType();
+            if (!type.isArray())
+            {
+                equality = Objects::equals;
+                hash = Object::hashCode;
+            }
+            else if (!type.getComponentType().isPrimitive())
+            {
+                equality = (v1, v2) -> v1 == v2 || v1 != null && v2 != null && Arrays.equals((Object[]) v1, (Object[]) v2);
+                hash = v -> Arrays.hashCode((Object[]) v);
+            }
+            else if (type == int[].class)
+            {
+                equality = (v1, v2) -> v1 == v2 || v1 != null && v2 != null && Arrays.equals((int[]) v1, (int[]) v2);
+                hash = v -> Arrays.hashCode((int[]) v);
+            }
+            else if (type == long[].class)
+            {
+                equality = (v1, v2) -> v1 == v2 || v1 != null && v2 != null && Arrays.equals((long[]) v1, (long[]) v2);
+                hash = v -> Arrays.hashCode((long[]) v);
+            }
+            else if (type == boolean[].class)
+            {
+                equality = (v1, v2) -> v1 == v2 || v1 != null && v2 != null && Arrays.equals((boolean[]) v1, (boolean[]) v2);
+                hash = v -> Arrays.hashCode((boolean[]) v);
+            }
+            else if (type == byte[].class)
+            {
+                equality = (v1, v2) -> v1 == v2 || v1 != null && v2 != null && Arrays.equals((byte[]) v1, (byte[]) v2);
+                hash = v -> Arrays.hashCode((byte[]) v);
+            }
+            else if (type == char[].class)
+            {
+                equality = (v1, v2) -> v1 == v2 || v1 != null && v2 != null && Arrays.equals((char[]) v1, (char[]) v2);
+                hash = v -> Arrays.hashCode((char[]) v);
+            }
+            else if (type == short[].class)
+            {
+                equality = (v1, v2) -> v1 == v2 || v1 != null && v2 != null && Arrays.equals((short[]) v1, (short[]) v2);
+                hash = v -> Arrays.hashCode((short[]) v);
+            }
+            else if (type == float[].class)
+            {
+                equality = (v1, v2) -> v1 == v2 || v1 != null && v2 != null && Arrays.equals((float[]) v1, (float[]) v2);
+                hash = v -> Arrays.hashCode((float[]) v);
+            }
+            else
+            {
+                equality = (v1, v2) -> v1 == v2 || v1 != null && v2 != null && Arrays.equals((double[]) v1, (double[]) v2);
+                hash = v -> Arrays.hashCode((double[]) v);
+            }
+        }
+
+        private Object get(Annotation annotation)
+        {
+            try
+            {
+                return (Object) getter.invokeExact(annotation);
+            }
+            catch (RuntimeException | Error e)
+            {
+                throw e;
+            }
+            catch (Throwable t)
+            {
+                throw new WebBeansException("Exception in method call : " + name, t);
+            }
+        }
+    }
+}
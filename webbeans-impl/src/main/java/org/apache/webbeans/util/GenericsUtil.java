@@ -45,11 +45,74 @@ import org.apache.webbeans.config.OwbWildcardTypeImpl;
  */
 public final class GenericsUtil
 {
+    private static final int SATISFIES_DEPENDENCY = 0;
+    private static final int SATISFIES_DEPENDENCY_RAW = 1;
+    private static final int IS_ASSIGNABLE_FROM = 2;
+
+    private static final AssignabilityCache ASSIGNABILITY_CACHE = new AssignabilityCache(4096);
+
+    /**
+     * @return the cache remembering the results of {@link #satisfiesDependency(boolean, boolean, Type, Type)},
+     *         {@link #satisfiesDependencyRaw(boolean, boolean, Type, Type)} and
+     *         {@link #isAssignableFrom(boolean, boolean, Type, Type)}, shared by all containers
+     */
+    public static AssignabilityCache getAssignabilityCache()
+    {
+        return ASSIGNABILITY_CACHE;
+    }
+
     public static boolean satisfiesDependency(boolean isDelegateOrEvent, boolean isProducer, Type injectionPointType, Type beanType)
+    {
+        int check = getCheck(SATISFIES_DEPENDENCY, isDelegateOrEvent, isProducer);
+        Boolean cached = ASSIGNABILITY_CACHE.get(check, injectionPointType, beanType);
+        if (cached != null)
+        {
+            return cached;
+        }
+        boolean result = computeSatisfiesDependency(isDelegateOrEvent, isProducer, injectionPointType, beanType);
+        ASSIGNABILITY_CACHE.put(check, injectionPointType, beanType, result);
+        return result;
+    }
+
+    public static boolean satisfiesDependencyRaw(boolean isDelegateOrEvent, boolean isProducer, Type injectionPointType, Type beanType)
+    {
+        int check = getCheck(SATISFIES_DEPENDENCY_RAW, isDelegateOrEvent, isProducer);
+        Boolean cached = ASSIGNABILITY_CACHE.get(check, injectionPointType, beanType);
+        if (cached != null)
+        {
+            return cached;
+        }
+        boolean result = computeSatisfiesDependencyRaw(isDelegateOrEvent, isProducer, injectionPointType, beanType);
+        ASSIGNABILITY_CACHE.put(check, injectionPointType, beanType, result);
+        return result;
+    }
+
+    /**
+     * 5.2.3 and 5.2.4
+     */
+    public static boolean isAssignableFrom(boolean isDelegateOrEvent, boolean isProducer, Type requiredType, Type beanType)
+    {
+        int check = getCheck(IS_ASSIGNABLE_FROM, isDelegateOrEvent, isProducer);
+        Boolean cached = ASSIGNABILITY_CACHE.get(check, requiredType, beanType);
+        if (cached != null)
+        {
+            return cached;
+        }
+        boolean result = computeIsAssignableFrom(isDelegateOrEvent, isProducer, requiredType, beanType);
+        ASSIGNABILITY_CACHE.put(check, requiredType, beanType, result);
+        return result;
+    }
+
+    private static int getCheck(int check, boolean isDelegateOrEvent, boolean isProducer)
+    {
+        return check | (isDelegateOrEvent ? 4 : 0) | (isProducer ? 8 : 0);
+    }
+
+    private static boolean computeSatisfiesDependency(boolean isDelegateOrEvent, boolean isProducer, Type injectionPointType, Type beanType)
     {
         if (beanType instanceof TypeVariable || beanType instanceof WildcardType || beanType instanceof GenericArrayType)
         {
-            return isAssignableFrom(isDelegateOrEvent, isProducer, injectionPointType, beanType);
+            return computeIsAssignableFrom(isDelegateOrEvent, isProducer, injectionPointType, beanType);
         }
         else
         {
@@ -58,18 +121,18 @@ public final class GenericsUtil
             
             if  (ClassUtil.isSame(injectionPointRawType, beanRawType))
             {
-                return isAssignableFrom(isDelegateOrEvent, isProducer, injectionPointType, beanType);
+                return computeIsAssignableFrom(isDelegateOrEvent, isProducer, injectionPointType, beanType);
             }
         }
 
         return false;
     }
 
-    public static boolean satisfiesDependencyRaw(boolean isDelegateOrEvent, boolean isProducer, Type injectionPointType, Type beanType)
+    private static boolean computeSatisfiesDependencyRaw(boolean isDelegateOrEvent, boolean isProducer, Type injectionPointType, Type beanType)
     {
         if (beanType instanceof TypeVariable || beanType instanceof WildcardType || beanType instanceof GenericArrayType)
         {
-            return isAssignableFrom(isDelegateOrEvent, isProducer, injectionPointType, beanType);
+            return computeIsAssignableFrom(isDelegateOrEvent, isProducer, injectionPointType, beanType);
         }
         else
         {
@@ -78,7 +141,7 @@ public final class GenericsUtil
 
             if  (ClassUtil.isSame(injectionPointRawType, beanRawType))
             {
-                return isAssignableFrom(isDelegateOrEvent, isProducer, injectionPointRawType, beanRawType);
+                return computeIsAssignableFrom(isDelegateOrEvent, isProducer, injectionPointRawType, beanRawType);
             }
             else
             {
@@ -107,10 +170,7 @@ public final class GenericsUtil
         return false;
     }
 
-    /**
-     * 5.2.3 and 5.2.4
-     */
-    public static boolean isAssignableFrom(boolean isDelegateOrEvent, boolean isProducer, Type requiredType, Type beanType)
+    private static boolean computeIsAssignableFrom(boolean isDelegateOrEvent, boolean isProducer, Type requiredType, Type beanType)
     {
         if (requiredType instanceof Class)
         {
@@ -22,7 +22,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectStreamClass;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class OwbCustomObjectInputStream extends ObjectInputStream
 {
@@ -32,18 +37,50 @@ public class OwbCustomObjectInputStream extends ObjectInputStream
             "org.codehaus.groovy.runtime.,org.apache.commons.collections.functors.,org.apache.xalan")),
         toArray(System.getProperty("openwebbeans.serialization.class.whitelist")));
 
+    /**
+     * Already resolved and checked classes per ClassLoader.
+     * Neither the ClassLoaders nor the classes get hard referenced, so undeployed applications don't leak.
+     */
+    private static final Map<ClassLoader, ConcurrentMap<String, WeakReference<Class<?>>>> RESOLVED_CLASSES = new WeakHashMap<>();
+
     private ClassLoader classLoader;
+    private final ConcurrentMap<String, WeakReference<Class<?>>> resolvedClasses;
 
     public OwbCustomObjectInputStream(InputStream in, ClassLoader classLoader) throws IOException
     {
         super(in);
         this.classLoader = classLoader;
+        this.resolvedClasses = getResolvedClasses(classLoader);
     }
     
     @Override
     protected Class<?> resolveClass(ObjectStreamClass desc) throws ClassNotFoundException
     {
-        return Class.forName(BLACKLIST_CLASSES.check(desc.getName()), false, classLoader);
+        String name = desc.getName();
+        WeakReference<Class<?>> cached = resolvedClasses != null ? resolvedClasses.get(name) : null;
+        Class<?> resolved = cached != null ? cached.get() : null;
+        if (resolved == null)
+        {
+            resolved = Class.forName(BLACKLIST_CLASSES.check(name), false, classLoader);
+            if (resolvedClasses != null)
+            {
+                resolvedClasses.put(name, new WeakReference<>(resolved));
+            }
+        }
+        return resolved;
+    }
+
+    private static ConcurrentMap<String, WeakReference<Class<?>>> getResolvedClasses(ClassLoader classLoader)
+    {
+        if (classLoader == null)
+        {
+            return null;
+        }
+
+        synchronized (RESOLVED_CLASSES)
+        {
+            return RESOLVED_CLASSES.computeIfAbsent(classLoader, cl -> new ConcurrentHashMap<>());
+        }
     }
 
     @Override
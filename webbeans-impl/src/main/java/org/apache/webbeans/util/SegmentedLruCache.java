@@ -0,0 +1,343 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.util;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A size bounded cache with segmented LRU eviction.
+ *
+ * New entries go to the probation segment. Entries which get hit again move to the protected
+ * segment, which holds up to 80% of the entries. The least recently used protected entries get
+ * demoted to the probation segment if it overflows, and evictions always take the least recently
+ * used probation entry. So entries which got used only once, e.g. lookups of generated types,
+ * can't push out the frequently used ones.
+ *
+ * Reads don't block: they update the recency if the lock is free at that moment. Otherwise
+ * they only flag the entry, which then gets a second chance instead of getting evicted or demoted.
+ * So hot entries survive even if the lock is always busy when they get read.
+ * Writes are serialised. {@code null} keys and values are not supported.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class SegmentedLruCache<K, V> extends AbstractMap<K, V>
+{
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    private final Map<K, Node<K, V>> data = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final int maximumSize;
+    private final int protectedMaximumSize;
+
+    /**
+     * Sentinels of the two circular lists, the most recently used entry is the next of the sentinel.
+     */
+    private final Node<K, V> probation = new Node<>(null, null);
+    private final Node<K, V> protectedSegment = new Node<>(null, null);
+    private int protectedSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize the maximum number of entries, must be positive
+     */
+    public SegmentedLruCache(int maximumSize)
+    {
+        if (maximumSize <= 0)
+        {
+            throw new IllegalArgumentException("maximumSize must be positive but is " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        protectedMaximumSize = (int) ((long) maximumSize * PROTECTED_PERCENTAGE / 100);
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    @Override
+    public V get(Object key)
+    {
+        Node<K, V> node = data.get(key);
+        if (node == null)
+        {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        if (lock.tryLock())
+        {
+            try
+            {
+                onAccess(node);
+            }
+            finally
+            {
+                lock.unlock();
+            }
+        }
+        else if (!node.accessed)
+        {
+            node.accessed = true;
+        }
+        return node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return data.containsKey(key);
+    }
+
+    @Override
+    public V put(K key, V value)
+    {
+        Asserts.assertNotNull(value, "value");
+        lock.lock();
+        try
+        {
+            Node<K, V> node = data.get(key);
+            if (node != null)
+            {
+                V old = node.value;
+                node.value = value;
+                return old;
+            }
+
+            node = new Node<>(key, value);
+            data.put(key, node);
+            node.linkAfter(probation);
+            while (data.size() > maximumSize)
+            {
+                evict();
+            }
+            return null;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public V remove(Object key)
+    {
+        lock.lock();
+        try
+        {
+            Node<K, V> node = data.remove(key);
+            if (node == null)
+            {
+                return null;
+            }
+            unlink(node);
+            return node.value;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void clear()
+    {
+        lock.lock();
+        try
+        {
+            data.clear();
+            probation.clear();
+            protectedSegment.clear();
+            protectedSize = 0;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        return data.size();
+    }
+
+    /**
+     * @return a snapshot of the cached entries
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet()
+    {
+        Map<K, V> snapshot = new HashMap<>();
+        for (Node<K, V> node : data.values())
+        {
+            snapshot.put(node.key, node.value);
+        }
+        return Collections.unmodifiableMap(snapshot).entrySet();
+    }
+
+    public int getMaximumSize()
+    {
+        return maximumSize;
+    }
+
+    /**
+     * @return the number of entries in the protected segment
+     */
+    public int getProtectedSize()
+    {
+        return protectedSize;
+    }
+
+    public long getHitCount()
+    {
+        return hits.sum();
+    }
+
+    public long getMissCount()
+    {
+        return misses.sum();
+    }
+
+    public long getEvictionCount()
+    {
+        return evictions.sum();
+    }
+
+    private void onAccess(Node<K, V> node)
+    {
+        if (node.prev == null)
+        {
+            // got removed concurrently
+            return;
+        }
+        node.accessed = false;
+        node.unlink();
+        if (!node.isProtected)
+        {
+            node.isProtected = true;
+            protectedSize++;
+        }
+        node.linkAfter(protectedSegment);
+
+        while (protectedSize > protectedMaximumSize)
+        {
+            Node<K, V> demoted = protectedSegment.prev;
+            demoted.unlink();
+            if (demoted.accessed)
+            {
+                // got read while the lock was busy, second chance
+                demoted.accessed = false;
+                demoted.linkAfter(protectedSegment);
+                continue;
+            }
+            demoted.isProtected = false;
+            protectedSize--;
+            demoted.linkAfter(probation);
+        }
+    }
+
+    private void evict()
+    {
+        Node<K, V> victim = probation.prev != probation ? probation.prev : protectedSegment.prev;
+        while (victim.accessed)
+        {
+            // got read while the lock was busy, second chance
+            onAccess(victim);
+            victim = probation.prev != probation ? probation.prev : protectedSegment.prev;
+        }
+        unlink(victim);
+        data.remove(victim.key);
+        evictions.increment();
+    }
+
+    private void unlink(Node<K, V> node)
+    {
+        if (node.isProtected)
+        {
+            protectedSize--;
+        }
+        node.unlink();
+    }
+
+    private static final class Node<K, V>
+    {
+        private final K key;
+        private volatile V value;
+        private boolean isProtected;
+
+        /**
+         * Whether the node got read while the lock was busy.
+         */
+        private volatile boolean accessed;
+
+        // guarded by the lock, null once the node got unlinked
+        private Node<K, V> prev;
+        private Node<K, V> next;
+
+        private Node(K key, V value)
+        {
+            this.key = key;
+            this.value = value;
+        }
+
+        private void linkAfter(Node<K, V> sentinel)
+        {
+            prev = sentinel;
+            next = sentinel.next;
+            sentinel.next.prev = this;
+            sentinel.next = this;
+        }
+
+        private void unlink()
+        {
+            prev.next = next;
+            next.prev = prev;
+            prev = null;
+            next = null;
+        }
+
+        /**
+         * Only used for sentinels, unlinks all nodes of the list, so concurrent reads of them
+         * don't touch the list anymore.
+         */
+        private void clear()
+        {
+            Node<K, V> current = next;
+            while (current != null && current != this)
+            {
+                Node<K, V> following = current.next;
+                current.prev = null;
+                current.next = null;
+                current = following;
+            }
+            prev = this;
+            next = this;
+        }
+    }
+}
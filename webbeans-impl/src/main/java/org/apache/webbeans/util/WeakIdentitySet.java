@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.util;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Remembers objects by their identity without preventing them from getting garbage collected.
+ * Neither equals nor hashCode of the objects get invoked.
+ * Entries of collected objects get purged on the next access.
+ *
+ * This class is not thread safe.
+ *
+ * @param <E> element type
+ */
+public final class WeakIdentitySet<E>
+{
+    private final ReferenceQueue<E> queue = new ReferenceQueue<>();
+    private final Set<IdentityReference<?>> references = new HashSet<>();
+
+    public void add(E element)
+    {
+        Asserts.assertNotNull(element, "element");
+        purge();
+        references.add(new IdentityReference<>(element, queue));
+    }
+
+    /**
+     * @return whether the given object was contained
+     */
+    public boolean remove(Object element)
+    {
+        purge();
+        return element != null && references.remove(new IdentityReference<>(element, null));
+    }
+
+    /**
+     * @return the number of not yet collected elements
+     */
+    public int size()
+    {
+        purge();
+        return references.size();
+    }
+
+    public void clear()
+    {
+        purge();
+        references.clear();
+    }
+
+    private void purge()
+    {
+        Reference<?> collected;
+        while ((collected = queue.poll()) != null)
+        {
+            references.remove(collected);
+        }
+    }
+
+    private static final class IdentityReference<T> extends WeakReference<T>
+    {
+        private final int hashCode;
+
+        private IdentityReference(T referent, ReferenceQueue<? super T> queue)
+        {
+            super(referent, queue);
+            hashCode = System.identityHashCode(referent);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object other)
+        {
+            if (this == other)
+            {
+                return true;
+            }
+            if (!(other instanceof IdentityReference))
+            {
+                return false;
+            }
+            Object referent = get();
+            return referent != null && referent == ((IdentityReference<?>) other).get();
+        }
+    }
+}
@@ -726,10 +726,15 @@ public final class WebBeansUtil
      * Returns <code>ProcessAnnotatedType</code> event.
      * @param <T> bean type
      * @param annotatedType bean class
-     * @return event
+     * @return event or {@code null} if no Extension observes ProcessAnnotatedType
      */
     public <T> GProcessAnnotatedType fireProcessAnnotatedTypeEvent(AnnotatedType<T> annotatedType)
     {
+        if (!hasLifecycleEventObserver(GProcessAnnotatedType.class))
+        {
+            return null;
+        }
+
         GProcessAnnotatedType processAnnotatedEvent = new GProcessAnnotatedType(webBeansContext, annotatedType);
 
         //Fires ProcessAnnotatedType
@@ -747,10 +752,15 @@ public final class WebBeansUtil
      * Returns <code>ProcessAnnotatedType</code> event.
      * @param <T> bean type
      * @param annotatedType bean class
-     * @return event
+     * @return event or {@code null} if no Extension observes ProcessSyntheticAnnotatedType
      */
     public <T> GProcessSyntheticAnnotatedType fireProcessSyntheticAnnotatedTypeEvent(AnnotatedType<T> annotatedType)
     {
+        if (!hasLifecycleEventObserver(GProcessSyntheticAnnotatedType.class))
+        {
+            return null;
+        }
+
         Extension source = AnnotatedTypeWrapper.class.isInstance(annotatedType) ? AnnotatedTypeWrapper.class.cast(annotatedType).getSource() : null;
         GProcessSyntheticAnnotatedType gProcessSyntheticAnnotatedType = new GProcessSyntheticAnnotatedType(webBeansContext, source, annotatedType);
 
@@ -767,10 +777,15 @@ public final class WebBeansUtil
 
     /**
      * @param injectionPoint the original {@link InjectionPoint}
-     * @return fired {@link ProcessInjectionPoint} event
+     * @return fired {@link ProcessInjectionPoint} event or {@code null} if no Extension observes it
      */
     public GProcessInjectionPoint fireProcessInjectionPointEvent(InjectionPoint injectionPoint)
     {
+        if (!hasLifecycleEventObserver(GProcessInjectionPoint.class))
+        {
+            return null;
+        }
+
         GProcessInjectionPoint event = new GProcessInjectionPoint(injectionPoint);
         webBeansContext.getBeanManagerImpl().fireEvent(event, true, AnnotationUtil.EMPTY_ANNOTATION_ARRAY);
         return event;
@@ -779,10 +794,15 @@ public final class WebBeansUtil
     /**
      * Returns <code>ProcessInjectionTarget</code> event.
      * @param <T> bean type
-     * @return event
+     * @return event or {@code null} if no Extension observes ProcessInjectionTarget
      */
     public <T> GProcessInjectionTarget fireProcessInjectionTargetEvent(InjectionTargetImpl<T> injectionTarget, AnnotatedType<T> annotatedType)
     {
+        if (!hasLifecycleEventObserver(GProcessInjectionTarget.class))
+        {
+            return null;
+        }
+
         GProcessInjectionTarget processInjectionTargetEvent = new GProcessInjectionTarget(injectionTarget, annotatedType);
         return fireProcessInjectionTargetEvent(processInjectionTargetEvent);
     }
@@ -797,12 +817,17 @@ public final class WebBeansUtil
     /**
      * Returns <code>ProcessInjectionTarget</code> event.
      * @param <T> bean type
-     * @return event
+     * @return event or {@code null} if no Extension observes ProcessInjectionTarget
      */
     public <T> GProcessInjectionTarget fireProcessInjectionTargetEventForJavaEeComponents(Class<T> componentClass)
     {
         AnnotatedType<T> annotatedType = webBeansContext.getAnnotatedElementFactory().newAnnotatedType(componentClass);
         InjectionTargetImpl<T> injectionTarget = InjectionTargetImpl.class.cast(webBeansContext.getBeanManagerImpl().createInjectionTarget(annotatedType));
+        if (!hasLifecycleEventObserver(GProcessInjectionTarget.class))
+        {
+            return null;
+        }
+
         GProcessInjectionTarget processInjectionTargetEvent = new GProcessInjectionTarget(injectionTarget,annotatedType);
 
         //Fires ProcessInjectionTarget
@@ -812,6 +837,11 @@ public final class WebBeansUtil
 
     public <T> Producer<T> fireProcessProducerEvent(Producer<T> producer, AnnotatedMember<?> annotatedMember)
     {
+        if (!hasLifecycleEventObserver(GProcessProducer.class))
+        {
+            return producer;
+        }
+
         GProcessProducer processProducerEvent = new GProcessProducer(producer, annotatedMember);
         //Fires ProcessProducer
         webBeansContext.getBeanManagerImpl().fireEvent(processProducerEvent, true, AnnotationUtil.EMPTY_ANNOTATION_ARRAY);
@@ -823,6 +853,11 @@ public final class WebBeansUtil
 
     public void fireProcessProducerMethodBeanEvent(Map<ProducerMethodBean<?>, AnnotatedMethod<?>> annotatedMethods, AnnotatedType<?> annotatedType)
     {
+        if (annotatedMethods.isEmpty() || !hasLifecycleEventObserver(GProcessProducerMethod.class))
+        {
+            return;
+        }
+
         WebBeansContext webBeansContext = this.webBeansContext;
         AnnotationManager annotationManager = webBeansContext.getAnnotationManager();
 
@@ -857,6 +892,11 @@ public final class WebBeansUtil
 
     public void fireProcessProducerFieldBeanEvent(Map<ProducerFieldBean<?>,AnnotatedField<?>> annotatedFields)
     {
+        if (annotatedFields.isEmpty() || !hasLifecycleEventObserver(GProcessProducerField.class))
+        {
+            return;
+        }
+
         for(Map.Entry<ProducerFieldBean<?>, AnnotatedField<?>> beanEntry : annotatedFields.entrySet())
         {
             ProducerFieldBean<?> bean = beanEntry.getKey();
@@ -1630,6 +1670,11 @@ public final class WebBeansUtil
         return false;
     }
 
+    /**
+     * Only needs to get invoked if {@link #hasLifecycleEventObserver(Class)} for {@link GProcessBeanAttributes}.
+     * Otherwise the original BeanAttributes are to be used as they are.
+     * @return the fired event or {@code null} if the bean got vetoed
+     */
     public <T> ProcessBeanAttributesImpl<T> fireProcessBeanAttributes(Annotated annotatedType, Class<?> type, BeanAttributes<T> ba)
     {
         // we don't use bm stack since it is actually quite useless
@@ -1665,6 +1710,16 @@ public final class WebBeansUtil
         return event;
     }
 
+    /**
+     * @param lifecycleEventClass the container lifecycle event implementation class
+     * @return whether it makes sense to create and fire the given event at all
+     * @see org.apache.webbeans.event.NotificationManager#hasLifecycleEventObserver(Class)
+     */
+    public boolean hasLifecycleEventObserver(Class<?> lifecycleEventClass)
+    {
+        return webBeansContext.getNotificationManager().hasLifecycleEventObserver(lifecycleEventClass);
+    }
+
     public void validateBeanInjection(Bean<?> bean)
     {
         for (InjectionPoint injectionPoint : bean.getInjectionPoints())
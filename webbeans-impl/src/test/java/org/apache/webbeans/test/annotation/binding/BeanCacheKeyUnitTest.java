@@ -282,6 +282,17 @@ public class BeanCacheKeyUnitTest
         Assert.assertFalse(a.hashCode() == b.hashCode());
     }
 
+    @Test
+    public void testBindingMembersSpreadHashCode()
+    {
+        BeanCacheKey a = new BeanCacheKey(true, String.class, null, it -> null, a4);
+        BeanCacheKey b = new BeanCacheKey(true, String.class, null, it -> null, a5);
+        Assert.assertFalse(a.hashCode() == b.hashCode());
+
+        BeanCacheKey c = new BeanCacheKey(true, String.class, null, it -> null, a7);
+        BeanCacheKey d = new BeanCacheKey(true, String.class, null, it -> null, a8);
+        Assert.assertFalse(c.hashCode() == d.hashCode());
+    }
 
     @Test
     public void testDelegateUnequal()
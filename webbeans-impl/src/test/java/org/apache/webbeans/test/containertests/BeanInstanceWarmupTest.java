@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.containertests;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.spi.Bean;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.container.BeanInstanceWarmup;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BeanInstanceWarmupTest extends AbstractUnitTest
+{
+    private static final List<String> CREATED = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void enableWarmup()
+    {
+        System.setProperty(OpenWebBeansConfiguration.WARMUP_ENABLED, "true");
+        CREATED.clear();
+    }
+
+    @After
+    public void disableWarmup()
+    {
+        System.clearProperty(OpenWebBeansConfiguration.WARMUP_ENABLED);
+        System.clearProperty(OpenWebBeansConfiguration.WARMUP_BEANS);
+    }
+
+    @Test
+    public void testInstancesGetCreatedInDependencyOrder()
+    {
+        startContainer(Configuration.class, Service.class, Helper.class, Consumer.class);
+
+        // all got created during the boot
+        Assert.assertEquals(3, CREATED.size());
+        Assert.assertEquals(Configuration.class.getSimpleName(), CREATED.get(0));
+        Assert.assertTrue(CREATED.contains(Service.class.getSimpleName()));
+        Assert.assertTrue(CREATED.contains(Consumer.class.getSimpleName()));
+
+        BeanInstanceWarmup warmup = getWebBeansContext().getBeanInstanceWarmup();
+        Map<Bean<?>, Long> creationTimes = warmup.getCreationTimes();
+        Assert.assertTrue(creationTimes.containsKey(getBean(Configuration.class)));
+        Assert.assertTrue(creationTimes.containsKey(getBean(Service.class)));
+        Assert.assertTrue(creationTimes.containsKey(getBean(Consumer.class)));
+        Assert.assertEquals(0, warmup.getFailedBeanCount());
+        Assert.assertTrue(warmup.getWarmupTime() > 0);
+
+        // no further instances
+        getInstance(Service.class).getValue();
+        getInstance(Consumer.class).getValue();
+        Assert.assertEquals(3, CREATED.size());
+    }
+
+    @Test
+    public void testOnlySelectedBeansGetWarmedUp()
+    {
+        System.setProperty(OpenWebBeansConfiguration.WARMUP_BEANS, Consumer.class.getName());
+        startContainer(Configuration.class, Service.class, Helper.class, Consumer.class);
+
+        Assert.assertEquals(1, CREATED.size());
+        Assert.assertEquals(Consumer.class.getSimpleName(), CREATED.get(0));
+        Assert.assertEquals(1, getWebBeansContext().getBeanInstanceWarmup().getCreationTimes().size());
+    }
+
+    @ApplicationScoped
+    public static class Configuration
+    {
+        @PostConstruct
+        public void init()
+        {
+            CREATED.add(Configuration.class.getSimpleName());
+        }
+
+        public String getValue()
+        {
+            return "value";
+        }
+    }
+
+    @Singleton
+    public static class Service
+    {
+        @Inject
+        private Configuration configuration;
+
+        @PostConstruct
+        public void init()
+        {
+            CREATED.add(Service.class.getSimpleName());
+        }
+
+        public String getValue()
+        {
+            return configuration.getValue();
+        }
+    }
+
+    public static class Helper
+    {
+        @Inject
+        private Configuration configuration;
+
+        public String getValue()
+        {
+            return configuration.getValue();
+        }
+    }
+
+    @ApplicationScoped
+    public static class Consumer
+    {
+        @Inject
+        private Helper helper;
+
+        @PostConstruct
+        public void init()
+        {
+            CREATED.add(Consumer.class.getSimpleName());
+        }
+
+        public String getValue()
+        {
+            return helper.getValue();
+        }
+    }
+}
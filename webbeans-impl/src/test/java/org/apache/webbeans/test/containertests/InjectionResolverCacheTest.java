@@ -0,0 +1,193 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.containertests;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.spi.Bean;
+import javax.inject.Named;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.container.BeanCacheKey;
+import org.apache.webbeans.container.InjectionResolver;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.apache.webbeans.util.SegmentedLruCache;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InjectionResolverCacheTest extends AbstractUnitTest
+{
+    @After
+    public void resetCacheSize()
+    {
+        System.clearProperty(OpenWebBeansConfiguration.INJECTION_RESOLVER_CACHE_SIZE);
+    }
+
+    @Test
+    public void testUnboundedByDefault()
+    {
+        startContainer(Service.class);
+
+        InjectionResolver injectionResolver = getWebBeansContext().getBeanManagerImpl().getInjectionResolver();
+        Assert.assertNull(injectionResolver.getBoundedResolvedBeansByType());
+        Assert.assertNull(injectionResolver.getBoundedResolvedBeansByName());
+        Assert.assertNotNull(getInstance(Service.class));
+    }
+
+    @Test
+    public void testHotEntriesSurviveDynamicLookups()
+    {
+        System.setProperty(OpenWebBeansConfiguration.INJECTION_RESOLVER_CACHE_SIZE, "10");
+        startContainer(Service.class);
+
+        InjectionResolver injectionResolver = getWebBeansContext().getBeanManagerImpl().getInjectionResolver();
+        SegmentedLruCache<String, Set<Bean<?>>> byName = injectionResolver.getBoundedResolvedBeansByName();
+        SegmentedLruCache<BeanCacheKey, Set<Bean<?>>> byType = injectionResolver.getBoundedResolvedBeansByType();
+        Assert.assertNotNull(byType);
+        Assert.assertEquals(10, byName.getMaximumSize());
+
+        // the container might already have resolved some names during the boot
+        injectionResolver.clearCaches();
+        long bootEvictions = byName.getEvictionCount();
+        long bootHits = byName.getHitCount();
+        long bootMisses = byName.getMissCount();
+
+        Assert.assertEquals(1, getBeanManager().getBeans("service").size());
+        Assert.assertEquals(1, getBeanManager().getBeans("service").size());
+        for (int i = 0; i < 100; i++)
+        {
+            Assert.assertTrue(getBeanManager().getBeans("generated" + i).isEmpty());
+        }
+
+        Assert.assertEquals(10, byName.size());
+        Assert.assertEquals(bootEvictions + 91, byName.getEvictionCount());
+        Assert.assertTrue(byName.containsKey("service"));
+        Assert.assertEquals(bootHits + 1, byName.getHitCount());
+        Assert.assertEquals(bootMisses + 101, byName.getMissCount());
+        Assert.assertEquals(1, getBeanManager().getBeans("service").size());
+        Assert.assertEquals(bootHits + 2, byName.getHitCount());
+
+        Assert.assertEquals("called", getInstance(Service.class).call());
+        Assert.assertTrue(byType.size() <= 10);
+    }
+
+    @Test
+    public void testSegmentedLru()
+    {
+        SegmentedLruCache<String, String> cache = new SegmentedLruCache<>(5);
+        cache.put("hot", "1");
+        cache.put("warm", "2");
+        Assert.assertEquals("1", cache.get("hot"));
+        Assert.assertEquals("2", cache.get("warm"));
+        Assert.assertEquals(2, cache.getProtectedSize());
+
+        for (int i = 0; i < 20; i++)
+        {
+            cache.put("once" + i, "x");
+        }
+        Assert.assertEquals(5, cache.size());
+        Assert.assertEquals(17, cache.getEvictionCount());
+        Assert.assertEquals("1", cache.get("hot"));
+        Assert.assertEquals("2", cache.get("warm"));
+        Assert.assertNull(cache.get("once0"));
+        Assert.assertEquals("x", cache.get("once19"));
+
+        // the protected segment holds 4 entries, the least recently used one gets demoted
+        cache.get("once18");
+        cache.get("once17");
+        Assert.assertEquals(4, cache.getProtectedSize());
+        cache.put("new", "y");
+        Assert.assertNull(cache.get("hot"));
+        Assert.assertEquals("2", cache.get("warm"));
+
+        Assert.assertEquals("y", cache.remove("new"));
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getProtectedSize());
+        cache.put("again", "z");
+        Assert.assertEquals("z", cache.get("again"));
+    }
+
+    @Test
+    public void testReadsWhileLockedGiveSecondChance() throws Exception
+    {
+        SegmentedLruCache<Object, String> cache = new SegmentedLruCache<>(5);
+        cache.put("hot", "1");
+
+        // the writer holds the lock while it looks up its key
+        BlockingKey blockingKey = new BlockingKey();
+        Thread writer = new Thread(() -> cache.put(blockingKey, "b"));
+        writer.start();
+        Assert.assertTrue(blockingKey.entered.await(10, TimeUnit.SECONDS));
+        try
+        {
+            Assert.assertEquals("1", cache.get("hot"));
+            Assert.assertEquals(0, cache.getProtectedSize());
+        }
+        finally
+        {
+            blockingKey.release.countDown();
+        }
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertFalse(writer.isAlive());
+
+        for (int i = 0; i < 20; i++)
+        {
+            cache.put("once" + i, "x");
+        }
+        Assert.assertEquals(5, cache.size());
+        Assert.assertEquals("1", cache.get("hot"));
+        Assert.assertNull(cache.get(blockingKey));
+    }
+
+    private static final class BlockingKey
+    {
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public int hashCode()
+        {
+            entered.countDown();
+            try
+            {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            return 42;
+        }
+    }
+
+    @Named("service")
+    @ApplicationScoped
+    public static class Service
+    {
+        public String call()
+        {
+            return "called";
+        }
+    }
+}
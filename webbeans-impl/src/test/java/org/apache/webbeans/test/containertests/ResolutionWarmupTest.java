@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.containertests;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.Dependent;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.AfterBeanDiscovery;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.InjectionPoint;
+import javax.inject.Inject;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.container.ResolutionWarmup;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResolutionWarmupTest extends AbstractUnitTest
+{
+    @After
+    public void disableWarmup()
+    {
+        System.clearProperty(OpenWebBeansConfiguration.BACKGROUND_WARMUP_ENABLED);
+    }
+
+    @Test
+    public void testNotStartedIsDone()
+    {
+        startContainer(Greeting.class, Greeter.class);
+
+        ResolutionWarmup warmup = getWebBeansContext().getResolutionWarmup();
+        Assert.assertTrue(warmup.isDone());
+        Assert.assertEquals(0, warmup.getBeanCount());
+        Assert.assertEquals(1, warmup.getProgress(), 0);
+    }
+
+    @Test
+    public void testProxiesAndInjectionPointsGetPrepared() throws Exception
+    {
+        System.setProperty(OpenWebBeansConfiguration.BACKGROUND_WARMUP_ENABLED, "true");
+        Greeting.created = 0;
+        startContainer(Greeting.class, Greeter.class);
+
+        ResolutionWarmup warmup = getWebBeansContext().getResolutionWarmup();
+        Assert.assertTrue(warmup.awaitCompletion(1, TimeUnit.MINUTES));
+        Assert.assertTrue(warmup.isDone());
+        Assert.assertTrue(warmup.getBeanCount() > 0);
+        Assert.assertEquals(warmup.getBeanCount(), warmup.getCompletedBeanCount());
+        Assert.assertEquals(1, warmup.getProgress(), 0);
+
+        // only the proxy got created
+        Assert.assertEquals(0, Greeting.created);
+        Bean<Greeting> bean = getBean(Greeting.class);
+        Object proxy = getBeanManager().getReference(bean, Greeting.class, getBeanManager().createCreationalContext(bean));
+        Assert.assertSame(proxy, getBeanManager().getReference(bean, Greeting.class, getBeanManager().createCreationalContext(bean)));
+
+        Assert.assertEquals("Hello", getInstance(Greeter.class).greet());
+        Assert.assertEquals(1, Greeting.created);
+    }
+
+    @Test
+    public void testCloseReleasesWaitingThreads() throws Exception
+    {
+        System.setProperty(OpenWebBeansConfiguration.BACKGROUND_WARMUP_ENABLED, "true");
+        addExtension(new BlockingBeansExtension());
+        startContainer(Greeting.class, Greeter.class);
+
+        // the single warm-up thread blocks in one of the two beans, so the other one is still queued
+        ResolutionWarmup warmup = getWebBeansContext().getResolutionWarmup();
+        Assert.assertTrue(BlockingBean.ENTERED.await(1, TimeUnit.MINUTES));
+        Assert.assertFalse(warmup.isDone());
+
+        warmup.close();
+
+        Assert.assertFalse(warmup.awaitCompletion(1, TimeUnit.MINUTES));
+        Assert.assertTrue(warmup.isDone());
+        Assert.assertTrue(warmup.getCompletedBeanCount() < warmup.getBeanCount());
+    }
+
+    @RequestScoped
+    public static class Greeting
+    {
+        private static int created;
+
+        @PostConstruct
+        public void init()
+        {
+            created++;
+        }
+
+        public String getText()
+        {
+            return "Hello";
+        }
+    }
+
+    public static class BlockingBeansExtension implements Extension
+    {
+        public void addBeans(@Observes AfterBeanDiscovery afterBeanDiscovery)
+        {
+            afterBeanDiscovery.addBean(new BlockingBean());
+            afterBeanDiscovery.addBean(new BlockingBean());
+        }
+    }
+
+    /**
+     * Blocks the warm-up thread which asks it for its injection points until it gets interrupted.
+     */
+    public static class BlockingBean implements Bean<BlockingBean>
+    {
+        private static final CountDownLatch ENTERED = new CountDownLatch(1);
+
+        @Override
+        public Set<InjectionPoint> getInjectionPoints()
+        {
+            if (Thread.currentThread().getName().startsWith("OpenWebBeans-BackgroundWarmup"))
+            {
+                ENTERED.countDown();
+                try
+                {
+                    new CountDownLatch(1).await(1, TimeUnit.MINUTES);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Class<?> getBeanClass()
+        {
+            return BlockingBean.class;
+        }
+
+        @Override
+        public boolean isNullable()
+        {
+            return false;
+        }
+
+        @Override
+        public BlockingBean create(CreationalContext<BlockingBean> creationalContext)
+        {
+            return this;
+        }
+
+        @Override
+        public void destroy(BlockingBean instance, CreationalContext<BlockingBean> creationalContext)
+        {
+            // nothing to do
+        }
+
+        @Override
+        public Set<Type> getTypes()
+        {
+            return Collections.singleton(Object.class);
+        }
+
+        @Override
+        public Set<Annotation> getQualifiers()
+        {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Class<? extends Annotation> getScope()
+        {
+            return Dependent.class;
+        }
+
+        @Override
+        public String getName()
+        {
+            return null;
+        }
+
+        @Override
+        public Set<Class<? extends Annotation>> getStereotypes()
+        {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public boolean isAlternative()
+        {
+            return false;
+        }
+    }
+
+    public static class Greeter
+    {
+        @Inject
+        private Greeting greeting;
+
+        public String greet()
+        {
+            return greeting.getText();
+        }
+    }
+}
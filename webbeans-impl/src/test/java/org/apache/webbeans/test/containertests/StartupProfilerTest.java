@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.containertests;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.AfterBeanDiscovery;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.ProcessAnnotatedType;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.config.StartupProfiler;
+import org.apache.webbeans.corespi.metrics.JmxMetricsService;
+import org.apache.webbeans.spi.MetricsService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StartupProfilerTest extends AbstractUnitTest
+{
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File report;
+
+    @Before
+    public void enableProfiler() throws Exception
+    {
+        report = new File(tempFolder.getRoot(), "startup.json");
+        System.setProperty(OpenWebBeansConfiguration.STARTUP_PROFILER_ENABLED, "true");
+        System.setProperty(OpenWebBeansConfiguration.STARTUP_PROFILER_REPORT, report.getAbsolutePath());
+    }
+
+    @After
+    public void disableProfiler()
+    {
+        System.clearProperty(OpenWebBeansConfiguration.STARTUP_PROFILER_ENABLED);
+        System.clearProperty(OpenWebBeansConfiguration.STARTUP_PROFILER_REPORT);
+    }
+
+    @Test
+    public void testReport() throws Exception
+    {
+        ProfiledExtension extension = new ProfiledExtension();
+        addExtension(extension);
+        startContainer(Service.class, Helper.class);
+        Assert.assertEquals(2, extension.processedTypes.get());
+
+        Assert.assertTrue(report.exists());
+        String json = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(json, json.contains("\"totalMillis\": "));
+        for (String phase : new String[]{"extensions", "scanning", "beanDeployment", "validation", "afterDeploymentValidation"})
+        {
+            Assert.assertTrue(json, json.contains("{\"name\": \"" + phase + "\", \"invocations\": 1, "));
+        }
+        Assert.assertTrue(json, json.contains("\"extensionInstantiation\": {\"invocations\": 1, "));
+        Assert.assertTrue(json, json.contains("{\"extension\": \"" + ProfiledExtension.class.getName() + "\""));
+        Assert.assertTrue(json, json.contains("{\"observer\": \"processType(ProcessAnnotatedType)\", \"invocations\": 2, "));
+        Assert.assertTrue(json, json.contains("{\"observer\": \"afterBeanDiscovery(AfterBeanDiscovery)\", \"invocations\": 1, "));
+    }
+
+    @Test
+    public void testObserversAlsoGetTimedByTheMetricsService() throws Exception
+    {
+        System.setProperty(MetricsService.class.getName(), JmxMetricsService.class.getName());
+        try
+        {
+            ProfiledExtension extension = new ProfiledExtension();
+            addExtension(extension);
+            startContainer(Service.class, Helper.class);
+
+            Map<String, Long> values = ((JmxMetricsService) getWebBeansContext().getMetricsService()).getValues();
+            String timer = "observers." + ProfiledExtension.class.getName() + "#processType.count";
+            Assert.assertEquals(values.toString(), 2L, values.get(timer).longValue());
+
+            String json = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+            Assert.assertTrue(json, json.contains("{\"observer\": \"processType(ProcessAnnotatedType)\", \"invocations\": 2, "));
+        }
+        finally
+        {
+            System.clearProperty(MetricsService.class.getName());
+        }
+    }
+
+    @Test
+    public void testMeasurement()
+    {
+        StartupProfiler profiler = new StartupProfiler();
+        profiler.startPhase("first");
+        byte[][] garbage = new byte[16][];
+        for (int i = 0; i < garbage.length; i++)
+        {
+            garbage[i] = new byte[1024];
+        }
+        profiler.startPhase("second");
+        profiler.finish();
+
+        StartupProfiler.Measurement first = profiler.getPhases().get("first");
+        Assert.assertEquals(1, first.getInvocations());
+        Assert.assertTrue(first.getAllocatedBytes() == -1 || first.getAllocatedBytes() >= 16 * 1024);
+        Assert.assertNotNull(profiler.getPhases().get("second"));
+        Assert.assertTrue(profiler.getSummary(), profiler.getSummary().contains("phase first: "));
+    }
+
+    public static class ProfiledExtension implements Extension
+    {
+        private final AtomicInteger processedTypes = new AtomicInteger();
+
+        void processType(@Observes ProcessAnnotatedType<?> pat)
+        {
+            if (pat.getAnnotatedType().getJavaClass().getName().startsWith(StartupProfilerTest.class.getName()))
+            {
+                processedTypes.incrementAndGet();
+            }
+        }
+
+        void afterBeanDiscovery(@Observes AfterBeanDiscovery abd)
+        {
+            // only gets profiled
+        }
+    }
+
+    @ApplicationScoped
+    public static class Service
+    {
+    }
+
+    public static class Helper
+    {
+    }
+}
@@ -0,0 +1,279 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.contexts;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.enterprise.context.SessionScoped;
+import javax.enterprise.inject.spi.Bean;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.context.PassivatingContext;
+import org.apache.webbeans.intercept.SessionScopedBeanInterceptorHandler;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DeltaSerializationTest extends AbstractUnitTest
+{
+    @Test
+    public void testOnlyAccessedInstancesGetWritten() throws Exception
+    {
+        startContainer(Counter.class, Preferences.class);
+
+        getInstance(Counter.class).increment();
+        getInstance(Preferences.class).setLanguage("de");
+        endRequest();
+
+        PassivatingContext context = (PassivatingContext) getWebBeansContext().getContextsService().getCurrentContext(SessionScoped.class);
+        Assert.assertTrue(context.isDirty());
+
+        byte[] full = serialize(context);
+        Assert.assertTrue(context.isDirty());
+        context.markClean();
+        Assert.assertFalse(context.isDirty());
+
+        PassivatingContext replica = (PassivatingContext) deserialize(full);
+        replica.setActive(true);
+
+        // only the Counter changes
+        getInstance(Counter.class).increment();
+        endRequest();
+        Assert.assertTrue(context.isDirty());
+
+        byte[] delta = writeDelta(context);
+        Assert.assertFalse(context.isDirty());
+        Assert.assertTrue(delta.length < full.length);
+
+        readDelta(replica, delta);
+        Bean<Counter> counterBean = getBean(Counter.class);
+        Assert.assertEquals(2, replica.get(counterBean).getCount());
+        Assert.assertEquals("de", replica.get(getBean(Preferences.class)).getLanguage());
+
+        // destroyed instances get removed on the replica as well
+        context.destroy(counterBean);
+        Assert.assertTrue(context.isDirty());
+        readDelta(replica, writeDelta(context));
+        Assert.assertNull(replica.get(counterBean));
+        Assert.assertNotNull(replica.get(getBean(Preferences.class)));
+    }
+
+    @Test
+    public void testChangesWhileWritingDoNotGetLost() throws Exception
+    {
+        startContainer(Counter.class, Preferences.class);
+
+        getInstance(Counter.class).increment();
+        getInstance(Preferences.class).setLanguage("de");
+        endRequest();
+
+        PassivatingContext context = (PassivatingContext) getWebBeansContext().getContextsService().getCurrentContext(SessionScoped.class);
+        Bean<Counter> counterBean = getBean(Counter.class);
+        Bean<Preferences> preferencesBean = getBean(Preferences.class);
+        PassivatingContext replica = (PassivatingContext) deserialize(serialize(context));
+        replica.setActive(true);
+        context.markClean();
+
+        // the Counter changes again and the Preferences get destroyed after the Counter got written
+        getInstance(Counter.class).increment();
+        endRequest();
+        Counter.WHILE_WRITING.set(() ->
+        {
+            getInstance(Counter.class).increment();
+            endRequest();
+            context.destroy(preferencesBean);
+        });
+        try
+        {
+            readDelta(replica, writeDelta(context));
+        }
+        finally
+        {
+            Counter.WHILE_WRITING.set(null);
+        }
+        Assert.assertEquals(2, replica.get(counterBean).getCount());
+        Assert.assertNotNull(replica.get(preferencesBean));
+        Assert.assertTrue(context.isDirty());
+
+        // the next delta contains both changes
+        readDelta(replica, writeDelta(context));
+        Assert.assertFalse(context.isDirty());
+        Assert.assertEquals(3, replica.get(counterBean).getCount());
+        Assert.assertNull(replica.get(preferencesBean));
+    }
+
+    @Test
+    public void testFullSerializationKeepsTheDeltaState() throws Exception
+    {
+        startContainer(Counter.class, Preferences.class);
+
+        getInstance(Counter.class).increment();
+        getInstance(Preferences.class).setLanguage("de");
+        endRequest();
+
+        PassivatingContext context = (PassivatingContext) getWebBeansContext().getContextsService().getCurrentContext(SessionScoped.class);
+        Bean<Counter> counterBean = getBean(Counter.class);
+        Bean<Preferences> preferencesBean = getBean(Preferences.class);
+        PassivatingContext replica = (PassivatingContext) deserialize(serialize(context));
+        replica.setActive(true);
+        context.markClean();
+
+        getInstance(Counter.class).increment();
+        endRequest();
+        context.destroy(preferencesBean);
+
+        // e.g. the container persists the session before the replication sends the next delta
+        serialize(context);
+        Assert.assertTrue(context.isDirty());
+
+        readDelta(replica, writeDelta(context));
+        Assert.assertFalse(context.isDirty());
+        Assert.assertEquals(2, replica.get(counterBean).getCount());
+        Assert.assertNull(replica.get(preferencesBean));
+    }
+
+    @Test
+    public void testImmutableBeansOnlyGetDirtyExplicitly() throws Exception
+    {
+        try
+        {
+            System.setProperty(OpenWebBeansConfiguration.IMMUTABLE_PASSIVATING_BEANS, Preferences.class.getName());
+            startContainer(Counter.class, Preferences.class);
+
+            getInstance(Preferences.class).setLanguage("de");
+            endRequest();
+
+            PassivatingContext context = (PassivatingContext) getWebBeansContext().getContextsService().getCurrentContext(SessionScoped.class);
+            serialize(context);
+            context.markClean();
+
+            getInstance(Preferences.class).getLanguage();
+            endRequest();
+            Assert.assertFalse(context.isDirty());
+
+            context.markDirty(getBean(Preferences.class));
+            Assert.assertTrue(context.isDirty());
+        }
+        finally
+        {
+            System.clearProperty(OpenWebBeansConfiguration.IMMUTABLE_PASSIVATING_BEANS);
+        }
+    }
+
+    private void endRequest()
+    {
+        // session scoped instances get cached per request
+        SessionScopedBeanInterceptorHandler.removeThreadLocals();
+    }
+
+    private static byte[] serialize(Object object) throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos))
+        {
+            oos.writeObject(object);
+        }
+        return baos.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException
+    {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes)))
+        {
+            return ois.readObject();
+        }
+    }
+
+    private static byte[] writeDelta(PassivatingContext context) throws IOException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos))
+        {
+            context.writeDelta(oos);
+        }
+        return baos.toByteArray();
+    }
+
+    private static void readDelta(PassivatingContext context, byte[] delta) throws IOException, ClassNotFoundException
+    {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(delta)))
+        {
+            context.readDelta(ois);
+        }
+    }
+
+    @SessionScoped
+    public static class Counter implements Serializable
+    {
+        /**
+         * Gets run right after an instance got serialized.
+         */
+        private static final AtomicReference<Runnable> WHILE_WRITING = new AtomicReference<>();
+
+        private int count;
+
+        public void increment()
+        {
+            count++;
+        }
+
+        public int getCount()
+        {
+            return count;
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException
+        {
+            out.defaultWriteObject();
+            Runnable whileWriting = WHILE_WRITING.get();
+            if (whileWriting != null)
+            {
+                whileWriting.run();
+            }
+        }
+    }
+
+    @SessionScoped
+    public static class Preferences implements Serializable
+    {
+        private String language;
+        private final byte[] payload = new byte[4096];
+
+        public String getLanguage()
+        {
+            return language;
+        }
+
+        public void setLanguage(String language)
+        {
+            this.language = language;
+        }
+
+        public byte[] getPayload()
+        {
+            return payload;
+        }
+    }
+}
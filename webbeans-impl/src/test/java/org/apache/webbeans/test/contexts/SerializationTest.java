@@ -48,6 +48,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 
+import javax.enterprise.context.RequestScoped;
 import javax.enterprise.context.SessionScoped;
 import javax.enterprise.context.spi.Context;
 import javax.enterprise.context.spi.CreationalContext;
@@ -193,6 +194,28 @@ public class SerializationTest extends AbstractUnitTest
         Assert.assertTrue(ssb2.getApp().getI() == 4711);
     }
 
+    @Test
+    public void testUnknownPassivationIdFails() throws Exception
+    {
+        startContainer(RequestBean.class);
+
+        getInstance(RequestBean.class).setValue("owb");
+        Context requestContext = getBeanManager().getContext(RequestScoped.class);
+        byte[] ba = serializeObject(requestContext);
+        shutDownContainer();
+
+        startContainer(AppScopedBean.class);
+        try
+        {
+            deSerializeObject(ba);
+            Assert.fail("the RequestBean is not deployed anymore");
+        }
+        catch (InvalidObjectException e)
+        {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains(RequestBean.class.getName()));
+        }
+    }
+
     public static byte[] serializeBean(Bean<?> bean) throws IOException
     {
         return serializeObject(bean);
@@ -218,4 +241,19 @@ public class SerializationTest extends AbstractUnitTest
         return ois.readObject();
     }
 
+    @RequestScoped
+    public static class RequestBean implements Serializable
+    {
+        private String value;
+
+        public String getValue()
+        {
+            return value;
+        }
+
+        public void setValue(String value)
+        {
+            this.value = value;
+        }
+    }
 }
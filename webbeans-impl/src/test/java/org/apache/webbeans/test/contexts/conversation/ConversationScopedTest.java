@@ -18,13 +18,27 @@
 */
 package org.apache.webbeans.test.contexts.conversation;
 
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.BeforeDestroyed;
+import javax.enterprise.context.ContextNotActiveException;
 import javax.enterprise.context.ConversationScoped;
+import javax.enterprise.context.Destroyed;
 import javax.enterprise.context.RequestScoped;
 import javax.enterprise.context.SessionScoped;
+import javax.enterprise.context.spi.AlterableContext;
 import javax.enterprise.context.spi.Context;
+import javax.enterprise.event.Observes;
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
 
 import org.junit.Assert;
 import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.context.AbstractContext;
+import org.apache.webbeans.context.ConversationContext;
+import org.apache.webbeans.conversation.ConversationImpl;
+import org.apache.webbeans.conversation.ConversationManager;
+import org.apache.webbeans.conversation.ConversationStorageBean;
+import org.apache.webbeans.conversation.LegacyConversationStorageBean;
 import org.apache.webbeans.test.AbstractUnitTest;
 import org.junit.Test;
 
@@ -33,6 +47,13 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * test for CDI Conversations
@@ -95,6 +116,246 @@ public class ConversationScopedTest extends AbstractUnitTest
         }
     }
 
+    @Test
+    public void testTimedOutConversationGetsDestroyedAtRequestEnd() throws Exception
+    {
+        try
+        {
+            System.setProperty(OpenWebBeansConfiguration.APPLICATION_SUPPORTS_CONVERSATION, "true");
+            System.setProperty(OpenWebBeansConfiguration.CONVERSATION_TIMEOUT_INTERVAL, "100");
+            System.setProperty(OpenWebBeansConfiguration.CONVERSATION_PERIODIC_DELAY, "10");
+            startContainer(ConversationScopedBean.class, ConversationExpiryObserver.class);
+
+            ConversationScopedBean instance = getInstance(ConversationScopedBean.class);
+            instance.begin();
+            String cid = instance.getConversation().getId();
+
+            Context sessionContext = getWebBeansContext().getContextsService().getCurrentContext(SessionScoped.class);
+            Map<String, ConversationContext> conversations
+                = getWebBeansContext().getConversationManager().getSessionConversations(sessionContext, false);
+            Assert.assertTrue(conversations.containsKey(cid));
+
+            // ends the request and thus releases the conversation
+            restartContext(RequestScoped.class);
+
+            // the background timer only marks it, it gets destroyed at the end of a request of the session
+            ConversationExpiryObserver observer = getInstance(ConversationExpiryObserver.class);
+            Thread.sleep(200);
+            Assert.assertTrue(observer.getDestroyed().isEmpty());
+            Assert.assertTrue(conversations.containsKey(cid));
+
+            long end = System.currentTimeMillis() + 10000;
+            while (!observer.getDestroyed().contains(cid) && System.currentTimeMillis() < end)
+            {
+                restartContext(RequestScoped.class);
+                Thread.sleep(10);
+            }
+
+            Assert.assertTrue(observer.getBeforeDestroyed().contains(cid));
+            Assert.assertTrue(observer.getDestroyed().contains(cid));
+            Assert.assertFalse(conversations.containsKey(cid));
+            Assert.assertEquals(Thread.currentThread(), observer.getDestroyingThread());
+            Assert.assertTrue(observer.isContextsActive());
+        }
+        finally
+        {
+            System.clearProperty(OpenWebBeansConfiguration.APPLICATION_SUPPORTS_CONVERSATION);
+            System.clearProperty(OpenWebBeansConfiguration.CONVERSATION_TIMEOUT_INTERVAL);
+            System.clearProperty(OpenWebBeansConfiguration.CONVERSATION_PERIODIC_DELAY);
+        }
+    }
+
+    @Test
+    public void testConversationsOfDeserializedSessionExpire() throws Exception
+    {
+        try
+        {
+            System.setProperty(OpenWebBeansConfiguration.APPLICATION_SUPPORTS_CONVERSATION, "true");
+            System.setProperty(OpenWebBeansConfiguration.CONVERSATION_TIMEOUT_INTERVAL, "100");
+            System.setProperty(OpenWebBeansConfiguration.CONVERSATION_PERIODIC_DELAY, "10");
+            startContainer(ConversationScopedBean.class, ConversationExpiryObserver.class);
+
+            ConversationScopedBean instance = getInstance(ConversationScopedBean.class);
+            instance.begin();
+            String cid = instance.getConversation().getId();
+
+            Context sessionContext = getWebBeansContext().getContextsService().getCurrentContext(SessionScoped.class);
+            Context restoredSessionContext = copy((AbstractContext) sessionContext);
+            instance.end();
+            restartContext(RequestScoped.class);
+
+            // the restored conversation doesn't get propagated, it still has to expire
+            ConversationManager conversationManager = getWebBeansContext().getConversationManager();
+            Map<String, ConversationContext> restoredConversations
+                = conversationManager.getSessionConversations(restoredSessionContext, false);
+            Assert.assertTrue(restoredConversations.containsKey(cid));
+
+            awaitDestroyed(cid, restoredSessionContext);
+            Assert.assertFalse(restoredConversations.containsKey(cid));
+        }
+        finally
+        {
+            System.clearProperty(OpenWebBeansConfiguration.APPLICATION_SUPPORTS_CONVERSATION);
+            System.clearProperty(OpenWebBeansConfiguration.CONVERSATION_TIMEOUT_INTERVAL);
+            System.clearProperty(OpenWebBeansConfiguration.CONVERSATION_PERIODIC_DELAY);
+        }
+    }
+
+    @Test
+    public void testSessionWithLegacyConversationStorage() throws Exception
+    {
+        try
+        {
+            System.setProperty(OpenWebBeansConfiguration.APPLICATION_SUPPORTS_CONVERSATION, "true");
+            System.setProperty(OpenWebBeansConfiguration.CONVERSATION_TIMEOUT_INTERVAL, "100");
+            System.setProperty(OpenWebBeansConfiguration.CONVERSATION_PERIODIC_DELAY, "10");
+            startContainer(ConversationScopedBean.class, ConversationExpiryObserver.class);
+
+            ConversationScopedBean instance = getInstance(ConversationScopedBean.class);
+            instance.begin();
+            String cid = instance.getConversation().getId();
+
+            // store the conversation like before the conversations got keyed by their id
+            Context sessionContext = getWebBeansContext().getContextsService().getCurrentContext(SessionScoped.class);
+            ConversationManager conversationManager = getWebBeansContext().getConversationManager();
+            Map<String, ConversationContext> conversations = conversationManager.getSessionConversations(sessionContext, false);
+            ConversationContext conversationContext = conversations.remove(cid);
+            ((AlterableContext) sessionContext).destroy(getInternalBean(ConversationStorageBean.OWB_INTERNAL_CONVERSATION_STORAGE_BEAN_PASSIVATION_ID));
+            Bean<Set<ConversationContext>> legacyBean
+                = getInternalBean(LegacyConversationStorageBean.OWB_INTERNAL_LEGACY_CONVERSATION_STORAGE_BEAN_PASSIVATION_ID);
+            Set<ConversationContext> legacyConversations
+                = sessionContext.get(legacyBean, getBeanManager().createCreationalContext(legacyBean));
+            legacyConversations.add(conversationContext);
+
+            Context restoredSessionContext = copy((AbstractContext) sessionContext);
+            legacyConversations.clear();
+            ((AlterableContext) sessionContext).destroy(legacyBean);
+            instance.end();
+            restartContext(RequestScoped.class);
+
+            Map<String, ConversationContext> restoredConversations
+                = conversationManager.getSessionConversations(restoredSessionContext, false);
+            Assert.assertTrue(restoredConversations.containsKey(cid));
+            Assert.assertNull(restoredSessionContext.get(legacyBean));
+
+            awaitDestroyed(cid, restoredSessionContext);
+            Assert.assertFalse(restoredConversations.containsKey(cid));
+        }
+        finally
+        {
+            System.clearProperty(OpenWebBeansConfiguration.APPLICATION_SUPPORTS_CONVERSATION);
+            System.clearProperty(OpenWebBeansConfiguration.CONVERSATION_TIMEOUT_INTERVAL);
+            System.clearProperty(OpenWebBeansConfiguration.CONVERSATION_PERIODIC_DELAY);
+        }
+    }
+
+    private <T> Bean<T> getInternalBean(String passivationId)
+    {
+        return (Bean<T>) getBeanManager().resolve(getBeanManager().getBeans(passivationId));
+    }
+
+    /**
+     * @return a deserialized and activated copy of the given context
+     */
+    private Context copy(AbstractContext context) throws IOException, ClassNotFoundException
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos))
+        {
+            oos.writeObject(context);
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray())))
+        {
+            AbstractContext copy = (AbstractContext) ois.readObject();
+            copy.setActive(true);
+            return copy;
+        }
+    }
+
+    private void awaitDestroyed(String cid, Context sessionContext) throws InterruptedException
+    {
+        ConversationExpiryObserver observer = getInstance(ConversationExpiryObserver.class);
+        long end = System.currentTimeMillis() + 10000;
+        while (!observer.getDestroyed().contains(cid) && System.currentTimeMillis() < end)
+        {
+            getWebBeansContext().getConversationManager().destroyExpiredConversations(sessionContext);
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(observer.getDestroyed().contains(cid));
+    }
+
+    @Test
+    public void testConcurrentUsageIsBusy() throws Exception
+    {
+        startContainer();
+
+        ConversationImpl conversation = new ConversationImpl(getWebBeansContext());
+        Assert.assertEquals(1, conversation.iUseIt());
+        Assert.assertEquals(1, conversation.iUseIt());
+
+        AtomicInteger otherUsage = new AtomicInteger();
+        Thread other = new Thread(() ->
+        {
+            otherUsage.set(conversation.iUseIt());
+            conversation.iDontUseItAnymore();
+        });
+        other.start();
+        other.join(10000);
+        Assert.assertEquals(2, otherUsage.get());
+
+        // the owner is not disturbed by the busy request
+        conversation.getTimeout();
+
+        conversation.iDontUseItAnymore();
+        Assert.assertEquals(1, runInOtherThread(conversation));
+    }
+
+    @Test
+    public void testBusyWaitTimeout() throws Exception
+    {
+        try
+        {
+            System.setProperty(OpenWebBeansConfiguration.CONVERSATION_BUSY_WAIT_TIMEOUT, "2000");
+            startContainer();
+
+            ConversationImpl conversation = new ConversationImpl(getWebBeansContext());
+            Assert.assertEquals(1, conversation.iUseIt());
+
+            CountDownLatch waiting = new CountDownLatch(1);
+            AtomicInteger otherUsage = new AtomicInteger();
+            Thread other = new Thread(() ->
+            {
+                waiting.countDown();
+                otherUsage.set(conversation.iUseIt());
+            });
+            other.start();
+            Assert.assertTrue(waiting.await(10, TimeUnit.SECONDS));
+            Thread.sleep(50);
+
+            conversation.iDontUseItAnymore();
+            other.join(10000);
+            Assert.assertEquals(1, otherUsage.get());
+            Assert.assertEquals(2, runInOtherThread(conversation));
+        }
+        finally
+        {
+            System.clearProperty(OpenWebBeansConfiguration.CONVERSATION_BUSY_WAIT_TIMEOUT);
+        }
+    }
+
+    private int runInOtherThread(ConversationImpl conversation) throws InterruptedException
+    {
+        AtomicInteger usage = new AtomicInteger();
+        Thread thread = new Thread(() ->
+        {
+            usage.set(conversation.iUseIt());
+            conversation.iDontUseItAnymore();
+        });
+        thread.start();
+        thread.join(10000);
+        return usage.get();
+    }
+
     private void ensureSerialisableContext() throws IOException, ClassNotFoundException
     {
         Context context = getBeanManager().getContext(ConversationScoped.class);
@@ -109,5 +370,52 @@ public class ConversationScopedTest extends AbstractUnitTest
         Assert.assertNotNull(newContext);
     }
 
+    @ApplicationScoped
+    public static class ConversationExpiryObserver
+    {
+        private final List<Object> beforeDestroyed = new CopyOnWriteArrayList<>();
+        private final List<Object> destroyed = new CopyOnWriteArrayList<>();
+
+        private volatile Thread destroyingThread;
+        private volatile boolean contextsActive;
+
+        public void beforeDestroyed(@Observes @BeforeDestroyed(ConversationScoped.class) Object payload, BeanManager beanManager)
+        {
+            beforeDestroyed.add(payload);
+            destroyingThread = Thread.currentThread();
+            try
+            {
+                contextsActive = beanManager.getContext(RequestScoped.class).isActive() && beanManager.getContext(SessionScoped.class).isActive();
+            }
+            catch (ContextNotActiveException e)
+            {
+                contextsActive = false;
+            }
+        }
 
+        public void destroyed(@Observes @Destroyed(ConversationScoped.class) Object payload)
+        {
+            destroyed.add(payload);
+        }
+
+        public List<Object> getBeforeDestroyed()
+        {
+            return beforeDestroyed;
+        }
+
+        public List<Object> getDestroyed()
+        {
+            return destroyed;
+        }
+
+        public Thread getDestroyingThread()
+        {
+            return destroyingThread;
+        }
+
+        public boolean isContextsActive()
+        {
+            return contextsActive;
+        }
+    }
 }
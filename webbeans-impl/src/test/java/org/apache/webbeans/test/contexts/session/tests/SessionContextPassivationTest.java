@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.contexts.session.tests;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.context.SessionScoped;
+import javax.enterprise.inject.spi.Bean;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.context.SessionContext;
+import org.apache.webbeans.context.SessionContextPassivationManager;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SessionContextPassivationTest extends AbstractUnitTest
+{
+    @Before
+    public void enablePassivation()
+    {
+        System.setProperty(OpenWebBeansConfiguration.SESSION_PASSIVATION_ENABLED, "true");
+        // only passivate when the test triggers it
+        System.setProperty(OpenWebBeansConfiguration.SESSION_PASSIVATION_CHECK_INTERVAL, "3600000");
+        Cart.destroyed = 0;
+    }
+
+    @After
+    public void disablePassivation()
+    {
+        System.clearProperty(OpenWebBeansConfiguration.SESSION_PASSIVATION_ENABLED);
+        System.clearProperty(OpenWebBeansConfiguration.SESSION_PASSIVATION_CHECK_INTERVAL);
+        System.clearProperty(OpenWebBeansConfiguration.SESSION_PASSIVATION_IDLE_TIME);
+        System.clearProperty(OpenWebBeansConfiguration.SESSION_PASSIVATION_MAX_ACTIVE_SESSIONS);
+    }
+
+    @Test
+    public void testIdleSessionGetsPassivatedAndRestored()
+    {
+        System.setProperty(OpenWebBeansConfiguration.SESSION_PASSIVATION_IDLE_TIME, "0");
+        startContainer(Cart.class);
+
+        getInstance(Cart.class).getItems().add("book");
+        endContext(RequestScoped.class);
+
+        SessionContextPassivationManager passivationManager = getWebBeansContext().getSessionContextPassivationManager();
+        Assert.assertEquals(1, passivationManager.getManagedSessionCount());
+
+        passivationManager.passivateIdleSessions();
+        Assert.assertEquals(1, passivationManager.getPassivationCount());
+        Assert.assertEquals(1, passivationManager.getPassivatedSessionCount());
+        Assert.assertTrue(passivationManager.getStoreSize() > 0);
+
+        // transparently restored once the next request uses the session
+        startContext(RequestScoped.class);
+        Assert.assertEquals(1, getInstance(Cart.class).getItems().size());
+        Assert.assertEquals("book", getInstance(Cart.class).getItems().get(0));
+        Assert.assertEquals(1, passivationManager.getActivationCount());
+        Assert.assertEquals(0, passivationManager.getPassivatedSessionCount());
+        Assert.assertEquals(0, passivationManager.getStoreSize());
+
+        // a passivated session still gets destroyed properly
+        endContext(RequestScoped.class);
+        passivationManager.passivateIdleSessions();
+        Assert.assertEquals(1, passivationManager.getPassivatedSessionCount());
+        shutDownContainer();
+        Assert.assertEquals(1, Cart.destroyed);
+    }
+
+    @Test
+    public void testSessionOfRunningRequestDoesNotGetPassivated()
+    {
+        System.setProperty(OpenWebBeansConfiguration.SESSION_PASSIVATION_IDLE_TIME, "0");
+        startContainer(Cart.class);
+
+        SessionContextPassivationManager passivationManager = getWebBeansContext().getSessionContextPassivationManager();
+        Cart cart = getInstance(Cart.class);
+        cart.getItems().add("book");
+
+        // the proxy keeps using the instance it cached for this request
+        passivationManager.passivateIdleSessions();
+        Assert.assertEquals(0, passivationManager.getPassivationCount());
+        cart.getItems().add("pen");
+
+        endContext(RequestScoped.class);
+        passivationManager.passivateIdleSessions();
+        Assert.assertEquals(1, passivationManager.getPassivationCount());
+
+        startContext(RequestScoped.class);
+        Assert.assertEquals(2, getInstance(Cart.class).getItems().size());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedSessionsSkipRunningRequests() throws Exception
+    {
+        System.setProperty(OpenWebBeansConfiguration.SESSION_PASSIVATION_MAX_ACTIVE_SESSIONS, "1");
+        startContainer(Cart.class);
+
+        SessionContextPassivationManager passivationManager = getWebBeansContext().getSessionContextPassivationManager();
+        getInstance(Cart.class).getItems().add("book");
+        Thread.sleep(5);
+
+        Bean<Cart> bean = getBean(Cart.class);
+        SessionContext otherSession = new SessionContext();
+        otherSession.setActive(true);
+        passivationManager.manage(otherSession);
+        otherSession.get(bean, getBeanManager().createCreationalContext(bean)).getItems().add("other");
+
+        // the session of the running request is the least recently used one
+        passivationManager.passivateIdleSessions();
+        Assert.assertEquals(0, passivationManager.getPassivationCount());
+
+        endContext(RequestScoped.class);
+        passivationManager.passivateIdleSessions();
+        Assert.assertEquals(1, passivationManager.getCapacityEvictionCount());
+
+        startContext(RequestScoped.class);
+        Assert.assertEquals("book", getInstance(Cart.class).getItems().get(0));
+        otherSession.destroy();
+    }
+
+    @Test
+    public void testLeastRecentlyUsedSessionsGetEvicted() throws Exception
+    {
+        System.setProperty(OpenWebBeansConfiguration.SESSION_PASSIVATION_MAX_ACTIVE_SESSIONS, "1");
+        startContainer(Cart.class);
+
+        SessionContextPassivationManager passivationManager = getWebBeansContext().getSessionContextPassivationManager();
+        Bean<Cart> bean = getBean(Cart.class);
+
+        List<SessionContext> sessions = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+        {
+            SessionContext sessionContext = new SessionContext();
+            sessionContext.setActive(true);
+            passivationManager.manage(sessionContext);
+            sessionContext.get(bean, getBeanManager().createCreationalContext(bean)).getItems().add("item" + i);
+            sessions.add(sessionContext);
+            Thread.sleep(5);
+        }
+
+        passivationManager.passivateIdleSessions();
+        // the session of the container itself is still empty
+        Assert.assertEquals(2, passivationManager.getCapacityEvictionCount());
+        Assert.assertEquals(2, passivationManager.getPassivatedSessionCount());
+        Assert.assertEquals(0, passivationManager.getFailedPassivationCount());
+
+        for (int i = 0; i < 3; i++)
+        {
+            Assert.assertEquals("item" + i, sessions.get(i).get(bean).getItems().get(0));
+        }
+        Assert.assertEquals(2, passivationManager.getActivationCount());
+
+        for (SessionContext sessionContext : sessions)
+        {
+            sessionContext.destroy();
+        }
+        Assert.assertEquals(3, Cart.destroyed);
+        Assert.assertEquals(1, passivationManager.getManagedSessionCount());
+    }
+
+    @SessionScoped
+    public static class Cart implements Serializable
+    {
+        private static int destroyed;
+
+        private final List<String> items = new ArrayList<>();
+
+        public List<String> getItems()
+        {
+            return items;
+        }
+
+        @PreDestroy
+        public void destroy()
+        {
+            destroyed++;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.contexts.session.tests;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import javax.enterprise.context.ConversationScoped;
+import javax.enterprise.context.SessionScoped;
+import javax.enterprise.context.spi.Context;
+import javax.enterprise.inject.spi.Bean;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.context.ConversationContext;
+import org.apache.webbeans.context.SessionContext;
+import org.apache.webbeans.context.SessionMemoryAccounting;
+import org.apache.webbeans.intercept.SessionScopedBeanInterceptorHandler;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SessionMemoryAccountingTest extends AbstractUnitTest
+{
+    @Before
+    public void enableAccounting()
+    {
+        System.setProperty(OpenWebBeansConfiguration.SESSION_ACCOUNTING_ENABLED, "true");
+        System.setProperty(OpenWebBeansConfiguration.SESSION_ACCOUNTING_BUDGET, "50000");
+        // only measure when the test triggers it
+        System.setProperty(OpenWebBeansConfiguration.SESSION_ACCOUNTING_SAMPLE_INTERVAL, "3600000");
+    }
+
+    @After
+    public void disableAccounting()
+    {
+        System.clearProperty(OpenWebBeansConfiguration.SESSION_ACCOUNTING_ENABLED);
+        System.clearProperty(OpenWebBeansConfiguration.SESSION_ACCOUNTING_BUDGET);
+        System.clearProperty(OpenWebBeansConfiguration.SESSION_ACCOUNTING_SAMPLE_INTERVAL);
+        System.clearProperty(OpenWebBeansConfiguration.SESSION_ACCOUNTING_MAX_OBJECTS);
+        System.clearProperty(OpenWebBeansConfiguration.SESSION_ACCOUNTING_SHARED_TYPES);
+    }
+
+    @Test
+    public void testTopSessionsAndBeans()
+    {
+        startContainer(Cart.class, Wizard.class);
+        SessionMemoryAccounting accounting = getWebBeansContext().getSessionMemoryAccounting();
+        Bean<Cart> bean = getBean(Cart.class);
+
+        // the session of the container itself
+        getInstance(Cart.class).add(10000);
+        SessionScopedBeanInterceptorHandler.removeThreadLocals();
+
+        SessionContext bigSession = new SessionContext();
+        bigSession.setActive(true);
+        accounting.manage(bigSession, "big");
+        bigSession.get(bean, getBeanManager().createCreationalContext(bean)).add(100000);
+        Assert.assertEquals(2, accounting.getSessionCount());
+
+        accounting.sample();
+
+        List<SessionMemoryAccounting.SessionFootprint> sessions = accounting.getTopSessions(10);
+        Assert.assertEquals(2, sessions.size());
+        Assert.assertEquals("big", sessions.get(0).getSessionId());
+        Assert.assertTrue(sessions.get(0).toString(), sessions.get(0).getBytes() >= 100000);
+        Assert.assertTrue(sessions.get(0).getBytes() < 110000);
+        Assert.assertTrue(sessions.get(1).getBytes() >= 10000);
+        Assert.assertFalse(sessions.get(0).isTruncated());
+        Assert.assertEquals(1, accounting.getTopSessions(1).size());
+        Assert.assertEquals(1, accounting.getOverBudgetCount());
+        Assert.assertEquals(sessions.get(0).getBytes(), accounting.getMaxSessionBytes());
+
+        SessionMemoryAccounting.BeanFootprint cart = accounting.getTopBeans(1).get(0);
+        Assert.assertEquals(Cart.class.getName(), cart.getBeanName());
+        Assert.assertEquals(2, cart.getSessionCount());
+        Assert.assertEquals(sessions.get(0).getBytes(), cart.getMaxBytes());
+
+        bigSession.destroy();
+        Assert.assertEquals(1, accounting.getSessionCount());
+        Assert.assertEquals(0, accounting.getOverBudgetCount());
+    }
+
+    @Test
+    public void testConversationsAndTruncation()
+    {
+        startContainer(Cart.class, Wizard.class);
+        SessionMemoryAccounting accounting = getWebBeansContext().getSessionMemoryAccounting();
+
+        Context sessionContext = getWebBeansContext().getContextsService().getCurrentContext(SessionScoped.class);
+        Map<String, ConversationContext> conversations
+            = getWebBeansContext().getConversationManager().getSessionConversations(sessionContext, true);
+        ConversationContext conversationContext = new ConversationContext(getWebBeansContext());
+        conversationContext.setActive(true);
+        conversations.put("1", conversationContext);
+        Bean<Wizard> wizard = getBean(Wizard.class);
+        conversationContext.get(wizard, getBeanManager().createCreationalContext(wizard)).add(20000);
+
+        accounting.sample();
+        Map<String, Long> beans = accounting.getTopSessions(1).get(0).getBeanBytes();
+        Map.Entry<String, Long> biggest = beans.entrySet().iterator().next();
+        Assert.assertEquals(Wizard.class.getName() + " (conversation)", biggest.getKey());
+        Assert.assertTrue(biggest.getValue() >= 20000);
+        Assert.assertEquals(0, accounting.getOverBudgetCount());
+
+        shutDownContainer();
+        System.setProperty(OpenWebBeansConfiguration.SESSION_ACCOUNTING_MAX_OBJECTS, "10");
+        startContainer(Cart.class, Wizard.class);
+        Cart cart = getInstance(Cart.class);
+        for (int i = 0; i < 20; i++)
+        {
+            cart.add(1);
+        }
+        accounting = getWebBeansContext().getSessionMemoryAccounting();
+        accounting.sample();
+        Assert.assertTrue(accounting.getTopSessions(1).get(0).isTruncated());
+    }
+
+    @Test
+    public void testSharedObjectsDontGetCounted()
+    {
+        System.setProperty(OpenWebBeansConfiguration.SESSION_ACCOUNTING_SHARED_TYPES, SharedCache.class.getName());
+        startContainer(Catalog.class, Profile.class);
+        SessionMemoryAccounting accounting = getWebBeansContext().getSessionMemoryAccounting();
+
+        Profile profile = getInstance(Profile.class);
+        profile.setName("owb");
+        SessionScopedBeanInterceptorHandler.removeThreadLocals();
+
+        accounting.sample();
+        SessionMemoryAccounting.SessionFootprint footprint = accounting.getTopSessions(1).get(0);
+        Assert.assertTrue(footprint.toString(), footprint.getBytes() < 10000);
+        Assert.assertFalse(footprint.isTruncated());
+    }
+
+    public interface SharedCache
+    {
+    }
+
+    public static class ProductCache implements SharedCache, Serializable
+    {
+        private final byte[] products = new byte[100000];
+    }
+
+    @Singleton
+    public static class Catalog implements Serializable
+    {
+        private final byte[] products = new byte[100000];
+    }
+
+    @SessionScoped
+    public static class Profile implements Serializable
+    {
+        private static final ProductCache CACHE = new ProductCache();
+
+        @Inject
+        private Catalog catalog;
+
+        private final ProductCache cache = CACHE;
+
+        private String name;
+
+        public void setName(String name)
+        {
+            this.name = name;
+        }
+    }
+
+    @SessionScoped
+    public static class Cart implements Serializable
+    {
+        private final List<byte[]> items = new ArrayList<>();
+
+        public void add(int size)
+        {
+            items.add(new byte[size]);
+        }
+    }
+
+    @ConversationScoped
+    public static class Wizard implements Serializable
+    {
+        private final List<byte[]> steps = new ArrayList<>();
+
+        public void add(int size)
+        {
+            steps.add(new byte[size]);
+        }
+    }
+}
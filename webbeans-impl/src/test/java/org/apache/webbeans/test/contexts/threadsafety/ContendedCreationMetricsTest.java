@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.contexts.threadsafety;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.apache.webbeans.corespi.metrics.JmxMetricsService;
+import org.apache.webbeans.spi.MetricsService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ContendedCreationMetricsTest extends AbstractUnitTest
+{
+    private static final String METRIC = "beans." + SlowBean.class.getName() + ".contendedCreations";
+
+    @Before
+    public void enableMetrics()
+    {
+        System.setProperty(MetricsService.class.getName(), JmxMetricsService.class.getName());
+    }
+
+    @After
+    public void disableMetrics()
+    {
+        System.clearProperty(MetricsService.class.getName());
+    }
+
+    @Test
+    public void testWaitingForCreationGetsCounted() throws Exception
+    {
+        startContainer(SlowBean.class);
+        JmxMetricsService metricsService = (JmxMetricsService) getWebBeansContext().getMetricsService();
+        SlowBean bean = getInstance(SlowBean.class);
+
+        Thread creator = new Thread(bean::touch);
+        creator.start();
+        Assert.assertTrue(SlowBean.CREATING.await(20, TimeUnit.SECONDS));
+
+        Thread waiter = new Thread(bean::touch);
+        waiter.start();
+        long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(20);
+        while (waiter.getState() != Thread.State.BLOCKED && System.currentTimeMillis() < timeout)
+        {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(Thread.State.BLOCKED, waiter.getState());
+
+        SlowBean.RELEASE.countDown();
+        creator.join();
+        waiter.join();
+
+        Assert.assertEquals(1, SlowBean.INSTANCES.get());
+        Assert.assertEquals(1L, metricsService.getValues().get(METRIC).longValue());
+
+        // the instance exists now, so further lookups are no contention
+        bean.touch();
+        Assert.assertEquals(1L, metricsService.getValues().get(METRIC).longValue());
+    }
+
+    @ApplicationScoped
+    public static class SlowBean
+    {
+        private static final CountDownLatch CREATING = new CountDownLatch(1);
+        private static final CountDownLatch RELEASE = new CountDownLatch(1);
+        private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        @PostConstruct
+        public void init()
+        {
+            INSTANCES.incrementAndGet();
+            CREATING.countDown();
+            try
+            {
+                RELEASE.await(20, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        public void touch()
+        {
+            // only triggers the creation
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.async;
+
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * fireAsync() must complete the returned stage with the event even if no async observer
+ * gets notified. The aggregate of the observer futures never got completed in that case.
+ */
+public class AsyncEventWithoutAsyncObserversTest extends AbstractUnitTest
+{
+    @Test
+    public void testWithoutObservers() throws Exception
+    {
+        startContainer();
+
+        UnobservedEvent event = new UnobservedEvent();
+        Assert.assertSame(event, fire(getBeanManager().getEvent().fireAsync(event)));
+    }
+
+    @Test
+    public void testWithSyncObserversOnly() throws Exception
+    {
+        startContainer(SyncObserver.class);
+
+        SyncOnlyEvent event = new SyncOnlyEvent();
+        Assert.assertSame(event, fire(getBeanManager().getEvent().fireAsync(event)));
+        Assert.assertEquals(0, getInstance(SyncObserver.class).getNotifications());
+
+        getBeanManager().getEvent().fire(event);
+        Assert.assertEquals(1, getInstance(SyncObserver.class).getNotifications());
+    }
+
+    private static <T> T fire(CompletionStage<T> stage) throws Exception
+    {
+        return stage.toCompletableFuture().get(20, TimeUnit.SECONDS);
+    }
+
+    public static class UnobservedEvent
+    {
+    }
+
+    public static class SyncOnlyEvent
+    {
+    }
+
+    @ApplicationScoped
+    public static class SyncObserver
+    {
+        private final AtomicInteger notifications = new AtomicInteger();
+
+        public void observe(@Observes SyncOnlyEvent event)
+        {
+            notifications.incrementAndGet();
+        }
+
+        public int getNotifications()
+        {
+            return notifications.get();
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.observer;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.enterprise.event.Event;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Default;
+import javax.enterprise.util.AnnotationLiteral;
+
+import org.apache.webbeans.configurator.ObserverMethodConfiguratorImpl;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EventCachingTest extends AbstractUnitTest
+{
+    @Test
+    public void testSelectResultsAreCached()
+    {
+        startContainer(Painter.class);
+        Event<Object> event = getBeanManager().getEvent();
+
+        Assert.assertSame(event.select(Orange.class), event.select(Orange.class));
+        Assert.assertSame(event.select(new AnnotationLiteral<Any>()
+        {
+        }), event.select(new AnnotationLiteral<Any>()
+        {
+        }));
+        Assert.assertNotSame(event.select(Orange.class), event.select(Green.class));
+    }
+
+    @Test
+    public void testReusedQualifierArrayDoesNotChangeTheCache()
+    {
+        startContainer(Painter.class);
+        Event<Object> event = getBeanManager().getEvent();
+
+        Annotation[] qualifiers = {Any.Literal.INSTANCE};
+        Event<Object> anyEvent = event.select(qualifiers);
+        qualifiers[0] = Default.Literal.INSTANCE;
+        Event<Object> defaultEvent = event.select(qualifiers);
+
+        Assert.assertNotSame(anyEvent, defaultEvent);
+        Assert.assertSame(anyEvent, event.select(Any.Literal.INSTANCE));
+        Assert.assertSame(defaultEvent, event.select(Default.Literal.INSTANCE));
+    }
+
+    @Test
+    public void testRepeatedFire()
+    {
+        startContainer(Painter.class);
+        Event<Object> event = getBeanManager().getEvent();
+
+        Event<Orange> orangeEvent = event.select(Orange.class);
+        orangeEvent.fire(new Orange());
+        orangeEvent.fire(new Orange());
+        event.fire(new Green());
+        event.fire(new Orange());
+
+        Painter painter = getInstance(Painter.class);
+        Assert.assertEquals(4, painter.getObserved().size());
+        Assert.assertTrue(painter.getObserved().get(2) instanceof Green);
+    }
+
+    @Test
+    public void testObserverChangesInvalidateResolvedObservers()
+    {
+        startContainer(Painter.class);
+        Event<Object> event = getBeanManager().getEvent();
+
+        Event<Orange> orangeEvent = event.select(Orange.class);
+        orangeEvent.fire(new Orange());
+
+        List<Object> lateObserved = new ArrayList<>();
+        ObserverMethodConfiguratorImpl<Orange> configurator
+            = new ObserverMethodConfiguratorImpl<>(getWebBeansContext(), null);
+        configurator.beanClass(EventCachingTest.class)
+            .observedType(Orange.class)
+            .notifyWith(e -> lateObserved.add(e.getEvent()));
+        getWebBeansContext().getNotificationManager().addRuntimeObserver(configurator.getObserverMethod());
+
+        orangeEvent.fire(new Orange());
+
+        Assert.assertEquals(1, lateObserved.size());
+        Assert.assertEquals(2, getInstance(Painter.class).getObserved().size());
+    }
+}
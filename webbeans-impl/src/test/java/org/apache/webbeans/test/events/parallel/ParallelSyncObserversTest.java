@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.parallel;
+
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Event;
+import javax.enterprise.event.ObserverException;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.interceptor.Interceptor;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelSyncObserversTest extends AbstractUnitTest
+{
+    @Before
+    public void enableParallelObservers()
+    {
+        System.setProperty(OpenWebBeansConfiguration.PARALLEL_SYNC_OBSERVERS,
+            FanOutObservers.class.getName() + "," + NestedObservers.class.getName() + "," + DefaultPriorityObservers.class.getName());
+        System.setProperty(OpenWebBeansConfiguration.PARALLEL_SYNC_OBSERVERS_THRESHOLD, "3");
+    }
+
+    @After
+    public void disableParallelObservers()
+    {
+        System.clearProperty(OpenWebBeansConfiguration.PARALLEL_SYNC_OBSERVERS);
+        System.clearProperty(OpenWebBeansConfiguration.PARALLEL_SYNC_OBSERVERS_THRESHOLD);
+    }
+
+    @Test
+    public void testUnorderedObserversRunInParallel()
+    {
+        startContainer(FanOutObservers.class);
+
+        // the barrier only trips if all 3 unordered observers run concurrently, the firing thread runs one of them
+        boolean concurrent = ForkJoinPool.getCommonPoolParallelism() >= 2;
+        FanOutEvent event = new FanOutEvent(concurrent ? 3 : 1);
+        getBeanManager().fireEvent(event);
+
+        Assert.assertEquals(3, event.parallel.size());
+        // the firing thread takes part
+        Assert.assertTrue(event.threads.contains(Thread.currentThread()));
+
+        // prioritised observers still run in order, around the parallel ones
+        Assert.assertEquals("first", event.ordered.get(0));
+        Assert.assertEquals("last", event.ordered.get(1));
+        Assert.assertTrue(event.firstBeforeParallel);
+        Assert.assertTrue(event.parallelBeforeLast);
+    }
+
+    @Test
+    public void testExceptionPropagates()
+    {
+        startContainer(FanOutObservers.class);
+
+        FanOutEvent event = new FanOutEvent(3);
+        event.fail = true;
+        try
+        {
+            getBeanManager().fireEvent(event);
+            Assert.fail("observer exception must be propagated");
+        }
+        catch (IllegalStateException expected)
+        {
+            Assert.assertEquals("failing observer", expected.getMessage());
+        }
+
+        // the remaining observers of the parallel bunch still got invoked
+        Assert.assertEquals(2, event.parallel.size());
+    }
+
+    @Test
+    public void testCheckedExceptionGetsWrappedLikeSequentially()
+    {
+        startContainer(FanOutObservers.class);
+
+        FanOutEvent event = new FanOutEvent(3);
+        event.fail = true;
+        event.checked = true;
+        try
+        {
+            getBeanManager().fireEvent(event);
+            Assert.fail("observer exception must be propagated");
+        }
+        catch (ObserverException expected)
+        {
+            Assert.assertEquals("checked failure", expected.getCause().getCause().getMessage());
+        }
+    }
+
+    @Test
+    public void testOnlyOptedInObserversRunInParallel()
+    {
+        startContainer(SequentialObservers.class);
+
+        FanOutEvent event = new FanOutEvent(1);
+        getBeanManager().fireEvent(event);
+
+        Assert.assertEquals(3, event.parallel.size());
+        for (Thread thread : event.threads)
+        {
+            Assert.assertSame(Thread.currentThread(), thread);
+        }
+    }
+
+    @Test
+    public void testExplicitDefaultPriorityRunsSequentially()
+    {
+        startContainer(DefaultPriorityObservers.class);
+
+        FanOutEvent event = new FanOutEvent(1);
+        getBeanManager().fireEvent(event);
+
+        Assert.assertEquals(3, event.parallel.size());
+        for (Thread thread : event.threads)
+        {
+            Assert.assertSame(Thread.currentThread(), thread);
+        }
+    }
+
+    @Test
+    public void testNestedEventsDoNotStarve()
+    {
+        startContainer(NestedObservers.class);
+
+        OuterEvent event = new OuterEvent();
+        getBeanManager().fireEvent(event);
+
+        Assert.assertEquals(3, event.outer.get());
+        Assert.assertEquals(9, event.inner.get());
+    }
+
+    public static class FanOutEvent
+    {
+        private final CyclicBarrier barrier;
+        private final List<String> parallel = new CopyOnWriteArrayList<>();
+        private final List<String> ordered = new CopyOnWriteArrayList<>();
+        private final List<Thread> threads = new CopyOnWriteArrayList<>();
+        private volatile boolean firstBeforeParallel;
+        private volatile boolean parallelBeforeLast;
+        private volatile boolean fail;
+        private volatile boolean checked;
+
+        public FanOutEvent(int parties)
+        {
+            this.barrier = new CyclicBarrier(parties);
+        }
+
+        void await(String name) throws Exception
+        {
+            threads.add(Thread.currentThread());
+            if (fail && "c".equals(name))
+            {
+                if (checked)
+                {
+                    throw new Exception("checked failure");
+                }
+                throw new IllegalStateException("failing observer");
+            }
+
+            if (!fail)
+            {
+                try
+                {
+                    barrier.await(10, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException | BrokenBarrierException | TimeoutException e)
+                {
+                    throw new IllegalStateException(e);
+                }
+            }
+            parallel.add(name);
+        }
+    }
+
+    @ApplicationScoped
+    public static class FanOutObservers
+    {
+        public void first(@Observes @Priority(1) FanOutEvent event)
+        {
+            event.firstBeforeParallel = event.parallel.isEmpty();
+            event.ordered.add("first");
+        }
+
+        public void a(@Observes FanOutEvent event) throws Exception
+        {
+            event.await("a");
+        }
+
+        public void b(@Observes FanOutEvent event) throws Exception
+        {
+            event.await("b");
+        }
+
+        public void c(@Observes FanOutEvent event) throws Exception
+        {
+            event.await("c");
+        }
+
+        public void last(@Observes @Priority(5000) FanOutEvent event)
+        {
+            event.parallelBeforeLast = event.parallel.size() == 3;
+            event.ordered.add("last");
+        }
+    }
+
+    @ApplicationScoped
+    public static class SequentialObservers
+    {
+        public void a(@Observes FanOutEvent event) throws Exception
+        {
+            event.await("a");
+        }
+
+        public void b(@Observes FanOutEvent event) throws Exception
+        {
+            event.await("b");
+        }
+
+        public void c(@Observes FanOutEvent event) throws Exception
+        {
+            event.await("c");
+        }
+    }
+
+    @ApplicationScoped
+    public static class DefaultPriorityObservers
+    {
+        public void a(@Observes @Priority(Interceptor.Priority.APPLICATION + 500) FanOutEvent event) throws Exception
+        {
+            // gives the event executor the chance to pick up the other observers, if they were parallel
+            Thread.sleep(100);
+            event.await("a");
+        }
+
+        public void b(@Observes @Priority(Interceptor.Priority.APPLICATION + 500) FanOutEvent event) throws Exception
+        {
+            // gives the event executor the chance to pick up the other observers, if they were parallel
+            Thread.sleep(100);
+            event.await("b");
+        }
+
+        public void c(@Observes @Priority(Interceptor.Priority.APPLICATION + 500) FanOutEvent event) throws Exception
+        {
+            // gives the event executor the chance to pick up the other observers, if they were parallel
+            Thread.sleep(100);
+            event.await("c");
+        }
+    }
+
+    public static class OuterEvent
+    {
+        private final AtomicInteger outer = new AtomicInteger();
+        private final AtomicInteger inner = new AtomicInteger();
+    }
+
+    public static class InnerEvent
+    {
+        private final OuterEvent outer;
+
+        public InnerEvent(OuterEvent outer)
+        {
+            this.outer = outer;
+        }
+    }
+
+    @ApplicationScoped
+    public static class NestedObservers
+    {
+        @Inject
+        private Event<InnerEvent> innerEvent;
+
+        public void outerA(@Observes OuterEvent event)
+        {
+            event.outer.incrementAndGet();
+            innerEvent.fire(new InnerEvent(event));
+        }
+
+        public void outerB(@Observes OuterEvent event)
+        {
+            event.outer.incrementAndGet();
+            innerEvent.fire(new InnerEvent(event));
+        }
+
+        public void outerC(@Observes OuterEvent event)
+        {
+            event.outer.incrementAndGet();
+            innerEvent.fire(new InnerEvent(event));
+        }
+
+        public void innerA(@Observes InnerEvent event)
+        {
+            event.outer.inner.incrementAndGet();
+        }
+
+        public void innerB(@Observes InnerEvent event)
+        {
+            event.outer.inner.incrementAndGet();
+        }
+
+        public void innerC(@Observes InnerEvent event)
+        {
+            event.outer.inner.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.events.stream;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.enterprise.inject.spi.ProcessAnnotatedType;
+
+import org.apache.webbeans.event.stream.EventFlow;
+import org.apache.webbeans.event.stream.EventStreamPublisher;
+import org.apache.webbeans.event.stream.OverflowStrategy;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EventStreamPublisherTest extends AbstractUnitTest
+{
+    @Test
+    public void testBatchDelivery() throws Exception
+    {
+        startContainer();
+
+        EventStreamPublisher<Telemetry> publisher = getWebBeansContext().getNotificationManager()
+                .createEventPublisher(Telemetry.class, 100, 10, OverflowStrategy.BLOCK);
+
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        publisher.subscribe(subscriber);
+
+        for (int i = 0; i < 25; i++)
+        {
+            getBeanManager().fireEvent(new Telemetry(i));
+        }
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        int received = 0;
+        while (received < 25)
+        {
+            List<Telemetry> batch = subscriber.batches.poll(10, TimeUnit.SECONDS);
+            Assert.assertNotNull(batch);
+            Assert.assertTrue(batch.size() <= 10);
+            for (Telemetry telemetry : batch)
+            {
+                Assert.assertEquals(received++, telemetry.value);
+            }
+        }
+
+        Assert.assertNull(subscriber.error);
+        publisher.close();
+        Assert.assertTrue(subscriber.completed.await(10, TimeUnit.SECONDS));
+        Assert.assertEquals(0, publisher.getSubscriberCount());
+
+        // no further delivery after close
+        getBeanManager().fireEvent(new Telemetry(99));
+        Assert.assertTrue(subscriber.batches.isEmpty());
+    }
+
+    @Test
+    public void testDropOverflow() throws Exception
+    {
+        startContainer();
+
+        EventStreamPublisher<Telemetry> publisher = getWebBeansContext().getNotificationManager()
+                .createEventPublisher(Telemetry.class, 5, 5, OverflowStrategy.DROP);
+
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        publisher.subscribe(subscriber);
+
+        // no demand yet, so everything beyond the buffer size gets dropped
+        for (int i = 0; i < 8; i++)
+        {
+            getBeanManager().fireEvent(new Telemetry(i));
+        }
+        Assert.assertEquals(3, publisher.getDroppedEventCount());
+
+        subscriber.subscription.request(1);
+        List<Telemetry> batch = subscriber.batches.poll(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(batch);
+        Assert.assertEquals(5, batch.size());
+        Assert.assertEquals(0, batch.get(0).value);
+
+        Assert.assertNull(subscriber.error);
+        publisher.close();
+    }
+
+    @Test
+    public void testLatestOverflow() throws Exception
+    {
+        startContainer();
+
+        EventStreamPublisher<Telemetry> publisher = getWebBeansContext().getNotificationManager()
+                .createEventPublisher(Telemetry.class, 2, 2, OverflowStrategy.LATEST);
+
+        CollectingSubscriber subscriber = new CollectingSubscriber();
+        publisher.subscribe(subscriber);
+
+        for (int i = 0; i < 4; i++)
+        {
+            getBeanManager().fireEvent(new Telemetry(i));
+        }
+
+        subscriber.subscription.request(1);
+        List<Telemetry> batch = subscriber.batches.poll(10, TimeUnit.SECONDS);
+        Assert.assertNotNull(batch);
+        Assert.assertEquals(2, batch.size());
+        Assert.assertEquals(2, batch.get(0).value);
+        Assert.assertEquals(3, batch.get(1).value);
+
+        Assert.assertNull(subscriber.error);
+        publisher.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testContainerEventsAreRejected()
+    {
+        startContainer();
+
+        getWebBeansContext().getNotificationManager()
+                .createEventPublisher(ProcessAnnotatedType.class, 1, 1, OverflowStrategy.DROP);
+    }
+
+    public static class Telemetry
+    {
+        private final int value;
+
+        public Telemetry(int value)
+        {
+            this.value = value;
+        }
+    }
+
+    private static class CollectingSubscriber implements EventFlow.Subscriber<List<Telemetry>>
+    {
+        private final BlockingQueue<List<Telemetry>> batches = new LinkedBlockingQueue<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile EventFlow.Subscription subscription;
+        private volatile Throwable error;
+
+        @Override
+        public void onSubscribe(EventFlow.Subscription subscription)
+        {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(List<Telemetry> item)
+        {
+            batches.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable)
+        {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete()
+        {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.instance;
+
+import java.util.Map;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.Bean;
+import javax.inject.Inject;
+
+import org.apache.webbeans.config.OpenWebBeansConfiguration;
+import org.apache.webbeans.context.creational.DependentLeakDetector;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DependentLeakDetectionTest extends AbstractUnitTest
+{
+    @Before
+    public void enableLeakDetection()
+    {
+        System.setProperty(OpenWebBeansConfiguration.DEPENDENT_LEAK_THRESHOLD, "5");
+    }
+
+    @After
+    public void disableLeakDetection()
+    {
+        System.clearProperty(OpenWebBeansConfiguration.DEPENDENT_LEAK_THRESHOLD);
+    }
+
+    @Test
+    public void testInstanceLeakGetsReported()
+    {
+        startContainer(Holder.class, Item.class);
+
+        Holder holder = getInstance(Holder.class);
+        for (int i = 0; i < 12; i++)
+        {
+            holder.newItem();
+        }
+
+        DependentLeakDetector leakDetector = getWebBeansContext().getDependentLeakDetector();
+        // at 5 and 10 instances
+        Assert.assertEquals(2, leakDetector.getReportCount());
+
+        Map<String, Integer> offenders = leakDetector.getTopOffenders(10);
+        Assert.assertEquals(1, offenders.size());
+        String offender = offenders.keySet().iterator().next();
+        Assert.assertTrue(offender, offender.startsWith(Item.class.getName() + " held by " + Holder.class.getName()));
+        Assert.assertTrue(offender, offender.endsWith(Holder.class.getName() + "#items"));
+        Assert.assertEquals(10, offenders.get(offender).intValue());
+    }
+
+    @Test
+    public void testDestroyedInstancesDontGetReported()
+    {
+        startContainer(Holder.class, Item.class);
+
+        Holder holder = getInstance(Holder.class);
+        for (int i = 0; i < 12; i++)
+        {
+            holder.useItem();
+        }
+
+        Assert.assertEquals(0, getWebBeansContext().getDependentLeakDetector().getReportCount());
+    }
+
+    @Test
+    public void testCreationalContextLeakGetsReported()
+    {
+        startContainer(Holder.class, Item.class);
+
+        Bean<Holder> holderBean = getBean(Holder.class);
+        Bean<Item> itemBean = getBean(Item.class);
+        CreationalContext<Holder> owner = getBeanManager().createCreationalContext(holderBean);
+        for (int i = 0; i < 5; i++)
+        {
+            getBeanManager().getReference(itemBean, Item.class, owner);
+        }
+
+        DependentLeakDetector leakDetector = getWebBeansContext().getDependentLeakDetector();
+        Assert.assertEquals(1, leakDetector.getReportCount());
+        Assert.assertEquals(5, leakDetector.getTopOffenders(1).values().iterator().next().intValue());
+
+        owner.release();
+    }
+
+    @Test
+    public void testDisabledByDefault()
+    {
+        System.clearProperty(OpenWebBeansConfiguration.DEPENDENT_LEAK_THRESHOLD);
+        startContainer(Holder.class, Item.class);
+
+        Holder holder = getInstance(Holder.class);
+        for (int i = 0; i < 100; i++)
+        {
+            holder.newItem();
+        }
+
+        Assert.assertFalse(getWebBeansContext().getDependentLeakDetector().isEnabled());
+        Assert.assertEquals(0, getWebBeansContext().getDependentLeakDetector().getReportCount());
+    }
+
+    @ApplicationScoped
+    public static class Holder
+    {
+        @Inject
+        private Instance<Item> items;
+
+        public Item newItem()
+        {
+            return items.get();
+        }
+
+        public void useItem()
+        {
+            items.destroy(items.get());
+        }
+    }
+
+    public static class Item
+    {
+        @PreDestroy
+        public void destroy()
+        {
+            // needs to get destroyed
+        }
+    }
+}
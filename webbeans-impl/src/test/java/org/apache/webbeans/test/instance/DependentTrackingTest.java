@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.instance;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.inject.Disposes;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.Produces;
+import javax.enterprise.inject.spi.Bean;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import org.apache.webbeans.context.creational.CreationalContextImpl;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DependentTrackingTest extends AbstractUnitTest
+{
+    @Test
+    public void testOnlyDestroyableDependentsGetTracked()
+    {
+        startContainer(Plain.class, Destroyable.class, Outer.class, Producers.class);
+
+        CreationalContextImpl<Object> owner = (CreationalContextImpl<Object>) getBeanManager().createCreationalContext(null);
+        Assert.assertNotNull(getReference(Plain.class, owner));
+        Assert.assertFalse(owner.hasDependents());
+
+        Object plainProduct = getReference(String.class, owner, "plain");
+        Assert.assertEquals("plain", plainProduct);
+        Assert.assertFalse(owner.hasDependents());
+
+        Object destroyable = getReference(Destroyable.class, owner);
+        Assert.assertTrue(owner.containsDependent(getBean(Destroyable.class), destroyable));
+
+        Object disposableProduct = getReference(StringBuilder.class, owner);
+        Assert.assertTrue(owner.containsDependent(getBean(StringBuilder.class), disposableProduct));
+
+        Destroyable.destroyed = 0;
+        Producers.disposed = 0;
+        owner.release();
+        Assert.assertEquals(1, Destroyable.destroyed);
+        Assert.assertEquals(1, Producers.disposed);
+    }
+
+    @Test
+    public void testNestedDependentsStillGetDestroyed()
+    {
+        startContainer(Plain.class, Destroyable.class, Outer.class, Holder.class, Producers.class);
+
+        Holder holder = getInstance(Holder.class);
+        Destroyable.destroyed = 0;
+
+        // Outer itself is not tracked but its Destroyable is
+        Outer outer = holder.getOuters().get();
+        holder.getOuters().destroy(outer);
+        Assert.assertEquals(1, Destroyable.destroyed);
+
+        // plain instances can be destroyed as well, it's just a no-op
+        holder.getPlains().destroy(holder.getPlains().get());
+    }
+
+    @Test
+    public void testForeignInstancesGetRejected()
+    {
+        startContainer(Plain.class, Destroyable.class, Outer.class, Holder.class, Producers.class);
+
+        Instance<Plain> plains = getInstance(Holder.class).getPlains();
+        Plain plain = plains.get();
+        assertRejected(plains, new Plain());
+        assertRejected(plains, getInstance(Plain.class));
+
+        plains.destroy(plain);
+        assertRejected(plains, plain);
+
+        Instance<Outer> outers = getInstance(Holder.class).getOuters();
+        assertRejected(outers, new Outer());
+    }
+
+    private static <T> void assertRejected(Instance<T> instance, T foreign)
+    {
+        try
+        {
+            instance.destroy(foreign);
+            Assert.fail("destroying an instance which didn't get produced by the Instance must fail");
+        }
+        catch (IllegalArgumentException e)
+        {
+            // expected
+        }
+    }
+
+    private Object getReference(Class<?> type, CreationalContextImpl<Object> owner, String... name)
+    {
+        Bean<?> bean = name.length == 0 ? getBean(type) : getBeanManager().resolve(getBeanManager().getBeans(name[0]));
+        return getBeanManager().getReference(bean, type, owner);
+    }
+
+    public static class Plain
+    {
+    }
+
+    public static class Destroyable
+    {
+        private static int destroyed;
+
+        @PreDestroy
+        public void destroy()
+        {
+            destroyed++;
+        }
+    }
+
+    public static class Outer
+    {
+        @Inject
+        private Destroyable destroyable;
+    }
+
+    public static class Producers
+    {
+        private static int disposed;
+
+        @Produces
+        @Named("plain")
+        public String producePlain()
+        {
+            return "plain";
+        }
+
+        @Produces
+        public StringBuilder produceDisposable()
+        {
+            return new StringBuilder();
+        }
+
+        public void dispose(@Disposes StringBuilder product)
+        {
+            disposed++;
+        }
+    }
+
+    @ApplicationScoped
+    public static class Holder
+    {
+        @Inject
+        private Instance<Outer> outers;
+
+        @Inject
+        private Instance<Plain> plains;
+
+        public Instance<Outer> getOuters()
+        {
+            return outers;
+        }
+
+        public Instance<Plain> getPlains()
+        {
+            return plains;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.jfr;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.event.Observes;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.webbeans.jfr.FlightRecorderSupport;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FlightRecorderEventsTest extends AbstractUnitTest
+{
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testContainerEvents() throws Exception
+    {
+        Assume.assumeTrue(FlightRecorderSupport.AVAILABLE && FlightRecorder.isAvailable());
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording())
+        {
+            for (String name : new String[]{"BeanInstance", "Context", "EventNotification", "ProxyGeneration", "DeploymentPhase"})
+            {
+                recording.enable("org.apache.webbeans." + name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+
+            startContainer(Service.class);
+            Assert.assertEquals("initialized", getInstance(Service.class).getState());
+            getBeanManager().fireEvent("hello");
+            endContext(RequestScoped.class);
+            shutDownContainer();
+
+            recording.stop();
+            File file = tempFolder.newFile("owb.jfr");
+            recording.dump(file.toPath());
+            events = RecordingFile.readAllEvents(file.toPath());
+        }
+
+        Set<String> phases = new HashSet<>();
+        Set<String> beanOperations = new HashSet<>();
+        List<RecordedEvent> proxies = new ArrayList<>();
+        boolean notified = false;
+        boolean requestEnded = false;
+        for (RecordedEvent event : events)
+        {
+            String name = event.getEventType().getName();
+            if (name.equals("org.apache.webbeans.DeploymentPhase"))
+            {
+                phases.add(event.getString("phase"));
+            }
+            else if (name.equals("org.apache.webbeans.BeanInstance")
+                && Service.class.getName().equals(event.getClass("beanClass").getName()))
+            {
+                beanOperations.add(event.getString("operation"));
+            }
+            else if (name.equals("org.apache.webbeans.ProxyGeneration")
+                && Service.class.getName().equals(event.getClass("proxiedClass").getName()))
+            {
+                proxies.add(event);
+            }
+            else if (name.equals("org.apache.webbeans.EventNotification")
+                && String.class.getName().equals(event.getClass("eventType").getName()))
+            {
+                notified = event.getInt("observerCount") == 1 && !event.getBoolean("async");
+            }
+            else if (name.equals("org.apache.webbeans.Context")
+                && RequestScoped.class.getName().equals(event.getClass("scope").getName()))
+            {
+                requestEnded |= "end".equals(event.getString("operation"));
+            }
+        }
+
+        Assert.assertTrue(phases.toString(), phases.contains("scanning"));
+        Assert.assertTrue(phases.toString(), phases.contains("validation"));
+        Assert.assertTrue(beanOperations.toString(), beanOperations.contains("produce"));
+        Assert.assertTrue(beanOperations.toString(), beanOperations.contains("inject"));
+        Assert.assertTrue(beanOperations.toString(), beanOperations.contains("postConstruct"));
+        Assert.assertEquals(1, proxies.size());
+        Assert.assertEquals("NormalScopeProxyFactory", proxies.get(0).getString("proxyFactory"));
+        Assert.assertTrue(notified);
+        Assert.assertTrue(requestEnded);
+    }
+
+    @RequestScoped
+    public static class Service
+    {
+        private String state;
+
+        @PostConstruct
+        public void init()
+        {
+            state = "initialized";
+        }
+
+        public String getState()
+        {
+            return state;
+        }
+
+        public void observe(@Observes String event)
+        {
+            // only gets notified
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.annotation.Priority;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.context.RequestScoped;
+import javax.enterprise.event.Observes;
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InterceptorBinding;
+import javax.interceptor.InvocationContext;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.webbeans.context.AbstractContext;
+import org.apache.webbeans.context.SessionContext;
+import org.apache.webbeans.corespi.metrics.JmxMetricsService;
+import org.apache.webbeans.corespi.se.StandaloneContextsService;
+import org.apache.webbeans.spi.MetricsService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JmxMetricsServiceTest extends AbstractUnitTest
+{
+    @Before
+    public void enableMetrics()
+    {
+        System.setProperty(MetricsService.class.getName(), JmxMetricsService.class.getName());
+    }
+
+    @After
+    public void disableMetrics()
+    {
+        System.clearProperty(MetricsService.class.getName());
+    }
+
+    @Test
+    public void testContainerMetrics() throws Exception
+    {
+        startContainer(Service.class, CountingInterceptor.class, Counted.class);
+        JmxMetricsService metricsService = (JmxMetricsService) getWebBeansContext().getMetricsService();
+
+        Service service = getInstance(Service.class);
+        service.call();
+        service.call();
+        getInstance(Service.class);
+
+        getBeanManager().fireEvent("hello");
+        getBeanManager().fireEvent("world");
+
+        // the container already started a request context
+        Assert.assertEquals(1L, metricsService.getValues().get("contexts.RequestScoped.active").longValue());
+        endContext(RequestScoped.class);
+        Assert.assertEquals(0L, metricsService.getValues().get("contexts.RequestScoped.active").longValue());
+        startContext(RequestScoped.class);
+        Assert.assertEquals(1L, metricsService.getValues().get("contexts.RequestScoped.active").longValue());
+        endContext(RequestScoped.class);
+
+        Map<String, Long> values = metricsService.getValues();
+        Assert.assertEquals(0L, values.get("contexts.RequestScoped.active").longValue());
+        Assert.assertEquals(2L, values.get("interceptors." + Service.class.getName() + ".invocations").longValue());
+        Assert.assertEquals(2L, values.get("observers." + Service.class.getName() + "#observe.count").longValue());
+        Assert.assertTrue(values.get("injectionResolver.resolvedBeansByType.hits") > 0);
+        Assert.assertTrue(values.get("injectionResolver.resolvedBeansByType.size") > 0);
+        Assert.assertTrue(values.get("proxies.NormalScopeProxyFactory.classes") > 0);
+        Assert.assertTrue(values.get("proxies.InterceptorDecoratorProxyFactory.classes") > 0);
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = metricsService.getObjectName();
+        Assert.assertEquals(2L, mBeanServer.getAttribute(objectName, "interceptors." + Service.class.getName() + ".invocations"));
+
+        shutDownContainer();
+        Assert.assertFalse(mBeanServer.isRegistered(objectName));
+    }
+
+    @Test
+    public void testContextsGetCountedOnce() throws Exception
+    {
+        startContainer(Service.class);
+        JmxMetricsService metricsService = (JmxMetricsService) getWebBeansContext().getMetricsService();
+        ExposedContextsService contextsService = new ExposedContextsService();
+        String metric = "contexts.SessionScoped.active";
+        long active = metricsService.getValues().get(metric);
+
+        SessionContext started = new SessionContext();
+        contextsService.contextStarted(started);
+        contextsService.contextStarted(started);
+        Assert.assertEquals(active + 1, metricsService.getValues().get(metric).longValue());
+
+        // e.g. replicated from another node, it didn't get started here
+        SessionContext deserialized = deserialize(serialize(started));
+        contextsService.contextEnded(deserialized);
+        Assert.assertEquals(active + 1, metricsService.getValues().get(metric).longValue());
+
+        // but it gets counted once it got attached
+        contextsService.contextStarted(deserialized);
+        Assert.assertEquals(active + 2, metricsService.getValues().get(metric).longValue());
+
+        contextsService.contextEnded(started);
+        contextsService.contextEnded(started);
+        contextsService.contextEnded(deserialized);
+        Assert.assertEquals(active, metricsService.getValues().get(metric).longValue());
+    }
+
+    @Test
+    public void testDisabledByDefault()
+    {
+        System.clearProperty(MetricsService.class.getName());
+        startContainer(Service.class, CountingInterceptor.class, Counted.class);
+
+        Assert.assertNull(getWebBeansContext().getMetricsService());
+        Assert.assertEquals("called", getInstance(Service.class).call());
+    }
+
+    private static byte[] serialize(Object object) throws Exception
+    {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos))
+        {
+            oos.writeObject(object);
+        }
+        return baos.toByteArray();
+    }
+
+    private static SessionContext deserialize(byte[] bytes) throws Exception
+    {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes)))
+        {
+            return (SessionContext) ois.readObject();
+        }
+    }
+
+    private class ExposedContextsService extends StandaloneContextsService
+    {
+        private ExposedContextsService()
+        {
+            super(getWebBeansContext());
+        }
+
+        @Override
+        public void contextStarted(AbstractContext context)
+        {
+            super.contextStarted(context);
+        }
+
+        @Override
+        public void contextEnded(AbstractContext context)
+        {
+            super.contextEnded(context);
+        }
+    }
+
+    @InterceptorBinding
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({ElementType.TYPE, ElementType.METHOD})
+    public @interface Counted
+    {
+    }
+
+    @Counted
+    @Interceptor
+    @Priority(100)
+    public static class CountingInterceptor
+    {
+        @AroundInvoke
+        public Object invoke(InvocationContext context) throws Exception
+        {
+            return context.proceed();
+        }
+    }
+
+    @ApplicationScoped
+    public static class Service
+    {
+        @Counted
+        public String call()
+        {
+            return "called";
+        }
+
+        public void observe(@Observes String event)
+        {
+            // only gets counted
+        }
+    }
+}
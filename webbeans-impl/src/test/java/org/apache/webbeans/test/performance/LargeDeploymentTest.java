@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.performance;
+
+import java.lang.reflect.Method;
+import java.net.URLClassLoader;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.BeanManager;
+
+import org.apache.webbeans.annotation.AnyLiteral;
+import org.apache.webbeans.spi.ScannerService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.apache.webbeans.test.performance.generator.SyntheticApplication;
+import org.apache.webbeans.test.performance.generator.SyntheticApplicationGenerator;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Deploys generated applications, see {@link SyntheticApplicationGenerator}.
+ */
+public class LargeDeploymentTest extends AbstractUnitTest
+{
+    private static final Logger log = Logger.getLogger(LargeDeploymentTest.class.getName());
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testGeneratedApplication() throws Exception
+    {
+        SyntheticApplication application = new SyntheticApplicationGenerator()
+            .beans(200)
+            .archives(4)
+            .injectionPoints(3)
+            .producers(20)
+            .observers(30)
+            .interceptors(2, 50)
+            .decorators(2, 50)
+            .genericDepth(3)
+            .qualifiers(5)
+            .generate(tempFolder.newFolder());
+
+        Assert.assertEquals(4, application.getArchives().size());
+        Assert.assertEquals(200, application.getBeanClassNames().size());
+
+        deploy(application, () ->
+        {
+            BeanManager beanManager = getBeanManager();
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            for (String beanClassName : application.getBeanClassNames())
+            {
+                Class<?> beanClass = loader.loadClass(beanClassName);
+                Bean<?> bean = beanManager.resolve(beanManager.getBeans(beanClass, AnyLiteral.INSTANCE));
+                Assert.assertNotNull(beanClassName, bean);
+
+                // intercepted and decorated methods just delegate
+                Object instance = beanManager.getReference(bean, beanClass, beanManager.createCreationalContext(bean));
+                Method call = beanClass.getMethod("call");
+                Assert.assertEquals(beanClass.getSimpleName(), call.invoke(instance));
+            }
+
+            Assert.assertEquals(1, beanManager.getBeans(loader.loadClass(SyntheticApplicationGenerator.BASE_PACKAGE + ".api.Product19")).size());
+
+            Object event = loader.loadClass(application.getEventClassName()).getConstructor(int.class).newInstance(1);
+            Assert.assertEquals(30, beanManager.resolveObserverMethods(event).size());
+        });
+    }
+
+    /**
+     * Deploys 10 times more beans and fails if that takes more than half
+     * of the 100 times longer a quadratic growth would need.
+     */
+    @Test
+    @Ignore("only for manual performance testing and debugging")
+    public void testDeploymentScaling() throws Exception
+    {
+        int[] beanCounts = {100, 1000};
+        long[] durations = new long[beanCounts.length];
+        for (int i = 0; i < beanCounts.length; i++)
+        {
+            int beans = beanCounts[i];
+            SyntheticApplication application = new SyntheticApplicationGenerator()
+                .beans(beans)
+                .archives(beans / 50)
+                .injectionPoints(3)
+                .producers(beans / 10)
+                .observers(beans / 10)
+                .interceptors(2, beans / 4)
+                .decorators(1, beans / 10)
+                .genericDepth(2)
+                .qualifiers(10)
+                .generate(tempFolder.newFolder());
+
+            long start = System.nanoTime();
+            deploy(application, () -> Assert.assertEquals(beans, getBeanManager().getBeans(Object.class, AnyLiteral.INSTANCE).stream()
+                .filter(b -> b.getBeanClass().getName().startsWith(SyntheticApplicationGenerator.BASE_PACKAGE))
+                .filter(b -> b.getTypes().contains(b.getBeanClass())) // no producers
+                .count()));
+            durations[i] = System.nanoTime() - start;
+            log.info("Deploying " + beans + " generated beans in " + application.getArchives().size() + " archives took "
+                + TimeUnit.NANOSECONDS.toMillis(durations[i]) + " ms");
+
+            application.delete();
+        }
+
+        long growth = durations[1] / Math.max(1, durations[0]);
+        Assert.assertTrue("Deploying 10 times more beans took " + growth + " times longer", growth < 50);
+    }
+
+    /**
+     * Boots the container with the archives of the given application,
+     * runs the given check and shuts the container down again.
+     */
+    private void deploy(SyntheticApplication application, Check check) throws Exception
+    {
+        Thread thread = Thread.currentThread();
+        ClassLoader oldLoader = thread.getContextClassLoader();
+        try (URLClassLoader loader = application.createClassLoader(oldLoader))
+        {
+            thread.setContextClassLoader(loader);
+            try
+            {
+                addService(ScannerService.class, application.createScannerService());
+                startContainer(Collections.emptyList(), null);
+                check.run();
+            }
+            finally
+            {
+                shutDownContainer();
+                thread.setContextClassLoader(oldLoader);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Check
+    {
+        void run() throws Exception;
+    }
+}
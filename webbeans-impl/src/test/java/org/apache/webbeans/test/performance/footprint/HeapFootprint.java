@@ -0,0 +1,233 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.performance.footprint;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.enterprise.inject.spi.Bean;
+import javax.enterprise.inject.spi.Producer;
+
+import org.apache.webbeans.component.InjectionTargetBean;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.portable.AbstractProducer;
+
+/**
+ * Measures the retained heap of the metadata a {@link WebBeansContext} holds after boot,
+ * split up by subsystem.
+ *
+ * The subsystems get measured in a fixed order and every object gets only attributed
+ * to the first subsystem reaching it, e.g. an AnnotatedType referenced by a bean and
+ * by the AnnotatedElementFactory counts as annotated type. The WebBeansContext, all
+ * of its services and the roots of the other subsystems act as boundaries while a
+ * subsystem gets measured, otherwise an InjectionPoint would account for its bean
+ * and the first bean for the whole container.
+ */
+public class HeapFootprint
+{
+    public static final String INJECTION_POINTS = "injectionPoints";
+    public static final String INTERCEPTOR_INFO = "interceptorInfo";
+    public static final String ANNOTATED_TYPES = "annotatedTypes";
+    public static final String BEANS = "beans";
+    public static final String OBSERVERS = "observers";
+    public static final String INJECTION_RESOLVER = "injectionResolver";
+    public static final String ANNOTATED_ELEMENT_FACTORY = "annotatedElementFactory";
+    public static final String PROXY_FACTORIES = "proxyFactories";
+
+    private final WebBeansContext webBeansContext;
+    private final Map<String, Long> subsystems = new LinkedHashMap<>();
+    private int beanCount;
+    private int proxyClassCount;
+
+    public HeapFootprint(WebBeansContext webBeansContext)
+    {
+        this.webBeansContext = webBeansContext;
+    }
+
+    public HeapFootprint measure()
+    {
+        ObjectGraphSizer sizer = new ObjectGraphSizer();
+        List<Object> infrastructure = getInfrastructure();
+        for (Object service : infrastructure)
+        {
+            sizer.addBoundary(service);
+        }
+
+        Set<Bean<?>> beans = webBeansContext.getBeanManagerImpl().getBeans();
+        beanCount = beans.size();
+
+        List<Object> injectionPoints = new ArrayList<>();
+        List<Object> interceptorInfos = new ArrayList<>();
+        List<Object> annotatedTypes = new ArrayList<>();
+        for (Bean<?> bean : beans)
+        {
+            injectionPoints.add(bean.getInjectionPoints());
+            if (bean instanceof InjectionTargetBean)
+            {
+                InjectionTargetBean<?> injectionTargetBean = (InjectionTargetBean<?>) bean;
+                annotatedTypes.add(injectionTargetBean.getAnnotatedType());
+
+                Producer<?> producer = injectionTargetBean.getProducer();
+                if (producer instanceof AbstractProducer)
+                {
+                    interceptorInfos.add(((AbstractProducer<?>) producer).getInterceptorInfo());
+                }
+            }
+        }
+
+        List<Object> beanRoots = new ArrayList<>(beans);
+        for (List<Object> roots : Arrays.asList(injectionPoints, interceptorInfos, annotatedTypes, beanRoots))
+        {
+            for (Object root : roots)
+            {
+                sizer.addBoundary(root);
+            }
+        }
+
+        subsystems.put(INJECTION_POINTS, measureRoots(sizer, injectionPoints.toArray()));
+        subsystems.put(INTERCEPTOR_INFO, measureRoots(sizer, interceptorInfos.toArray()));
+        subsystems.put(ANNOTATED_TYPES, measureRoots(sizer, annotatedTypes.toArray()));
+        subsystems.put(BEANS, measureRoots(sizer, beanRoots.toArray()));
+        subsystems.put(OBSERVERS, measureRoots(sizer, webBeansContext.getNotificationManager()));
+        subsystems.put(INJECTION_RESOLVER, measureRoots(sizer, webBeansContext.getBeanManagerImpl().getInjectionResolver()));
+        subsystems.put(ANNOTATED_ELEMENT_FACTORY, measureRoots(sizer, webBeansContext.getAnnotatedElementFactory()));
+        subsystems.put(PROXY_FACTORIES, measureRoots(sizer,
+                webBeansContext.getNormalScopeProxyFactory(),
+                webBeansContext.getInterceptorDecoratorProxyFactory(),
+                webBeansContext.getSubclassProxyFactory()));
+
+        proxyClassCount = 0;
+        for (Class<?> reached : sizer.getReachedClasses())
+        {
+            if (reached.getName().contains("$$Owb"))
+            {
+                proxyClassCount++;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @return the retained bytes per subsystem, in measuring order
+     */
+    public Map<String, Long> getSubsystems()
+    {
+        return subsystems;
+    }
+
+    public long getTotal()
+    {
+        long total = 0;
+        for (Long size : subsystems.values())
+        {
+            total += size;
+        }
+        return total;
+    }
+
+    public int getBeanCount()
+    {
+        return beanCount;
+    }
+
+    /**
+     * @return the number of generated proxy classes referenced by the measured metadata
+     */
+    public int getProxyClassCount()
+    {
+        return proxyClassCount;
+    }
+
+    public long getBytesPerBean(String subsystem)
+    {
+        return beanCount == 0 ? 0 : subsystems.get(subsystem) / beanCount;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder report = new StringBuilder("Heap footprint of ").append(beanCount).append(" beans:");
+        for (Map.Entry<String, Long> subsystem : subsystems.entrySet())
+        {
+            report.append("\n  ").append(subsystem.getKey()).append(": ")
+                .append(subsystem.getValue()).append(" bytes, ")
+                .append(getBytesPerBean(subsystem.getKey())).append(" bytes/bean");
+        }
+        return report.append("\n  total: ").append(getTotal()).append(" bytes, ")
+            .append(beanCount == 0 ? 0 : getTotal() / beanCount).append(" bytes/bean")
+            .append("\n  proxy classes: ").append(proxyClassCount)
+            .toString();
+    }
+
+    private long measureRoots(ObjectGraphSizer sizer, Object... roots)
+    {
+        for (Object root : roots)
+        {
+            sizer.removeBoundary(root);
+        }
+        try
+        {
+            return sizer.measure(roots);
+        }
+        finally
+        {
+            for (Object root : roots)
+            {
+                sizer.addBoundary(root);
+            }
+        }
+    }
+
+    /**
+     * @return the WebBeansContext and all services it holds
+     */
+    private List<Object> getInfrastructure()
+    {
+        List<Object> infrastructure = new ArrayList<>();
+        infrastructure.add(webBeansContext);
+        for (Field field : WebBeansContext.class.getDeclaredFields())
+        {
+            if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive())
+            {
+                continue;
+            }
+            try
+            {
+                field.setAccessible(true);
+                Object value = field.get(webBeansContext);
+                if (value instanceof Map)
+                {
+                    infrastructure.addAll(((Map<?, ?>) value).values());
+                }
+                infrastructure.add(value);
+            }
+            catch (IllegalAccessException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+        return infrastructure;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.performance.footprint;
+
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import org.apache.webbeans.spi.ScannerService;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.apache.webbeans.test.performance.generator.SyntheticApplication;
+import org.apache.webbeans.test.performance.generator.SyntheticApplicationGenerator;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Fails if the heap retained per deployed bean grows beyond the given thresholds.
+ *
+ * The thresholds leave about 25% headroom over the measured footprint. The sizes follow
+ * the fixed layout model of {@link ObjectGraphSizer}, so they don't depend on the running JVM,
+ * only on the fields of the retained classes. If a change intentionally needs more memory
+ * per bean then adjust them together with that change.
+ * Setting the system property {@value #TOLERANCE_PROPERTY} scales all thresholds,
+ * e.g. for JDKs whose collection classes have more fields.
+ */
+public class HeapFootprintTest extends AbstractUnitTest
+{
+    private static final Logger log = Logger.getLogger(HeapFootprintTest.class.getName());
+
+    public static final String TOLERANCE_PROPERTY = "openwebbeans.footprint.tolerance";
+
+    private static final int BEANS = 500;
+
+    private static final Map<String, Long> BYTES_PER_BEAN = new HashMap<>();
+    static
+    {
+        BYTES_PER_BEAN.put(HeapFootprint.INJECTION_POINTS, 5800L);
+        BYTES_PER_BEAN.put(HeapFootprint.INTERCEPTOR_INFO, 900L);
+        BYTES_PER_BEAN.put(HeapFootprint.ANNOTATED_TYPES, 2650L);
+        BYTES_PER_BEAN.put(HeapFootprint.BEANS, 2100L);
+        BYTES_PER_BEAN.put(HeapFootprint.OBSERVERS, 40L);
+        BYTES_PER_BEAN.put(HeapFootprint.INJECTION_RESOLVER, 16L);
+        BYTES_PER_BEAN.put(HeapFootprint.ANNOTATED_ELEMENT_FACTORY, 24L);
+        BYTES_PER_BEAN.put(HeapFootprint.PROXY_FACTORIES, 20L);
+    }
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void testObjectGraphSizer()
+    {
+        long objectSize = ObjectGraphSizer.sizeOf(new Object());
+        Assert.assertTrue(objectSize > 0);
+        Assert.assertTrue(ObjectGraphSizer.sizeOf(new LongHolder()) > objectSize);
+        Assert.assertEquals(ObjectGraphSizer.sizeOf(new long[0]) + 16 * 8, ObjectGraphSizer.sizeOf(new long[16]));
+        Assert.assertTrue(ObjectGraphSizer.sizeOf(new Object[16]) < ObjectGraphSizer.sizeOf(new long[16]));
+
+        String shared = "shared";
+        List<String> first = new ArrayList<>(Collections.singletonList(shared));
+        List<String> second = new ArrayList<>(Collections.singletonList(shared));
+
+        ObjectGraphSizer sizer = new ObjectGraphSizer();
+        long firstSize = sizer.measure(first);
+        long secondSize = sizer.measure(second);
+        Assert.assertTrue(firstSize > secondSize);
+        Assert.assertEquals(firstSize - secondSize, new ObjectGraphSizer().measure(shared));
+        Assert.assertEquals(0, sizer.measure(first));
+
+        Assert.assertEquals(0, new ObjectGraphSizer().addBoundary(first).measure(first));
+    }
+
+    @Test
+    public void testFootprintPerBean() throws Exception
+    {
+        SyntheticApplication application = new SyntheticApplicationGenerator()
+            .beans(BEANS)
+            .archives(10)
+            .injectionPoints(3)
+            .producers(BEANS / 10)
+            .observers(BEANS / 10)
+            .interceptors(2, BEANS / 4)
+            .decorators(1, BEANS / 10)
+            .genericDepth(2)
+            .qualifiers(10)
+            .generate(tempFolder.newFolder());
+
+        Thread thread = Thread.currentThread();
+        ClassLoader oldLoader = thread.getContextClassLoader();
+        HeapFootprint footprint;
+        try (URLClassLoader loader = application.createClassLoader(oldLoader))
+        {
+            thread.setContextClassLoader(loader);
+            try
+            {
+                addService(ScannerService.class, application.createScannerService());
+                startContainer(Collections.emptyList(), null);
+                footprint = new HeapFootprint(getWebBeansContext()).measure();
+            }
+            finally
+            {
+                shutDownContainer();
+                thread.setContextClassLoader(oldLoader);
+            }
+        }
+        log.info(footprint.toString());
+
+        Assert.assertTrue(footprint.getBeanCount() >= BEANS);
+        double tolerance = Double.parseDouble(System.getProperty(TOLERANCE_PROPERTY, "1.0"));
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Long> threshold : BYTES_PER_BEAN.entrySet())
+        {
+            long actual = footprint.getBytesPerBean(threshold.getKey());
+            long allowed = (long) (threshold.getValue() * tolerance);
+            if (actual > allowed)
+            {
+                regressions.add(threshold.getKey() + " retains " + actual + " bytes per bean, allowed are " + allowed);
+            }
+        }
+        Assert.assertTrue("Heap footprint regression: " + regressions + "\n" + footprint, regressions.isEmpty());
+    }
+
+    private static class LongHolder
+    {
+        private long value;
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.performance.footprint;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.security.ProtectionDomain;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Walks object graphs and sums up the shallow sizes of all reachable objects,
+ * similar to what JOL's GraphLayout does.
+ *
+ * The sizes follow a fixed model of a 64 bit JVM with compressed oops: a 12 byte
+ * object header, 16 bytes for array headers, 4 byte references and 8 byte alignment.
+ * Field packing is ignored. So the sizes only depend on the fields of the classes
+ * and not on the layout of the running JVM.
+ *
+ * Objects get only counted once per sizer, so measuring several roots one after
+ * the other attributes shared objects to the first root which reached them.
+ *
+ * Classes, ClassLoaders, Threads and the referents of weak and soft references
+ * never get followed. Additional boundaries can be given, e.g. container services
+ * which are referenced by all beans.
+ */
+public class ObjectGraphSizer
+{
+    private static final int OBJECT_HEADER_SIZE = 12;
+    private static final int ARRAY_HEADER_SIZE = 16;
+    private static final int REFERENCE_SIZE = 4;
+    private static final int OBJECT_ALIGNMENT = 8;
+
+    private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Object> boundaries = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<Class<?>> reachedClasses = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Class<?>, ClassLayout> layouts = new HashMap<>();
+
+    /**
+     * Objects which never get counted or followed.
+     */
+    public ObjectGraphSizer addBoundary(Object boundary)
+    {
+        if (boundary != null)
+        {
+            boundaries.add(boundary);
+        }
+        return this;
+    }
+
+    public ObjectGraphSizer removeBoundary(Object boundary)
+    {
+        boundaries.remove(boundary);
+        return this;
+    }
+
+    /**
+     * @return the shallow size of all objects reachable from the given roots
+     *         which did not get counted by a previous measurement already
+     */
+    public long measure(Object... roots)
+    {
+        long size = 0;
+        Deque<Object> stack = new ArrayDeque<>();
+        for (Object root : roots)
+        {
+            push(stack, root);
+        }
+
+        while (!stack.isEmpty())
+        {
+            Object current = stack.pop();
+            Class<?> type = current.getClass();
+            if (type.isArray())
+            {
+                size += sizeOfArray(current);
+                if (!type.getComponentType().isPrimitive())
+                {
+                    for (Object element : (Object[]) current)
+                    {
+                        push(stack, element);
+                    }
+                }
+            }
+            else
+            {
+                ClassLayout layout = getLayout(type);
+                size += layout.size;
+                for (Field field : layout.references)
+                {
+                    try
+                    {
+                        push(stack, field.get(current));
+                    }
+                    catch (IllegalAccessException e)
+                    {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return all classes which were referenced by the measured objects, e.g. to count proxy classes
+     */
+    public Set<Class<?>> getReachedClasses()
+    {
+        return reachedClasses;
+    }
+
+    /**
+     * @return the shallow size of the given object
+     */
+    public static long sizeOf(Object object)
+    {
+        return object.getClass().isArray() ? sizeOfArray(object) : new ClassLayout(object.getClass()).size;
+    }
+
+    private void push(Deque<Object> stack, Object object)
+    {
+        if (object == null || boundaries.contains(object))
+        {
+            return;
+        }
+        if (object instanceof Class)
+        {
+            reachedClasses.add((Class<?>) object);
+            return;
+        }
+        if (object instanceof ClassLoader || object instanceof Thread || object instanceof ProtectionDomain)
+        {
+            return;
+        }
+        if (visited.add(object))
+        {
+            stack.push(object);
+        }
+    }
+
+    private ClassLayout getLayout(Class<?> type)
+    {
+        return layouts.computeIfAbsent(type, ClassLayout::new);
+    }
+
+    private static long sizeOfArray(Object array)
+    {
+        long size = ARRAY_HEADER_SIZE + (long) sizeOfField(array.getClass().getComponentType()) * Array.getLength(array);
+        return align(size);
+    }
+
+    private static long align(long size)
+    {
+        return (size + OBJECT_ALIGNMENT - 1) / OBJECT_ALIGNMENT * OBJECT_ALIGNMENT;
+    }
+
+    private static int sizeOfField(Class<?> type)
+    {
+        if (!type.isPrimitive())
+        {
+            return REFERENCE_SIZE;
+        }
+        if (type == long.class || type == double.class)
+        {
+            return 8;
+        }
+        if (type == int.class || type == float.class)
+        {
+            return 4;
+        }
+        if (type == short.class || type == char.class)
+        {
+            return 2;
+        }
+        return 1;
+    }
+
+    private static final class ClassLayout
+    {
+        private final long size;
+        private final List<Field> references = new ArrayList<>();
+
+        private ClassLayout(Class<?> type)
+        {
+            long fieldSize = 0;
+            for (Class<?> current = type; current != null; current = current.getSuperclass())
+            {
+                for (Field field : current.getDeclaredFields())
+                {
+                    if (Modifier.isStatic(field.getModifiers()))
+                    {
+                        continue;
+                    }
+                    fieldSize += sizeOfField(field.getType());
+
+                    if (!field.getType().isPrimitive() && !isWeakReferent(current, field))
+                    {
+                        field.setAccessible(true);
+                        references.add(field);
+                    }
+                }
+            }
+            size = align(OBJECT_HEADER_SIZE + fieldSize);
+        }
+
+        private static boolean isWeakReferent(Class<?> declaringClass, Field field)
+        {
+            return declaringClass == Reference.class && "referent".equals(field.getName());
+        }
+    }
+}
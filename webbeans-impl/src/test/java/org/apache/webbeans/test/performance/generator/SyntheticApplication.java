@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.performance.generator;
+
+import java.io.File;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.webbeans.spi.ScannerService;
+
+/**
+ * An application generated by the {@link SyntheticApplicationGenerator}.
+ *
+ * The classes only exist in the generated archives, so the application
+ * has to be deployed with the {@link #createClassLoader(ClassLoader) ClassLoader}
+ * of the archives being the context ClassLoader and with the
+ * {@link #createScannerService() ScannerService} which only scans those archives.
+ */
+public class SyntheticApplication
+{
+    private final List<File> archives;
+    private final List<String> beanClassNames;
+    private final String eventClassName;
+
+    SyntheticApplication(List<File> archives, List<String> beanClassNames, String eventClassName)
+    {
+        this.archives = Collections.unmodifiableList(archives);
+        this.beanClassNames = Collections.unmodifiableList(beanClassNames);
+        this.eventClassName = eventClassName;
+    }
+
+    public List<File> getArchives()
+    {
+        return archives;
+    }
+
+    /**
+     * @return the fully qualified names of all generated managed beans, in index order
+     */
+    public List<String> getBeanClassNames()
+    {
+        return beanClassNames;
+    }
+
+    /**
+     * @return the type observed by the generated observer methods, it has a constructor taking an int
+     */
+    public String getEventClassName()
+    {
+        return eventClassName;
+    }
+
+    public List<URL> getArchiveUrls()
+    {
+        List<URL> urls = new ArrayList<>(archives.size());
+        for (File archive : archives)
+        {
+            try
+            {
+                urls.add(archive.toURI().toURL());
+            }
+            catch (MalformedURLException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        }
+        return urls;
+    }
+
+    public URLClassLoader createClassLoader(ClassLoader parent)
+    {
+        List<URL> urls = getArchiveUrls();
+        return new URLClassLoader(urls.toArray(new URL[urls.size()]), parent);
+    }
+
+    public ScannerService createScannerService()
+    {
+        return new SyntheticApplicationScannerService(getArchiveUrls());
+    }
+
+    /**
+     * Deletes the generated archives.
+     */
+    public void delete()
+    {
+        for (File archive : archives)
+        {
+            if (archive.exists() && !archive.delete())
+            {
+                archive.deleteOnExit();
+            }
+        }
+    }
+}
@@ -0,0 +1,512 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.performance.generator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.apache.xbean.asm6.AnnotationVisitor;
+import org.apache.xbean.asm6.ClassWriter;
+import org.apache.xbean.asm6.FieldVisitor;
+import org.apache.xbean.asm6.MethodVisitor;
+import org.apache.xbean.asm6.Opcodes;
+
+/**
+ * Generates synthetic applications of configurable size to measure how scanning,
+ * deployment, validation and resolution scale with the number of beans.
+ *
+ * The classes get generated via ASM into jars which contain a
+ * META-INF/beans.xml with bean-discovery-mode all. The first archive contains
+ * the shared types (qualifiers, interceptors, decorators, produced types and the event type),
+ * the beans get distributed over all archives. Every second bean is &#064;ApplicationScoped,
+ * the others are &#064;Dependent.
+ *
+ * Bean N only injects beans with a lower index, so there are no circular dependencies
+ * and every injection point resolves to exactly one bean.
+ *
+ * <pre>
+ * SyntheticApplication app = new SyntheticApplicationGenerator()
+ *     .beans(2000)
+ *     .archives(20)
+ *     .injectionPoints(3)
+ *     .generate(directory);
+ * </pre>
+ *
+ * @see SyntheticApplication
+ */
+public class SyntheticApplicationGenerator implements Opcodes
+{
+    public static final String BASE_PACKAGE = "org.apache.webbeans.generated";
+
+    private static final String API_PACKAGE = BASE_PACKAGE.replace('.', '/') + "/api/";
+
+    private static final String GENERIC_SERVICE = API_PACKAGE + "GenericService";
+    private static final String HOLDER = API_PACKAGE + "Holder";
+    private static final String DECORATED_SERVICE = API_PACKAGE + "DecoratedService";
+    private static final String TRACED = API_PACKAGE + "Traced";
+    private static final String EVENT = API_PACKAGE + "SyntheticEvent";
+
+    private static final String OBJECT = "java/lang/Object";
+    private static final String STRING_DESCRIPTOR = "Ljava/lang/String;";
+
+    private static final String BEANS_XML = "<beans xmlns=\"http://xmlns.jcp.org/xml/ns/javaee\" " +
+        "version=\"1.1\" bean-discovery-mode=\"all\"/>\n";
+
+    private static final int PRIORITY_APPLICATION = 2000;
+
+    private int beans = 100;
+    private int archives = 1;
+    private int injectionPoints = 2;
+    private int producers;
+    private int observers;
+    private int interceptors;
+    private int interceptedBeans;
+    private int decorators;
+    private int decoratedBeans;
+    private int genericDepth;
+    private int qualifiers;
+
+    /**
+     * @param beans number of managed beans, 100 by default
+     */
+    public SyntheticApplicationGenerator beans(int beans)
+    {
+        this.beans = beans;
+        return this;
+    }
+
+    /**
+     * @param archives number of jars the beans get distributed over, 1 by default
+     */
+    public SyntheticApplicationGenerator archives(int archives)
+    {
+        this.archives = archives;
+        return this;
+    }
+
+    /**
+     * @param injectionPoints number of injected fields per bean, 2 by default
+     */
+    public SyntheticApplicationGenerator injectionPoints(int injectionPoints)
+    {
+        this.injectionPoints = injectionPoints;
+        return this;
+    }
+
+    /**
+     * @param producers number of producer methods, each one produces its own type
+     */
+    public SyntheticApplicationGenerator producers(int producers)
+    {
+        this.producers = producers;
+        return this;
+    }
+
+    /**
+     * @param observers number of observer methods for the {@link SyntheticApplication#getEventClassName() event type}
+     */
+    public SyntheticApplicationGenerator observers(int observers)
+    {
+        this.observers = observers;
+        return this;
+    }
+
+    /**
+     * @param interceptors number of interceptors, all of them bound to the same interceptor binding
+     * @param interceptedBeans number of beans which get intercepted
+     */
+    public SyntheticApplicationGenerator interceptors(int interceptors, int interceptedBeans)
+    {
+        this.interceptors = interceptors;
+        this.interceptedBeans = interceptedBeans;
+        return this;
+    }
+
+    /**
+     * @param decorators number of decorators, all of them decorating the same interface
+     * @param decoratedBeans number of beans which implement the decorated interface
+     */
+    public SyntheticApplicationGenerator decorators(int decorators, int decoratedBeans)
+    {
+        this.decorators = decorators;
+        this.decoratedBeans = decoratedBeans;
+        return this;
+    }
+
+    /**
+     * @param genericDepth if greater than 0 each bean implements a parameterized interface
+     *                     like {@code GenericService<Holder<Holder<BeanN>>>} with the given nesting depth,
+     *                     and every second injection point uses this type
+     */
+    public SyntheticApplicationGenerator genericDepth(int genericDepth)
+    {
+        this.genericDepth = genericDepth;
+        return this;
+    }
+
+    /**
+     * @param qualifiers number of qualifier annotations, each bean and its injection points use one of them
+     */
+    public SyntheticApplicationGenerator qualifiers(int qualifiers)
+    {
+        this.qualifiers = qualifiers;
+        return this;
+    }
+
+    /**
+     * Generates the application into the given directory.
+     */
+    public SyntheticApplication generate(File directory) throws IOException
+    {
+        if (beans < 1 || archives < 1)
+        {
+            throw new IllegalArgumentException("at least one bean and one archive are required");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IOException("cannot create " + directory);
+        }
+
+        List<JarOutputStream> jars = new ArrayList<>(archives);
+        List<File> files = new ArrayList<>(archives);
+        List<String> beanClassNames = new ArrayList<>(beans);
+        try
+        {
+            for (int a = 0; a < archives; a++)
+            {
+                File file = new File(directory, "synthetic-" + a + ".jar");
+                files.add(file);
+                JarOutputStream jar = new JarOutputStream(new FileOutputStream(file));
+                jars.add(jar);
+                write(jar, "META-INF/beans.xml", BEANS_XML.getBytes(StandardCharsets.UTF_8));
+            }
+
+            JarOutputStream api = jars.get(0);
+            writeClass(api, GENERIC_SERVICE, generateGenericInterface(GENERIC_SERVICE));
+            writeClass(api, HOLDER, generateGenericInterface(HOLDER));
+            writeClass(api, DECORATED_SERVICE, generateDecoratedService());
+            writeClass(api, TRACED, generateAnnotation(TRACED, "Ljavax/interceptor/InterceptorBinding;"));
+            writeClass(api, EVENT, generateIntConstructorClass(EVENT));
+            for (int q = 0; q < qualifiers; q++)
+            {
+                writeClass(api, getQualifier(q), generateAnnotation(getQualifier(q), "Ljavax/inject/Qualifier;"));
+            }
+            for (int p = 0; p < producers; p++)
+            {
+                writeClass(api, getProduct(p), generateIntConstructorClass(getProduct(p)));
+            }
+            for (int i = 0; i < interceptors; i++)
+            {
+                String name = API_PACKAGE + "Interceptor" + i;
+                writeClass(api, name, generateInterceptor(name, PRIORITY_APPLICATION + i));
+            }
+            for (int d = 0; d < decorators; d++)
+            {
+                String name = API_PACKAGE + "Decorator" + d;
+                writeClass(api, name, generateDecorator(name, PRIORITY_APPLICATION + d));
+            }
+
+            for (int b = 0; b < beans; b++)
+            {
+                String name = getBean(b);
+                writeClass(jars.get(b % archives), name, generateBean(b));
+                beanClassNames.add(name.replace('/', '.'));
+            }
+        }
+        finally
+        {
+            for (JarOutputStream jar : jars)
+            {
+                jar.close();
+            }
+        }
+
+        return new SyntheticApplication(files, beanClassNames, EVENT.replace('/', '.'));
+    }
+
+    private byte[] generateBean(int index)
+    {
+        String name = getBean(index);
+        boolean decorated = isSelected(index, decoratedBeans);
+
+        List<String> interfaces = new ArrayList<>();
+        StringBuilder signature = new StringBuilder("L" + OBJECT + ";");
+        if (genericDepth > 0)
+        {
+            interfaces.add(GENERIC_SERVICE);
+            signature.append(getGenericSignature(index));
+        }
+        if (decorated)
+        {
+            interfaces.add(DECORATED_SERVICE);
+            signature.append("L" + DECORATED_SERVICE + ";");
+        }
+
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(V1_8, ACC_PUBLIC | ACC_SUPER, name, genericDepth > 0 ? signature.toString() : null,
+            OBJECT, interfaces.toArray(new String[interfaces.size()]));
+
+        if (index % 2 == 0)
+        {
+            writer.visitAnnotation("Ljavax/enterprise/context/ApplicationScoped;", true).visitEnd();
+        }
+        if (qualifiers > 0)
+        {
+            writer.visitAnnotation("L" + getQualifier(index % qualifiers) + ";", true).visitEnd();
+        }
+        if (isSelected(index, interceptedBeans))
+        {
+            writer.visitAnnotation("L" + TRACED + ";", true).visitEnd();
+        }
+
+        for (int ip = 0; index > 0 && ip < injectionPoints; ip++)
+        {
+            int target = (int) (((long) index * 31 + ip * 17) % index);
+            boolean generic = genericDepth > 0 && ip % 2 == 1;
+            FieldVisitor field = writer.visitField(ACC_PRIVATE, "injected" + ip,
+                generic ? "L" + GENERIC_SERVICE + ";" : "L" + getBean(target) + ";",
+                generic ? getGenericSignature(target) : null, null);
+            field.visitAnnotation("Ljavax/inject/Inject;", true).visitEnd();
+            if (qualifiers > 0)
+            {
+                field.visitAnnotation("L" + getQualifier(target % qualifiers) + ";", true).visitEnd();
+            }
+            field.visitEnd();
+        }
+
+        visitDefaultConstructor(writer);
+
+        MethodVisitor call = writer.visitMethod(ACC_PUBLIC, "call", "()" + STRING_DESCRIPTOR, null, null);
+        call.visitCode();
+        call.visitLdcInsn(name.substring(name.lastIndexOf('/') + 1));
+        call.visitInsn(ARETURN);
+        call.visitMaxs(0, 0);
+        call.visitEnd();
+
+        for (int p = index; p < producers; p += beans)
+        {
+            String product = getProduct(p);
+            MethodVisitor producer = writer.visitMethod(ACC_PUBLIC, "produce" + p, "()L" + product + ";", null, null);
+            producer.visitAnnotation("Ljavax/enterprise/inject/Produces;", true).visitEnd();
+            producer.visitCode();
+            producer.visitTypeInsn(NEW, product);
+            producer.visitInsn(DUP);
+            producer.visitLdcInsn(p);
+            producer.visitMethodInsn(INVOKESPECIAL, product, "<init>", "(I)V", false);
+            producer.visitInsn(ARETURN);
+            producer.visitMaxs(0, 0);
+            producer.visitEnd();
+        }
+
+        for (int o = index; o < observers; o += beans)
+        {
+            MethodVisitor observer = writer.visitMethod(ACC_PUBLIC, "observe" + o, "(L" + EVENT + ";)V", null, null);
+            observer.visitParameterAnnotation(0, "Ljavax/enterprise/event/Observes;", true).visitEnd();
+            observer.visitCode();
+            observer.visitInsn(RETURN);
+            observer.visitMaxs(0, 0);
+            observer.visitEnd();
+        }
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private byte[] generateInterceptor(String name, int priority)
+    {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(V1_8, ACC_PUBLIC | ACC_SUPER, name, null, OBJECT, null);
+        writer.visitAnnotation("Ljavax/interceptor/Interceptor;", true).visitEnd();
+        writer.visitAnnotation("L" + TRACED + ";", true).visitEnd();
+        visitPriority(writer, priority);
+
+        visitDefaultConstructor(writer);
+
+        MethodVisitor invoke = writer.visitMethod(ACC_PUBLIC, "invoke", "(Ljavax/interceptor/InvocationContext;)L" + OBJECT + ";",
+            null, new String[]{"java/lang/Exception"});
+        invoke.visitAnnotation("Ljavax/interceptor/AroundInvoke;", true).visitEnd();
+        invoke.visitCode();
+        invoke.visitVarInsn(ALOAD, 1);
+        invoke.visitMethodInsn(INVOKEINTERFACE, "javax/interceptor/InvocationContext", "proceed", "()L" + OBJECT + ";", true);
+        invoke.visitInsn(ARETURN);
+        invoke.visitMaxs(0, 0);
+        invoke.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private byte[] generateDecorator(String name, int priority)
+    {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(V1_8, ACC_PUBLIC | ACC_SUPER | ACC_ABSTRACT, name, null, OBJECT, new String[]{DECORATED_SERVICE});
+        writer.visitAnnotation("Ljavax/decorator/Decorator;", true).visitEnd();
+        visitPriority(writer, priority);
+
+        FieldVisitor delegate = writer.visitField(ACC_PRIVATE, "delegate", "L" + DECORATED_SERVICE + ";", null, null);
+        delegate.visitAnnotation("Ljavax/inject/Inject;", true).visitEnd();
+        delegate.visitAnnotation("Ljavax/decorator/Delegate;", true).visitEnd();
+        // the decorated beans might have qualifiers
+        delegate.visitAnnotation("Ljavax/enterprise/inject/Any;", true).visitEnd();
+        delegate.visitEnd();
+
+        visitDefaultConstructor(writer);
+
+        MethodVisitor call = writer.visitMethod(ACC_PUBLIC, "call", "()" + STRING_DESCRIPTOR, null, null);
+        call.visitCode();
+        call.visitVarInsn(ALOAD, 0);
+        call.visitFieldInsn(GETFIELD, name, "delegate", "L" + DECORATED_SERVICE + ";");
+        call.visitMethodInsn(INVOKEINTERFACE, DECORATED_SERVICE, "call", "()" + STRING_DESCRIPTOR, true);
+        call.visitInsn(ARETURN);
+        call.visitMaxs(0, 0);
+        call.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private byte[] generateGenericInterface(String name)
+    {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(V1_8, ACC_PUBLIC | ACC_INTERFACE | ACC_ABSTRACT, name, "<T:L" + OBJECT + ";>L" + OBJECT + ";", OBJECT, null);
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private byte[] generateDecoratedService()
+    {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(V1_8, ACC_PUBLIC | ACC_INTERFACE | ACC_ABSTRACT, DECORATED_SERVICE, null, OBJECT, null);
+        writer.visitMethod(ACC_PUBLIC | ACC_ABSTRACT, "call", "()" + STRING_DESCRIPTOR, null, null).visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * A runtime retained annotation with the given meta annotation, e.g. a qualifier.
+     */
+    private byte[] generateAnnotation(String name, String metaAnnotation)
+    {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(V1_8, ACC_PUBLIC | ACC_INTERFACE | ACC_ABSTRACT | ACC_ANNOTATION, name, null, OBJECT,
+            new String[]{"java/lang/annotation/Annotation"});
+        writer.visitAnnotation(metaAnnotation, true).visitEnd();
+        AnnotationVisitor retention = writer.visitAnnotation("Ljava/lang/annotation/Retention;", true);
+        retention.visitEnum("value", "Ljava/lang/annotation/RetentionPolicy;", "RUNTIME");
+        retention.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * A class which is no managed bean as it has no default constructor.
+     */
+    private byte[] generateIntConstructorClass(String name)
+    {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(V1_8, ACC_PUBLIC | ACC_SUPER, name, null, OBJECT, null);
+        writer.visitField(ACC_PRIVATE | ACC_FINAL, "id", "I", null, null).visitEnd();
+
+        MethodVisitor constructor = writer.visitMethod(ACC_PUBLIC, "<init>", "(I)V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitVarInsn(ILOAD, 1);
+        constructor.visitFieldInsn(PUTFIELD, name, "id", "I");
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private void visitDefaultConstructor(ClassWriter writer)
+    {
+        MethodVisitor constructor = writer.visitMethod(ACC_PUBLIC, "<init>", "()V", null, null);
+        constructor.visitCode();
+        constructor.visitVarInsn(ALOAD, 0);
+        constructor.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        constructor.visitInsn(RETURN);
+        constructor.visitMaxs(0, 0);
+        constructor.visitEnd();
+    }
+
+    private void visitPriority(ClassWriter writer, int priority)
+    {
+        AnnotationVisitor annotation = writer.visitAnnotation("Ljavax/annotation/Priority;", true);
+        annotation.visit("value", priority);
+        annotation.visitEnd();
+    }
+
+    /**
+     * @return the signature of {@code GenericService<Holder<...<BeanN>>>}
+     */
+    private String getGenericSignature(int bean)
+    {
+        String signature = "L" + getBean(bean) + ";";
+        for (int i = 1; i < genericDepth; i++)
+        {
+            signature = "L" + HOLDER + "<" + signature + ">;";
+        }
+        return "L" + GENERIC_SERVICE + "<" + signature + ">;";
+    }
+
+    /**
+     * Spreads {@code count} selected beans evenly over all beans.
+     */
+    private boolean isSelected(int index, int count)
+    {
+        return (long) (index + 1) * count / beans > (long) index * count / beans;
+    }
+
+    private String getBean(int index)
+    {
+        return BASE_PACKAGE.replace('.', '/') + "/archive" + index % archives + "/Bean" + index;
+    }
+
+    private static String getQualifier(int index)
+    {
+        return API_PACKAGE + "Qualifier" + index;
+    }
+
+    private static String getProduct(int index)
+    {
+        return API_PACKAGE + "Product" + index;
+    }
+
+    private static void writeClass(JarOutputStream jar, String name, byte[] bytes) throws IOException
+    {
+        write(jar, name + ".class", bytes);
+    }
+
+    private static void write(JarOutputStream jar, String path, byte[] bytes) throws IOException
+    {
+        jar.putNextEntry(new JarEntry(path));
+        jar.write(bytes);
+        jar.closeEntry();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.performance.generator;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.List;
+
+import org.apache.webbeans.corespi.scanner.AbstractMetaDataDiscovery;
+import org.apache.webbeans.util.WebBeansUtil;
+
+/**
+ * Scans the archives of a {@link SyntheticApplication} like the DefaultScannerService
+ * would do, but ignores all other classpath entries.
+ */
+public class SyntheticApplicationScannerService extends AbstractMetaDataDiscovery
+{
+    private final List<URL> archives;
+
+    public SyntheticApplicationScannerService(List<URL> archives)
+    {
+        this.archives = archives;
+    }
+
+    @Override
+    protected void configure()
+    {
+        loader = WebBeansUtil.getCurrentClassLoader();
+
+        for (URL archive : archives)
+        {
+            try
+            {
+                URL beansXml = new URL("jar:" + archive.toExternalForm() + "!/" + META_INF_BEANS_XML);
+                addWebBeansXmlLocation(beansXml);
+                addDeploymentUrl(stripProtocol(beansXml.toExternalForm()), archive);
+            }
+            catch (MalformedURLException e)
+            {
+                throw new IllegalArgumentException(e);
+            }
+        }
+    }
+}
@@ -29,6 +29,9 @@ import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.webbeans.test.AbstractUnitTest;
 import org.junit.Assert;
@@ -53,6 +56,22 @@ public class WithAnnotationTest extends AbstractUnitTest
         Assert.assertEquals(1, WithAnnotationExtension.one);
     }
 
+    @Test
+    public void testMultipleWithAnnotationObservers()
+    {
+        MultipleWithAnnotationsExtension extension = new MultipleWithAnnotationsExtension();
+        addExtension(extension);
+        startContainer(WithoutAnyAnnotation.class, WithAnnotatedClass.class, WithAnnotatedField.class,
+                WithMetaAnnotatedClass.class, WithAnnotatedMethodParameter.class, WithAnotherAnnotatedField.class);
+
+        Assert.assertEquals(new HashSet<>(Arrays.<Class<?>>asList(
+                WithAnnotatedClass.class, WithAnnotatedField.class, WithAnnotatedMethodParameter.class)),
+                extension.my);
+        Assert.assertEquals(new HashSet<>(Arrays.<Class<?>>asList(WithAnotherAnnotatedField.class, WithMetaAnnotatedClass.class)),
+                extension.anotherOrMeta);
+        Assert.assertEquals(6, extension.all.size());
+    }
+
 
     public static class WithAnnotationExtension implements Extension
     {
@@ -75,6 +94,41 @@ public class WithAnnotationTest extends AbstractUnitTest
         }
     }
 
+    public static class MultipleWithAnnotationsExtension implements Extension
+    {
+        private final Set<Class<?>> my = new HashSet<>();
+        private final Set<Class<?>> anotherOrMeta = new HashSet<>();
+        private final Set<Class<?>> all = new HashSet<>();
+
+        public void withMy(@Observes @WithAnnotations(MyAnnoation.class) ProcessAnnotatedType<?> pat)
+        {
+            my.add(pat.getAnnotatedType().getJavaClass());
+        }
+
+        public void withAnotherOrMeta(@Observes @WithAnnotations({AnotherAnnoation.class, MetaAnnoation.class}) ProcessAnnotatedType<?> pat)
+        {
+            anotherOrMeta.add(pat.getAnnotatedType().getJavaClass());
+        }
+
+        public void withoutFilter(@Observes ProcessAnnotatedType<?> pat)
+        {
+            all.add(pat.getAnnotatedType().getJavaClass());
+        }
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.ANNOTATION_TYPE)
+    public static @interface MetaAnnoation
+    {
+    }
+
+    @MetaAnnoation
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.TYPE)
+    public static @interface MetaAnnotatedAnnoation
+    {
+    }
+
     @Retention(RetentionPolicy.RUNTIME)
     @Target({ElementType.FIELD, ElementType.TYPE, ElementType.METHOD, ElementType.CONSTRUCTOR, ElementType.PARAMETER})
     public static @interface MyAnnoation
@@ -125,6 +179,7 @@ public class WithAnnotationTest extends AbstractUnitTest
         @MyAnnoation
         private int x;
 
+
         public int getMeanintOfLife()
         {
             return 42;
@@ -141,4 +196,25 @@ public class WithAnnotationTest extends AbstractUnitTest
         }
     }
 
+    @ApplicationScoped
+    @MetaAnnotatedAnnoation
+    public static class WithMetaAnnotatedClass
+    {
+    }
+
+    @ApplicationScoped
+    public static class WithAnnotatedMethodParameter
+    {
+        public int twice(@MyAnnoation int x)
+        {
+            return x * 2;
+        }
+    }
+
+    @ApplicationScoped
+    public static class WithAnotherAnnotatedField
+    {
+        @AnotherAnnoation
+        private int x;
+    }
 }
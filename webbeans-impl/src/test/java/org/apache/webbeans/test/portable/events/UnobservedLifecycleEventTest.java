@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.test.portable.events;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.enterprise.event.Reception;
+import javax.enterprise.event.TransactionPhase;
+import javax.enterprise.inject.Produces;
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.ObserverMethod;
+import javax.enterprise.inject.spi.ProcessBeanAttributes;
+import javax.enterprise.inject.spi.ProcessInjectionPoint;
+import javax.inject.Inject;
+
+import org.apache.webbeans.event.NotificationManager;
+import org.apache.webbeans.portable.events.generics.GProcessAnnotatedType;
+import org.apache.webbeans.portable.events.generics.GProcessBeanAttributes;
+import org.apache.webbeans.portable.events.generics.GProcessInjectionPoint;
+import org.apache.webbeans.portable.events.generics.GProcessManagedBean;
+import org.apache.webbeans.portable.events.generics.GProcessProducerMethod;
+import org.apache.webbeans.test.AbstractUnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UnobservedLifecycleEventTest extends AbstractUnitTest
+{
+    @Test
+    public void testNoExtensionObservers()
+    {
+        startContainer(Consumer.class, Producer.class, ObjectObserver.class);
+
+        NotificationManager notificationManager = getWebBeansContext().getNotificationManager();
+        Assert.assertFalse(notificationManager.hasLifecycleEventObserver(GProcessAnnotatedType.class));
+        Assert.assertFalse(notificationManager.hasLifecycleEventObserver(GProcessInjectionPoint.class));
+        Assert.assertFalse(notificationManager.hasLifecycleEventObserver(GProcessManagedBean.class));
+
+        Assert.assertEquals("produced", getInstance(Consumer.class).getValue());
+    }
+
+    @Test
+    public void testObservedEventsStillGetFired()
+    {
+        PartialExtension extension = new PartialExtension();
+        addExtension(extension);
+        startContainer(Consumer.class, Producer.class);
+
+        NotificationManager notificationManager = getWebBeansContext().getNotificationManager();
+        Assert.assertTrue(notificationManager.hasLifecycleEventObserver(GProcessInjectionPoint.class));
+        Assert.assertTrue(notificationManager.hasLifecycleEventObserver(GProcessBeanAttributes.class));
+        Assert.assertFalse(notificationManager.hasLifecycleEventObserver(GProcessAnnotatedType.class));
+        Assert.assertFalse(notificationManager.hasLifecycleEventObserver(GProcessProducerMethod.class));
+
+        Assert.assertTrue(extension.injectionPoints.contains("value"));
+        Assert.assertTrue(extension.beanAttributes.contains(Consumer.class));
+        Assert.assertTrue(extension.beanAttributes.contains(String.class));
+
+        Assert.assertEquals("produced", getInstance(Consumer.class).getValue());
+    }
+
+    @Test
+    public void testObserverWithoutBeanClass()
+    {
+        startContainer(Consumer.class, Producer.class);
+
+        NotificationManager notificationManager = getWebBeansContext().getNotificationManager();
+        notificationManager.addObserver(new BeanClasslessObserver());
+        Assert.assertFalse(notificationManager.hasLifecycleEventObserver(CustomProcessBeanAttributes.class));
+    }
+
+    public interface CustomProcessBeanAttributes extends ProcessBeanAttributes<Object>
+    {
+    }
+
+    public static class BeanClasslessObserver implements ObserverMethod<ProcessBeanAttributes<?>>
+    {
+        @Override
+        public Class<?> getBeanClass()
+        {
+            return null;
+        }
+
+        @Override
+        public Type getObservedType()
+        {
+            return ProcessBeanAttributes.class;
+        }
+
+        @Override
+        public Set<Annotation> getObservedQualifiers()
+        {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public Reception getReception()
+        {
+            return Reception.ALWAYS;
+        }
+
+        @Override
+        public TransactionPhase getTransactionPhase()
+        {
+            return TransactionPhase.IN_PROGRESS;
+        }
+
+        @Override
+        public void notify(ProcessBeanAttributes<?> event)
+        {
+            // never called
+        }
+    }
+
+    public static class PartialExtension implements Extension
+    {
+        private final List<String> injectionPoints = new ArrayList<>();
+        private final List<Class<?>> beanAttributes = new ArrayList<>();
+
+        void pip(@Observes ProcessInjectionPoint<?, ?> pip)
+        {
+            if (pip.getInjectionPoint().getMember() != null)
+            {
+                injectionPoints.add(pip.getInjectionPoint().getMember().getName());
+            }
+        }
+
+        void pba(@Observes ProcessBeanAttributes<?> pba)
+        {
+            beanAttributes.add(pba.getAnnotated().getBaseType() instanceof Class
+                ? (Class<?>) pba.getAnnotated().getBaseType()
+                : Object.class);
+        }
+    }
+
+    @ApplicationScoped
+    public static class Consumer
+    {
+        @Inject
+        private String value;
+
+        public String getValue()
+        {
+            return value;
+        }
+    }
+
+    public static class Producer
+    {
+        @Produces
+        public String produce()
+        {
+            return "produced";
+        }
+    }
+
+    @ApplicationScoped
+    public static class ObjectObserver
+    {
+        public void observe(@Observes Object event)
+        {
+            // must not count as lifecycle event observer
+        }
+    }
+}
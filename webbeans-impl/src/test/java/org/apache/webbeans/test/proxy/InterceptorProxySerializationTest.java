@@ -18,24 +18,43 @@
  */
 package org.apache.webbeans.test.proxy;
 
+import org.apache.webbeans.intercept.DefaultInterceptorHandler;
+import org.apache.webbeans.proxy.InterceptorDecoratorProxyFactory;
+import org.apache.webbeans.proxy.OwbInterceptorProxy;
 import org.apache.webbeans.test.AbstractUnitTest;
+import org.apache.webbeans.util.OwbCustomObjectInputStream;
+import org.apache.webbeans.util.WebBeansUtil;
 import org.junit.Test;
 
+import javax.enterprise.inject.spi.Bean;
 import javax.inject.Inject;
 import javax.interceptor.AroundInvoke;
 import javax.interceptor.Interceptor;
 import javax.interceptor.InterceptorBinding;
 import javax.interceptor.InvocationContext;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import static org.apache.webbeans.test.util.Serializations.deserialize;
 import static org.apache.webbeans.test.util.Serializations.serialize;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class InterceptorProxySerializationTest extends AbstractUnitTest
@@ -98,6 +117,141 @@ public class InterceptorProxySerializationTest extends AbstractUnitTest
         }
     }
 
+    @Test
+    public void testBeanInterceptorsGetReferenced() throws Exception
+    {
+        addInterceptor(IBInterceptor.class);
+        startContainer(Arrays.<Class<?>>asList(Intercepted.class, AutoIntercepted.class, InjectMeInInterceptor.class), null, true);
+
+        try
+        {
+            InterceptorDecoratorProxyFactory proxyFactory = getWebBeansContext().getInterceptorDecoratorProxyFactory();
+            DefaultInterceptorHandler<?> original
+                = (DefaultInterceptorHandler<?>) proxyFactory.getInterceptorHandler((OwbInterceptorProxy) client);
+
+            client.intercepted();
+            Intercepted deserialized = Intercepted.class.cast(
+                new OwbCustomObjectInputStream(new ByteArrayInputStream(serialize(client)), getClass().getClassLoader()).readObject());
+            assertTrue(deserialized.isInterceptorCalled());
+
+            DefaultInterceptorHandler<?> handler
+                = (DefaultInterceptorHandler<?>) proxyFactory.getInterceptorHandler((OwbInterceptorProxy) deserialized);
+            assertSame(original.getInterceptors(), handler.getInterceptors());
+        }
+        finally
+        {
+            shutDownContainer();
+        }
+    }
+
+    @Test
+    public void testUnversionedFormatCanBeRead() throws Exception
+    {
+        addInterceptor(IBInterceptor.class);
+        startContainer(Arrays.<Class<?>>asList(Intercepted.class, AutoIntercepted.class, InjectMeInInterceptor.class), null, true);
+
+        try
+        {
+            client.intercepted();
+            DefaultInterceptorHandler<?> handler = (DefaultInterceptorHandler<?>)
+                getWebBeansContext().getInterceptorDecoratorProxyFactory().getInterceptorHandler((OwbInterceptorProxy) client);
+            Bean<?> bean = getBeanManager().resolve(getBeanManager().getBeans(Intercepted.class));
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new UnversionedHandlerOutputStream(bytes))
+            {
+                out.writeObject(new UnversionedHandler(handler, WebBeansUtil.getPassivationId(bean)));
+            }
+
+            final Intercepted deserialized = Intercepted.class.cast(deserialize(bytes.toByteArray()));
+            assertTrue(deserialized.isCalled());
+            assertTrue(deserialized.isInterceptorCalled());
+        }
+        finally
+        {
+            shutDownContainer();
+        }
+    }
+
+    /**
+     * Writes a DefaultInterceptorHandler in the form used before the serialized form got versioned.
+     */
+    public static class UnversionedHandler implements Externalizable
+    {
+        private DefaultInterceptorHandler<?> handler;
+        private String beanPassivationId;
+
+        public UnversionedHandler()
+        {
+            // only used for writing
+        }
+
+        public UnversionedHandler(DefaultInterceptorHandler<?> handler, String beanPassivationId)
+        {
+            this.handler = handler;
+            this.beanPassivationId = beanPassivationId;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException
+        {
+            out.writeObject(handler.getTarget());
+            boolean noDecorator = handler.getTarget() == handler.getDelegate();
+            out.writeBoolean(noDecorator);
+            if (!noDecorator)
+            {
+                out.writeObject(handler.getDelegate());
+            }
+
+            out.writeInt(handler.getInstances().size());
+            for (Map.Entry<javax.enterprise.inject.spi.Interceptor<?>, ?> entry : handler.getInstances().entrySet())
+            {
+                out.writeUTF(WebBeansUtil.getPassivationId(entry.getKey()));
+                out.writeObject(entry.getValue());
+            }
+
+            out.writeInt(handler.getInterceptors().size());
+            for (Map.Entry<Method, List<javax.enterprise.inject.spi.Interceptor<?>>> entry : handler.getInterceptors().entrySet())
+            {
+                Method method = entry.getKey();
+                out.writeObject(method.getDeclaringClass());
+                out.writeUTF(method.getName());
+                out.writeObject(method.getParameterTypes());
+
+                out.writeInt(entry.getValue().size());
+                for (javax.enterprise.inject.spi.Interceptor<?> interceptor : entry.getValue())
+                {
+                    out.writeUTF(WebBeansUtil.getPassivationId(interceptor));
+                }
+            }
+
+            out.writeUTF(beanPassivationId);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in)
+        {
+            throw new UnsupportedOperationException("only used for writing");
+        }
+    }
+
+    /**
+     * Writes {@link UnversionedHandler} as DefaultInterceptorHandler.
+     */
+    private static class UnversionedHandlerOutputStream extends ObjectOutputStream
+    {
+        private UnversionedHandlerOutputStream(OutputStream out) throws IOException
+        {
+            super(out);
+        }
+
+        @Override
+        protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException
+        {
+            super.writeClassDescriptor(desc.forClass() == UnversionedHandler.class ? ObjectStreamClass.lookup(DefaultInterceptorHandler.class) : desc);
+        }
+    }
+
     @InterceptorBinding
     @Target({ElementType.METHOD, ElementType.TYPE})
     @Retention(RetentionPolicy.RUNTIME)
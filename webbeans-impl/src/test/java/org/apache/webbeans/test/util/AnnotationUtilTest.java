@@ -19,10 +19,14 @@
 package org.apache.webbeans.test.util;
 
 import org.apache.webbeans.config.DefaultAnnotation;
+import org.apache.webbeans.config.WebBeansContext;
+import org.apache.webbeans.portable.AnnotatedElementFactory;
 import org.apache.webbeans.util.AnnotationUtil;
+import org.apache.webbeans.util.CdiAnnotationEquivalence;
 import org.junit.Assert;
 import org.junit.Test;
 
+import javax.enterprise.inject.spi.AnnotatedType;
 import javax.enterprise.util.AnnotationLiteral;
 import javax.enterprise.util.Nonbinding;
 import javax.inject.Qualifier;
@@ -177,7 +181,53 @@ public class AnnotationUtilTest
         q2.setValue("hello");
 
         Assert.assertFalse(AnnotationUtil.isCdiAnnotationEqual(q1, q2));
-    }    
+    }
+
+    @Test
+    public void test_getCdiAnnotationHashCode_equalArrayMembers()
+    {
+        TestQualifierAnnotationLiteral q1 = new TestQualifierAnnotationLiteral();
+        TestQualifierAnnotationLiteral q2 = new TestQualifierAnnotationLiteral();
+        q2.setFloatArray(new float[]{1.0F, 1.2F});
+
+        Assert.assertTrue(AnnotationUtil.isCdiAnnotationEqual(q1, q2));
+        Assert.assertEquals(AnnotationUtil.getCdiAnnotationHashCode(q1), AnnotationUtil.getCdiAnnotationHashCode(q2));
+        Assert.assertEquals(AnnotationUtil.getCdiAnnotationHashCode(q1),
+                AnnotationUtil.getCdiAnnotationHashCode(DefaultAnnotation.of(TestQualifier.class)));
+
+        q2.setValue("different value");
+        Assert.assertNotEquals(AnnotationUtil.getCdiAnnotationHashCode(q1), AnnotationUtil.getCdiAnnotationHashCode(q2));
+    }
+
+    @Test
+    public void test_getCdiAnnotationHashCode_Nonbinding()
+    {
+        Annotation q1 = DefaultAnnotation.of(TestQualifierNonbinding.class);
+        TestQualifierNonbinding q2 = new TestQualifierNonbindingAnnotationLiteral();
+
+        Assert.assertEquals(AnnotationUtil.getCdiAnnotationHashCode(q1), AnnotationUtil.getCdiAnnotationHashCode(q2));
+    }
+
+    @Test
+    public void test_isQualifierEqual_AnnotatedType_cachedEquivalence()
+    {
+        AnnotatedElementFactory annotatedElementFactory = new WebBeansContext().getAnnotatedElementFactory();
+        AnnotatedType<TestQualifier> at = annotatedElementFactory.newAnnotatedType(TestQualifier.class);
+        CdiAnnotationEquivalence equivalence = CdiAnnotationEquivalence.of(at);
+
+        TestQualifierAnnotationLiteral q1 = new TestQualifierAnnotationLiteral();
+        TestQualifierAnnotationLiteral q2 = new TestQualifierAnnotationLiteral();
+        Assert.assertTrue(AnnotationUtil.isCdiAnnotationEqual(at, q1, q2));
+        q2.setNumber(4711);
+        Assert.assertFalse(AnnotationUtil.isCdiAnnotationEqual(at, q1, q2));
+        Assert.assertSame(equivalence, CdiAnnotationEquivalence.of(at));
+
+        // another AnnotatedType of the same class may have other binding members
+        AnnotatedType<TestQualifier> otherAt
+            = new WebBeansContext().getAnnotatedElementFactory().newAnnotatedType(TestQualifier.class);
+        Assert.assertNotSame(at, otherAt);
+        Assert.assertNotSame(equivalence, CdiAnnotationEquivalence.of(otherAt));
+    }
 }
 
 @Retention(RUNTIME)
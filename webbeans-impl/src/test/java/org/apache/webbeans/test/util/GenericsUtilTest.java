@@ -33,6 +33,7 @@ import java.util.Collection;
 import java.util.Set;
 
 import org.apache.webbeans.config.OwbParametrizedTypeImpl;
+import org.apache.webbeans.util.AssignabilityCache;
 import org.apache.webbeans.util.GenericsUtil;
 import org.junit.Assert;
 import org.junit.Test;
@@ -87,6 +88,40 @@ public class GenericsUtilTest {
         Assert.assertFalse(GenericsUtil.containsWildcardType(GenericObject.class.getMethod("getObject").getGenericReturnType()));
     }
 
+    @Test
+    public void testAssignabilityCache()
+    {
+        AssignabilityCache cache = GenericsUtil.getAssignabilityCache();
+        Type stringObject = new OwbParametrizedTypeImpl(null, AbstractObject.class, String.class);
+        Type integerObject = new OwbParametrizedTypeImpl(null, AbstractObject.class, Integer.class);
+
+        Assert.assertTrue(GenericsUtil.isAssignableFrom(false, false, stringObject, StringObject.class));
+        Assert.assertFalse(GenericsUtil.isAssignableFrom(false, false, integerObject, StringObject.class));
+
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+        Assert.assertTrue(GenericsUtil.isAssignableFrom(false, false, stringObject, StringObject.class));
+        Assert.assertFalse(GenericsUtil.isAssignableFrom(false, false, integerObject, StringObject.class));
+        Assert.assertEquals(hits + 2, cache.getHitCount());
+        Assert.assertEquals(misses, cache.getMissCount());
+
+        // other flags don't share the entries
+        Assert.assertTrue(GenericsUtil.isAssignableFrom(true, false, stringObject, StringObject.class));
+        Assert.assertTrue(cache.getMissCount() > misses);
+
+        // equal but not identical types get computed again
+        misses = cache.getMissCount();
+        Assert.assertTrue(GenericsUtil.isAssignableFrom(false, false,
+                new OwbParametrizedTypeImpl(null, AbstractObject.class, String.class), StringObject.class));
+        Assert.assertTrue(cache.getMissCount() > misses);
+
+        // e.g. after a hotswap reload
+        cache.clear();
+        misses = cache.getMissCount();
+        Assert.assertTrue(GenericsUtil.isAssignableFrom(false, false, stringObject, StringObject.class));
+        Assert.assertTrue(cache.getMissCount() > misses);
+    }
+
     public static abstract class AbstractObject<V>
     {
     
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.webbeans.spi;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Collects runtime statistics of the container, e.g. cache hit rates,
+ * the number of active contexts or observer method latencies.
+ *
+ * Metrics are only collected if a MetricsService is configured.
+ * Without one the container does not even create the counters,
+ * so the instrumented code paths only pay a {@code null} check.
+ *
+ * Metric names are dot separated, e.g. {@code injectionResolver.resolvedBeansByType.hits}.
+ * Asking twice for the same name must return the same metric.
+ */
+public interface MetricsService
+{
+    /**
+     * @param name the name of the metric
+     * @return the counter with the given name, never {@code null}
+     */
+    Counter getCounter(String name);
+
+    /**
+     * @param name the name of the metric
+     * @return the timer with the given name, never {@code null}
+     */
+    Timer getTimer(String name);
+
+    /**
+     * Registers a value which gets computed when the metric gets read,
+     * e.g. the size of a cache. A gauge registered with the same name replaces the old one.
+     *
+     * @param name the name of the metric
+     * @param gauge supplies the current value, must be cheap and thread safe
+     */
+    void registerGauge(String name, LongSupplier gauge);
+
+    /**
+     * A value which gets incremented and decremented by the container.
+     */
+    interface Counter
+    {
+        void add(long delta);
+
+        default void increment()
+        {
+            add(1);
+        }
+
+        default void decrement()
+        {
+            add(-1);
+        }
+
+        long getCount();
+    }
+
+    /**
+     * Collects the number and the durations of invocations.
+     */
+    interface Timer
+    {
+        /**
+         * @param durationNanos the duration of a single invocation in nanoseconds
+         */
+        void update(long durationNanos);
+
+        long getCount();
+
+        long getTotalNanos();
+
+        long getMaxNanos();
+    }
+}
@@ -35,6 +35,8 @@ import org.apache.webbeans.conversation.ConversationManager;
 import org.apache.webbeans.el.ELContextStore;
 import org.apache.webbeans.event.NotificationManager;
 import org.apache.webbeans.intercept.SessionScopedBeanInterceptorHandler;
+import org.apache.webbeans.jfr.ContextEvent;
+import org.apache.webbeans.jfr.FlightRecorderSupport;
 import org.apache.webbeans.logger.WebBeansLoggerFacade;
 import org.apache.webbeans.intercept.RequestScopedBeanInterceptorHandler;
 
@@ -178,6 +180,8 @@ public class WebContextsService extends AbstractContextsService
         if (requestCtx != null)
         {
             requestCtx.destroy();
+            contextEnded(requestCtx);
+            requestCtx.unpinSessionContext();
             requestContexts.set(null);
             requestContexts.remove();
         }
@@ -186,6 +190,7 @@ public class WebContextsService extends AbstractContextsService
         if (sessionCtx != null)
         {
             sessionCtx.destroy();
+            contextEnded(sessionCtx);
             sessionContexts.set(null);
             sessionContexts.remove();
         }
@@ -219,6 +224,22 @@ public class WebContextsService extends AbstractContextsService
     @Override
     public void endContext(Class<? extends Annotation> scopeType, Object endParameters)
     {        
+        ContextEvent jfrEvent = FlightRecorderSupport.AVAILABLE ? ContextEvent.start(scopeType, ContextEvent.END) : null;
+        try
+        {
+            doEndContext(scopeType, endParameters);
+        }
+        finally
+        {
+            if (jfrEvent != null)
+            {
+                jfrEvent.commit();
+            }
+        }
+    }
+
+    private void doEndContext(Class<? extends Annotation> scopeType, Object endParameters)
+    {
         if(scopeType.equals(RequestScoped.class))
         {
             destroyRequestContext(endParameters);
@@ -302,6 +323,22 @@ public class WebContextsService extends AbstractContextsService
      */
     @Override
     public void startContext(Class<? extends Annotation> scopeType, Object startParameter) throws ContextException
+    {
+        ContextEvent jfrEvent = FlightRecorderSupport.AVAILABLE ? ContextEvent.start(scopeType, ContextEvent.START) : null;
+        try
+        {
+            doStartContext(scopeType, startParameter);
+        }
+        finally
+        {
+            if (jfrEvent != null)
+            {
+                jfrEvent.commit();
+            }
+        }
+    }
+
+    private void doStartContext(Class<? extends Annotation> scopeType, Object startParameter) throws ContextException
     {
         if (scopeType.equals(RequestScoped.class))
         {
@@ -347,6 +384,7 @@ public class WebContextsService extends AbstractContextsService
         requestContext.setActive(true);
 
         requestContexts.set(requestContext);// set thread local
+        contextStarted(requestContext);
 
         Object payload = null;
 
@@ -407,6 +445,7 @@ public class WebContextsService extends AbstractContextsService
         {
             SessionContext sessionContext = context.getPropagatedSessionContext();
             sessionContext.destroy();
+            contextEnded(sessionContext);
 
             Object payload = null;
             if (context.getServletRequest() != null)
@@ -439,6 +478,7 @@ public class WebContextsService extends AbstractContextsService
 
 
         context.destroy();
+        contextEnded(context);
 
         // clean up the EL caches after each request
         ELContextStore elStore = ELContextStore.getInstance(false);
@@ -460,6 +500,9 @@ public class WebContextsService extends AbstractContextsService
         //Clear thread locals
         requestContexts.set(null);
         requestContexts.remove();
+
+        // the session may get passivated from now on
+        context.unpinSessionContext();
     }
 
 
@@ -488,11 +531,15 @@ public class WebContextsService extends AbstractContextsService
                     {
                         currentSessionContext = new SessionContext();
                         currentSessionContext.setActive(true);
+                        webBeansContext.getSessionContextPassivationManager().manage(currentSessionContext);
+                        webBeansContext.getSessionMemoryAccounting().manage(currentSessionContext, session.getId());
                         
                         // init context before fire @Initialized(SessionScoped)
                         // so that SessionScoped beans are already available inside the observer
                         session.setAttribute(OWB_SESSION_CONTEXT_ATTRIBUTE_NAME, currentSessionContext);
                         sessionContexts.set(currentSessionContext);
+                        pinToCurrentRequest(currentSessionContext);
+                        contextStarted(currentSessionContext);
                         
                         webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
                             session, InitializedLiteral.INSTANCE_SESSION_SCOPED);
@@ -508,10 +555,26 @@ public class WebContextsService extends AbstractContextsService
 
                 //Set thread local
                 sessionContexts.set(currentSessionContext);
+                pinToCurrentRequest(currentSessionContext);
+
+                // counts sessions which got activated or replicated from another node
+                contextStarted(currentSessionContext);
             }
         }
     }
 
+    /**
+     * Keeps the given SessionContext from getting passivated while the current request runs.
+     */
+    private void pinToCurrentRequest(SessionContext sessionContext)
+    {
+        ServletRequestContext requestContext = requestContexts.get();
+        if (requestContext != null)
+        {
+            requestContext.pinSessionContext(sessionContext);
+        }
+    }
+
     /**
      * Destroys the session context and all of its components at the end of the
      * session. 
@@ -554,6 +617,7 @@ public class WebContextsService extends AbstractContextsService
                 || sessionIsExpiring)
             {
                 context.destroy();
+                contextEnded(context);
                 webBeansContext.getBeanManagerImpl().fireContextLifecyleEvent(
                     session != null ? session : new Object(), DestroyedLiteral.INSTANCE_SESSION_SCOPED);
 